@@ -40,7 +40,7 @@ import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 public class HyFD implements FunctionalDependencyAlgorithm, BooleanParameterAlgorithm, IntegerParameterAlgorithm, RelationalInputParameterAlgorithm {
 
 	public enum Identifier {
-		INPUT_GENERATOR, NULL_EQUALS_NULL, VALIDATE_PARALLEL, ENABLE_MEMORY_GUARDIAN, MAX_DETERMINANT_SIZE, INPUT_ROW_LIMIT
+		INPUT_GENERATOR, NULL_EQUALS_NULL, VALIDATE_PARALLEL, SAMPLE_PARALLEL, ENABLE_MEMORY_GUARDIAN, MAX_DETERMINANT_SIZE, INPUT_ROW_LIMIT
 	};
 
 	private RelationalInputGenerator inputGenerator = null;
@@ -50,6 +50,7 @@ public class HyFD implements FunctionalDependencyAlgorithm, BooleanParameterAlgo
 	private final MemoryGuardian memoryGuardian = new MemoryGuardian(true);
 	
 	private boolean validateParallel = true;	// The validation is the most costly part in HyFD and it can easily be parallelized
+	private boolean sampleParallel = true;		// On wide relations, the sampling can become the most costly part; its record comparisons are independent and can be parallelized as well
 	private int maxLhsSize = -1;				// The lhss can become numAttributes - 1 large, but usually we are only interested in FDs with lhs < some threshold (otherwise they would not be useful for normalization, key discovery etc.)
 	private int inputRowLimit = -1;				// Maximum number of rows to be read from for analysis; values smaller or equal 0 will cause the algorithm to read all rows
 	
@@ -88,6 +89,13 @@ public class HyFD implements FunctionalDependencyAlgorithm, BooleanParameterAlgo
 		validateParallel.setRequired(true);
 		configs.add(validateParallel);
 
+		ConfigurationRequirementBoolean sampleParallel = new ConfigurationRequirementBoolean(HyFD.Identifier.SAMPLE_PARALLEL.name());
+		Boolean[] defaultSampleParallel = new Boolean[1];
+		defaultSampleParallel[0] = new Boolean(this.sampleParallel);
+		sampleParallel.setDefaultValues(defaultSampleParallel);
+		sampleParallel.setRequired(true);
+		configs.add(sampleParallel);
+
 		ConfigurationRequirementBoolean enableMemoryGuardian = new ConfigurationRequirementBoolean(HyFD.Identifier.ENABLE_MEMORY_GUARDIAN.name());
 		Boolean[] defaultEnableMemoryGuardian = new Boolean[1];
 		defaultEnableMemoryGuardian[0] = new Boolean(this.memoryGuardian.isActive());
@@ -122,6 +130,8 @@ public class HyFD implements FunctionalDependencyAlgorithm, BooleanParameterAlgo
 			this.valueComparator = new ValueComparator(values[0].booleanValue());
 		else if (HyFD.Identifier.VALIDATE_PARALLEL.name().equals(identifier))
 			this.validateParallel = values[0].booleanValue();
+		else if (HyFD.Identifier.SAMPLE_PARALLEL.name().equals(identifier))
+			this.sampleParallel = values[0].booleanValue();
 		else if (HyFD.Identifier.ENABLE_MEMORY_GUARDIAN.name().equals(identifier))
 			this.memoryGuardian.setActive(values[0].booleanValue());
 		else
@@ -245,19 +255,22 @@ public class HyFD implements FunctionalDependencyAlgorithm, BooleanParameterAlgo
 		// Build the components //
 		//////////////////////////
 
-		// TODO: implement parallel sampling
-		
-		Sampler sampler = new Sampler(negCover, posCover, compressedRecords, plis, this.efficiencyThreshold, this.valueComparator, this.memoryGuardian);
+		Sampler sampler = new Sampler(negCover, posCover, compressedRecords, plis, this.efficiencyThreshold, this.valueComparator, this.sampleParallel, this.memoryGuardian);
 		Inductor inductor = new Inductor(negCover, posCover, this.memoryGuardian);
 		Validator validator = new Validator(negCover, posCover, numRecords, compressedRecords, plis, this.efficiencyThreshold, this.validateParallel, this.memoryGuardian);
 		
 		List<IntegerPair> comparisonSuggestions = new ArrayList<>();
-		do {
-			FDList newNonFds = sampler.enrichNegativeCover(comparisonSuggestions);
-			inductor.updatePositiveCover(newNonFds);
-			comparisonSuggestions = validator.validatePositiveCover();
+		try {
+			do {
+				FDList newNonFds = sampler.enrichNegativeCover(comparisonSuggestions);
+				inductor.updatePositiveCover(newNonFds);
+				comparisonSuggestions = validator.validatePositiveCover();
+			}
+			while (comparisonSuggestions != null);
+		} finally {
+			// also stop the sampling threads if the sampling or validation fails
+			sampler.shutdown();
 		}
-		while (comparisonSuggestions != null);
 		negCover = null;
 		
 		// Output all valid FDs
@@ -6,9 +6,15 @@ import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.lucene.util.OpenBitSet;
 
+import de.metanome.algorithm_integration.AlgorithmExecutionException;
 import de.metanome.algorithms.hyfd.structures.FDList;
 import de.metanome.algorithms.hyfd.structures.FDSet;
 import de.metanome.algorithms.hyfd.structures.FDTree;
@@ -29,8 +35,16 @@ public class Sampler {
 	private List<AttributeRepresentant> attributeRepresentants = null;
 	private PriorityQueue<AttributeRepresentant> queue = null;
 	private MemoryGuardian memoryGuardian;
+	private ExecutorService executor;
+	private int numThreads = 1;
+	
+	private final int minComparisonsPerTask = 10000;	// Smaller workloads are compared on the calling thread, because the task overhead would dominate
 
 	public Sampler(FDSet negCover, FDTree posCover, int[][] compressedRecords, List<PositionListIndex> plis, float efficiencyThreshold, ValueComparator valueComparator, MemoryGuardian memoryGuardian) {
+		this(negCover, posCover, compressedRecords, plis, efficiencyThreshold, valueComparator, false, memoryGuardian);
+	}
+	
+	public Sampler(FDSet negCover, FDTree posCover, int[][] compressedRecords, List<PositionListIndex> plis, float efficiencyThreshold, ValueComparator valueComparator, boolean parallel, MemoryGuardian memoryGuardian) {
 		this.negCover = negCover;
 		this.posCover = posCover;
 		this.compressedRecords = compressedRecords;
@@ -38,37 +52,45 @@ public class Sampler {
 		this.efficiencyThreshold = efficiencyThreshold;
 		this.valueComparator = valueComparator;
 		this.memoryGuardian = memoryGuardian;
+		
+		if (parallel) {
+			this.numThreads = Runtime.getRuntime().availableProcessors();
+			this.executor = Executors.newFixedThreadPool(this.numThreads);
+		}
+	}
+	
+	public void shutdown() {
+		if (this.executor != null) {
+			this.executor.shutdown();
+			this.executor = null;
+		}
 	}
 
-	public FDList enrichNegativeCover(List<IntegerPair> comparisonSuggestions) {
+	public FDList enrichNegativeCover(List<IntegerPair> comparisonSuggestions) throws AlgorithmExecutionException {
 		int numAttributes = this.compressedRecords[0].length;
 		
 		Logger.getInstance().writeln("Investigating comparison suggestions ... ");
 		FDList newNonFds = new FDList(numAttributes, this.negCover.getMaxDepth());
-		OpenBitSet equalAttrs = new OpenBitSet(this.posCover.getNumAttributes());
-		for (IntegerPair comparisonSuggestion : comparisonSuggestions) {
-			this.match(equalAttrs, comparisonSuggestion.a(), comparisonSuggestion.b());
-			
-			if (!this.negCover.contains(equalAttrs)) {
-				OpenBitSet equalAttrsCopy = equalAttrs.clone();
-				this.negCover.add(equalAttrsCopy);
-				newNonFds.add(equalAttrsCopy);
-				
-				this.memoryGuardian.memoryChanged(1);
-				this.memoryGuardian.match(this.negCover, this.posCover, newNonFds);
-			}
-		}
+		this.addNonFds(this.execute(this.createSuggestionTasks(comparisonSuggestions)), newNonFds);
 		
 		if (this.attributeRepresentants == null) { // if this is the first call of this method
 			Logger.getInstance().write("Sorting clusters ...");
 			long time = System.currentTimeMillis();
-			ClusterComparator comparator = new ClusterComparator(this.compressedRecords, this.compressedRecords[0].length - 1, 1);
-			for (PositionListIndex pli : this.plis) {
-				for (IntArrayList cluster : pli.getClusters()) {
-					Collections.sort(cluster, comparator);
-				}
-				comparator.incrementActiveKey();
+			List<Callable<Void>> sortTasks = new ArrayList<>(this.plis.size());
+			for (int i = 0; i < this.plis.size(); i++) {
+				// The sort keys of the i-th pli are the attributes before and after it (same as incrementing the active keys of one comparator per pli)
+				final ClusterComparator comparator = new ClusterComparator(this.compressedRecords, (numAttributes - 1 + i) % numAttributes, (1 + i) % numAttributes);
+				final List<IntArrayList> clusters = this.plis.get(i).getClusters();
+				sortTasks.add(new Callable<Void>() {
+					@Override
+					public Void call() {
+						for (IntArrayList cluster : clusters)
+							Collections.sort(cluster, comparator);
+						return null;
+					}
+				});
 			}
+			this.execute(sortTasks);
 			Logger.getInstance().writeln("(" + (System.currentTimeMillis() - time) + "ms)");
 		
 			Logger.getInstance().write("Running initial windows ...");
@@ -76,7 +98,7 @@ public class Sampler {
 			this.attributeRepresentants = new ArrayList<AttributeRepresentant>(numAttributes);
 			this.queue = new PriorityQueue<AttributeRepresentant>(numAttributes);
 			for (int i = 0; i < numAttributes; i++) {
-				AttributeRepresentant attributeRepresentant = new AttributeRepresentant(this.plis.get(i).getClusters(), this.negCover, this.posCover, this, this.memoryGuardian);
+				AttributeRepresentant attributeRepresentant = new AttributeRepresentant(this.plis.get(i).getClusters(), this);
 				attributeRepresentant.runNext(newNonFds, this.compressedRecords);
 				this.attributeRepresentants.add(attributeRepresentant);
 				if (attributeRepresentant.getEfficiency() > 0.0f)
@@ -126,11 +148,6 @@ public class Sampler {
 			this.activeKey2 = activeKey2;
 		}
 		
-		public void incrementActiveKey() {
-			this.activeKey1 = this.increment(this.activeKey1);
-			this.activeKey2 = this.increment(this.activeKey2);
-		}
-		
 		@Override
 		public int compare(Integer o1, Integer o2) {
 			// Next
@@ -164,10 +181,6 @@ public class Sampler {
 			return value2 - value1;
 		*/	
 		}
-		
-		private int increment(int number) {
-			return (number == this.sortKeys[0].length - 1) ? 0 : number + 1;
-		}
 	}
 
 	private class AttributeRepresentant implements Comparable<AttributeRepresentant> {
@@ -176,10 +189,7 @@ public class Sampler {
 		private IntArrayList numNewNonFds = new IntArrayList();
 		private IntArrayList numComparisons = new IntArrayList();
 		private List<IntArrayList> clusters;
-		private FDSet negCover;
-		private FDTree posCover;
 		private Sampler sampler;
-		private MemoryGuardian memoryGuardian;
 		
 		public float getEfficiency() {
 			int index = this.numNewNonFds.size() - 1;
@@ -200,12 +210,9 @@ public class Sampler {
 			return sumNewNonFds / sumComparisons;
 		}
 		
-		public AttributeRepresentant(List<IntArrayList> clusters, FDSet negCover, FDTree posCover, Sampler sampler, MemoryGuardian memoryGuardian) {
+		public AttributeRepresentant(List<IntArrayList> clusters, Sampler sampler) {
 			this.clusters = new ArrayList<IntArrayList>(clusters);
-			this.negCover = negCover;
-			this.posCover = posCover;
 			this.sampler = sampler;
-			this.memoryGuardian = memoryGuardian;
 		}
 		
 		@Override
@@ -214,11 +221,10 @@ public class Sampler {
 			return (int)Math.signum(o.getEfficiency() - this.getEfficiency());
 		}
 		
-		public void runNext(FDList newNonFds, int[][] compressedRecords) {
+		public void runNext(FDList newNonFds, int[][] compressedRecords) throws AlgorithmExecutionException {
 			this.windowDistance++;
 			int numNewNonFds = 0;
 			int numComparisons = 0;
-			OpenBitSet equalAttrs = new OpenBitSet(this.posCover.getNumAttributes());
 			
 			int previousNegCoverSize = newNonFds.size();
 			Iterator<IntArrayList> clusterIterator = this.clusters.iterator();
@@ -229,24 +235,10 @@ public class Sampler {
 					clusterIterator.remove();
 					continue;
 				}
-				
-				for (int recordIndex = 0; recordIndex < (cluster.size() - this.windowDistance); recordIndex++) {
-					int recordId = cluster.getInt(recordIndex);
-					int partnerRecordId = cluster.getInt(recordIndex + this.windowDistance);
-					
-					this.sampler.match(equalAttrs, compressedRecords[recordId], compressedRecords[partnerRecordId]);
-					
-					if (!this.negCover.contains(equalAttrs)) {
-						OpenBitSet equalAttrsCopy = equalAttrs.clone();
-						this.negCover.add(equalAttrsCopy);
-						newNonFds.add(equalAttrsCopy);
-						
-						this.memoryGuardian.memoryChanged(1);
-						this.memoryGuardian.match(this.negCover, this.posCover, newNonFds);
-					}
-					numComparisons++;
-				}
+				numComparisons += cluster.size() - this.windowDistance;
 			}
+			
+			this.sampler.addNonFds(this.sampler.execute(this.sampler.createWindowTasks(this.clusters, this.windowDistance, numComparisons)), newNonFds);
 			numNewNonFds = newNonFds.size() - previousNegCoverSize;
 			
 			this.numNewNonFds.add(numNewNonFds);
@@ -254,8 +246,169 @@ public class Sampler {
 		}
 	}
 	
-	private void match(OpenBitSet equalAttrs, int t1, int t2) {
-		this.match(equalAttrs, this.compressedRecords[t1], this.compressedRecords[t2]);
+	private class SamplingResult {
+		public FDSet nonFds;						// Thread-local duplicate filter for the non-FDs found by one task
+		public List<OpenBitSet> orderedNonFds;		// The same non-FDs in the order in which a sequential comparison would have found them
+		public SamplingResult(int numAttributes) {
+			this.nonFds = new FDSet(numAttributes, -1);
+			this.orderedNonFds = new ArrayList<>();
+		}
+	}
+	
+	private abstract class SamplingTask implements Callable<SamplingResult> {
+		private OpenBitSet equalAttrs = new OpenBitSet(Sampler.this.posCover.getNumAttributes());
+		protected SamplingResult result;
+		public SamplingResult call() {
+			this.result = new SamplingResult(Sampler.this.posCover.getNumAttributes());
+			this.compareAll();
+			return this.result;
+		}
+		protected abstract void compareAll();
+		protected void compare(int[] t1, int[] t2) {
+			Sampler.this.match(this.equalAttrs, t1, t2);
+			
+			// The negative cover is only read while the tasks are running; new non-FDs are added in addNonFds()
+			if (!Sampler.this.negCover.contains(this.equalAttrs) && !this.result.nonFds.contains(this.equalAttrs)) {
+				OpenBitSet equalAttrsCopy = this.equalAttrs.clone();
+				this.result.nonFds.add(equalAttrsCopy);
+				this.result.orderedNonFds.add(equalAttrsCopy);
+			}
+		}
+	}
+	
+	private class SuggestionTask extends SamplingTask {
+		private List<IntegerPair> comparisonSuggestions;
+		public SuggestionTask(List<IntegerPair> comparisonSuggestions) {
+			this.comparisonSuggestions = comparisonSuggestions;
+		}
+		protected void compareAll() {
+			for (IntegerPair comparisonSuggestion : this.comparisonSuggestions)
+				this.compare(Sampler.this.compressedRecords[comparisonSuggestion.a()], Sampler.this.compressedRecords[comparisonSuggestion.b()]);
+		}
+	}
+	
+	private class WindowTask extends SamplingTask {
+		private int windowDistance;
+		private List<IntArrayList> clusters = new ArrayList<>();
+		private IntArrayList fromIndexes = new IntArrayList();
+		private IntArrayList toIndexes = new IntArrayList();
+		public WindowTask(int windowDistance) {
+			this.windowDistance = windowDistance;
+		}
+		public void addSegment(IntArrayList cluster, int fromIndex, int toIndex) {
+			this.clusters.add(cluster);
+			this.fromIndexes.add(fromIndex);
+			this.toIndexes.add(toIndex);
+		}
+		protected void compareAll() {
+			for (int i = 0; i < this.clusters.size(); i++) {
+				IntArrayList cluster = this.clusters.get(i);
+				for (int recordIndex = this.fromIndexes.getInt(i); recordIndex < this.toIndexes.getInt(i); recordIndex++) {
+					int recordId = cluster.getInt(recordIndex);
+					int partnerRecordId = cluster.getInt(recordIndex + this.windowDistance);
+					
+					this.compare(Sampler.this.compressedRecords[recordId], Sampler.this.compressedRecords[partnerRecordId]);
+				}
+			}
+		}
+	}
+	
+	private int getNumTasks(long numComparisons) {
+		if (this.executor == null)
+			return 1;
+		return (int) Math.max(1, Math.min(this.numThreads * 4, numComparisons / this.minComparisonsPerTask));
+	}
+	
+	private List<SuggestionTask> createSuggestionTasks(List<IntegerPair> comparisonSuggestions) {
+		int numTasks = this.getNumTasks(comparisonSuggestions.size());
+		int suggestionsPerTask = (int) Math.ceil((double) comparisonSuggestions.size() / numTasks);
+		
+		List<SuggestionTask> tasks = new ArrayList<>(numTasks);
+		for (int from = 0; from < comparisonSuggestions.size(); from += suggestionsPerTask)
+			tasks.add(new SuggestionTask(comparisonSuggestions.subList(from, Math.min(from + suggestionsPerTask, comparisonSuggestions.size()))));
+		return tasks;
+	}
+	
+	private List<WindowTask> createWindowTasks(List<IntArrayList> clusters, int windowDistance, long numComparisons) {
+		int numTasks = this.getNumTasks(numComparisons);
+		long comparisonsPerTask = (long) Math.ceil((double) numComparisons / numTasks);
+		
+		// Split the clusters into consecutive segments of about the same number of comparisons; large clusters are split across tasks
+		List<WindowTask> tasks = new ArrayList<>(numTasks);
+		WindowTask task = new WindowTask(windowDistance);
+		long taskComparisons = 0;
+		for (IntArrayList cluster : clusters) {
+			int fromIndex = 0;
+			int lastIndex = cluster.size() - windowDistance;
+			while (fromIndex < lastIndex) {
+				int toIndex = (int) Math.min(lastIndex, fromIndex + (comparisonsPerTask - taskComparisons));
+				task.addSegment(cluster, fromIndex, toIndex);
+				taskComparisons += toIndex - fromIndex;
+				fromIndex = toIndex;
+				
+				if (taskComparisons >= comparisonsPerTask) {
+					tasks.add(task);
+					task = new WindowTask(windowDistance);
+					taskComparisons = 0;
+				}
+			}
+		}
+		if (taskComparisons > 0)
+			tasks.add(task);
+		return tasks;
+	}
+	
+	private <T> List<T> execute(List<? extends Callable<T>> tasks) throws AlgorithmExecutionException {
+		List<T> results = new ArrayList<>(tasks.size());
+		
+		if ((this.executor == null) || (tasks.size() <= 1)) {
+			for (Callable<T> task : tasks) {
+				try {
+					results.add(task.call());
+				}
+				catch (Exception e) {
+					e.printStackTrace();
+					throw new AlgorithmExecutionException(e.getMessage());
+				}
+			}
+			return results;
+		}
+		
+		List<Future<T>> futures = new ArrayList<>(tasks.size());
+		for (Callable<T> task : tasks)
+			futures.add(this.executor.submit(task));
+		
+		for (Future<T> future : futures) {
+			try {
+				results.add(future.get());
+			}
+			catch (ExecutionException e) {
+				this.executor.shutdownNow();
+				e.printStackTrace();
+				throw new AlgorithmExecutionException(e.getMessage());
+			}
+			catch (InterruptedException e) {
+				this.executor.shutdownNow();
+				e.printStackTrace();
+				throw new AlgorithmExecutionException(e.getMessage());
+			}
+		}
+		return results;
+	}
+	
+	private void addNonFds(List<SamplingResult> results, FDList newNonFds) {
+		// Merge the task results in task order, so that the negative cover grows exactly as in a sequential run; the memory guardian is only consulted here, on the calling thread
+		for (SamplingResult result : results) {
+			for (OpenBitSet nonFd : result.orderedNonFds) {
+				if (!this.negCover.contains(nonFd)) {
+					this.negCover.add(nonFd);
+					newNonFds.add(nonFd);
+					
+					this.memoryGuardian.memoryChanged(1);
+					this.memoryGuardian.match(this.negCover, this.posCover, newNonFds);
+				}
+			}
+		}
 	}
 	
 	private void match(OpenBitSet equalAttrs, int[] t1, int[] t2) {
@@ -118,8 +118,6 @@ public class HyFD implements FunctionalDependencyAlgorithm, BooleanParameterAlgo
 		maxLhsSize.setDefaultValues(defaultMaxLhsSize);
 		maxLhsSize.setRequired(false);
 		configs.add(maxLhsSize);
-		
-		// TODO: parallel sampling
 */
 /*		ConfigurationRequirementInteger windowSize = new ConfigurationRequirementInteger(HyFD.Identifier.WINDOW_SIZE.name());
 		Integer[] defaultWindowSize = new Integer[1];
@@ -270,17 +268,22 @@ public class HyFD implements FunctionalDependencyAlgorithm, BooleanParameterAlgo
 		// Build the components //
 		//////////////////////////
 		
-		Sampler sampler = new Sampler(negCover, posCover, compressedRecords, plis, this.efficiencyThreshold, this.valueComparator, this.memoryGuardian);
+		Sampler sampler = new Sampler(negCover, posCover, compressedRecords, plis, this.efficiencyThreshold, this.valueComparator, this.validateParallel, this.memoryGuardian);
 		Inductor inductor = new Inductor(negCover, posCover, this.memoryGuardian);
 		Validator validator = new Validator(negCover, posCover, numRecords, compressedRecords, plis, this.efficiencyThreshold, this.validateParallel, this.memoryGuardian);
 		
 		List<IntegerPair> comparisonSuggestions = new ArrayList<>();
-		do {
-			FDList newNonFds = sampler.enrichNegativeCover(comparisonSuggestions);
-			inductor.updatePositiveCover(newNonFds);
-			comparisonSuggestions = validator.validatePositiveCover();
+		try {
+			do {
+				FDList newNonFds = sampler.enrichNegativeCover(comparisonSuggestions);
+				inductor.updatePositiveCover(newNonFds);
+				comparisonSuggestions = validator.validatePositiveCover();
+			}
+			while (comparisonSuggestions != null);
+		} finally {
+			// also stop the sampling threads if the sampling or validation fails
+			sampler.shutdown();
 		}
-		while (comparisonSuggestions != null);
 		
 		// Output all valid FDs
 		System.out.println("Translating fd-tree into result format ...");
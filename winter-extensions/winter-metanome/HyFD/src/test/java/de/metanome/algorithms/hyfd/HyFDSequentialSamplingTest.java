@@ -0,0 +1,15 @@
+package de.metanome.algorithms.hyfd;
+
+import org.junit.Before;
+
+public class HyFDSequentialSamplingTest extends HyFDTest {
+	
+	@Before
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		
+		// The sampling is parallel by default; all fixtures must yield the same FDs if it runs on a single thread
+		((HyFD) this.algo).setBooleanConfigurationValue(HyFD.Identifier.SAMPLE_PARALLEL.name(), false);
+	}
+}
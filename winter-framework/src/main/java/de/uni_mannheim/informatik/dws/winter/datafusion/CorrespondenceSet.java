@@ -17,8 +17,11 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 
@@ -29,6 +32,7 @@ import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
 import de.uni_mannheim.informatik.dws.winter.model.Fusible;
 import de.uni_mannheim.informatik.dws.winter.model.FusibleDataSet;
 import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.Pair;
 import de.uni_mannheim.informatik.dws.winter.model.RecordGroup;
 import de.uni_mannheim.informatik.dws.winter.model.RecordGroupFactory;
 import de.uni_mannheim.informatik.dws.winter.model.Triple;
@@ -48,13 +52,20 @@ public class CorrespondenceSet<RecordType extends Matchable & Fusible<SchemaElem
 
 	private Collection<RecordGroup<RecordType, SchemaElementType>> groups;
 	private Map<String, RecordGroup<RecordType, SchemaElementType>> recordIndex;
+	// the correspondences between records and the data sets of the records, required to update the groups
+	private Map<String, Set<String>> links;
+	private Map<String, FusibleDataSet<RecordType, SchemaElementType>> recordDataSets;
+	// false if groups were loaded without the correspondences between records, such groups cannot be updated
+	private boolean updatable = true;
 
 	private RecordGroupFactory<RecordType, SchemaElementType> groupFactory;
 	private static final Logger logger = WinterLogManager.getLogger();
 	
 	public CorrespondenceSet() {
-		groups = new LinkedList<>();
+		groups = new LinkedHashSet<>();
 		recordIndex = new HashMap<>();
+		links = new HashMap<>();
+		recordDataSets = new HashMap<>();
 		groupFactory = new RecordGroupFactory<>();
 	}
 	
@@ -95,6 +106,8 @@ public class CorrespondenceSet<RecordType extends Matchable & Fusible<SchemaElem
 				continue;
 			}
 
+			addLink(values[0], first, values[1], second);
+
 			// check if the ids already belong to any groups
 			RecordGroup<RecordType, SchemaElementType> grp1 = recordIndex.get(values[0]);
 			RecordGroup<RecordType, SchemaElementType> grp2 = recordIndex.get(values[1]);
@@ -117,10 +130,13 @@ public class CorrespondenceSet<RecordType extends Matchable & Fusible<SchemaElem
 				recordIndex.put(values[0], grp2);
 			} else {
 				// two existing groups, merge
-				grp1.mergeWith(grp2);
+				if (grp1 != grp2) {
+					grp1.mergeWith(grp2);
+					groups.remove(grp2);
 
-				for (String id : grp2.getRecordIds()) {
-					recordIndex.put(id, grp1);
+					for (String id : grp2.getRecordIds()) {
+						recordIndex.put(id, grp1);
+					}
 				}
 			}
 		}
@@ -131,6 +147,7 @@ public class CorrespondenceSet<RecordType extends Matchable & Fusible<SchemaElem
 	/**
 	 * Loads correspondences from a file and adds them to this correspondence
 	 * set. Can be called multiple times.
+	 * The groups are created by the ids of the records in the target data set, so the correspondence set cannot be updated afterwards.
 	 * 
 	 * @param correspondenceFile	the file to load from
 	 * @param first					the dataset that contains the records
@@ -143,6 +160,7 @@ public class CorrespondenceSet<RecordType extends Matchable & Fusible<SchemaElem
 
 		String[] values = null;
 		int skipped = 0;
+		updatable = false;
 
 		while ((values = reader.readNext()) != null) {
 			// check if the ids exist in the provided data sets
@@ -183,13 +201,10 @@ public class CorrespondenceSet<RecordType extends Matchable & Fusible<SchemaElem
 	public void createFromCorrespondences(Processable<Correspondence<RecordType, Matchable>> correspondences,
             FusibleDataSet<RecordType, SchemaElementType> first, FusibleDataSet<RecordType, SchemaElementType> second) {
 		
-		Map<String, FusibleDataSet<RecordType, SchemaElementType>> idToDataSet = new HashMap<>();
-		
 		ConnectedComponentClusterer<RecordType> clu = new ConnectedComponentClusterer<>();
 		for(Correspondence<RecordType, Matchable> cor : correspondences.get()) {
 			clu.addEdge(new Triple<RecordType, RecordType, Double>(cor.getFirstRecord(), cor.getSecondRecord(), cor.getSimilarityScore()));
-			idToDataSet.put(cor.getFirstRecord().getIdentifier(), first);
-			idToDataSet.put(cor.getSecondRecord().getIdentifier(), second);
+			addLink(cor.getFirstRecord().getIdentifier(), first, cor.getSecondRecord().getIdentifier(), second);
 		}
 		Map<Collection<RecordType>, RecordType> clusters = clu.createResult();
 		
@@ -197,7 +212,7 @@ public class CorrespondenceSet<RecordType extends Matchable & Fusible<SchemaElem
 			RecordGroup<RecordType, SchemaElementType> grp = groupFactory.createRecordGroup();
 			
 			for(RecordType r : cluster) {
-				grp.addRecord(r.getIdentifier(), idToDataSet.get(r.getIdentifier()));
+				grp.addRecord(r.getIdentifier(), recordDataSets.get(r.getIdentifier()));
 				recordIndex.put(r.getIdentifier(), grp);
 			}
 			
@@ -205,6 +220,129 @@ public class CorrespondenceSet<RecordType extends Matchable & Fusible<SchemaElem
 		}
 	}
 	
+	private void addLink(String id1, FusibleDataSet<RecordType, SchemaElementType> dataset1, String id2, FusibleDataSet<RecordType, SchemaElementType> dataset2) {
+		recordDataSets.put(id1, dataset1);
+		recordDataSets.put(id2, dataset2);
+		getLinks(id1).add(id2);
+		getLinks(id2).add(id1);
+	}
+
+	private Set<String> getLinks(String id) {
+		Set<String> linked = links.get(id);
+		if(linked == null) {
+			linked = new HashSet<>();
+			links.put(id, linked);
+		}
+		return linked;
+	}
+
+	private void removeLink(String id1, String id2) {
+		Set<String> linked = links.get(id1);
+		if(linked != null) {
+			linked.remove(id2);
+			if(linked.isEmpty()) {
+				links.remove(id1);
+			}
+		}
+	}
+
+	/**
+	 * Applies the changes of the delta to this correspondence set. Only the groups that contain a changed record or correspondence are re-created, all other groups remain unchanged.
+	 * The groups must have been created from correspondences between the first and the second data set.
+	 * 
+	 * @param delta		the changes since the groups were created
+	 * @param first		the dataset that contains the records on the left-hand side of the added correspondences
+	 * @param second	the dataset that contains the records on the right-hand side of the added correspondences
+	 * @return the groups that were removed (first) and the groups that were created (second)
+	 * @throws IllegalStateException	if groups were loaded with {@link #loadCorrespondences(File, FusibleDataSet)}, which does not record the correspondences between the records
+	 */
+	public Pair<Collection<RecordGroup<RecordType, SchemaElementType>>, Collection<RecordGroup<RecordType, SchemaElementType>>> update(
+			DataFusionDelta<RecordType, SchemaElementType> delta,
+			FusibleDataSet<RecordType, SchemaElementType> first, FusibleDataSet<RecordType, SchemaElementType> second) {
+		if(!updatable) {
+			// the groups could not be re-created and their records would be missing from the result
+			throw new IllegalStateException("The correspondence set contains groups without correspondences between their records and cannot be updated.");
+		}
+
+		// all records whose group must be re-created
+		Set<String> affected = new HashSet<>(delta.getAddedRecordIds());
+
+		for(String id : delta.getRemovedRecordIds()) {
+			Set<String> linked = links.remove(id);
+			if(linked != null) {
+				for(String other : linked) {
+					removeLink(other, id);
+					affected.add(other);
+				}
+			}
+			recordDataSets.remove(id);
+			affected.add(id);
+		}
+
+		for(Correspondence<RecordType, Matchable> cor : delta.getRemovedCorrespondences()) {
+			String id1 = cor.getFirstRecord().getIdentifier();
+			String id2 = cor.getSecondRecord().getIdentifier();
+			removeLink(id1, id2);
+			removeLink(id2, id1);
+			affected.add(id1);
+			affected.add(id2);
+		}
+
+		for(Correspondence<RecordType, Matchable> cor : delta.getAddedCorrespondences()) {
+			String id1 = cor.getFirstRecord().getIdentifier();
+			String id2 = cor.getSecondRecord().getIdentifier();
+			if(!delta.getRemovedRecordIds().contains(id1) && !delta.getRemovedRecordIds().contains(id2)) {
+				addLink(id1, first, id2, second);
+				affected.add(id1);
+				affected.add(id2);
+			}
+		}
+
+		// remove the groups of all affected records
+		Collection<RecordGroup<RecordType, SchemaElementType>> removedGroups = new LinkedHashSet<>();
+		for(String id : affected) {
+			RecordGroup<RecordType, SchemaElementType> grp = recordIndex.get(id);
+			if(grp != null && removedGroups.add(grp)) {
+				groups.remove(grp);
+			}
+		}
+		for(RecordGroup<RecordType, SchemaElementType> grp : removedGroups) {
+			for(String id : grp.getRecordIds()) {
+				recordIndex.remove(id);
+				affected.add(id);
+			}
+		}
+
+		// re-create the groups as connected components of the remaining correspondences
+		Collection<RecordGroup<RecordType, SchemaElementType>> createdGroups = new LinkedList<>();
+		for(String id : affected) {
+			if(recordIndex.containsKey(id) || !links.containsKey(id)) {
+				// already assigned or no correspondences left
+				continue;
+			}
+
+			RecordGroup<RecordType, SchemaElementType> grp = groupFactory.createRecordGroup();
+			LinkedList<String> queue = new LinkedList<>();
+			queue.add(id);
+			recordIndex.put(id, grp);
+			while(!queue.isEmpty()) {
+				String next = queue.poll();
+				grp.addRecord(next, recordDataSets.get(next));
+				for(String other : links.get(next)) {
+					if(!recordIndex.containsKey(other)) {
+						recordIndex.put(other, grp);
+						queue.add(other);
+					}
+				}
+			}
+
+			groups.add(grp);
+			createdGroups.add(grp);
+		}
+
+		return new Pair<>(removedGroups, createdGroups);
+	}
+
 	/**
 	 * 
 	 * 
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.datafusion;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.Fusible;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+
+/**
+ * The changes of the input of a data fusion since the last run, which are used for an incremental run of the {@link DataFusionEngine}.
+ *
+ * Records are referenced by their identifiers: added records must already be contained in their input data set (a record that is replaced with a new version counts as added), removed records can already be removed from their input data set.
+ * All correspondences of a removed record are removed automatically.
+ * A correspondence that is removed after it was added to the same delta (or vice versa) cancels out, independent of its direction, so the delta always contains the net changes.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ * @param <RecordType>	the type that represents a record
+ * @param <SchemaElementType>	the type that represents a schema element
+ */
+public class DataFusionDelta<RecordType extends Matchable & Fusible<SchemaElementType>, SchemaElementType extends Matchable> {
+
+	private Collection<Correspondence<RecordType, Matchable>> addedCorrespondences = new LinkedHashSet<>();
+	private Collection<Correspondence<RecordType, Matchable>> removedCorrespondences = new LinkedHashSet<>();
+	private Set<String> addedRecordIds = new HashSet<>();
+	private Set<String> removedRecordIds = new HashSet<>();
+
+	/**
+	 * Adds a correspondence between a record of the first and a record of the second data set
+	 *
+	 * @param correspondence	the correspondence
+	 */
+	public void addCorrespondence(Correspondence<RecordType, Matchable> correspondence) {
+		if(!removedCorrespondences.remove(correspondence) && !removedCorrespondences.remove(reverse(correspondence))) {
+			addedCorrespondences.add(correspondence);
+		}
+	}
+
+	/**
+	 * Adds correspondences between records of the first and records of the second data set
+	 *
+	 * @param correspondences	the correspondences
+	 */
+	public void addCorrespondences(Processable<Correspondence<RecordType, Matchable>> correspondences) {
+		for(Correspondence<RecordType, Matchable> cor : correspondences.get()) {
+			addCorrespondence(cor);
+		}
+	}
+
+	/**
+	 * Removes a correspondence (in any direction) that was used in the last run
+	 *
+	 * @param correspondence	the correspondence
+	 */
+	public void removeCorrespondence(Correspondence<RecordType, Matchable> correspondence) {
+		if(!addedCorrespondences.remove(correspondence) && !addedCorrespondences.remove(reverse(correspondence))) {
+			removedCorrespondences.add(correspondence);
+		}
+	}
+
+	/**
+	 * Removes correspondences (in any direction) that were used in the last run
+	 *
+	 * @param correspondences	the correspondences
+	 */
+	public void removeCorrespondences(Processable<Correspondence<RecordType, Matchable>> correspondences) {
+		for(Correspondence<RecordType, Matchable> cor : correspondences.get()) {
+			removeCorrespondence(cor);
+		}
+	}
+
+	/**
+	 * @return a copy of the correspondence in the opposite direction, which is equal to all correspondences between the same records in that direction
+	 */
+	private Correspondence<RecordType, Matchable> reverse(Correspondence<RecordType, Matchable> correspondence) {
+		return new Correspondence<>(correspondence.getSecondRecord(), correspondence.getFirstRecord(), correspondence.getSimilarityScore());
+	}
+
+	/**
+	 * Marks a record as added to or changed in its input data set
+	 *
+	 * @param id	the identifier of the record
+	 */
+	public void addRecord(String id) {
+		addedRecordIds.add(id);
+	}
+
+	/**
+	 * Marks a record as removed from its input data set
+	 *
+	 * @param id	the identifier of the record
+	 */
+	public void removeRecord(String id) {
+		removedRecordIds.add(id);
+	}
+
+	/**
+	 * @return the added correspondences
+	 */
+	public Collection<Correspondence<RecordType, Matchable>> getAddedCorrespondences() {
+		return addedCorrespondences;
+	}
+
+	/**
+	 * @return the removed correspondences
+	 */
+	public Collection<Correspondence<RecordType, Matchable>> getRemovedCorrespondences() {
+		return removedCorrespondences;
+	}
+
+	/**
+	 * @return the identifiers of the added or changed records
+	 */
+	public Set<String> getAddedRecordIds() {
+		return addedRecordIds;
+	}
+
+	/**
+	 * @return the identifiers of the removed records
+	 */
+	public Set<String> getRemovedRecordIds() {
+		return removedRecordIds;
+	}
+
+	/**
+	 * @return true if the delta does not contain any changes
+	 */
+	public boolean isEmpty() {
+		return addedCorrespondences.isEmpty() && removedCorrespondences.isEmpty() && addedRecordIds.isEmpty()
+				&& removedRecordIds.isEmpty();
+	}
+}
@@ -15,9 +15,11 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -30,9 +32,12 @@ import de.uni_mannheim.informatik.dws.winter.model.FusibleDataSet;
 import de.uni_mannheim.informatik.dws.winter.model.Matchable;
 import de.uni_mannheim.informatik.dws.winter.model.Pair;
 import de.uni_mannheim.informatik.dws.winter.model.RecordGroup;
+import de.uni_mannheim.informatik.dws.winter.processing.Function;
 import de.uni_mannheim.informatik.dws.winter.processing.Processable;
-import de.uni_mannheim.informatik.dws.winter.utils.ProgressReporter;
 import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Consumer;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Parallel;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.ThreadBoundObject;
 import de.uni_mannheim.informatik.dws.winter.utils.query.Q;
 
 /**
@@ -77,19 +82,15 @@ public class DataFusionEngine<RecordType extends Matchable & Fusible<SchemaEleme
 			Processable<Correspondence<SchemaElementType, Matchable>> schemaCorrespondences) {
 		FusibleDataSet<RecordType, SchemaElementType> fusedDataSet = strategy.createFusedDataSet();
 
-		// iterate over all correspondence groups (all records mapped to the same target)
-		for (RecordGroup<RecordType, SchemaElementType> clu : correspondences.getRecordGroups()) {
-			
-			// apply the data fusion strategy
-			RecordType fusedRecord = strategy.apply(clu, schemaCorrespondences);
-			
-			// add the fused record to the fused dataset
-			fusedDataSet.add(fusedRecord);
-
-			// keep track of record provenance
-			for (RecordType record : clu.getRecords()) {
-				fusedDataSet.addOriginalId(fusedRecord, record.getIdentifier());
+		// the fusion tasks are created once for all groups, and again in the next run as the schema correspondences might have changed
+		strategy.indexAttributeFusers(schemaCorrespondences);
+		try {
+			// iterate over all correspondence groups (all records mapped to the same target)
+			for (RecordGroup<RecordType, SchemaElementType> clu : correspondences.getRecordGroups()) {
+				fuse(clu, fusedDataSet, schemaCorrespondences);
 			}
+		} finally {
+			strategy.invalidateAttributeFuserIndex();
 		}
 		
 		if(strategy.isDebugReportActive()){
@@ -100,6 +101,73 @@ public class DataFusionEngine<RecordType extends Matchable & Fusible<SchemaEleme
 		return fusedDataSet;
 	}
 
+	/**
+	 * Updates the result of a previous run after the input of the data fusion changed.
+	 * Only the record groups that contain a changed record or correspondence are created and fused again, the fused records of all other groups are kept.
+	 * The result is the same as the result of {@link #run(CorrespondenceSet, Processable)} for the changed input.
+	 * 
+	 * @param previousResult	the fused data set of the previous run, will be updated
+	 * @param correspondences	the correspondences of the previous run, will be updated
+	 * @param delta	the changes since the previous run
+	 * @param first	the dataset that contains the records on the left-hand side of the added correspondences
+	 * @param second	the dataset that contains the records on the right-hand side of the added correspondences
+	 * @param schemaCorrespondences	optional schema correspondences between the records
+	 * @return the updated fused data set
+	 */
+	public FusibleDataSet<RecordType, SchemaElementType> runIncremental(
+			FusibleDataSet<RecordType, SchemaElementType> previousResult,
+			CorrespondenceSet<RecordType, SchemaElementType> correspondences,
+			DataFusionDelta<RecordType, SchemaElementType> delta,
+			FusibleDataSet<RecordType, SchemaElementType> first, FusibleDataSet<RecordType, SchemaElementType> second,
+			Processable<Correspondence<SchemaElementType, Matchable>> schemaCorrespondences) {
+		Pair<Collection<RecordGroup<RecordType, SchemaElementType>>, Collection<RecordGroup<RecordType, SchemaElementType>>> changedGroups = correspondences
+				.update(delta, first, second);
+
+		// remove the fused records of all groups that changed
+		for (RecordGroup<RecordType, SchemaElementType> clu : changedGroups.getFirst()) {
+			for (String id : clu.getRecordIds()) {
+				RecordType fusedRecord = previousResult.removeOriginalId(id);
+				if (fusedRecord != null) {
+					previousResult.removeRecord(fusedRecord.getIdentifier());
+				}
+			}
+		}
+
+		strategy.indexAttributeFusers(schemaCorrespondences);
+		try {
+			for (RecordGroup<RecordType, SchemaElementType> clu : changedGroups.getSecond()) {
+				fuse(clu, previousResult, schemaCorrespondences);
+			}
+		} finally {
+			strategy.invalidateAttributeFuserIndex();
+		}
+
+		logger.info(String.format("Incremental data fusion: %,d record groups removed, %,d record groups fused",
+				changedGroups.getFirst().size(), changedGroups.getSecond().size()));
+
+		if(strategy.isDebugReportActive()){
+			strategy.writeDebugDataFusionResultsToFile();
+			strategy.calculateRecordLevelDebugResultsAndWriteToFile(previousResult);
+		}
+
+		return previousResult;
+	}
+
+	private void fuse(RecordGroup<RecordType, SchemaElementType> clu,
+			FusibleDataSet<RecordType, SchemaElementType> fusedDataSet,
+			Processable<Correspondence<SchemaElementType, Matchable>> schemaCorrespondences) {
+		// apply the data fusion strategy
+		RecordType fusedRecord = strategy.apply(clu, schemaCorrespondences);
+		
+		// add the fused record to the fused dataset
+		fusedDataSet.add(fusedRecord);
+
+		// keep track of record provenance
+		for (RecordType record : clu.getRecords()) {
+			fusedDataSet.addOriginalId(fusedRecord, record.getIdentifier());
+		}
+	}
+
 	/**
 	 * Calculates the consistencies of the attributes of the records in the
 	 * given correspondence set according to the data fusion strategy
@@ -111,41 +179,55 @@ public class DataFusionEngine<RecordType extends Matchable & Fusible<SchemaEleme
 	public Map<String, Double> getAttributeConsistencies(
 			CorrespondenceSet<RecordType, SchemaElementType> correspondences,
 			Processable<Correspondence<SchemaElementType, Matchable>> schemaCorrespondences) {
-		Map<String, Double> consistencySums = new HashMap<>(); // = sum of consistency values
-		Map<String, Integer> consistencyCounts = new HashMap<>(); // = number of instances
+		// the fusion tasks do not depend on the record group, so they are only created once
+		final List<AttributeFusionTask<RecordType, SchemaElementType>> tasks = strategy.getAttributeFusers(null,
+				schemaCorrespondences);
 
-		ProgressReporter progress = new ProgressReporter(correspondences.getRecordGroups().size(), "Calculating consistencies");
+		// each thread sums up the consistencies of the groups it processes
+		ThreadBoundObject<Pair<Map<String, Double>, Map<String, Integer>>> accumulators = new ThreadBoundObject<>(
+				new Function<Pair<Map<String, Double>, Map<String, Integer>>, Thread>() {
+
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					public Pair<Map<String, Double>, Map<String, Integer>> execute(Thread input) {
+						return new Pair<>(new HashMap<>(), new HashMap<>());
+					}
+				});
 		
 		// changed to calculation as follows:
 		// degree of consistency per instance = percentage of most frequent value
 		// consistency = average of degree of consistency per instance
 		
 		// for each record group (=instance in the target dataset), calculate the degree of consistency for each attribute
-		for (RecordGroup<RecordType, SchemaElementType> clu : correspondences.getRecordGroups()) {
+		try {
+			new Parallel<RecordGroup<RecordType, SchemaElementType>>().foreach(correspondences.getRecordGroups(),
+					new Consumer<RecordGroup<RecordType, SchemaElementType>>() {
+
+						@Override
+						public void execute(RecordGroup<RecordType, SchemaElementType> clu) {
+							Map<String, Double> values = strategy.getAttributeConsistencyForTasks(clu, tasks);
+
+							Pair<Map<String, Double>, Map<String, Integer>> accumulator = accumulators.get();
+							addConsistencies(values, accumulator.getFirst(), accumulator.getSecond());
+						}
+					}, "Calculating consistencies");
+		} catch (Exception e) {
+			// the consistencies of a failed group must not be silently missing from the result
+			throw new RuntimeException("Calculating the consistencies failed", e);
+		}
 
-			Map<String, Double> values = strategy
-					.getAttributeConsistency(clu, schemaCorrespondences);
+		// merge the results of all threads
+		Map<String, Double> consistencySums = new HashMap<>(); // = sum of consistency values
+		Map<String, Integer> consistencyCounts = new HashMap<>(); // = number of instances
+		for (Pair<Map<String, Double>, Map<String, Integer>> accumulator : accumulators.getAll()) {
+			for (String att : accumulator.getFirst().keySet()) {
+				Integer cnt = consistencyCounts.get(att);
+				consistencyCounts.put(att, (cnt == null ? 0 : cnt) + accumulator.getSecond().get(att));
 
-			for (String att : values.keySet()) {
-				Double consistencyValue = values.get(att);
-				
-				if(consistencyValue!=null) {
-					Integer cnt = consistencyCounts.get(att);
-					if (cnt == null) {
-						cnt = 0;
-					}
-					consistencyCounts.put(att, cnt + 1);
-					
-					Double sum = consistencySums.get(att);
-					if(sum == null) {
-						sum = 0.0;
-					}
-					consistencySums.put(att, sum + consistencyValue);
-				}
+				Double sum = consistencySums.get(att);
+				consistencySums.put(att, (sum == null ? 0.0 : sum) + accumulator.getFirst().get(att));
 			}
-
-			progress.incrementProgress();
-			progress.report();
 		}
 
 		Map<String, Double> result = new HashMap<>();
@@ -162,6 +244,27 @@ public class DataFusionEngine<RecordType extends Matchable & Fusible<SchemaEleme
 		return result;
 	}
 
+	private void addConsistencies(Map<String, Double> values, Map<String, Double> consistencySums,
+			Map<String, Integer> consistencyCounts) {
+		for (String att : values.keySet()) {
+			Double consistencyValue = values.get(att);
+			
+			if(consistencyValue!=null) {
+				Integer cnt = consistencyCounts.get(att);
+				if (cnt == null) {
+					cnt = 0;
+				}
+				consistencyCounts.put(att, cnt + 1);
+				
+				Double sum = consistencySums.get(att);
+				if(sum == null) {
+					sum = 0.0;
+				}
+				consistencySums.put(att, sum + consistencyValue);
+			}
+		}
+	}
+
 /**
 	 * Calculates the consistencies of the record groups in the
 	 * given correspondence set according to the data fusion strategy
@@ -173,39 +276,57 @@ public class DataFusionEngine<RecordType extends Matchable & Fusible<SchemaEleme
 	public Set<Pair<RecordGroup<RecordType, SchemaElementType>,Double>> getRecordGroupConsistencies(
 			CorrespondenceSet<RecordType, SchemaElementType> correspondences,
 			Processable<Correspondence<SchemaElementType, Matchable>> schemaCorrespondences) {
-		Map<String, Double> consistencySums = new HashMap<>(); // = sum of consistency values
-		Map<String, Integer> consistencyCounts = new HashMap<>(); // = number of instances
+		final List<AttributeFusionTask<RecordType, SchemaElementType>> tasks = strategy.getAttributeFusers(null,
+				schemaCorrespondences);
+
+		// each thread collects the consistencies of the groups it processes
+		ThreadBoundObject<Set<Pair<RecordGroup<RecordType, SchemaElementType>, Double>>> accumulators = new ThreadBoundObject<>(
+				new Function<Set<Pair<RecordGroup<RecordType, SchemaElementType>, Double>>, Thread>() {
+
+					private static final long serialVersionUID = 1L;
 
-		ProgressReporter progress = new ProgressReporter(correspondences.getRecordGroups().size(), "Calculating consistencies");
+					@Override
+					public Set<Pair<RecordGroup<RecordType, SchemaElementType>, Double>> execute(Thread input) {
+						return new HashSet<>();
+					}
+				});
 		
 		// changed to calculation as follows:
 		// degree of consistency per instance = percentage of most frequent value
 		// consistency = average of degree of consistency per instance
 		
-		Set<Pair<RecordGroup<RecordType, SchemaElementType>,Double>> result = new HashSet<>();
-		
-		for (RecordGroup<RecordType, SchemaElementType> clu : correspondences.getRecordGroups()) {
-
-			Map<String, Double> values = strategy
-					.getAttributeConsistency(clu, schemaCorrespondences);
-
-			double count=0.0, sum=0.0;
-
-			for (String att : values.keySet()) {
-				Double consistencyValue = values.get(att);
-				
-				if(consistencyValue!=null) {
-					count++;
-					sum+=consistencyValue;
-				}
-			}
-
-			double consistency = sum / count;
-
-			result.add(new Pair<>(clu, consistency));
+		try {
+			new Parallel<RecordGroup<RecordType, SchemaElementType>>().foreach(correspondences.getRecordGroups(),
+					new Consumer<RecordGroup<RecordType, SchemaElementType>>() {
+
+						@Override
+						public void execute(RecordGroup<RecordType, SchemaElementType> clu) {
+							Map<String, Double> values = strategy.getAttributeConsistencyForTasks(clu, tasks);
+
+							double count=0.0, sum=0.0;
+
+							for (String att : values.keySet()) {
+								Double consistencyValue = values.get(att);
+							
+								if(consistencyValue!=null) {
+									count++;
+									sum+=consistencyValue;
+								}
+							}
+
+							double consistency = sum / count;
+
+							accumulators.get().add(new Pair<>(clu, consistency));
+						}
+					}, "Calculating consistencies");
+		} catch (Exception e) {
+			// the consistencies of a failed group must not be silently missing from the result
+			throw new RuntimeException("Calculating the consistencies failed", e);
+		}
 
-			progress.incrementProgress();
-			progress.report();
+		Set<Pair<RecordGroup<RecordType, SchemaElementType>,Double>> result = new HashSet<>();
+		for (Set<Pair<RecordGroup<RecordType, SchemaElementType>, Double>> accumulator : accumulators.getAll()) {
+			result.addAll(accumulator);
 		}
 
 		return result;
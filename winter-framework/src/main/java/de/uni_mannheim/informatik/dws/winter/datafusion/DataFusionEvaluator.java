@@ -11,7 +11,7 @@
  */
 package de.uni_mannheim.informatik.dws.winter.datafusion;
 
-import java.util.HashMap;
+import java.util.List;
 
 import org.slf4j.Logger;
 
@@ -20,10 +20,13 @@ import de.uni_mannheim.informatik.dws.winter.model.DataSet;
 import de.uni_mannheim.informatik.dws.winter.model.Fusible;
 import de.uni_mannheim.informatik.dws.winter.model.FusibleDataSet;
 import de.uni_mannheim.informatik.dws.winter.model.Matchable;
-import de.uni_mannheim.informatik.dws.winter.model.RecordGroup;
 import de.uni_mannheim.informatik.dws.winter.model.RecordGroupFactory;
+import de.uni_mannheim.informatik.dws.winter.processing.Function;
 import de.uni_mannheim.informatik.dws.winter.processing.Processable;
 import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Consumer;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Parallel;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.ThreadBoundObject;
 
 /**
  * Evaluates a data fusion result based on a given {@link DataFusionStrategy}
@@ -60,7 +63,8 @@ public class DataFusionEvaluator<RecordType extends Matchable & Fusible<SchemaEl
 	}
 
 	/**
-	 * Evaluates the the data fusion result against a gold standard
+	 * Evaluates the the data fusion result against a gold standard.
+	 * The records of the gold standard are evaluated in parallel, unless trace logging is enabled (which lists all errors in the order of the gold standard).
 	 * 
 	 * @param dataset			the fused data
 	 * @param goldStandard		the gold standard
@@ -70,46 +74,99 @@ public class DataFusionEvaluator<RecordType extends Matchable & Fusible<SchemaEl
 	public double evaluate(FusibleDataSet<RecordType, SchemaElementType> dataset,
 			DataSet<RecordType, SchemaElementType> goldStandard, Processable<Correspondence<SchemaElementType, Matchable>> schemaCorrespondences) {
 
-		int correctValues = 0;
-		int totalValues = goldStandard.size()
-				* strategy.getAttributeFusers(null, schemaCorrespondences).size();
-		HashMap<SchemaElementType, Integer> attributeCount = new HashMap<SchemaElementType, Integer>();
-		for (AttributeFusionTask<RecordType, SchemaElementType> fusionTask : strategy.getAttributeFusers(null, schemaCorrespondences)) {
-			attributeCount.put(fusionTask.getSchemaElement(), 0);
+		// the fusion tasks do not depend on the record, so they are only created once
+		final List<AttributeFusionTask<RecordType, SchemaElementType>> fusionTasks = strategy.getAttributeFusers(null, schemaCorrespondences);
+		int totalValues = goldStandard.size() * fusionTasks.size();
+
+		// each thread counts the correct values per fusion task for the records it evaluates
+		ThreadBoundObject<int[]> accumulators = new ThreadBoundObject<>(new Function<int[], Thread>() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public int[] execute(Thread input) {
+				return new int[fusionTasks.size()];
+			}
+		});
+
+		boolean evaluated = false;
+		if (!logger.isTraceEnabled()) {
+			evaluated = new Parallel<RecordType>().tryForeach(goldStandard.get(), new Consumer<RecordType>() {
+
+				@Override
+				public void execute(RecordType record) {
+					int[] counts = evaluateRecord(record, dataset, fusionTasks);
+					if (counts != null) {
+						int[] accumulator = accumulators.get();
+						for (int i = 0; i < counts.length; i++) {
+							accumulator[i] += counts[i];
+						}
+					}
+				}
+			});
 		}
 
-		for (RecordType record : goldStandard.get()) {
-			RecordType fused = dataset.getRecord(record.getIdentifier());
-
-			if (fused != null) {
-				
-				// ask strategy to compare record and fused based on schema correspondences
-				RecordGroup<RecordType, SchemaElementType> g = groupFactory.createRecordGroup();
-				g.addRecord(record.getIdentifier(), dataset);
-				
-				for (AttributeFusionTask<RecordType, SchemaElementType> fusionTask : strategy.getAttributeFusers(g, schemaCorrespondences)) {
-					EvaluationRule<RecordType, SchemaElementType> r = fusionTask.getEvaluationRule();
-
-					if (r.isEqual(fused, record, fusionTask.getSchemaElement())) { 
-						correctValues++;
-						attributeCount.put(fusionTask.getSchemaElement(),
-								attributeCount.get(fusionTask.getSchemaElement()) + 1);
-					} else {
-						logger.trace(String.format(
-								"Error in '%s': %s <> %s", fusionTask.getSchemaElement().getIdentifier(),
-								fused.toString(), record.toString()));
+		// merge the results of all threads
+		int[] attributeCount = new int[fusionTasks.size()];
+		if (evaluated) {
+			for (int[] accumulator : accumulators.getAll()) {
+				for (int i = 0; i < attributeCount.length; i++) {
+					attributeCount[i] += accumulator[i];
+				}
+			}
+		} else {
+			for (RecordType record : goldStandard.get()) {
+				int[] counts = evaluateRecord(record, dataset, fusionTasks);
+				if (counts != null) {
+					for (int i = 0; i < counts.length; i++) {
+						attributeCount[i] += counts[i];
 					}
 				}
 			}
 		}
+
+		int correctValues = 0;
+		for (int count : attributeCount) {
+			correctValues += count;
+		}
+
 			logger.trace("Attribute-specific Accuracy:");
-			for (AttributeFusionTask<RecordType, SchemaElementType> fusionTask : strategy.getAttributeFusers(null, schemaCorrespondences)) {
-				double acc = (double) attributeCount.get(fusionTask.getSchemaElement())
+			for (int i = 0; i < fusionTasks.size(); i++) {
+				double acc = (double) attributeCount[i]
 						/ (double) goldStandard.size();
-				logger.trace(String.format("	%s: %.2f", fusionTask.getSchemaElement().getIdentifier(), acc));
+				logger.trace(String.format("	%s: %.2f", fusionTasks.get(i).getSchemaElement().getIdentifier(), acc));
 
 			}
 
 		return (double) correctValues / (double) totalValues;
 	}
+
+	/**
+	 * Compares a record from the gold standard to the fused record with the same identifier
+	 * 
+	 * @return the number of correct values per fusion task, or null if there is no fused record
+	 */
+	private int[] evaluateRecord(RecordType record, FusibleDataSet<RecordType, SchemaElementType> dataset,
+			List<AttributeFusionTask<RecordType, SchemaElementType>> fusionTasks) {
+		RecordType fused = dataset.getRecord(record.getIdentifier());
+
+		if (fused == null) {
+			return null;
+		}
+
+		int[] counts = new int[fusionTasks.size()];
+		for (int i = 0; i < fusionTasks.size(); i++) {
+			AttributeFusionTask<RecordType, SchemaElementType> fusionTask = fusionTasks.get(i);
+			EvaluationRule<RecordType, SchemaElementType> r = fusionTask.getEvaluationRule();
+
+			if (r.isEqual(fused, record, fusionTask.getSchemaElement())) { 
+				counts[i]++;
+			} else {
+				logger.trace(String.format(
+						"Error in '%s': %s <> %s", fusionTask.getSchemaElement().getIdentifier(),
+						fused.toString(), record.toString()));
+			}
+		}
+		return counts;
+	}
 }
@@ -39,6 +39,9 @@ public class DataFusionStrategy<RecordType extends Matchable & Fusible<SchemaEle
 	private Map<SchemaElementType, EvaluationRule<RecordType, SchemaElementType>> evaluationRules;
 	private FusibleFactory<RecordType, SchemaElementType> factory;
 	
+	// the fusion tasks for the last schema correspondences that were passed to getAttributeFusers
+	private volatile AttributeFuserIndex attributeFuserIndex;
+	
 	private FusibleHashedDataSet<Record, Attribute> debugFusionResults;
 	private boolean collectDebugResults = false;
 	private List<Attribute> headerDebugResults;
@@ -155,6 +158,7 @@ public class DataFusionStrategy<RecordType extends Matchable & Fusible<SchemaEle
 		}
 		attributeFusers.put(schemaElement, fuser);
 		evaluationRules.put(schemaElement, rule);
+		invalidateAttributeFuserIndex();
 	}
 
 	/**
@@ -179,7 +183,9 @@ public class DataFusionStrategy<RecordType extends Matchable & Fusible<SchemaEle
 	}
 	
 	/**
-	 * returns the fusers specified for this strategy
+	 * returns the fusers specified for this strategy.
+	 * If the schema correspondences were indexed by {@link #indexAttributeFusers(Processable)}, the fusion tasks are answered from this index, otherwise they are created from the schema correspondences.
+	 * 
 	 * @param group 	the group, which shall be fused.
 	 * @param schemaCorrespondences		the needed schemaCorrespondences
 	 * @return a list of fusion tasks
@@ -189,6 +195,55 @@ public class DataFusionStrategy<RecordType extends Matchable & Fusible<SchemaEle
 
 		// if schema correspondences are passed, then we use them
 		if(schemaCorrespondences!=null) {
+			AttributeFuserIndex index = attributeFuserIndex;
+			
+			if(index==null || !index.isFor(schemaCorrespondences)) {
+				index = new AttributeFuserIndex(schemaCorrespondences);
+			}
+			
+			fusers.addAll(index.getTasks());
+		} else {
+			// if no schema correspondences are available (null - not if just no correspondences were generated), we use all available fusers
+			for(SchemaElementType elem : attributeFusers.keySet()) {
+				AttributeFusionTask<RecordType, SchemaElementType> t = new AttributeFusionTask<>();
+				t.setSchemaElement(elem);
+				t.setFuser(attributeFusers.get(elem));
+				t.setEvaluationRule(evaluationRules.get(elem));
+				fusers.add(t);
+			}
+		}
+		
+		return fusers;
+	}
+	
+	/**
+	 * Creates the fusion tasks for the given schema correspondences, indexed by their target schema element.
+	 * Until {@link #invalidateAttributeFuserIndex()} is called, {@link #getAttributeFusers(RecordGroup, Processable)} and {@link #apply(RecordGroup, Processable)} answer calls with the same instance of schema correspondences from this index, so the schema correspondences must not be modified in the meantime.
+	 * 
+	 * @param schemaCorrespondences		the schema correspondences, no index is created if null
+	 */
+	public void indexAttributeFusers(Processable<Correspondence<SchemaElementType, Matchable>> schemaCorrespondences) {
+		attributeFuserIndex = schemaCorrespondences==null ? null : new AttributeFuserIndex(schemaCorrespondences);
+	}
+	
+	/**
+	 * Removes the index of fusion tasks, which is created by {@link #indexAttributeFusers(Processable)}.
+	 */
+	public void invalidateAttributeFuserIndex() {
+		attributeFuserIndex = null;
+	}
+	
+	/**
+	 * The fusion tasks for one set of schema correspondences
+	 */
+	private class AttributeFuserIndex {
+		
+		private Processable<Correspondence<SchemaElementType, Matchable>> schemaCorrespondences;
+		private List<AttributeFusionTask<RecordType, SchemaElementType>> tasks = new ArrayList<>();
+		
+		public AttributeFuserIndex(Processable<Correspondence<SchemaElementType, Matchable>> schemaCorrespondences) {
+			this.schemaCorrespondences = schemaCorrespondences;
+			
 			// collect all correspondences for each element of the target schema 
 			Map<SchemaElementType, Processable<Correspondence<SchemaElementType, Matchable>>> byTargetSchema = new HashMap<>();
 			
@@ -210,20 +265,17 @@ public class DataFusionStrategy<RecordType extends Matchable & Fusible<SchemaEle
 				t.setFuser(attributeFusers.get(elem));
 				t.setCorrespondences(byTargetSchema.get(elem));
 				t.setEvaluationRule(evaluationRules.get(elem));
-				fusers.add(t);
-			}
-		} else {
-			// if no schema correspondences are available (null - not if just no correspondences were generated), we use all available fusers
-			for(SchemaElementType elem : attributeFusers.keySet()) {
-				AttributeFusionTask<RecordType, SchemaElementType> t = new AttributeFusionTask<>();
-				t.setSchemaElement(elem);
-				t.setFuser(attributeFusers.get(elem));
-				t.setEvaluationRule(evaluationRules.get(elem));
-				fusers.add(t);
+				tasks.add(t);
 			}
 		}
 		
-		return fusers;
+		public boolean isFor(Processable<Correspondence<SchemaElementType, Matchable>> schemaCorrespondences) {
+			return this.schemaCorrespondences==schemaCorrespondences;
+		}
+		
+		public List<AttributeFusionTask<RecordType, SchemaElementType>> getTasks() {
+			return tasks;
+		}
 	}
 
 	/**
@@ -236,9 +288,20 @@ public class DataFusionStrategy<RecordType extends Matchable & Fusible<SchemaEle
 	 */
 	public Map<String, Double> getAttributeConsistency(
 			RecordGroup<RecordType, SchemaElementType> group, Processable<Correspondence<SchemaElementType, Matchable>> schemaCorrespondences) {
+		return getAttributeConsistencyForTasks(group, getAttributeFusers(group, schemaCorrespondences));
+	}
+
+	/**
+	 * calculates the number of non-conflicting values for the given group of
+	 * records, according to the given fusion tasks. Use this method with the result of {@link #getAttributeFusers(RecordGroup, Processable)} when calculating the consistency of many groups for the same schema correspondences.
+	 * 
+	 * @param group							the group of records
+	 * @param tasks							the fusion tasks
+	 * @return A map with the attribute consistency values
+	 */
+	public Map<String, Double> getAttributeConsistencyForTasks(
+			RecordGroup<RecordType, SchemaElementType> group, List<AttributeFusionTask<RecordType, SchemaElementType>> tasks) {
 		Map<String, Double> consistencies = new HashMap<>();
-		
-		List<AttributeFusionTask<RecordType, SchemaElementType>> tasks = getAttributeFusers(group, schemaCorrespondences);
 
 		for (AttributeFusionTask<RecordType, SchemaElementType> fuserTask : tasks) {
 			
@@ -12,8 +12,11 @@
 package de.uni_mannheim.informatik.dws.winter.datafusion.conflictresolution;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.LinkedList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 
 import de.uni_mannheim.informatik.dws.winter.clustering.CentreClusterer;
@@ -45,15 +48,48 @@ public class ClusteredVote<ValueType, RecordType extends Matchable & Fusible<Sch
 	public FusedValue<ValueType, RecordType, SchemaElementType> resolveConflict(
 			Collection<FusibleValue<ValueType, RecordType, SchemaElementType>> values) {
 		
-		// calculate similarities
-		Collection<Triple<FusibleValue<ValueType, RecordType, SchemaElementType>, FusibleValue<ValueType, RecordType, SchemaElementType>, Double>> similarityGraph = new LinkedList<>();
 		ArrayList<FusibleValue<ValueType, RecordType, SchemaElementType>> valueList = new ArrayList<>(values);
+		
+		// de-duplicate the values, so the similarity of each pair of distinct values is only calculated once
+		Map<ValueType, Integer> distinctValueIndex = new HashMap<>();
+		List<ValueType> distinctValues = new ArrayList<>();
+		List<Integer> counts = new ArrayList<>();
+		List<FusibleValue<ValueType, RecordType, SchemaElementType>> firstOccurrences = new ArrayList<>();
+		int[] valueIndex = new int[valueList.size()];
+		for(int i = 0; i < valueList.size(); i++) {
+			ValueType value = valueList.get(i).getValue();
+			Integer index = distinctValueIndex.get(value);
+			if(index==null) {
+				index = distinctValues.size();
+				distinctValueIndex.put(value, index);
+				distinctValues.add(value);
+				counts.add(0);
+				firstOccurrences.add(valueList.get(i));
+			}
+			counts.set(index, counts.get(index) + 1);
+			valueIndex[i] = index;
+		}
+		
+		SimilarityCache cache = new SimilarityCache(distinctValues, counts);
+		
+		// if one value has the majority and is more similar to itself than to any other value, all of its occurrences form the largest cluster
+		for(int i = 0; i < distinctValues.size(); i++) {
+			if(counts.get(i) > 1 && counts.get(i) * 2 > valueList.size()) {
+				if(isLargestCluster(i, cache)) {
+					return new FusedValue<>(firstOccurrences.get(i));
+				}
+				break;
+			}
+		}
+		
+		// calculate similarities
+		Collection<Triple<FusibleValue<ValueType, RecordType, SchemaElementType>, FusibleValue<ValueType, RecordType, SchemaElementType>, Double>> similarityGraph = new ArrayList<>();
 		for(int i = 0; i < valueList.size(); i++) {
 			FusibleValue<ValueType, RecordType, SchemaElementType> v1 = valueList.get(i);
 			for(int j = i + 1; j <valueList.size(); j++) {
 				FusibleValue<ValueType, RecordType, SchemaElementType> v2 = valueList.get(j);
 				
-				double similarity = similarityMeasure.calculate(v1.getValue(), v2.getValue());
+				double similarity = cache.get(valueIndex[i], valueIndex[j]);
 				
 				if(similarity>=threshold) {
 					similarityGraph.add(new Triple<>(v1, v2, similarity));
@@ -65,12 +101,17 @@ public class ClusteredVote<ValueType, RecordType extends Matchable & Fusible<Sch
 		CentreClusterer<FusibleValue<ValueType, RecordType, SchemaElementType>> clusterer = new CentreClusterer<>();
 		Map<Collection<FusibleValue<ValueType, RecordType, SchemaElementType>>,FusibleValue<ValueType, RecordType, SchemaElementType>> clusters = clusterer.cluster(similarityGraph);
 		
-		// select largest cluster
+		// select largest cluster, if multiple clusters have the same size, select the one whose centre occurs first
+		Map<FusibleValue<ValueType, RecordType, SchemaElementType>, Integer> positions = new IdentityHashMap<>();
+		for(int i = valueList.size() - 1; i >= 0; i--) {
+			positions.put(valueList.get(i), i);
+		}
 		FusibleValue<ValueType, RecordType, SchemaElementType> centroid = null;
 		Collection<FusibleValue<ValueType, RecordType, SchemaElementType>> largestCluster = null;
 		for(Collection<FusibleValue<ValueType, RecordType, SchemaElementType>> clu : clusters.keySet()) {
 			FusibleValue<ValueType, RecordType, SchemaElementType> centre = clusters.get(clu);
-			if(largestCluster==null || clu.size()>largestCluster.size()) {
+			if(largestCluster==null || clu.size()>largestCluster.size()
+					|| clu.size()==largestCluster.size() && positions.get(centre) < positions.get(centroid)) {
 				largestCluster = clu;
 				centroid = centre;
 			}
@@ -78,5 +119,90 @@ public class ClusteredVote<ValueType, RecordType extends Matchable & Fusible<Sch
 		
 		return new FusedValue<>(centroid);
 	}
+	
+	/**
+	 * Checks if all occurrences of the value will be assigned to the same cluster before any other value is assigned to a cluster with one of them.
+	 * This is the case if the value is at least as similar to itself as the threshold and more similar to itself than to any other value.
+	 */
+	private boolean isLargestCluster(int index, SimilarityCache cache) {
+		double selfSimilarity = cache.get(index, index);
+		if(!(selfSimilarity >= threshold)) {
+			return false;
+		}
+		for(int i = 0; i < cache.size(); i++) {
+			if(i != index && (!(cache.get(index, i) < selfSimilarity) || !(cache.get(i, index) < selfSimilarity))) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Calculates the similarities between distinct values on demand.
+	 * Only the rows of values that occur multiple times are requested again, so only these rows are kept (up to a maximum number of similarities).
+	 * All other rows share one row, which is valid until another row is requested.
+	 */
+	private class SimilarityCache {
+		
+		private static final int MAX_CACHED_SIMILARITIES = 1 << 22;
+		
+		private List<ValueType> values;
+		private List<Integer> counts;
+		private double[][] rows;
+		private int numCachedSimilarities = 0;
+		
+		// the shared row, an entry is only valid if its version is the current version
+		private double[] sharedRow;
+		private int[] sharedRowVersions;
+		private int sharedRowIndex = -1;
+		private int sharedRowVersion = 0;
+		
+		public SimilarityCache(List<ValueType> values, List<Integer> counts) {
+			this.values = values;
+			this.counts = counts;
+			rows = new double[values.size()][];
+		}
+		
+		public int size() {
+			return values.size();
+		}
+		
+		public double get(int i, int j) {
+			double[] row = rows[i];
+			if(row == null) {
+				if(counts.get(i) > 1 && numCachedSimilarities + values.size() <= MAX_CACHED_SIMILARITIES) {
+					row = new double[values.size()];
+					Arrays.fill(row, Double.NaN);
+					rows[i] = row;
+					numCachedSimilarities += row.length;
+				} else {
+					return getFromSharedRow(i, j);
+				}
+			}
+			double similarity = row[j];
+			if(Double.isNaN(similarity)) {
+				similarity = similarityMeasure.calculate(values.get(i), values.get(j));
+				row[j] = similarity;
+			}
+			return similarity;
+		}
+		
+		private double getFromSharedRow(int i, int j) {
+			if(sharedRow == null) {
+				sharedRow = new double[values.size()];
+				sharedRowVersions = new int[values.size()];
+			}
+			if(sharedRowIndex != i) {
+				// invalidates all entries of the shared row
+				sharedRowIndex = i;
+				sharedRowVersion++;
+			}
+			if(sharedRowVersions[j] != sharedRowVersion) {
+				sharedRow[j] = similarityMeasure.calculate(values.get(i), values.get(j));
+				sharedRowVersions[j] = sharedRowVersion;
+			}
+			return sharedRow[j];
+		}
+	}
 
 }
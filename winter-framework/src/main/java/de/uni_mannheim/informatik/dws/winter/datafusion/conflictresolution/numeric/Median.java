@@ -12,9 +12,6 @@
 package de.uni_mannheim.informatik.dws.winter.datafusion.conflictresolution.numeric;
 
 import java.util.Collection;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
 
 import de.uni_mannheim.informatik.dws.winter.datafusion.conflictresolution.ConflictResolutionFunction;
 import de.uni_mannheim.informatik.dws.winter.model.FusedValue;
@@ -36,27 +33,91 @@ public class Median<RecordType extends Matchable & Fusible<SchemaElementType>, S
 	public FusedValue<Double, RecordType, SchemaElementType> resolveConflict(
 			Collection<FusibleValue<Double, RecordType, SchemaElementType>> values) {
 
-		List<Double> list = new LinkedList<>();
+		double[] array = new double[values.size()];
 
+		int i = 0;
 		for (FusibleValue<Double, RecordType, SchemaElementType> value : values) {
-			list.add(value.getValue());
+			array[i++] = value.getValue();
 		}
 
-		Collections.sort(list);
-
-		boolean isEven = list.size() % 2 == 0;
-		if (list.size() == 0) {
+		boolean isEven = array.length % 2 == 0;
+		if (array.length == 0) {
 			return new FusedValue<>((Double) null);
 		} else if (isEven) {
-			double middle = ((double) list.size() + 1.0) / 2.0;
-			double median1 = list.get((int) Math.floor(middle) - 1);
-			double median2 = list.get((int) Math.ceil(middle) - 1);
+			int middle = array.length / 2 - 1;
+			double median1 = select(array, middle);
+
+			// after the selection, all values to the right of the middle are at least as large as median1
+			double median2 = array[middle + 1];
+			for (int j = middle + 2; j < array.length; j++) {
+				if (Double.compare(array[j], median2) < 0) {
+					median2 = array[j];
+				}
+			}
 
 			return new FusedValue<>((median1 + median2) / 2.0);
 		} else {
-			int middle = (list.size() + 1) / 2;
+			return new FusedValue<>(select(array, array.length / 2));
+		}
+	}
+
+	/**
+	 * Partially sorts the array (quickselect), such that the k-th smallest value is at position k, all smaller values are left and all larger values are right of it.
+	 * Values are ordered in the same way as by {@link Double#compareTo(Double)}.
+	 * 
+	 * @param array	the values
+	 * @param k	the position of the value to select
+	 * @return the k-th smallest value
+	 */
+	private static double select(double[] array, int k) {
+		int left = 0;
+		int right = array.length - 1;
 
-			return new FusedValue<>(list.get(middle - 1));
+		while (left < right) {
+			// use the median of the first, middle and last value as pivot
+			int mid = (left + right) >>> 1;
+			if (Double.compare(array[mid], array[left]) < 0) {
+				swap(array, left, mid);
+			}
+			if (Double.compare(array[right], array[left]) < 0) {
+				swap(array, left, right);
+			}
+			if (Double.compare(array[right], array[mid]) < 0) {
+				swap(array, mid, right);
+			}
+			double pivot = array[mid];
+
+			int i = left;
+			int j = right;
+			while (i <= j) {
+				while (Double.compare(array[i], pivot) < 0) {
+					i++;
+				}
+				while (Double.compare(array[j], pivot) > 0) {
+					j--;
+				}
+				if (i <= j) {
+					swap(array, i, j);
+					i++;
+					j--;
+				}
+			}
+
+			if (k <= j) {
+				right = j;
+			} else if (k >= i) {
+				left = i;
+			} else {
+				break;
+			}
 		}
+
+		return array[k];
+	}
+
+	private static void swap(double[] array, int i, int j) {
+		double tmp = array[i];
+		array[i] = array[j];
+		array[j] = tmp;
 	}
 }
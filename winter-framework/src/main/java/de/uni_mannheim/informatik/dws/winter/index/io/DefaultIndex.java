@@ -111,6 +111,7 @@ public class DefaultIndex implements IIndex {
 			if (indexReader != null) {
 				indexReader.close();
 				indexReader = null;
+				indexSearcher = null;
 			}
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -96,6 +96,7 @@ public class InMemoryIndex implements IIndex {
 			{
 				indexReader.close();
 				indexReader = null;
+				indexSearcher = null;
 			}
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -18,6 +18,8 @@ import de.uni_mannheim.informatik.dws.winter.model.Pair;
 import de.uni_mannheim.informatik.dws.winter.model.Performance;
 import de.uni_mannheim.informatik.dws.winter.processing.Processable;
 import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Consumer;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Parallel;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
@@ -39,11 +41,15 @@ public class MatchingEvaluator<RecordType extends Matchable, SchemaElementType e
 
     private static final Logger logger = WinterLogManager.getLogger();
 
+    // below this number of correspondences, the evaluation is not parallelised
+    private static final int MIN_PARALLEL_SIZE = 100000;
+
     public MatchingEvaluator() {
     }
 
     /**
-     * Evaluates the given correspondences against the gold standard
+     * Evaluates the given correspondences against the gold standard. Large sets of correspondences are evaluated in
+     * parallel, unless trace logging is enabled (which lists all correspondences in their original order).
      *
      * @param correspondences the correspondences to evaluate
      * @param goldStandard the gold standard
@@ -51,7 +57,56 @@ public class MatchingEvaluator<RecordType extends Matchable, SchemaElementType e
      */
     public Performance evaluateMatching(Processable<Correspondence<RecordType, SchemaElementType>> correspondences,
         MatchingGoldStandard goldStandard) {
-        return evaluateMatching(correspondences.get(), goldStandard);
+        if (logger.isTraceEnabled() || correspondences.size() < MIN_PARALLEL_SIZE) {
+            return evaluateMatching(correspondences.get(), goldStandard);
+        }
+
+        final List<Correspondence<RecordType, SchemaElementType>> correspondenceList = new ArrayList<>(
+            correspondences.get());
+        final int numPartitions = Math.min(Runtime.getRuntime().availableProcessors() * 4,
+            correspondenceList.size() / (MIN_PARALLEL_SIZE / 10));
+        final int[] correct = new int[numPartitions];
+        final int[] matched = new int[numPartitions];
+
+        try {
+            Parallel.forLoop(0, numPartitions, new Consumer<Integer>() {
+
+                @Override
+                public void execute(Integer p) {
+                    int from = (int) ((long) correspondenceList.size() * p / numPartitions);
+                    int to = (int) ((long) correspondenceList.size() * (p + 1) / numPartitions);
+                    int partitionCorrect = 0;
+                    int partitionMatched = 0;
+
+                    for (int i = from; i < to; i++) {
+                        Correspondence<RecordType, SchemaElementType> correspondence = correspondenceList.get(i);
+                        if (goldStandard.containsPositive(correspondence.getFirstRecord(),
+                            correspondence.getSecondRecord())) {
+                            partitionCorrect++;
+                            partitionMatched++;
+                        } else if (goldStandard.isComplete() || goldStandard.containsNegative(
+                            correspondence.getFirstRecord(), correspondence.getSecondRecord())) {
+                            partitionMatched++;
+                        }
+                    }
+
+                    correct[p] = partitionCorrect;
+                    matched[p] = partitionMatched;
+                }
+            });
+        } catch (Exception e) {
+            // the counts of a failed partition are missing, so no partial result is returned
+            throw new RuntimeException("Evaluating the correspondences failed", e);
+        }
+
+        int totalCorrect = 0;
+        int totalMatched = 0;
+        for (int p = 0; p < numPartitions; p++) {
+            totalCorrect += correct[p];
+            totalMatched += matched[p];
+        }
+
+        return new Performance(totalCorrect, totalMatched, goldStandard.getPositiveExamples().size());
     }
 
     /**
@@ -295,38 +350,44 @@ public class MatchingEvaluator<RecordType extends Matchable, SchemaElementType e
         int correct = 0;
         int matched = 0;
         int correct_max = goldStandard.getPositiveExamples().size();
+        boolean trace = logger.isTraceEnabled();
 
         // keep a list of all unmatched positives for later output
-        List<Pair<String, String>> positives = new ArrayList<>(goldStandard.getPositiveExamples());
+        List<Pair<String, String>> positives = trace ? new ArrayList<>(goldStandard.getPositiveExamples())
+            : new ArrayList<>();
 
         for (Correspondence<RecordType, SchemaElementType> correspondence : correspondences) {
             if (goldStandard.containsPositive(correspondence.getFirstRecord(), correspondence.getSecondRecord())) {
                 correct++;
                 matched++;
 
-                logger.trace(String.format("[correct] %s,%s,%s", correspondence.getFirstRecord().getIdentifier(),
-                    correspondence.getSecondRecord().getIdentifier(),
-                    Double.toString(correspondence.getSimilarityScore())));
-
-                // remove pair from positives
-                Iterator<Pair<String, String>> it = positives.iterator();
-                while (it.hasNext()) {
-                    Pair<String, String> p = it.next();
-                    String id1 = correspondence.getFirstRecord().getIdentifier();
-                    String id2 = correspondence.getSecondRecord().getIdentifier();
-
-                    if (p.getFirst().equals(id1) && p.getSecond().equals(id2)
-                        || p.getFirst().equals(id2) && p.getSecond().equals(id1)) {
-                        it.remove();
+                if (trace) {
+                    logger.trace(String.format("[correct] %s,%s,%s", correspondence.getFirstRecord().getIdentifier(),
+                        correspondence.getSecondRecord().getIdentifier(),
+                        Double.toString(correspondence.getSimilarityScore())));
+
+                    // remove pair from positives
+                    Iterator<Pair<String, String>> it = positives.iterator();
+                    while (it.hasNext()) {
+                        Pair<String, String> p = it.next();
+                        String id1 = correspondence.getFirstRecord().getIdentifier();
+                        String id2 = correspondence.getSecondRecord().getIdentifier();
+
+                        if (p.getFirst().equals(id1) && p.getSecond().equals(id2)
+                            || p.getFirst().equals(id2) && p.getSecond().equals(id1)) {
+                            it.remove();
+                        }
                     }
                 }
             } else if (goldStandard.isComplete() || goldStandard.containsNegative(correspondence.getFirstRecord(),
                 correspondence.getSecondRecord())) {
                 matched++;
 
-                logger.trace(String.format("[wrong] %s,%s,%s", correspondence.getFirstRecord().getIdentifier(),
-                    correspondence.getSecondRecord().getIdentifier(),
-                    Double.toString(correspondence.getSimilarityScore())));
+                if (trace) {
+                    logger.trace(String.format("[wrong] %s,%s,%s", correspondence.getFirstRecord().getIdentifier(),
+                        correspondence.getSecondRecord().getIdentifier(),
+                        Double.toString(correspondence.getSimilarityScore())));
+                }
 
             }
         }
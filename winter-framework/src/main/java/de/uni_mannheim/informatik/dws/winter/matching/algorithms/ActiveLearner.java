@@ -0,0 +1,605 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.algorithms;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.slf4j.Logger;
+
+import de.uni_mannheim.informatik.dws.winter.matching.MatchingEvaluator;
+import de.uni_mannheim.informatik.dws.winter.matching.blockers.Blocker;
+import de.uni_mannheim.informatik.dws.winter.matching.rules.FilteringMatchingRule;
+import de.uni_mannheim.informatik.dws.winter.matching.rules.LearnableMatchingRule;
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.DataSet;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.MatchingGoldStandard;
+import de.uni_mannheim.informatik.dws.winter.model.Pair;
+import de.uni_mannheim.informatik.dws.winter.model.Performance;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.FeatureVectorDataSet;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Consumer;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Parallel;
+
+/**
+ * Learns a matching rule from a small number of labelled examples, which are
+ * selected from the candidates of a blocker (active learning).
+ *
+ * In each iteration, the rule is learned from all labelled examples and the
+ * most informative batch of unlabelled candidates is labelled by an
+ * {@link ActiveLearningOracle}. The informativeness is either the uncertainty
+ * of the rule (the similarity score is close to the final threshold) or the
+ * disagreement of a committee of rules, which are learned from bootstrap
+ * samples of the labelled examples.
+ *
+ * The first batch contains the candidates with the highest average feature
+ * values (which are likely matches) and random candidates (which are likely
+ * non-matches).
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class ActiveLearner<RecordType extends Matchable, SchemaElementType extends Matchable> {
+
+	private static final Logger logger = WinterLogManager.getLogger();
+
+	public enum SelectionStrategy {
+		/**
+		 * selects the candidates with a similarity score closest to the final
+		 * threshold of the rule
+		 */
+		UNCERTAINTY,
+		/**
+		 * selects the candidates with the largest disagreement among rules that
+		 * are learned from bootstrap samples of the labelled examples, falls
+		 * back to {@link #UNCERTAINTY} as long as no match or no non-match is
+		 * labelled
+		 */
+		COMMITTEE
+	}
+
+	private final FilteringMatchingRule<RecordType, SchemaElementType> rule;
+	private final LearnableMatchingRule<RecordType, SchemaElementType> learnableRule;
+
+	private SelectionStrategy selectionStrategy = SelectionStrategy.UNCERTAINTY;
+	private int initialSize = 10;
+	private int batchSize = 10;
+	private int committeeSize = 5;
+	private long randomSeed = 1;
+	private MatchingGoldStandard evaluationGoldStandard;
+	private Processable<Correspondence<RecordType, SchemaElementType>> evaluationCandidates;
+
+	private List<Integer> labelsPerIteration;
+	private List<Performance> performancePerIteration;
+
+	/**
+	 * @param rule
+	 *            the rule that is learned
+	 */
+	public <RuleType extends FilteringMatchingRule<RecordType, SchemaElementType> & LearnableMatchingRule<RecordType, SchemaElementType>> ActiveLearner(
+			RuleType rule) {
+		this.rule = rule;
+		this.learnableRule = rule;
+	}
+
+	public SelectionStrategy getSelectionStrategy() {
+		return selectionStrategy;
+	}
+
+	public void setSelectionStrategy(SelectionStrategy selectionStrategy) {
+		this.selectionStrategy = selectionStrategy;
+	}
+
+	/**
+	 * @param initialSize
+	 *            the number of labels that are requested before the rule is
+	 *            learned for the first time
+	 */
+	public void setInitialSize(int initialSize) {
+		this.initialSize = initialSize;
+	}
+
+	/**
+	 * @param batchSize
+	 *            the number of labels that are requested in each iteration
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * @param committeeSize
+	 *            the number of rules in the committee
+	 *            ({@link SelectionStrategy#COMMITTEE} only)
+	 */
+	public void setCommitteeSize(int committeeSize) {
+		this.committeeSize = committeeSize;
+	}
+
+	/**
+	 * @param randomSeed
+	 *            the seed for the random selection of candidates and the
+	 *            bootstrap samples
+	 */
+	public void setRandomSeed(long randomSeed) {
+		this.randomSeed = randomSeed;
+	}
+
+	/**
+	 * @param evaluationGoldStandard
+	 *            if set, the result of the rule on all candidates is evaluated
+	 *            against this gold standard after each iteration. Otherwise,
+	 *            the performance of the cross-validation during learning is
+	 *            reported.
+	 */
+	public void setEvaluationGoldStandard(MatchingGoldStandard evaluationGoldStandard) {
+		this.evaluationGoldStandard = evaluationGoldStandard;
+		this.evaluationCandidates = null;
+	}
+
+	/**
+	 * @param evaluationGoldStandard
+	 *            the result of the rule on the given candidates is evaluated
+	 *            against this gold standard after each iteration
+	 * @param evaluationCandidates
+	 *            the candidates that are used for the evaluation instead of the
+	 *            candidates that are labelled
+	 */
+	public void setEvaluationGoldStandard(MatchingGoldStandard evaluationGoldStandard,
+			Processable<Correspondence<RecordType, SchemaElementType>> evaluationCandidates) {
+		this.evaluationGoldStandard = evaluationGoldStandard;
+		this.evaluationCandidates = evaluationCandidates;
+	}
+
+	/**
+	 * @return the total number of labelled examples after each iteration
+	 */
+	public List<Integer> getLabelsPerIteration() {
+		return labelsPerIteration;
+	}
+
+	/**
+	 * @return the performance of the rule after each iteration
+	 */
+	public List<Performance> getPerformancePerIteration() {
+		return performancePerIteration;
+	}
+
+	/**
+	 * Runs the blocker and learns the rule from the labelled candidates
+	 *
+	 * @return the labelled examples
+	 */
+	public MatchingGoldStandard learnMatchingRule(DataSet<RecordType, SchemaElementType> dataset1,
+			DataSet<RecordType, SchemaElementType> dataset2,
+			Processable<? extends Correspondence<SchemaElementType, ? extends Matchable>> schemaCorrespondences,
+			Blocker<RecordType, SchemaElementType, RecordType, SchemaElementType> blocker,
+			ActiveLearningOracle<RecordType> oracle, int numIterations) {
+		Processable<Correspondence<RecordType, SchemaElementType>> candidates = blocker.runBlocking(dataset1,
+				dataset2, Correspondence.toMatchable(schemaCorrespondences));
+
+		return learnMatchingRule(dataset1, dataset2, schemaCorrespondences, candidates, oracle, numIterations);
+	}
+
+	/**
+	 * Learns the rule from the labelled candidates
+	 *
+	 * @param candidates
+	 *            the candidate pairs, i.e., the result of a blocker
+	 * @param oracle
+	 *            provides the labels
+	 * @param numIterations
+	 *            the number of batches that are labelled after the initial
+	 *            batch
+	 * @return the labelled examples
+	 */
+	public MatchingGoldStandard learnMatchingRule(DataSet<RecordType, SchemaElementType> dataset1,
+			DataSet<RecordType, SchemaElementType> dataset2,
+			Processable<? extends Correspondence<SchemaElementType, ? extends Matchable>> schemaCorrespondences,
+			Processable<Correspondence<RecordType, SchemaElementType>> candidates,
+			ActiveLearningOracle<RecordType> oracle, int numIterations) {
+
+		Processable<Correspondence<SchemaElementType, Matchable>> schemaCorrespondenceMatchables = Correspondence
+				.toMatchable(schemaCorrespondences);
+		Random random = new Random(randomSeed);
+
+		// the order of the blocker result is not deterministic
+		List<Correspondence<RecordType, SchemaElementType>> pairs = new ArrayList<>(candidates.get());
+		pairs.sort(Comparator
+				.comparing((Correspondence<RecordType, SchemaElementType> c) -> c.getFirstRecord().getIdentifier())
+				.thenComparing((Correspondence<RecordType, SchemaElementType> c) -> c.getSecondRecord().getIdentifier()));
+
+		boolean[] labelled = new boolean[pairs.size()];
+		MatchingGoldStandard examples = new MatchingGoldStandard();
+		FeatureVectorDataSet features = learnableRule.initialiseFeatures(dataset1.getRandomRecord(),
+				dataset2.getRandomRecord(), schemaCorrespondences);
+		List<Record> positiveFeatures = new ArrayList<>();
+		List<Record> negativeFeatures = new ArrayList<>();
+
+		// the committee is created from the rule before it is learned
+		MatchingRuleCopier<FilteringMatchingRule<RecordType, SchemaElementType>> copier = null;
+		if (selectionStrategy == SelectionStrategy.COMMITTEE) {
+			try {
+				copier = new MatchingRuleCopier<>(rule);
+			} catch (IOException e) {
+				logger.error(String.format("Cannot copy the matching rule, using uncertainty sampling: %s",
+						e.getMessage()));
+			}
+		}
+
+		labelsPerIteration = new ArrayList<>();
+		performancePerIteration = new ArrayList<>();
+
+		// select the initial batch
+		double[] averages = calculateAverageFeatureValues(pairs, schemaCorrespondenceMatchables, features);
+		List<Integer> ranked = indices(pairs.size());
+		ranked.sort(Comparator.comparingDouble((Integer i) -> -averages[i]));
+		List<Integer> shuffled = indices(pairs.size());
+		Collections.shuffle(shuffled, random);
+
+		List<Integer> batch = new ArrayList<>(ranked.subList(0, Math.min(ranked.size(), (initialSize + 1) / 2)));
+		for (int i : shuffled) {
+			if (batch.size() >= initialSize) {
+				break;
+			}
+			if (!batch.contains(i)) {
+				batch.add(i);
+			}
+		}
+		label(batch, pairs, labelled, oracle, schemaCorrespondenceMatchables, examples, features, positiveFeatures,
+				negativeFeatures);
+
+		// make sure that both classes are present: likely matches have high
+		// feature values, random candidates are likely non-matches
+		Iterator<Integer> rankedCandidates = ranked.iterator();
+		Iterator<Integer> randomCandidates = shuffled.iterator();
+		while (positiveFeatures.isEmpty() || negativeFeatures.isEmpty()) {
+			Iterator<Integer> candidatesIterator = positiveFeatures.isEmpty() ? rankedCandidates : randomCandidates;
+			Integer next = null;
+			while (candidatesIterator.hasNext() && next == null) {
+				int i = candidatesIterator.next();
+				if (!labelled[i]) {
+					next = i;
+				}
+			}
+			if (next == null) {
+				break;
+			}
+			label(Collections.singletonList(next), pairs, labelled, oracle, schemaCorrespondenceMatchables, examples,
+					features, positiveFeatures, negativeFeatures);
+		}
+
+		for (int iteration = 0;; iteration++) {
+			Performance performance = learnableRule.learnParameters(features);
+
+			double[] scores = null;
+			if ((evaluationGoldStandard != null && evaluationCandidates == null)
+					|| selectionStrategy == SelectionStrategy.UNCERTAINTY || copier == null) {
+				scores = score(rule, pairs, null, schemaCorrespondenceMatchables);
+			}
+
+			if (evaluationGoldStandard != null) {
+				List<Correspondence<RecordType, SchemaElementType>> evaluated = pairs;
+				double[] evaluatedScores = scores;
+				if (evaluationCandidates != null) {
+					evaluated = new ArrayList<>(evaluationCandidates.get());
+					evaluatedScores = score(rule, evaluated, null, schemaCorrespondenceMatchables);
+				}
+
+				List<Correspondence<RecordType, SchemaElementType>> result = new ArrayList<>();
+				for (int i = 0; i < evaluated.size(); i++) {
+					if (evaluatedScores[i] >= rule.getFinalThreshold()) {
+						result.add(evaluated.get(i));
+					}
+				}
+				performance = new MatchingEvaluator<RecordType, SchemaElementType>().evaluateMatching(result,
+						evaluationGoldStandard);
+			}
+
+			labelsPerIteration.add(features.size());
+			performancePerIteration.add(performance);
+			logger.info(String.format("Active learning iteration %d: %,d labels (%,d positive), F1 %.4f", iteration,
+					features.size(), positiveFeatures.size(), performance == null ? 0.0 : performance.getF1()));
+
+			List<Integer> unlabelled = new ArrayList<>();
+			for (int i = 0; i < pairs.size(); i++) {
+				if (!labelled[i]) {
+					unlabelled.add(i);
+				}
+			}
+
+			if (iteration == numIterations || unlabelled.isEmpty()) {
+				break;
+			}
+
+			double[] ambiguity = calculateAmbiguity(pairs, labelled, examples, averages);
+			// the bootstrap samples of the committee must contain both classes
+			if (copier == null || positiveFeatures.isEmpty() || negativeFeatures.isEmpty()) {
+				batch = selectByUncertainty(unlabelled, scores, ambiguity);
+			} else {
+				batch = selectByCommittee(unlabelled, pairs, ambiguity, copier, features, positiveFeatures,
+						negativeFeatures, schemaCorrespondenceMatchables, random);
+			}
+
+			label(batch, pairs, labelled, oracle, schemaCorrespondenceMatchables, examples, features,
+					positiveFeatures, negativeFeatures);
+		}
+
+		return examples;
+	}
+
+	/**
+	 * @return the average feature value of each candidate
+	 */
+	@SuppressWarnings("unchecked")
+	private double[] calculateAverageFeatureValues(List<Correspondence<RecordType, SchemaElementType>> pairs,
+			Processable<Correspondence<SchemaElementType, Matchable>> schemaCorrespondences,
+			FeatureVectorDataSet features) {
+		double[] averages = new double[pairs.size()];
+		forEachCandidate(rule, indices(pairs.size()), new RuleConsumer<RecordType, SchemaElementType>() {
+
+			@Override
+			public void execute(FilteringMatchingRule<RecordType, SchemaElementType> rule, int i) {
+				Correspondence<RecordType, SchemaElementType> pair = pairs.get(i);
+				Record values = ((LearnableMatchingRule<RecordType, SchemaElementType>) rule)
+						.generateFeatures(pair.getFirstRecord(), pair.getSecondRecord(), schemaCorrespondences, features);
+				double sum = 0;
+				int count = 0;
+				for (Attribute a : features.getSchema().get()) {
+					String value = values.getValue(a);
+					if (value != null && a != FeatureVectorDataSet.ATTRIBUTE_LABEL) {
+						sum += Double.parseDouble(value);
+						count++;
+					}
+				}
+				averages[i] = count == 0 ? 0 : sum / count;
+			}
+		});
+
+		return averages;
+	}
+
+	/**
+	 * Calculates the distance of the average feature value of each candidate to
+	 * the midpoint between the average feature values of the labelled positive
+	 * and negative examples. Candidates with a small distance are hard to
+	 * decide based on their features.
+	 *
+	 * @return the distance indexed by candidate
+	 */
+	private double[] calculateAmbiguity(List<Correspondence<RecordType, SchemaElementType>> pairs,
+			boolean[] labelled, MatchingGoldStandard examples, double[] averages) {
+		double positiveSum = 0.0, negativeSum = 0.0;
+		int positives = 0, negatives = 0;
+		for (int i = 0; i < pairs.size(); i++) {
+			if (labelled[i]) {
+				Correspondence<RecordType, SchemaElementType> pair = pairs.get(i);
+				if (examples.containsPositive(pair.getFirstRecord(), pair.getSecondRecord())) {
+					positiveSum += averages[i];
+					positives++;
+				} else if (examples.containsNegative(pair.getFirstRecord(), pair.getSecondRecord())) {
+					negativeSum += averages[i];
+					negatives++;
+				}
+			}
+		}
+
+		double midpoint = ((positives == 0 ? 1.0 : positiveSum / positives)
+				+ (negatives == 0 ? 0.0 : negativeSum / negatives)) / 2.0;
+		double[] ambiguity = new double[pairs.size()];
+		for (int i = 0; i < pairs.size(); i++) {
+			ambiguity[i] = Math.abs(averages[i] - midpoint);
+		}
+		return ambiguity;
+	}
+
+	/**
+	 * Selects the candidates with the scores closest to the final threshold.
+	 * Many candidates can have the same score (i.e., if the rule is learned
+	 * from few examples), so ties are broken by the ambiguity of the average
+	 * feature value.
+	 */
+	private List<Integer> selectByUncertainty(List<Integer> unlabelled, double[] scores, double[] ambiguity) {
+		List<Integer> ranked = new ArrayList<>(unlabelled);
+		ranked.sort(Comparator.comparingDouble((Integer i) -> Math.abs(scores[i] - rule.getFinalThreshold()))
+				.thenComparingDouble((Integer i) -> ambiguity[i]));
+		return ranked.subList(0, Math.min(batchSize, ranked.size()));
+	}
+
+	/**
+	 * Learns one rule for each bootstrap sample of the labelled examples and
+	 * selects the candidates for which the rules disagree most. Ties are broken
+	 * by the uncertainty of the average score and by the ambiguity of the
+	 * average feature value.
+	 */
+	private List<Integer> selectByCommittee(List<Integer> unlabelled,
+			List<Correspondence<RecordType, SchemaElementType>> pairs, double[] ambiguity,
+			MatchingRuleCopier<FilteringMatchingRule<RecordType, SchemaElementType>> copier, FeatureVectorDataSet features,
+			List<Record> positiveFeatures, List<Record> negativeFeatures,
+			Processable<Correspondence<SchemaElementType, Matchable>> schemaCorrespondences, Random random) {
+		List<Record> labelledFeatures = new ArrayList<>(positiveFeatures);
+		labelledFeatures.addAll(negativeFeatures);
+
+		int[] votes = new int[pairs.size()];
+		double[] scoreSums = new double[pairs.size()];
+
+		for (int member = 0; member < committeeSize; member++) {
+			FeatureVectorDataSet sample = new FeatureVectorDataSet();
+			for (Attribute a : features.getSchema().get()) {
+				sample.addAttribute(a);
+			}
+
+			// the sample must contain both classes
+			addToSample(sample, positiveFeatures.get(random.nextInt(positiveFeatures.size())), 0);
+			addToSample(sample, negativeFeatures.get(random.nextInt(negativeFeatures.size())), 1);
+			for (int i = 2; i < labelledFeatures.size(); i++) {
+				addToSample(sample, labelledFeatures.get(random.nextInt(labelledFeatures.size())), i);
+			}
+
+			FilteringMatchingRule<RecordType, SchemaElementType> memberRule = copier.copy();
+			((LearnableMatchingRule<?, ?>) memberRule).learnParameters(sample);
+
+			double[] scores = score(memberRule, pairs, unlabelled, schemaCorrespondences);
+			for (int i : unlabelled) {
+				if (scores[i] >= rule.getFinalThreshold()) {
+					votes[i]++;
+				}
+				scoreSums[i] += scores[i];
+			}
+		}
+
+		List<Integer> ranked = new ArrayList<>(unlabelled);
+		ranked.sort(Comparator
+				.comparingInt((Integer i) -> -Math.min(votes[i], committeeSize - votes[i]))
+				.thenComparingDouble((Integer i) -> Math.abs(scoreSums[i] / committeeSize - rule.getFinalThreshold()))
+				.thenComparingDouble((Integer i) -> ambiguity[i]));
+		return ranked.subList(0, Math.min(batchSize, ranked.size()));
+	}
+
+	private void addToSample(FeatureVectorDataSet sample, Record example, int index) {
+		// the same example can be drawn multiple times, so every copy needs its own identifier
+		Record copy = new Record(example.getIdentifier() + "#" + index, example.getProvenance());
+		for (Attribute a : sample.getSchema().get()) {
+			copy.setValue(a, example.getValue(a));
+		}
+		sample.add(copy);
+	}
+
+	/**
+	 * Requests the labels for the given candidates and adds the labelled
+	 * candidates to the examples
+	 */
+	private void label(List<Integer> batch, List<Correspondence<RecordType, SchemaElementType>> pairs,
+			boolean[] labelled, ActiveLearningOracle<RecordType> oracle,
+			Processable<Correspondence<SchemaElementType, Matchable>> schemaCorrespondences,
+			MatchingGoldStandard examples, FeatureVectorDataSet features, List<Record> positiveFeatures,
+			List<Record> negativeFeatures) {
+		for (int i : batch) {
+			if (labelled[i]) {
+				continue;
+			}
+			labelled[i] = true;
+
+			Correspondence<RecordType, SchemaElementType> pair = pairs.get(i);
+			Boolean isMatch = oracle.label(pair.getFirstRecord(), pair.getSecondRecord());
+
+			if (isMatch != null) {
+				Record example = learnableRule.generateFeatures(pair.getFirstRecord(), pair.getSecondRecord(),
+						schemaCorrespondences, features);
+				Pair<String, String> ids = new Pair<>(pair.getFirstRecord().getIdentifier(),
+						pair.getSecondRecord().getIdentifier());
+
+				if (isMatch) {
+					example.setValue(FeatureVectorDataSet.ATTRIBUTE_LABEL, "1");
+					examples.addPositiveExample(ids);
+					positiveFeatures.add(example);
+				} else {
+					example.setValue(FeatureVectorDataSet.ATTRIBUTE_LABEL, "0");
+					examples.addNegativeExample(ids);
+					negativeFeatures.add(example);
+				}
+				features.add(example);
+			}
+		}
+	}
+
+	/**
+	 * Applies the rule to the given candidates (or all candidates if null)
+	 *
+	 * @return the similarity scores indexed by candidate
+	 */
+	private double[] score(FilteringMatchingRule<RecordType, SchemaElementType> rule,
+			List<Correspondence<RecordType, SchemaElementType>> pairs, List<Integer> selection,
+			Processable<Correspondence<SchemaElementType, Matchable>> schemaCorrespondences) {
+		double[] scores = new double[pairs.size()];
+
+		forEachCandidate(rule, selection == null ? indices(pairs.size()) : selection, new RuleConsumer<RecordType, SchemaElementType>() {
+
+			@Override
+			public void execute(FilteringMatchingRule<RecordType, SchemaElementType> rule, int i) {
+				Correspondence<RecordType, SchemaElementType> pair = pairs.get(i);
+				Correspondence<RecordType, SchemaElementType> result = rule.apply(pair.getFirstRecord(),
+						pair.getSecondRecord(), schemaCorrespondences);
+				scores[i] = result == null ? 0.0 : result.getSimilarityScore();
+			}
+		});
+
+		return scores;
+	}
+
+	private interface RuleConsumer<RecordType extends Matchable, SchemaElementType extends Matchable> {
+		void execute(FilteringMatchingRule<RecordType, SchemaElementType> rule, int candidate);
+	}
+
+	/**
+	 * Runs the consumer for all given candidates in parallel. Every thread uses
+	 * its own copy of the rule (see {@link RuleLearner}). Rules with an active
+	 * debug report or rules that cannot be copied are applied sequentially.
+	 */
+	private void forEachCandidate(FilteringMatchingRule<RecordType, SchemaElementType> rule, List<Integer> candidates,
+			RuleConsumer<RecordType, SchemaElementType> consumer) {
+		MatchingRuleCopier<FilteringMatchingRule<RecordType, SchemaElementType>> copier = null;
+		if (!rule.isDebugReportActive()) {
+			try {
+				copier = new MatchingRuleCopier<>(rule);
+			} catch (IOException e) {
+				logger.warn(String.format("Cannot copy the matching rule, the candidates are processed sequentially: %s",
+						e.getMessage()));
+			}
+		}
+
+		if (copier == null) {
+			for (int i : candidates) {
+				consumer.execute(rule, i);
+			}
+		} else {
+			final MatchingRuleCopier<FilteringMatchingRule<RecordType, SchemaElementType>> threadCopier = copier;
+			final ThreadLocal<FilteringMatchingRule<RecordType, SchemaElementType>> rules = new ThreadLocal<FilteringMatchingRule<RecordType, SchemaElementType>>() {
+				@Override
+				protected FilteringMatchingRule<RecordType, SchemaElementType> initialValue() {
+					return threadCopier.copy();
+				}
+			};
+
+			try {
+				new Parallel<Integer>().foreach(candidates, new Consumer<Integer>() {
+
+					@Override
+					public void execute(Integer i) {
+						consumer.execute(rules.get(), i);
+					}
+				});
+			} catch (Exception e) {
+				// a failed candidate would keep its initial value and could be selected
+				throw new RuntimeException("Processing the candidates failed", e);
+			}
+		}
+	}
+
+	private List<Integer> indices(int size) {
+		List<Integer> indices = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			indices.add(i);
+		}
+		return indices;
+	}
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.algorithms;
+
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+
+/**
+ * Provides the labels for the examples that are selected by the
+ * {@link ActiveLearner}, for example by asking a user.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ * @param <RecordType>
+ *            the type of the records
+ */
+public interface ActiveLearningOracle<RecordType extends Matchable> {
+
+	/**
+	 * Labels a pair of records
+	 *
+	 * @param record1
+	 *            the record from the first data set
+	 * @param record2
+	 *            the record from the second data set
+	 * @return true if the records match, false if they do not match, null if
+	 *         the pair cannot be labelled
+	 */
+	Boolean label(RecordType record1, RecordType record2);
+
+}
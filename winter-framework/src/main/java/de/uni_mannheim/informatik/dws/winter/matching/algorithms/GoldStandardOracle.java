@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.algorithms;
+
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.MatchingGoldStandard;
+
+/**
+ * {@link ActiveLearningOracle} that answers with the labels of a gold
+ * standard. Pairs that are not in the gold standard are negative examples if
+ * the gold standard is complete and cannot be labelled otherwise.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class GoldStandardOracle<RecordType extends Matchable> implements ActiveLearningOracle<RecordType> {
+
+	private MatchingGoldStandard goldStandard;
+	private int numberOfLabels = 0;
+
+	public GoldStandardOracle(MatchingGoldStandard goldStandard) {
+		this.goldStandard = goldStandard;
+	}
+
+	@Override
+	public Boolean label(RecordType record1, RecordType record2) {
+		numberOfLabels++;
+
+		if (goldStandard.containsPositive(record1, record2)) {
+			return true;
+		} else if (goldStandard.containsNegative(record1, record2) || goldStandard.isComplete()) {
+			return false;
+		} else {
+			return null;
+		}
+	}
+
+	/**
+	 * @return the number of requested labels
+	 */
+	public int getNumberOfLabels() {
+		return numberOfLabels;
+	}
+
+}
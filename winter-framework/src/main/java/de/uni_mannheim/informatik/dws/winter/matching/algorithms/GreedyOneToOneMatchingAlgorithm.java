@@ -1,21 +1,24 @@
 package de.uni_mannheim.informatik.dws.winter.matching.algorithms;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
 
 import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
 import de.uni_mannheim.informatik.dws.winter.model.Matchable;
 import de.uni_mannheim.informatik.dws.winter.model.Pair;
-import de.uni_mannheim.informatik.dws.winter.processing.DataIterator;
-import de.uni_mannheim.informatik.dws.winter.processing.Group;
 import de.uni_mannheim.informatik.dws.winter.processing.Processable;
-import de.uni_mannheim.informatik.dws.winter.processing.RecordKeyValueMapper;
-import de.uni_mannheim.informatik.dws.winter.processing.RecordMapper;
+import de.uni_mannheim.informatik.dws.winter.utils.Interner;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Consumer;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Parallel;
 
 /**
  * 
  * Takes a set of correspondences as input and returns a set of correspondences in which every element can only part of one correspondence.
  * Uses a greedy approach (sorting all correspondences in descending order) and is not guaranteed to return a maximum weight matching. 
+ * Correspondences with the same similarity score are processed in the order of the input.
  * 
  * Example:
  * 
@@ -62,43 +65,181 @@ public class GreedyOneToOneMatchingAlgorithm<TypeA extends Matchable, TypeB exte
 	@Override
 	public void run() {
 
-		Processable<Group<Pair<Integer, Integer>, Correspondence<TypeA, TypeB>>> grouped = correspondences.group(new RecordKeyValueMapper<Pair<Integer, Integer>, Correspondence<TypeA,TypeB>, Correspondence<TypeA,TypeB>>() {
-
-			private static final long serialVersionUID = 1L;
-
-			@Override
-			public void mapRecordToKey(Correspondence<TypeA, TypeB> record,
-					DataIterator<Pair<Pair<Integer, Integer>, Correspondence<TypeA, TypeB>>> resultCollector) {
-				
-				int leftGroup = groupByLeftDataSource ? record.getFirstRecord().getDataSourceIdentifier() : 0;
-				int rightGroup = groupByRightDataSource ? record.getSecondRecord().getDataSourceIdentifier() : 0;
-				
-				resultCollector.next(new Pair<Pair<Integer,Integer>, Correspondence<TypeA,TypeB>>(new Pair<>(leftGroup, rightGroup), record));
-				
+		final List<Correspondence<TypeA, TypeB>> input = new ArrayList<>(correspondences.get());
+		
+		// assign the correspondences to their groups and the records to ids
+		// the group keys are stored in the same kind of map as in Processable.group(), so the groups are processed in the same order
+		HashMap<Pair<Integer, Integer>, Integer> groupIds = new HashMap<>();
+		Interner<Matchable> recordIds = new Interner<>(input.size());
+		final int[] groupOf = new int[input.size()];
+		final int[] firstIds = new int[input.size()];
+		final int[] secondIds = new int[input.size()];
+		
+		int lastLeftGroup = 0;
+		int lastRightGroup = 0;
+		int lastGroup = -1;
+		for(int i = 0; i < input.size(); i++) {
+			Correspondence<TypeA, TypeB> cor = input.get(i);
+			
+			int leftGroup = groupByLeftDataSource ? cor.getFirstRecord().getDataSourceIdentifier() : 0;
+			int rightGroup = groupByRightDataSource ? cor.getSecondRecord().getDataSourceIdentifier() : 0;
+			
+			if(lastGroup==-1 || leftGroup!=lastLeftGroup || rightGroup!=lastRightGroup) {
+				Pair<Integer, Integer> key = new Pair<>(leftGroup, rightGroup);
+				Integer group = groupIds.get(key);
+				if(group==null) {
+					group = groupIds.size();
+					groupIds.put(key, group);
+				}
+				lastLeftGroup = leftGroup;
+				lastRightGroup = rightGroup;
+				lastGroup = group;
 			}
-
 			
-		});
+			groupOf[i] = lastGroup;
+			firstIds[i] = recordIds.getId(cor.getFirstRecord());
+			secondIds[i] = recordIds.getId(cor.getSecondRecord());
+		}
+		final int numRecords = recordIds.size();
+		recordIds = null;
 		
-		result = grouped.map(new RecordMapper<Group<Pair<Integer,Integer>,Correspondence<TypeA,TypeB>>, Correspondence<TypeA,TypeB>>() {
-
-			private static final long serialVersionUID = 1L;
+		// list the correspondences of each group in their original order
+		final int numGroups = groupIds.size();
+		final int[] groupOffsets = new int[numGroups + 1];
+		for(int i = 0; i < input.size(); i++) {
+			groupOffsets[groupOf[i] + 1]++;
+		}
+		for(int g = 0; g < numGroups; g++) {
+			groupOffsets[g + 1] += groupOffsets[g];
+		}
+		final int[] groupCorrespondences = new int[input.size()];
+		int[] fill = Arrays.copyOf(groupOffsets, numGroups);
+		for(int i = 0; i < input.size(); i++) {
+			groupCorrespondences[fill[groupOf[i]]++] = i;
+		}
+		
+		// run the greedy matching for all groups
+		final int[][] selected = new int[numGroups][];
+		List<Integer> groups = new ArrayList<>(numGroups);
+		for(int g = 0; g < numGroups; g++) {
+			groups.add(g);
+		}
+		// records are matched per group, the bits of the selected records are cleared after each group, so every thread needs only one set
+		final ThreadLocal<BitSet> matched = new ThreadLocal<BitSet>() {
+			protected BitSet initialValue() {
+				return new BitSet(numRecords);
+			}
+		};
+		Consumer<Integer> matchGroup = new Consumer<Integer>() {
 
 			@Override
-			public void mapRecord(Group<Pair<Integer, Integer>, Correspondence<TypeA, TypeB>> record,
-					DataIterator<Correspondence<TypeA, TypeB>> resultCollector) {
-				
-				Set<TypeA> matchedElements = new HashSet<>();
-				for(Correspondence<TypeA, TypeB> cor : record.getRecords().sort((c)->c.getSimilarityScore(),false).get()) {
-					if(!matchedElements.contains(cor.getFirstRecord()) && !matchedElements.contains(cor.getSecondRecord())) {
-						resultCollector.next(cor);
-						matchedElements.add(cor.getFirstRecord());
-						matchedElements.add(cor.getSecondRecord());
-					}
+			public void execute(Integer g) {
+				BitSet bits = matched.get();
+				try {
+					selected[g] = match(input, groupCorrespondences, groupOffsets[g], groupOffsets[g + 1], firstIds, secondIds, bits);
+				} catch(RuntimeException e) {
+					// the bits of a failed group are not cleared by match, they would block the records in the next groups of this thread
+					bits.clear();
+					throw e;
 				}
 			}
-		});
+		};
+		if(numGroups==1) {
+			matchGroup.execute(0);
+		} else {
+			try {
+				new Parallel<Integer>().foreach(groups, matchGroup);
+			} catch (Exception e) {
+				// a failed group has no selected correspondences, which must not be silently missing from the result
+				throw new RuntimeException("Greedy one-to-one matching failed", e);
+			}
+		}
+		
+		// create the result in the order of the groups
+		result = correspondences.createProcessable((Correspondence<TypeA, TypeB>)null);
+		for(Integer g : groupIds.values()) {
+			for(int i : selected[g]) {
+				result.add(input.get(i));
+			}
+		}
+		
+	}
+	
+	/**
+	 * Runs the greedy matching for the correspondences groupCorrespondences[from] .. groupCorrespondences[to-1]
+	 * 
+	 * @param matched	an empty set of record ids, which is empty again after the method returns
+	 * @return the indices of the selected correspondences in the order of descending similarity
+	 */
+	private int[] match(List<Correspondence<TypeA, TypeB>> input, int[] groupCorrespondences, int from, int to, int[] firstIds, int[] secondIds, BitSet matched) {
+		int size = to - from;
+		
+		// sort the correspondences by descending similarity, correspondences with equal similarity stay in their original order
+		long[] keys = new long[size];
+		int[] order = new int[size];
+		for(int j = 0; j < size; j++) {
+			keys[j] = getSortKey(input.get(groupCorrespondences[from + j]).getSimilarityScore());
+			order[j] = j;
+		}
+		sortDescending(order, new int[size], keys, 0, size);
+		
+		int[] selected = new int[size];
+		int numSelected = 0;
+		for(int j : order) {
+			int cor = groupCorrespondences[from + j];
+			if(!matched.get(firstIds[cor]) && !matched.get(secondIds[cor])) {
+				selected[numSelected++] = cor;
+				matched.set(firstIds[cor]);
+				matched.set(secondIds[cor]);
+			}
+		}
 		
+		for(int j = 0; j < numSelected; j++) {
+			matched.clear(firstIds[selected[j]]);
+			matched.clear(secondIds[selected[j]]);
+		}
+		
+		return Arrays.copyOf(selected, numSelected);
+	}
+	
+	/**
+	 * @return a value that is ordered in the same way as {@link Double#compareTo(Double)}
+	 */
+	private static long getSortKey(double value) {
+		long bits = Double.doubleToLongBits(value);
+		return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+	}
+	
+	/**
+	 * stable merge sort of the positions by descending key
+	 */
+	private static void sortDescending(int[] positions, int[] buffer, long[] keys, int from, int to) {
+		if(to - from < 2) {
+			return;
+		}
+		int mid = (from + to) >>> 1;
+		sortDescending(positions, buffer, keys, from, mid);
+		sortDescending(positions, buffer, keys, mid, to);
+		if(keys[positions[mid - 1]] >= keys[positions[mid]]) {
+			return;
+		}
+		System.arraycopy(positions, from, buffer, from, to - from);
+		int i = from;
+		int j = mid;
+		int k = from;
+		while(i < mid && j < to) {
+			if(keys[buffer[j]] > keys[buffer[i]]) {
+				positions[k++] = buffer[j++];
+			} else {
+				positions[k++] = buffer[i++];
+			}
+		}
+		while(i < mid) {
+			positions[k++] = buffer[i++];
+		}
+		while(j < to) {
+			positions[k++] = buffer[j++];
+		}
 	}
 
 	@Override
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.algorithms;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import de.uni_mannheim.informatik.dws.winter.matching.rules.MatchingRule;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+
+/**
+ * Creates copies of a matching rule by serialisation. The feature cache of the
+ * rule and all {@link Matchable}s (schema elements are compared by identity)
+ * are not copied but shared by all copies.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+class MatchingRuleCopier<RuleType> {
+
+	private final byte[] serialised;
+	private final List<Object> sharedObjects = new ArrayList<>();
+
+	/**
+	 * Serialises the rule in its current state
+	 *
+	 * @param rule
+	 *            the rule
+	 * @throws IOException
+	 *             if the rule cannot be serialised
+	 */
+	public MatchingRuleCopier(RuleType rule) throws IOException {
+		final Object featureCache = rule instanceof MatchingRule ? ((MatchingRule<?, ?>) rule).getFeatureCache() : null;
+		final IdentityHashMap<Object, SharedObject> handles = new IdentityHashMap<>();
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes) {
+			{
+				enableReplaceObject(true);
+			}
+
+			@Override
+			protected Object replaceObject(Object obj) throws IOException {
+				if (obj != null && (obj == featureCache || obj instanceof Matchable)) {
+					SharedObject handle = handles.get(obj);
+					if (handle == null) {
+						handle = new SharedObject(sharedObjects.size());
+						sharedObjects.add(obj);
+						handles.put(obj, handle);
+					}
+					return handle;
+				} else {
+					return obj;
+				}
+			}
+		};
+		out.writeObject(rule);
+		out.close();
+		serialised = bytes.toByteArray();
+	}
+
+	/**
+	 * @return a new copy of the rule
+	 */
+	@SuppressWarnings("unchecked")
+	public RuleType copy() {
+		try {
+			ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialised)) {
+				{
+					enableResolveObject(true);
+				}
+
+				@Override
+				protected Object resolveObject(Object obj) throws IOException {
+					return obj instanceof SharedObject ? sharedObjects.get(((SharedObject) obj).index) : obj;
+				}
+			};
+			return (RuleType) in.readObject();
+		} catch (IOException | ClassNotFoundException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Placeholder for an object that is shared by the copies of a rule
+	 */
+	private static class SharedObject implements Serializable {
+		private static final long serialVersionUID = 1L;
+		private final int index;
+
+		public SharedObject(int index) {
+			this.index = index;
+		}
+	}
+}
@@ -11,29 +11,32 @@
  */
 package de.uni_mannheim.informatik.dws.winter.matching.algorithms;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.List;
 
 import org.slf4j.Logger;
-import org.jgrapht.WeightedGraph;
-import org.jgrapht.alg.interfaces.MatchingAlgorithm.Matching;
-import org.jgrapht.alg.matching.MaximumWeightBipartiteMatching;
-import org.jgrapht.graph.DefaultWeightedEdge;
-import org.jgrapht.graph.SimpleWeightedGraph;
 
 import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
 import de.uni_mannheim.informatik.dws.winter.model.Matchable;
 import de.uni_mannheim.informatik.dws.winter.model.Pair;
-import de.uni_mannheim.informatik.dws.winter.processing.DataIterator;
-import de.uni_mannheim.informatik.dws.winter.processing.Group;
 import de.uni_mannheim.informatik.dws.winter.processing.Processable;
-import de.uni_mannheim.informatik.dws.winter.processing.RecordKeyValueMapper;
-import de.uni_mannheim.informatik.dws.winter.processing.RecordMapper;
+import de.uni_mannheim.informatik.dws.winter.utils.Interner;
 import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+import de.uni_mannheim.informatik.dws.winter.utils.graph.SparseHungarianAlgorithm;
+import de.uni_mannheim.informatik.dws.winter.utils.graph.UnionFind;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Consumer;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Parallel;
 
 /**
+ * 
+ * Takes a set of correspondences as input and returns a set of correspondences with the maximum total similarity in which every element can only be part of one correspondence.
+ * 
+ * Each group of correspondences is split into its connected components. If all correspondences of a component share the same element, the correspondence with the highest similarity is selected.
+ * All other components are solved in parallel by {@link SparseHungarianAlgorithm}. The elements on the left-hand side and the right-hand side of the correspondences are matched independently
+ * and correspondences with a similarity of 0 or less are never selected.
+ * 
  * @author Oliver Lehmberg (oli@dwslab.de)
  *
  */
@@ -82,77 +85,228 @@ public class MaximumBipartiteMatchingAlgorithm<TypeA extends Matchable, TypeB ex
 		// but we want that one element from a certain source (record or attribute) can only be matched to one other element.
 		// two elements from different sources can be mapped to the same element in another source.
 		
-		Processable<Group<Pair<Integer, Integer>, Correspondence<TypeA, TypeB>>> grouped = correspondences.group(new RecordKeyValueMapper<Pair<Integer, Integer>, Correspondence<TypeA,TypeB>, Correspondence<TypeA,TypeB>>() {
-
-			private static final long serialVersionUID = 1L;
-
-			@Override
-			public void mapRecordToKey(Correspondence<TypeA, TypeB> record,
-					DataIterator<Pair<Pair<Integer, Integer>, Correspondence<TypeA, TypeB>>> resultCollector) {
-				
-				int leftGroup = groupByLeftDataSource ? record.getFirstRecord().getDataSourceIdentifier() : 0;
-				int rightGroup = groupByRightDataSource ? record.getSecondRecord().getDataSourceIdentifier() : 0;
-				
-				resultCollector.next(new Pair<Pair<Integer,Integer>, Correspondence<TypeA,TypeB>>(new Pair<>(leftGroup, rightGroup), record));
-				
-			}
-
+		final List<Correspondence<TypeA, TypeB>> input = new ArrayList<>(correspondences.get());
+		final double[] scores = new double[input.size()];
+		
+		// the group keys are stored in the same kind of map as in Processable.group(), so the groups are processed in the same order
+		HashMap<Pair<Integer, Integer>, Integer> groupIds = new HashMap<>();
+		int[] groupOf = new int[input.size()];
+		int lastLeftGroup = 0;
+		int lastRightGroup = 0;
+		int lastGroup = -1;
+		for(int i = 0; i < input.size(); i++) {
+			Correspondence<TypeA, TypeB> cor = input.get(i);
+			scores[i] = cor.getSimilarityScore();
+			
+			int leftGroup = groupByLeftDataSource ? cor.getFirstRecord().getDataSourceIdentifier() : 0;
+			int rightGroup = groupByRightDataSource ? cor.getSecondRecord().getDataSourceIdentifier() : 0;
 			
-		});
+			if(lastGroup==-1 || leftGroup!=lastLeftGroup || rightGroup!=lastRightGroup) {
+				Pair<Integer, Integer> key = new Pair<>(leftGroup, rightGroup);
+				Integer group = groupIds.get(key);
+				if(group==null) {
+					group = groupIds.size();
+					groupIds.put(key, group);
+				}
+				lastLeftGroup = leftGroup;
+				lastRightGroup = rightGroup;
+				lastGroup = group;
+			}
+			groupOf[i] = lastGroup;
+		}
 		
-		result = grouped.map(new RecordMapper<Group<Pair<Integer,Integer>,Correspondence<TypeA,TypeB>>, Correspondence<TypeA,TypeB>>() {
-
-			private static final long serialVersionUID = 1L;
+		// list the correspondences of each group in their original order
+		int numGroups = groupIds.size();
+		int[] groupOffsets = new int[numGroups + 1];
+		for(int i = 0; i < input.size(); i++) {
+			groupOffsets[groupOf[i] + 1]++;
+		}
+		for(int g = 0; g < numGroups; g++) {
+			groupOffsets[g + 1] += groupOffsets[g];
+		}
+		int[] groupCorrespondences = new int[input.size()];
+		int[] fill = Arrays.copyOf(groupOffsets, numGroups);
+		for(int i = 0; i < input.size(); i++) {
+			groupCorrespondences[fill[groupOf[i]]++] = i;
+		}
+		groupOf = null;
+		
+		// split the groups into components, components where all correspondences share one element are solved directly
+		final boolean[] selected = new boolean[input.size()];
+		List<Component> components = new ArrayList<>();
+		for(int g = 0; g < numGroups; g++) {
+			decompose(input, scores, Arrays.copyOfRange(groupCorrespondences, groupOffsets[g], groupOffsets[g + 1]), selected, components);
+		}
+		
+		Consumer<Component> solveComponent = new Consumer<Component>() {
 
 			@Override
-			public void mapRecord(Group<Pair<Integer, Integer>, Correspondence<TypeA, TypeB>> record,
-					DataIterator<Correspondence<TypeA, TypeB>> resultCollector) {
-				
-				// create the graph and the two partitions
-				WeightedGraph<TypeA, DefaultWeightedEdge> graph = new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
-				Set<TypeA> partition1 = new HashSet<>();
-				Set<TypeA> partition2 = new HashSet<>();
-				Map<DefaultWeightedEdge, Correspondence<TypeA, TypeB>> edgeToCorrespondence = new HashMap<>();
-				
-				StringBuilder sb = new StringBuilder();
-				sb.append(String.format("Group %d/%d\n", record.getKey().getFirst(), record.getKey().getSecond()));
-				
-				for(Correspondence<TypeA, TypeB> cor : record.getRecords().get()) {
-					partition1.add(cor.getFirstRecord());
-					partition2.add(cor.getSecondRecord());
-					
-					graph.addVertex(cor.getFirstRecord());
-					graph.addVertex(cor.getSecondRecord());
-					DefaultWeightedEdge edge = graph.addEdge(cor.getFirstRecord(), cor.getSecondRecord());
-					if(edge!=null) {
-						graph.setEdgeWeight(edge,(int)( cor.getSimilarityScore() * 1000000)); // MaximumWeightBipartiteMatching only accepts integer weights ...
-						edgeToCorrespondence.put(edge, cor);
-						sb.append(String.format("\t%.6f\t%s <-> %s\n", cor.getSimilarityScore(), cor.getFirstRecord(), cor.getSecondRecord()));
-					} else {
-						sb.append(String.format("\t%.6f\t%s <-> %s (skipped)\n", cor.getSimilarityScore(), cor.getFirstRecord(), cor.getSecondRecord()));
-					}
-					
+			public void execute(Component component) {
+				double[] weights = new double[component.correspondences.length];
+				for(int j = 0; j < weights.length; j++) {
+					weights[j] = scores[component.correspondences[j]];
 				}
-				
-				// run the bipartite matching
-				MaximumWeightBipartiteMatching<TypeA, DefaultWeightedEdge> matching = new MaximumWeightBipartiteMatching<>(graph, partition1, partition2);
-				Matching<DefaultWeightedEdge> matchingResult = matching.computeMatching();
-				
-				sb.append("* result:\n");
-				
-				// add the results
-				for(DefaultWeightedEdge edge : matchingResult.getEdges()) {
-					Correspondence<TypeA, TypeB> cor = edgeToCorrespondence.get(edge);
-					resultCollector.next(cor);
-					
+				SparseHungarianAlgorithm hungarian = new SparseHungarianAlgorithm(component.numLeft, component.numRight, component.left, component.right, weights);
+				for(int j : hungarian.computeMatching()) {
+					selected[component.correspondences[j]] = true;
+				}
+			}
+		};
+		if(components.size()==1) {
+			solveComponent.execute(components.get(0));
+		} else if(components.size()>1) {
+			try {
+				new Parallel<Component>().foreach(components, solveComponent);
+			} catch (Exception e) {
+				// the matches of a failed component must not be silently missing from the result
+				throw new RuntimeException("Maximum bipartite matching failed", e);
+			}
+		}
+		
+		// create the result in the order of the groups
+		result = correspondences.createProcessable((Correspondence<TypeA, TypeB>)null);
+		for(Pair<Integer, Integer> key : groupIds.keySet()) {
+			int g = groupIds.get(key);
+			
+			StringBuilder sb = null;
+			if(logger.isTraceEnabled()) {
+				sb = new StringBuilder();
+				sb.append(String.format("Group %d/%d\n", key.getFirst(), key.getSecond()));
+				for(int j = groupOffsets[g]; j < groupOffsets[g + 1]; j++) {
+					Correspondence<TypeA, TypeB> cor = input.get(groupCorrespondences[j]);
 					sb.append(String.format("\t%.6f\t%s <-> %s\n", cor.getSimilarityScore(), cor.getFirstRecord(), cor.getSecondRecord()));
 				}
-				
-					logger.trace(sb.toString());
+				sb.append("* result:\n");
+			}
+			
+			for(int j = groupOffsets[g]; j < groupOffsets[g + 1]; j++) {
+				int i = groupCorrespondences[j];
+				if(selected[i]) {
+					Correspondence<TypeA, TypeB> cor = input.get(i);
+					result.add(cor);
+					if(sb!=null) {
+						sb.append(String.format("\t%.6f\t%s <-> %s\n", cor.getSimilarityScore(), cor.getFirstRecord(), cor.getSecondRecord()));
+					}
+				}
+			}
+			
+			if(sb!=null) {
+				logger.trace(sb.toString());
 			}
-		});
+		}
 
 	}
+	
+	/**
+	 * A connected component of the correspondence graph, which is solved by {@link SparseHungarianAlgorithm}
+	 */
+	private static class Component {
+		// the indices of the correspondences in the input
+		int[] correspondences;
+		// the left and right element of each correspondence, numbered per component
+		int[] left;
+		int[] right;
+		int numLeft;
+		int numRight;
+	}
+	
+	/**
+	 * Splits the correspondences of one group into connected components. Components in which all correspondences share the same element are solved directly,
+	 * all other components are added to the list of components.
+	 */
+	private void decompose(List<Correspondence<TypeA, TypeB>> input, double[] scores, int[] group, boolean[] selected, List<Component> components) {
+		// the elements are numbered per group, left elements first
+		Interner<Matchable> leftIds = new Interner<>();
+		Interner<Matchable> rightIds = new Interner<>();
+		int[] leftOf = new int[group.length];
+		int[] rightOf = new int[group.length];
+		for(int j = 0; j < group.length; j++) {
+			Correspondence<TypeA, TypeB> cor = input.get(group[j]);
+			leftOf[j] = leftIds.getId(cor.getFirstRecord());
+			rightOf[j] = rightIds.getId(cor.getSecondRecord());
+		}
+		int numLeft = leftIds.size();
+		int numElements = numLeft + rightIds.size();
+		
+		UnionFind unionFind = new UnionFind(numElements);
+		unionFind.ensureElement(numElements - 1);
+		for(int j = 0; j < group.length; j++) {
+			unionFind.union(leftOf[j], numLeft + rightOf[j]);
+		}
+		
+		// number the components in the order of their first correspondence and list their correspondences
+		int[] componentOfRoot = new int[numElements];
+		Arrays.fill(componentOfRoot, -1);
+		int[] componentOf = new int[group.length];
+		int numComponents = 0;
+		for(int j = 0; j < group.length; j++) {
+			int root = unionFind.find(leftOf[j]);
+			if(componentOfRoot[root]==-1) {
+				componentOfRoot[root] = numComponents++;
+			}
+			componentOf[j] = componentOfRoot[root];
+		}
+		int[] offsets = new int[numComponents + 1];
+		for(int j = 0; j < group.length; j++) {
+			offsets[componentOf[j] + 1]++;
+		}
+		for(int c = 0; c < numComponents; c++) {
+			offsets[c + 1] += offsets[c];
+		}
+		int[] componentCorrespondences = new int[group.length];
+		int[] fill = Arrays.copyOf(offsets, numComponents);
+		for(int j = 0; j < group.length; j++) {
+			componentCorrespondences[fill[componentOf[j]]++] = j;
+		}
+		
+		// number the elements per component
+		int[] localIds = new int[numElements];
+		Arrays.fill(localIds, -1);
+		for(int c = 0; c < numComponents; c++) {
+			int from = offsets[c];
+			int to = offsets[c + 1];
+			
+			int numComponentLeft = 0;
+			int numComponentRight = 0;
+			for(int k = from; k < to; k++) {
+				int j = componentCorrespondences[k];
+				if(localIds[leftOf[j]]==-1) {
+					localIds[leftOf[j]] = numComponentLeft++;
+				}
+				if(localIds[numLeft + rightOf[j]]==-1) {
+					localIds[numLeft + rightOf[j]] = numComponentRight++;
+				}
+			}
+			
+			if(numComponentLeft==1 || numComponentRight==1) {
+				// all correspondences share one element, so only the best one can be selected
+				int best = -1;
+				for(int k = from; k < to; k++) {
+					int i = group[componentCorrespondences[k]];
+					if(scores[i] > 0 && (best==-1 || scores[i] > scores[best])) {
+						best = i;
+					}
+				}
+				if(best!=-1) {
+					selected[best] = true;
+				}
+			} else {
+				Component component = new Component();
+				component.correspondences = new int[to - from];
+				component.left = new int[to - from];
+				component.right = new int[to - from];
+				component.numLeft = numComponentLeft;
+				component.numRight = numComponentRight;
+				for(int k = from; k < to; k++) {
+					int j = componentCorrespondences[k];
+					component.correspondences[k - from] = group[j];
+					component.left[k - from] = localIds[leftOf[j]];
+					component.right[k - from] = localIds[numLeft + rightOf[j]];
+				}
+				components.add(component);
+			}
+		}
+	}
 
 	/* (non-Javadoc)
 	 * @see de.uni_mannheim.informatik.dws.winter.matching.algorithms.MatchingAlgorithm#getResult()
@@ -11,8 +11,10 @@
  */
 package de.uni_mannheim.informatik.dws.winter.matching.algorithms;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -31,9 +33,10 @@ import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
 import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.FeatureVectorDataSet;
 import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
 import de.uni_mannheim.informatik.dws.winter.processing.Processable;
-import de.uni_mannheim.informatik.dws.winter.processing.parallel.ParallelProcessableCollection;
 import de.uni_mannheim.informatik.dws.winter.utils.ProgressReporter;
 import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Consumer;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Parallel;
 import de.uni_mannheim.informatik.dws.winter.utils.query.Q;
 import edu.stanford.nlp.util.StringUtils;
 
@@ -133,68 +136,57 @@ public class RuleLearner<RecordType extends Matchable, SchemaElementType extends
 
 		logger.info(String.format("Starting GenerateFeatures", start.toString()));
 
-		ProgressReporter progress = new ProgressReporter(
-				goldStandard.getPositiveExamples().size() + goldStandard.getNegativeExamples().size(),
-				"GenerateFeatures");
-
-		// create positive examples
-		Processable<Record> positiveExamples = new ParallelProcessableCollection<>(goldStandard.getPositiveExamples())
-				.map((Pair<String, String> correspondence) -> {
-					RecordType record1 = dataset1.getRecord(correspondence.getFirst());
-					RecordType record2 = dataset2.getRecord(correspondence.getSecond());
-
-					// we don't know which id is from which data set
-					if (record1 == null && record2 == null) {
-						// so if we didn't find anything, we probably had it
-						// wrong ...
-						record1 = dataset2.getRecord(correspondence.getFirst());
-						record2 = dataset1.getRecord(correspondence.getSecond());
+		// positive examples first, then negative examples
+		final List<Pair<String, String>> examples = new ArrayList<>(goldStandard.getPositiveExamples());
+		examples.addAll(goldStandard.getNegativeExamples());
+		final int numPositive = goldStandard.getPositiveExamples().size();
+		final Record[] features = new Record[examples.size()];
+		final Processable<Correspondence<SchemaElementType, Matchable>> schemaCorrespondenceMatchables = Correspondence.toMatchable(schemaCorrespondences);
+
+		Consumer<Integer> generateFeatures = null;
+		
+		// the debug log of a rule is not thread-safe, so these rules are applied sequentially
+		if (!(rule instanceof MatchingRule && ((MatchingRule<?, ?>) rule).isDebugReportActive())) {
+			// every thread uses its own copy of the rule, so the comparators do not need to be thread-safe
+			final ThreadLocal<LearnableMatchingRule<RecordType, SchemaElementType>> rules = createThreadConfinedRules(rule);
+			
+			if (rules != null) {
+				generateFeatures = new Consumer<Integer>() {
+
+					@Override
+					public void execute(Integer i) {
+						features[i] = generateFeatures(dataset1, dataset2, examples.get(i), i < numPositive, rules.get(),
+								schemaCorrespondenceMatchables, result);
 					}
-
-					// if we still didn't find records, they are not in the data
-					// sets!
-					if (record1 != null && record2 != null) {
-						Record features = rule.generateFeatures(record1, record2,
-								Correspondence.toMatchable(schemaCorrespondences), result);
-						features.setValue(FeatureVectorDataSet.ATTRIBUTE_LABEL, "1");
-						return features;
-					} else {
-						return null;
-					}
-				});
-
-		// create negative examples
-		Processable<Record> negativeExamples = new ParallelProcessableCollection<>(goldStandard.getNegativeExamples())
-				.map((Pair<String, String> correspondence) -> {
-					RecordType record1 = dataset1.getRecord(correspondence.getFirst());
-					RecordType record2 = dataset2.getRecord(correspondence.getSecond());
-
-					// we don't know which id is from which data set
-					if (record1 == null && record2 == null) {
-						// so if we didn't find anything, we probably had it
-						// wrong ...
-						record1 = dataset2.getRecord(correspondence.getFirst());
-						record2 = dataset1.getRecord(correspondence.getSecond());
-					}
-
-					// if we still didn't find records, they are not in the data
-					// sets!
-					if (record1 != null && record2 != null) {
-						Record features = rule.generateFeatures(record1, record2,
-								Correspondence.toMatchable(schemaCorrespondences), result);
-						features.setValue(FeatureVectorDataSet.ATTRIBUTE_LABEL, "0");
-						// result.add(features);
-						return features;
-					} else {
-						return null;
-					}
-				});
-
-		for (Record r : positiveExamples.get()) {
-			result.add(r);
+				};
+			}
 		}
-		for (Record r : negativeExamples.get()) {
-			result.add(r);
+		
+		if (generateFeatures != null) {
+			List<Integer> indices = new ArrayList<>(examples.size());
+			for (int i = 0; i < examples.size(); i++) {
+				indices.add(i);
+			}
+			try {
+				new Parallel<Integer>().foreach(indices, generateFeatures, "GenerateFeatures");
+			} catch (Exception e) {
+				// a failed example would look like an example that is not in the data sets and be silently dropped
+				throw new RuntimeException("Generating the features failed", e);
+			}
+		} else {
+			ProgressReporter progress = new ProgressReporter(examples.size(), "GenerateFeatures");
+			for (int i = 0; i < examples.size(); i++) {
+				features[i] = generateFeatures(dataset1, dataset2, examples.get(i), i < numPositive, rule,
+						schemaCorrespondenceMatchables, result);
+				progress.incrementProgress();
+				progress.report();
+			}
+		}
+
+		for (Record r : features) {
+			if (r != null) {
+				result.add(r);
+			}
 		}
 
 		// report total time
@@ -206,4 +198,59 @@ public class RuleLearner<RecordType extends Matchable, SchemaElementType extends
 		return result;
 	}
 
+	/**
+	 * Generates the features for a single example of the gold standard
+	 * 
+	 * @return the features or null if one of the records is not in the data sets
+	 */
+	private Record generateFeatures(DataSet<RecordType, SchemaElementType> dataset1,
+			DataSet<RecordType, SchemaElementType> dataset2, Pair<String, String> correspondence, boolean isMatch,
+			LearnableMatchingRule<RecordType, SchemaElementType> rule,
+			Processable<Correspondence<SchemaElementType, Matchable>> schemaCorrespondences, FeatureVectorDataSet result) {
+		RecordType record1 = dataset1.getRecord(correspondence.getFirst());
+		RecordType record2 = dataset2.getRecord(correspondence.getSecond());
+
+		// we don't know which id is from which data set
+		if (record1 == null && record2 == null) {
+			// so if we didn't find anything, we probably had it
+			// wrong ...
+			record1 = dataset2.getRecord(correspondence.getFirst());
+			record2 = dataset1.getRecord(correspondence.getSecond());
+		}
+
+		// if we still didn't find records, they are not in the data
+		// sets!
+		if (record1 != null && record2 != null) {
+			Record features = rule.generateFeatures(record1, record2, schemaCorrespondences, result);
+			features.setValue(FeatureVectorDataSet.ATTRIBUTE_LABEL, isMatch ? "1" : "0");
+			return features;
+		} else {
+			return null;
+		}
+	}
+
+	/**
+	 * Creates a copy of the rule for every thread, see {@link MatchingRuleCopier}
+	 * 
+	 * @return the copies or null if the rule cannot be copied
+	 */
+	private ThreadLocal<LearnableMatchingRule<RecordType, SchemaElementType>> createThreadConfinedRules(
+			LearnableMatchingRule<RecordType, SchemaElementType> rule) {
+		final MatchingRuleCopier<LearnableMatchingRule<RecordType, SchemaElementType>> copier;
+		try {
+			copier = new MatchingRuleCopier<>(rule);
+		} catch (IOException e) {
+			logger.warn(String.format("Cannot copy the matching rule, the features are generated sequentially: %s",
+					e.getMessage()));
+			return null;
+		}
+
+		return new ThreadLocal<LearnableMatchingRule<RecordType, SchemaElementType>>() {
+			@Override
+			protected LearnableMatchingRule<RecordType, SchemaElementType> initialValue() {
+				return copier.copy();
+			}
+		};
+	}
+
 }
@@ -6,6 +6,7 @@ import de.uni_mannheim.informatik.dws.winter.matching.algorithms.sf.filter.Hunga
 import de.uni_mannheim.informatik.dws.winter.matching.algorithms.sf.filter.StableMarriage;
 import de.uni_mannheim.informatik.dws.winter.matching.algorithms.sf.filter.TopOne;
 import de.uni_mannheim.informatik.dws.winter.matching.algorithms.sf.ipg.CoeffEdge;
+import de.uni_mannheim.informatik.dws.winter.matching.algorithms.sf.ipg.CompiledIPG;
 import de.uni_mannheim.informatik.dws.winter.matching.algorithms.sf.ipg.IPGNode;
 import de.uni_mannheim.informatik.dws.winter.matching.algorithms.sf.pcg.LabeledEdge;
 import de.uni_mannheim.informatik.dws.winter.matching.algorithms.sf.pcg.LabeledEdgeType;
@@ -155,6 +156,21 @@ public class SimilarityFloodingAlgorithm<TypeA extends SFMatchable, TypeB extend
     }
 
     void similarityFlooding(SimpleDirectedGraph<IPGNode<TypeA>, CoeffEdge> ipg, int maxSteps) {
+        CompiledIPG<TypeA> compiledIpg = new CompiledIPG<>(ipg);
+        int steps = compiledIpg.similarityFlooding(fixpointFormula, maxSteps, epsilon);
+        compiledIpg.updateNodes();
+
+        if (steps < maxSteps) {
+            logger.trace("Terminated: vector has length less than epsilon");
+        }
+        logger.trace(String.format("Fixpoint calculation on %d nodes and %d edges finished after %d steps", compiledIpg.getNumberOfNodes(),
+            compiledIpg.getNumberOfEdges(), steps));
+    }
+
+    /**
+     * Runs the fixpoint calculation directly on the nodes of the graph, the results are the same as for {@link #similarityFlooding(SimpleDirectedGraph, int)}
+     */
+    void similarityFloodingOnGraph(SimpleDirectedGraph<IPGNode<TypeA>, CoeffEdge> ipg, int maxSteps) {
         for (int i = 0; i < maxSteps; i++) {
             boolean cont = similarityFloodingStep(ipg);
 
@@ -282,6 +298,7 @@ public class SimilarityFloodingAlgorithm<TypeA extends SFMatchable, TypeB extend
         HashMap<SFNode<TypeA>, HashMap<SFNode<TypeA>, Double>> simMap = generateInitialMap(schemaGraphA, schemaGraphB);
         SimpleDirectedGraph<IPGNode<TypeA>, CoeffEdge> ipg = new SimpleDirectedGraph<>(CoeffEdge.class);
         HashMap<PairwiseConnectivityNode<TypeA>, IPGNode<TypeA>> nodeMap = new HashMap<>();
+        HashMap<PairwiseConnectivityNode<TypeA>, HashMap<LabeledEdgeType, Double>> inverseProducts = new HashMap<>();
 
         for (LabeledEdge pcgEdge : pcg.edgeSet()) {
             IPGNode<TypeA> nodeA = createIPGNodeFromPCGNode(pcg.getEdgeSource(pcgEdge), nodeMap, simMap);
@@ -290,10 +307,10 @@ public class SimilarityFloodingAlgorithm<TypeA extends SFMatchable, TypeB extend
             IPGNode<TypeA> nodeB = createIPGNodeFromPCGNode(pcg.getEdgeTarget(pcgEdge), nodeMap, simMap);
             ipg.addVertex(nodeB);
 
-            CoeffEdge coeffEdgeA = new CoeffEdge(inverseProduct(pcg.getEdgeSource(pcgEdge), pcg).get(pcgEdge.getType()));
+            CoeffEdge coeffEdgeA = new CoeffEdge(inverseProduct(pcg.getEdgeSource(pcgEdge), pcg, inverseProducts).get(pcgEdge.getType()));
             ipg.addEdge(nodeA, nodeB, coeffEdgeA);
 
-            CoeffEdge coeffEdgeB = new CoeffEdge(inverseProduct(pcg.getEdgeTarget(pcgEdge), pcg).get(pcgEdge.getType()));
+            CoeffEdge coeffEdgeB = new CoeffEdge(inverseProduct(pcg.getEdgeTarget(pcgEdge), pcg, inverseProducts).get(pcgEdge.getType()));
             ipg.addEdge(nodeB, nodeA, coeffEdgeB);
         }
         return ipg;
@@ -397,6 +414,17 @@ public class SimilarityFloodingAlgorithm<TypeA extends SFMatchable, TypeB extend
         return ipgNode;
     }
 
+    private HashMap<LabeledEdgeType, Double> inverseProduct(PairwiseConnectivityNode<TypeA> node, SimpleDirectedGraph<PairwiseConnectivityNode<TypeA>, LabeledEdge> pcd,
+        HashMap<PairwiseConnectivityNode<TypeA>, HashMap<LabeledEdgeType, Double>> cache) {
+        // the coefficients only depend on the neighbours of the node, so they are calculated once per node
+        HashMap<LabeledEdgeType, Double> cached = cache.get(node);
+        if (cached == null) {
+            cached = inverseProduct(node, pcd);
+            cache.put(node, cached);
+        }
+        return cached;
+    }
+
     private HashMap<LabeledEdgeType, Double> inverseProduct(PairwiseConnectivityNode<TypeA> node, SimpleDirectedGraph<PairwiseConnectivityNode<TypeA>, LabeledEdge> pcd) {
         HashMap<LabeledEdgeType, List<PairwiseConnectivityNode<TypeA>>> nodeByLabels = partitionNeighboursByLabels(node, pcd);
 
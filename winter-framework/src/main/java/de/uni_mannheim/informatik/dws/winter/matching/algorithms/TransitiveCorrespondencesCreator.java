@@ -11,6 +11,12 @@
  */
 package de.uni_mannheim.informatik.dws.winter.matching.algorithms;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
 import org.slf4j.Logger;
 
 import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
@@ -18,12 +24,20 @@ import de.uni_mannheim.informatik.dws.winter.model.Matchable;
 import de.uni_mannheim.informatik.dws.winter.model.Pair;
 import de.uni_mannheim.informatik.dws.winter.processing.DataIterator;
 import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import de.uni_mannheim.informatik.dws.winter.processing.ProcessableCollection;
 import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+import de.uni_mannheim.informatik.dws.winter.utils.graph.UnionFind;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Consumer;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Parallel;
 
 /**
  * 
  * Takes a set of correspondences as input and creates all correspondences that can be inferred by transitivity
  * 
+ * By default, one step of transitivity is applied, i.e., only correspondences between records that are connected via one other record are created.
+ * If {@link #setComputeClosure(boolean)} is activated, the correspondences are grouped into connected components and correspondences between all
+ * records of a component are created. In this mode, the direction of the correspondences is ignored.
+ * 
  * @author Oliver Lehmberg (oli@dwslab.de)
  *
  */
@@ -34,17 +48,81 @@ public class TransitiveCorrespondencesCreator<TypeA extends Matchable, TypeB ext
 	private static final Logger logger = WinterLogManager.getLogger();
 
 	private boolean isDirected = true;
+	private boolean computeClosure = false;
+	private int maxComponentSize = 0;
+	private PathSimilarity pathSimilarity = PathSimilarity.MEAN;
+	
+	/**
+	 * Determines the similarity score of a correspondence that is created from a path of correspondences
+	 */
+	public static enum PathSimilarity {
+		MIN, MAX, MEAN
+	}
 	
 	public TransitiveCorrespondencesCreator(Processable<Correspondence<TypeA, TypeB>> correspondences, boolean isDirected) {
 		this.correspondences = correspondences;
 		this.isDirected = isDirected;
 	}
 	
+	/**
+	 * @param computeClosure	if true, correspondences between all records of a connected component are created, otherwise only one step of transitivity is applied
+	 */
+	public void setComputeClosure(boolean computeClosure) {
+		this.computeClosure = computeClosure;
+	}
+	
+	/**
+	 * @return the computeClosure
+	 */
+	public boolean isComputeClosure() {
+		return computeClosure;
+	}
+	
+	/**
+	 * Only applies if {@link #setComputeClosure(boolean)} is activated.
+	 * 
+	 * @param maxComponentSize	the maximum number of records in a connected component for which correspondences are created. For larger components, only the existing correspondences are kept. 0 means no limit.
+	 */
+	public void setMaxComponentSize(int maxComponentSize) {
+		this.maxComponentSize = maxComponentSize;
+	}
+	
+	/**
+	 * @return the maxComponentSize
+	 */
+	public int getMaxComponentSize() {
+		return maxComponentSize;
+	}
+	
+	/**
+	 * Only applies if {@link #setComputeClosure(boolean)} is activated.
+	 * 
+	 * @param pathSimilarity	the minimum, maximum or mean similarity of the correspondences on the path between two records
+	 */
+	public void setPathSimilarity(PathSimilarity pathSimilarity) {
+		this.pathSimilarity = pathSimilarity;
+	}
+	
+	/**
+	 * @return the pathSimilarity
+	 */
+	public PathSimilarity getPathSimilarity() {
+		return pathSimilarity;
+	}
+	
 	/* (non-Javadoc)
 	 * @see de.uni_mannheim.informatik.dws.winter.matching.algorithms.MatchingAlgorithm#run()
 	 */
 	@Override
 	public void run() {
+		if(computeClosure) {
+			runClosure();
+		} else {
+			runOneStep();
+		}
+	}
+	
+	protected void runOneStep() {
 		
 		// creates a->b & b->c = a->c
 		logger.info("applying rule a->b & b->c = a->c");
@@ -99,6 +177,191 @@ public class TransitiveCorrespondencesCreator<TypeA extends Matchable, TypeB ext
 		}
 	}
 
+	/**
+	 * Creates correspondences between all records of each connected component.
+	 * 
+	 * The records are assigned int ids and the components are determined using union-find. The correspondences are added in the order of descending similarity,
+	 * so the correspondences that connect the components form a maximum spanning tree. The similarity of a new correspondence is calculated from the path
+	 * between both records in this tree, which is the path with the highest minimum similarity.
+	 */
+	protected void runClosure() {
+		logger.info("computing transitive closure");
+		
+		List<Correspondence<TypeA, TypeB>> input = new ArrayList<>(correspondences.get());
+		
+		// assign ids to the records
+		HashMap<String, Integer> ids = new HashMap<>();
+		final List<TypeA> records = new ArrayList<>();
+		final int[] firstIds = new int[input.size()];
+		final int[] secondIds = new int[input.size()];
+		final double[] similarities = new double[input.size()];
+		UnionFind components = new UnionFind();
+		for(int i = 0; i < input.size(); i++) {
+			Correspondence<TypeA, TypeB> cor = input.get(i);
+			firstIds[i] = getId(cor.getFirstRecord(), ids, records, components);
+			secondIds[i] = getId(cor.getSecondRecord(), ids, records, components);
+			similarities[i] = cor.getSimilarityScore();
+		}
+		
+		// add the correspondences to the spanning tree in the order of descending similarity
+		Integer[] order = new Integer[input.size()];
+		for(int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (i1,i2)->-Double.compare(similarities[i1], similarities[i2]));
+		
+		final HashSet<Long> existingPairs = new HashSet<>();
+		int[] treeEdges = new int[records.size()];
+		int numTreeEdges = 0;
+		for(int i : order) {
+			existingPairs.add(getPairKey(firstIds[i], secondIds[i]));
+			if(components.union(firstIds[i], secondIds[i])) {
+				treeEdges[numTreeEdges++] = i;
+			}
+		}
+		
+		// create the adjacency lists of the tree
+		final int[] offsets = new int[records.size() + 1];
+		for(int e = 0; e < numTreeEdges; e++) {
+			offsets[firstIds[treeEdges[e]] + 1]++;
+			offsets[secondIds[treeEdges[e]] + 1]++;
+		}
+		for(int i = 0; i < records.size(); i++) {
+			offsets[i + 1] += offsets[i];
+		}
+		final int[] neighbours = new int[offsets[records.size()]];
+		final double[] edgeSimilarities = new double[neighbours.length];
+		int[] fill = Arrays.copyOf(offsets, records.size());
+		for(int e = 0; e < numTreeEdges; e++) {
+			int cor = treeEdges[e];
+			neighbours[fill[firstIds[cor]]] = secondIds[cor];
+			edgeSimilarities[fill[firstIds[cor]]++] = similarities[cor];
+			neighbours[fill[secondIds[cor]]] = firstIds[cor];
+			edgeSimilarities[fill[secondIds[cor]]++] = similarities[cor];
+		}
+		
+		// select the components for which correspondences are created
+		List<int[]> selectedComponents = new ArrayList<>();
+		int skipped = 0;
+		for(int[] component : components.getSets()) {
+			if(maxComponentSize > 0 && component.length > maxComponentSize) {
+				skipped++;
+			} else if(component.length > 2) {
+				selectedComponents.add(component);
+			}
+		}
+		if(skipped > 0) {
+			logger.info(String.format("skipped %d components with more than %d records", skipped, maxComponentSize));
+		}
+		
+		final HashMap<int[], List<Correspondence<TypeA, TypeB>>> createdCorrespondences = new HashMap<>();
+		try {
+			new Parallel<int[]>().foreach(selectedComponents, new Consumer<int[]>() {
+
+				@Override
+				public void execute(int[] component) {
+					List<Correspondence<TypeA, TypeB>> created = createCorrespondencesForComponent(component, records, offsets, neighbours, edgeSimilarities, existingPairs);
+					synchronized (createdCorrespondences) {
+						createdCorrespondences.put(component, created);
+					}
+				}
+			}, "creating correspondences for connected components");
+		} catch (Exception e) {
+			// a failed component has no correspondences, which must not be silently missing from the result
+			throw new RuntimeException("Creating the transitive correspondences failed", e);
+		}
+		
+		// combine the results in the order of the components
+		ProcessableCollection<Correspondence<TypeA, TypeB>> created = new ProcessableCollection<>();
+		for(int[] component : selectedComponents) {
+			for(Correspondence<TypeA, TypeB> cor : createdCorrespondences.get(component)) {
+				created.add(cor);
+			}
+		}
+		logger.info(String.format("created %d correspondences in %d connected components", created.size(), selectedComponents.size()));
+		
+		result = correspondences.append(created).distinct();
+	}
+	
+	private int getId(TypeA record, HashMap<String, Integer> ids, List<TypeA> records, UnionFind components) {
+		Integer id = ids.get(record.getIdentifier());
+		if(id==null) {
+			id = components.add();
+			ids.put(record.getIdentifier(), id);
+			records.add(record);
+		}
+		return id;
+	}
+	
+	private static long getPairKey(int first, int second) {
+		return ((long)Math.min(first, second) << 32) | Math.max(first, second);
+	}
+	
+	/**
+	 * Traverses the spanning tree starting from each record of the component and creates the correspondences to all records with a higher id
+	 */
+	private List<Correspondence<TypeA, TypeB>> createCorrespondencesForComponent(int[] component, List<TypeA> records, int[] offsets, int[] neighbours, double[] edgeSimilarities, HashSet<Long> existingPairs) {
+		List<Correspondence<TypeA, TypeB>> created = new ArrayList<>();
+		
+		// the path from the start to each record of the component
+		int[] stack = new int[component.length];
+		int[] previous = new int[component.length];
+		double[] min = new double[component.length];
+		double[] max = new double[component.length];
+		double[] sum = new double[component.length];
+		int[] length = new int[component.length];
+		
+		for(int start = 0; start < component.length; start++) {
+			int source = component[start];
+			int stackSize = 0;
+			
+			stack[stackSize++] = start;
+			previous[start] = -1;
+			min[start] = Double.POSITIVE_INFINITY;
+			max[start] = Double.NEGATIVE_INFINITY;
+			sum[start] = 0.0;
+			length[start] = 0;
+			
+			while(stackSize > 0) {
+				int pos = stack[--stackSize];
+				int node = component[pos];
+				
+				if(node > source && !existingPairs.contains(getPairKey(source, node))) {
+					double sim;
+					switch(pathSimilarity) {
+					case MIN:
+						sim = min[pos];
+						break;
+					case MAX:
+						sim = max[pos];
+						break;
+					default:
+						sim = sum[pos] / length[pos];
+						break;
+					}
+					created.add(new Correspondence<TypeA, TypeB>(records.get(source), records.get(node), sim));
+				}
+				
+				for(int e = offsets[node]; e < offsets[node + 1]; e++) {
+					// the records of the component are sorted, so their positions can be found by binary search
+					int next = Arrays.binarySearch(component, neighbours[e]);
+					
+					// the graph is a tree, so all neighbours except the previous record on the path are new
+					if(next != previous[pos]) {
+						previous[next] = pos;
+						min[next] = Math.min(min[pos], edgeSimilarities[e]);
+						max[next] = Math.max(max[pos], edgeSimilarities[e]);
+						sum[next] = sum[pos] + edgeSimilarities[e];
+						length[next] = length[pos] + 1;
+						stack[stackSize++] = next;
+					}
+				}
+			}
+		}
+		
+		return created;
+	}
+
 	/* (non-Javadoc)
 	 * @see de.uni_mannheim.informatik.dws.winter.matching.algorithms.MatchingAlgorithm#getResult()
 	 */
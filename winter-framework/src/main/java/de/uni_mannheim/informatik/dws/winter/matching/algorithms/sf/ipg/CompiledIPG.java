@@ -0,0 +1,249 @@
+package de.uni_mannheim.informatik.dws.winter.matching.algorithms.sf.ipg;
+
+import de.uni_mannheim.informatik.dws.winter.matching.algorithms.sf.FixpointFormula;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Consumer;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Parallel;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import org.jgrapht.graph.SimpleDirectedGraph;
+
+/**
+ * Induced propagation graph in compressed sparse row format, which is used to calculate the fixpoint of the similarity flooding algorithm.
+ *
+ * The incoming edges of node i are stored at positions offsets[i] .. offsets[i+1]-1 of the source and coefficient arrays, in the same order as returned by the graph.
+ * Each iteration is a sparse matrix-vector product that reads the similarities of the last iteration and writes the similarities of the next iteration into a second
+ * array. Large graphs are processed in parallel.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ */
+public class CompiledIPG<T> {
+
+    // the minimum number of edges for parallel iterations
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private final List<IPGNode<T>> nodes;
+    private final int[] offsets;
+    private final int[] sources;
+    private final double[] coeffs;
+    private final double[] initSim;
+    private final double[] currSim;
+    private final double[] nextSim;
+
+    // the nodes of each partition are nodeBoundaries[p] .. nodeBoundaries[p+1]-1
+    private final int[] nodeBoundaries;
+    private final double[] partitionMax;
+    private final double[] partitionDelta;
+
+    public CompiledIPG(SimpleDirectedGraph<IPGNode<T>, CoeffEdge> ipg) {
+        Set<IPGNode<T>> vertices = ipg.vertexSet();
+        nodes = new ArrayList<>(vertices);
+
+        IdentityHashMap<IPGNode<T>, Integer> ids = new IdentityHashMap<>(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            ids.put(nodes.get(i), i);
+        }
+
+        int numNodes = nodes.size();
+        offsets = new int[numNodes + 1];
+        sources = new int[ipg.edgeSet().size()];
+        coeffs = new double[sources.length];
+        initSim = new double[numNodes];
+        currSim = new double[numNodes];
+        nextSim = new double[numNodes];
+
+        int edge = 0;
+        for (int i = 0; i < numNodes; i++) {
+            IPGNode<T> node = nodes.get(i);
+            initSim[i] = node.getInitSim();
+            currSim[i] = node.getCurrSim();
+            nextSim[i] = node.getNextSim();
+
+            for (CoeffEdge coeffEdge : ipg.incomingEdgesOf(node)) {
+                sources[edge] = ids.get(ipg.getEdgeSource(coeffEdge));
+                coeffs[edge] = coeffEdge.getCoeff();
+                edge++;
+            }
+            offsets[i + 1] = edge;
+        }
+
+        int numPartitions = sources.length < PARALLEL_THRESHOLD ? 1 : Math.max(1, Math.min(numNodes, Runtime.getRuntime().availableProcessors() * 10));
+        nodeBoundaries = createPartitions(numPartitions);
+        partitionMax = new double[numPartitions];
+        partitionDelta = new double[numPartitions];
+    }
+
+    /**
+     * Splits the nodes into partitions with a similar number of incoming edges
+     */
+    private int[] createPartitions(int numPartitions) {
+        int numNodes = nodes.size();
+        int[] boundaries = new int[numPartitions + 1];
+        boundaries[numPartitions] = numNodes;
+
+        int node = 0;
+        for (int p = 1; p < numPartitions; p++) {
+            long target = (long) sources.length * p / numPartitions;
+            while (node < numNodes && offsets[node] < target) {
+                node++;
+            }
+            boundaries[p] = node;
+        }
+        return boundaries;
+    }
+
+    public int getNumberOfNodes() {
+        return nodes.size();
+    }
+
+    public int getNumberOfEdges() {
+        return sources.length;
+    }
+
+    /**
+     * Runs the fixpoint iteration until the residual is less than epsilon or the maximum number of steps is reached
+     *
+     * @return the number of executed steps
+     */
+    public int similarityFlooding(FixpointFormula fixpointFormula, int maxSteps, double epsilon) {
+        for (int i = 0; i < maxSteps; i++) {
+            if (!similarityFloodingStep(fixpointFormula, epsilon)) {
+                return i + 1;
+            }
+        }
+        return maxSteps;
+    }
+
+    /**
+     * Calculates the next similarities of all nodes and normalises them by the maximum similarity
+     *
+     * @return true if the length of the difference vector is at least epsilon
+     */
+    public boolean similarityFloodingStep(final FixpointFormula fixpointFormula, double epsilon) {
+        forEachPartition(new Consumer<Integer>() {
+
+            @Override
+            public void execute(Integer partition) {
+                partitionMax[partition] = propagate(fixpointFormula, nodeBoundaries[partition], nodeBoundaries[partition + 1]);
+            }
+        });
+
+        double max = 0;
+        for (double m : partitionMax) {
+            max = Math.max(max, m);
+        }
+        final double maxSim = max;
+
+        forEachPartition(new Consumer<Integer>() {
+
+            @Override
+            public void execute(Integer partition) {
+                double delta = 0;
+                for (int i = nodeBoundaries[partition]; i < nodeBoundaries[partition + 1]; i++) {
+                    double newCurrSim = nextSim[i] / maxSim;
+                    delta += Math.pow((currSim[i] - newCurrSim), 2);
+                    // the normalised value replaces the old value, which was already used for all nodes
+                    currSim[i] = newCurrSim;
+                }
+                partitionDelta[partition] = delta;
+            }
+        });
+
+        double delta = 0;
+        for (double d : partitionDelta) {
+            delta += d;
+        }
+
+        return Math.sqrt(delta) >= epsilon;
+    }
+
+    /**
+     * Calculates the next similarities of the nodes from .. to-1
+     *
+     * @return the maximum of the calculated similarities
+     */
+    private double propagate(FixpointFormula fixpointFormula, int from, int to) {
+        double maxSim = 0;
+
+        for (int i = from; i < to; i++) {
+            double increment = 0;
+            double newSim;
+
+            if (fixpointFormula.equals(FixpointFormula.B) || fixpointFormula.equals(FixpointFormula.C)) {
+                for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                    increment += (currSim[sources[e]] + initSim[sources[e]]) * coeffs[e];
+                }
+            } else {
+                for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                    increment += currSim[sources[e]] * coeffs[e];
+                }
+            }
+
+            if (fixpointFormula.equals(FixpointFormula.A)) {
+                newSim = initSim[i] + increment;
+            } else if (fixpointFormula.equals(FixpointFormula.B)) {
+                newSim = increment;
+            } else if (fixpointFormula.equals(FixpointFormula.C)) {
+                newSim = initSim[i] + currSim[i] + increment;
+            } else {
+                newSim = currSim[i] + increment;
+            }
+
+            maxSim = Math.max(maxSim, newSim);
+            nextSim[i] = newSim;
+        }
+
+        return maxSim;
+    }
+
+    /**
+     * Executes the body for all partitions, a failed partition is re-thrown as RuntimeException, as the fixpoint
+     * iteration must not continue with a partially updated similarity vector
+     */
+    private void forEachPartition(final Consumer<Integer> body) {
+        if (partitionMax.length == 1) {
+            body.execute(0);
+        } else {
+            // the similarities are updated in place, so a failed partition must not be executed again
+            final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+            try {
+                Parallel.forLoop(0, partitionMax.length, new Consumer<Integer>() {
+
+                    @Override
+                    public void execute(Integer partition) {
+                        try {
+                            body.execute(partition);
+                        } catch (RuntimeException e) {
+                            failure.compareAndSet(null, e);
+                        }
+                    }
+                });
+            } catch (Exception e) {
+                throw new RuntimeException("Similarity flooding step failed", e);
+            }
+            if (failure.get() != null) {
+                throw new RuntimeException("Similarity flooding step failed", failure.get());
+            }
+        }
+    }
+
+    /**
+     * @return the current similarity of the node with the given index (in the order of the vertex set of the graph)
+     */
+    public double getCurrSim(int node) {
+        return currSim[node];
+    }
+
+    /**
+     * Writes the current and next similarities back to the nodes of the graph
+     */
+    public void updateNodes() {
+        for (int i = 0; i < nodes.size(); i++) {
+            IPGNode<T> node = nodes.get(i);
+            node.setCurrSim(currSim[i]);
+            node.setNextSim(nextSim[i]);
+        }
+    }
+}
@@ -13,6 +13,7 @@ package de.uni_mannheim.informatik.dws.winter.matching.blockers;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -167,6 +168,56 @@ public abstract class AbstractBlocker<RecordType extends Matchable, BlockedType
 			Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>> p2) {
 		return new ProcessableCollection<>(p1.getSecond()).append(p2.getSecond()).distinct();
 	}
+
+	/**
+	 * Creates the correspondence for a blocked pair of records. If causes are
+	 * created, they only contain the schema correspondences between the data
+	 * sources of the two records.
+	 * 
+	 * @param p1
+	 *            the first record and its schema correspondences
+	 * @param p2
+	 *            the second record and its schema correspondences
+	 * @param symmetric
+	 *            if true, the record with the lower data source id is placed on
+	 *            the left-hand side of the correspondence
+	 * @param createCauses
+	 *            whether the schema correspondences should be added as causes
+	 * @return the correspondence between the two records
+	 */
+	protected Correspondence<BlockedType, CorrespondenceType> createBlockedCorrespondence(
+			Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>> p1,
+			Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>> p2, boolean symmetric,
+			boolean createCauses) {
+
+		if (symmetric && p2.getFirst().getDataSourceIdentifier() < p1.getFirst().getDataSourceIdentifier()) {
+			// all pairs have the lower data source id on the left-hand side
+			Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>> tmp = p1;
+			p1 = p2;
+			p2 = tmp;
+		}
+
+		Processable<Correspondence<CorrespondenceType, Matchable>> causes = null;
+		if (createCauses) {
+			causes = new ProcessableCollection<>(p1.getSecond()).append(p2.getSecond()).distinct();
+
+			int[] pairIds = new int[] { p1.getFirst().getDataSourceIdentifier(),
+					p2.getFirst().getDataSourceIdentifier() };
+			Arrays.sort(pairIds);
+
+			// filter the correspondences such that only correspondences
+			// between the two records are contained (by data source id)
+			causes = causes.where((c) -> {
+				int[] causeIds = new int[] { c.getFirstRecord().getDataSourceIdentifier(),
+						c.getSecondRecord().getDataSourceIdentifier() };
+				Arrays.sort(causeIds);
+
+				return Arrays.equals(pairIds, causeIds);
+			});
+		}
+
+		return new Correspondence<BlockedType, CorrespondenceType>(p1.getFirst(), p2.getFirst(), 1.0, causes);
+	}
 	
 	/**
 	 * Initializes the schema for the debug results of the blocking.
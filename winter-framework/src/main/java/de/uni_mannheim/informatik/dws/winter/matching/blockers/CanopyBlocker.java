@@ -0,0 +1,413 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.blockers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+
+import de.uni_mannheim.informatik.dws.winter.matching.blockers.generators.BlockingKeyGenerator;
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.DataSet;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.Pair;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import de.uni_mannheim.informatik.dws.winter.processing.ProcessableCollection;
+import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+
+/**
+ * Implementation of canopy clustering as {@link AbstractBlocker}. The tokens of
+ * each record are created by the {@link BlockingKeyGenerator} (every generated
+ * blocking key is one token) and the Jaccard similarity of the token sets is
+ * used as cheap similarity measure.
+ *
+ * As long as records are left in the candidate pool, one of them is chosen as
+ * center of a new canopy. All records in the pool with a similarity of at least
+ * the loose threshold (T1) to the center are added to the canopy, and all
+ * records with a similarity of at least the tight threshold (T2) are removed
+ * from the pool. As records can be contained in multiple canopies, the
+ * canopies overlap. Each canopy is a block.
+ *
+ * Based on 'Efficient Clustering of High-Dimensional Data Sets with
+ * Application to Reference Matching' by McCallum et al. in 2000:
+ * dx.doi.org/10.1145/347090.347123
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ * @param <RecordType>
+ *            the type of records which are the input for the blocking operation
+ * @param <SchemaElementType>
+ *            the type of schema elements that are used in the schema of
+ *            RecordType
+ * @param <BlockedType>
+ *            the type of record which is actually blocked
+ * @param <CorrespondenceType>
+ *            the type of correspondences which are the input for the blocking
+ *            operation
+ */
+public class CanopyBlocker<RecordType extends Matchable, SchemaElementType extends Matchable, BlockedType extends Matchable, CorrespondenceType extends Matchable>
+		extends AbstractBlocker<RecordType, BlockedType, CorrespondenceType>
+		implements Blocker<RecordType, SchemaElementType, BlockedType, CorrespondenceType>,
+		SymmetricBlocker<RecordType, SchemaElementType, BlockedType, CorrespondenceType> {
+
+	private static final Logger logger = WinterLogManager.getLogger();
+
+	private BlockingKeyGenerator<RecordType, CorrespondenceType, BlockedType> blockingFunction;
+	private BlockingKeyGenerator<RecordType, CorrespondenceType, BlockedType> secondBlockingFunction;
+	private double looseThreshold;
+	private double tightThreshold;
+
+	private int canopyCount;
+	private double averageCanopySize;
+
+	public CanopyBlocker(BlockingKeyGenerator<RecordType, CorrespondenceType, BlockedType> blockingFunction,
+			double looseThreshold, double tightThreshold) {
+		this(blockingFunction, null, looseThreshold, tightThreshold);
+	}
+
+	/**
+	 * Creates a new canopy blocker with the given blocking function(s). If two
+	 * datasets are used and secondBlockingFunction is not null,
+	 * secondBlockingFunction will be used for the second dataset. If it is
+	 * null, blockingFunction will be used for both datasets
+	 *
+	 * @param blockingFunction
+	 *            the blocking function for the first dataset, generates the
+	 *            tokens of a record
+	 * @param secondBlockingFunction
+	 *            the blocking function for the second dataset
+	 * @param looseThreshold
+	 *            the minimum Jaccard similarity to the center for records in a
+	 *            canopy (T1)
+	 * @param tightThreshold
+	 *            the minimum Jaccard similarity to the center for records which
+	 *            are removed from the candidate pool (T2), must not be lower
+	 *            than looseThreshold
+	 * @throws IllegalArgumentException
+	 *             if tightThreshold is lower than looseThreshold
+	 */
+	public CanopyBlocker(BlockingKeyGenerator<RecordType, CorrespondenceType, BlockedType> blockingFunction,
+			BlockingKeyGenerator<RecordType, CorrespondenceType, BlockedType> secondBlockingFunction,
+			double looseThreshold, double tightThreshold) {
+		if (tightThreshold < looseThreshold) {
+			throw new IllegalArgumentException(String.format(
+					"The tight threshold (%f) must not be lower than the loose threshold (%f)", tightThreshold,
+					looseThreshold));
+		}
+		this.blockingFunction = blockingFunction;
+		this.secondBlockingFunction = secondBlockingFunction == null ? blockingFunction : secondBlockingFunction;
+		this.looseThreshold = looseThreshold;
+		this.tightThreshold = tightThreshold;
+	}
+
+	/**
+	 * @return the number of canopies created by the last blocking operation
+	 */
+	public int getCanopyCount() {
+		return canopyCount;
+	}
+
+	/**
+	 * @return the average number of records per canopy of the last blocking
+	 *         operation
+	 */
+	public double getAverageCanopySize() {
+		return averageCanopySize;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * de.uni_mannheim.informatik.wdi.matching.blocking.Blocker#runBlocking(de.
+	 * uni_mannheim.informatik.wdi.model.DataSet,
+	 * de.uni_mannheim.informatik.wdi.model.DataSet,
+	 * de.uni_mannheim.informatik.wdi.model.ResultSet,
+	 * de.uni_mannheim.informatik.wdi.matching.MatchingEngine)
+	 */
+	@Override
+	public Processable<Correspondence<BlockedType, CorrespondenceType>> runBlocking(
+			DataSet<RecordType, SchemaElementType> dataset1, DataSet<RecordType, SchemaElementType> dataset2,
+			Processable<Correspondence<CorrespondenceType, Matchable>> schemaCorrespondences) {
+
+		// combine the datasets with the schema correspondences
+		Processable<Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> ds1 = combineDataWithCorrespondences(
+				dataset1, schemaCorrespondences,
+				(r, c) -> c.next(new Pair<>(r.getFirstRecord().getDataSourceIdentifier(), r)));
+		Processable<Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> ds2 = combineDataWithCorrespondences(
+				dataset2, schemaCorrespondences,
+				(r, c) -> c.next(new Pair<>(r.getSecondRecord().getDataSourceIdentifier(), r)));
+
+		// the records of both datasets share the same ids and token
+		// dictionary, the records of the second dataset come after the
+		// records of the first dataset
+		Map<String, Integer> tokenIds = new HashMap<>();
+		List<Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>>> records = new ArrayList<>();
+		List<int[]> tokens = new ArrayList<>();
+		createTokens(ds1.map(blockingFunction), records, tokens, tokenIds);
+		int size1 = records.size();
+		createTokens(ds2.map(secondBlockingFunction), records, tokens, tokenIds);
+
+		long[] pairs = createPairs(tokens.toArray(new int[tokens.size()][]), tokenIds.size(), size1, false);
+
+		Processable<Correspondence<BlockedType, CorrespondenceType>> result = createCorrespondences(records, pairs,
+				false, schemaCorrespondences != null);
+
+		calculatePerformance(dataset1, dataset2, result);
+		reportStatistics(result);
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * de.uni_mannheim.informatik.wdi.matching.blocking.Blocker#runBlocking(de.
+	 * uni_mannheim.informatik.wdi.model.DataSet, boolean,
+	 * de.uni_mannheim.informatik.wdi.model.ResultSet,
+	 * de.uni_mannheim.informatik.wdi.matching.MatchingEngine)
+	 */
+	@Override
+	public Processable<Correspondence<BlockedType, CorrespondenceType>> runBlocking(
+			DataSet<RecordType, SchemaElementType> dataset,
+			Processable<Correspondence<CorrespondenceType, Matchable>> schemaCorrespondences) {
+
+		// as we only use one dataset here, we don't know if the record is on
+		// the left- or right-hand side of the correspondence
+		Processable<Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> ds = combineDataWithCorrespondences(
+				dataset, schemaCorrespondences, (r, c) -> {
+					c.next(new Pair<>(r.getFirstRecord().getDataSourceIdentifier(), r));
+					c.next(new Pair<>(r.getSecondRecord().getDataSourceIdentifier(), r));
+				});
+
+		Map<String, Integer> tokenIds = new HashMap<>();
+		List<Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>>> records = new ArrayList<>();
+		List<int[]> tokens = new ArrayList<>();
+		createTokens(ds.map(blockingFunction), records, tokens, tokenIds);
+
+		long[] pairs = createPairs(tokens.toArray(new int[tokens.size()][]), tokenIds.size(), records.size(), true);
+
+		Processable<Correspondence<BlockedType, CorrespondenceType>> result = createCorrespondences(records, pairs,
+				true, schemaCorrespondences != null);
+
+		calculatePerformance(dataset, dataset, result);
+		reportStatistics(result);
+		return result;
+	}
+
+	private void reportStatistics(Processable<Correspondence<BlockedType, CorrespondenceType>> result) {
+		setResult(result);
+		logger.info(String.format("Canopy clustering (T1=%f, T2=%f): %,d canopies with %.2f records on average",
+				looseThreshold, tightThreshold, canopyCount, averageCanopySize));
+		logger.info(String.format("Canopy clustering: %,d pairs, reduction ratio %f", result.size(),
+				getReductionRatio()));
+	}
+
+	/**
+	 * Assigns an id to each distinct record and each token and adds the
+	 * sorted, distinct token ids of each record to tokens
+	 */
+	private void createTokens(
+			Processable<Pair<String, Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>>>> blockingKeys,
+			List<Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>>> records,
+			List<int[]> tokens, Map<String, Integer> tokenIds) {
+
+		Map<BlockedType, Integer> recordIds = new HashMap<>();
+		int offset = records.size();
+		List<Integer> sizes = new ArrayList<>();
+
+		for (Pair<String, Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>>> p : blockingKeys
+				.get()) {
+			Integer recordId = recordIds.get(p.getSecond().getFirst());
+			if (recordId == null) {
+				recordId = records.size();
+				recordIds.put(p.getSecond().getFirst(), recordId);
+				records.add(p.getSecond());
+				tokens.add(new int[4]);
+				sizes.add(0);
+			}
+
+			Integer tokenId = tokenIds.get(p.getFirst());
+			if (tokenId == null) {
+				tokenId = tokenIds.size();
+				tokenIds.put(p.getFirst(), tokenId);
+			}
+
+			int[] t = tokens.get(recordId);
+			int size = sizes.get(recordId - offset);
+			if (t.length == size) {
+				t = Arrays.copyOf(t, size * 2);
+				tokens.set(recordId, t);
+			}
+			t[size] = tokenId;
+			sizes.set(recordId - offset, size + 1);
+		}
+
+		for (int i = offset; i < tokens.size(); i++) {
+			int[] t = tokens.get(i);
+			int size = sizes.get(i - offset);
+			Arrays.sort(t, 0, size);
+			int distinct = 0;
+			for (int j = 0; j < size; j++) {
+				if (distinct == 0 || t[distinct - 1] != t[j]) {
+					t[distinct++] = t[j];
+				}
+			}
+			tokens.set(i, Arrays.copyOf(t, distinct));
+		}
+	}
+
+	/**
+	 * Creates the canopies and returns the sorted, distinct pairs, encoded as
+	 * id1 * tokens.length + id2. Without symmetric, only pairs of a record
+	 * below size1 and a record starting at size1 are created.
+	 */
+	private long[] createPairs(int[][] tokens, int numTokens, int size1, boolean symmetric) {
+		int numRecords = tokens.length;
+
+		// inverted index: token id -> record ids
+		int[] postingSizes = new int[numTokens];
+		for (int[] t : tokens) {
+			for (int token : t) {
+				postingSizes[token]++;
+			}
+		}
+		int[][] postings = new int[numTokens][];
+		for (int i = 0; i < numTokens; i++) {
+			postings[i] = new int[postingSizes[i]];
+			postingSizes[i] = 0;
+		}
+		for (int record = 0; record < numRecords; record++) {
+			for (int token : tokens[record]) {
+				postings[token][postingSizes[token]++] = record;
+			}
+		}
+
+		// the candidate pool with the position of each record, so records can
+		// be removed in O(1) by moving the last record to their position
+		int[] pool = new int[numRecords];
+		int[] positions = new int[numRecords];
+		int poolSize = 0;
+		for (int record = 0; record < numRecords; record++) {
+			if (tokens[record].length > 0) {
+				positions[record] = poolSize;
+				pool[poolSize++] = record;
+			} else {
+				positions[record] = -1;
+			}
+		}
+
+		int[] overlap = new int[numRecords];
+		int[] touched = new int[numRecords];
+		int[] canopy = new int[numRecords];
+		long[] pairs = new long[16];
+		int numPairs = 0;
+		long canopyMembers = 0;
+		canopyCount = 0;
+
+		while (poolSize > 0) {
+			int center = pool[poolSize - 1];
+			poolSize = removeFromPool(center, pool, positions, poolSize);
+
+			// count the common tokens of all records in the pool
+			int numTouched = 0;
+			for (int token : tokens[center]) {
+				for (int record : postings[token]) {
+					if (positions[record] >= 0) {
+						if (overlap[record]++ == 0) {
+							touched[numTouched++] = record;
+						}
+					}
+				}
+			}
+
+			int canopySize = 0;
+			canopy[canopySize++] = center;
+			for (int i = 0; i < numTouched; i++) {
+				int record = touched[i];
+				int common = overlap[record];
+				overlap[record] = 0;
+				double similarity = (double) common / (tokens[center].length + tokens[record].length - common);
+				if (similarity >= looseThreshold) {
+					canopy[canopySize++] = record;
+					if (similarity >= tightThreshold) {
+						poolSize = removeFromPool(record, pool, positions, poolSize);
+					}
+				}
+			}
+
+			canopyCount++;
+			canopyMembers += canopySize;
+
+			if (isMeasureBlockSizes()) {
+				Record model = new Record(Integer.toString(canopyCount));
+				model.setValue(AbstractBlocker.blockingKeyValue, String.format("canopy %d", center));
+				model.setValue(AbstractBlocker.frequency, Integer.toString(canopySize));
+				this.appendBlockingResult(model);
+			}
+
+			// create the pairs of the canopy
+			for (int i = 0; i < canopySize; i++) {
+				for (int j = i + 1; j < canopySize; j++) {
+					int id1 = Math.min(canopy[i], canopy[j]);
+					int id2 = Math.max(canopy[i], canopy[j]);
+					if (symmetric || (id1 < size1 && id2 >= size1)) {
+						if (numPairs == pairs.length) {
+							pairs = Arrays.copyOf(pairs, numPairs * 2);
+						}
+						pairs[numPairs++] = (long) id1 * numRecords + id2;
+					}
+				}
+			}
+		}
+
+		averageCanopySize = canopyCount == 0 ? 0.0 : (double) canopyMembers / canopyCount;
+
+		// remove the pairs which are contained in multiple canopies
+		Arrays.sort(pairs, 0, numPairs);
+		int distinct = 0;
+		for (int i = 0; i < numPairs; i++) {
+			if (distinct == 0 || pairs[distinct - 1] != pairs[i]) {
+				pairs[distinct++] = pairs[i];
+			}
+		}
+		return Arrays.copyOf(pairs, distinct);
+	}
+
+	private int removeFromPool(int record, int[] pool, int[] positions, int poolSize) {
+		int position = positions[record];
+		int last = pool[poolSize - 1];
+		pool[position] = last;
+		positions[last] = position;
+		positions[record] = -1;
+		return poolSize - 1;
+	}
+
+	private Processable<Correspondence<BlockedType, CorrespondenceType>> createCorrespondences(
+			List<Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>>> records,
+			long[] pairs, boolean symmetric, boolean createCauses) {
+		Processable<Correspondence<BlockedType, CorrespondenceType>> result = new ProcessableCollection<>();
+
+		for (long pair : pairs) {
+			result.add(createBlockedCorrespondence(records.get((int) (pair / records.size())),
+					records.get((int) (pair % records.size())), symmetric, createCauses));
+		}
+
+		return result;
+	}
+
+}
@@ -0,0 +1,442 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.blockers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.slf4j.Logger;
+
+import de.uni_mannheim.informatik.dws.winter.index.IIndex;
+import de.uni_mannheim.informatik.dws.winter.index.io.DefaultIndex;
+import de.uni_mannheim.informatik.dws.winter.matching.blockers.generators.BlockingKeyGenerator;
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.DataSet;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.Pair;
+import de.uni_mannheim.informatik.dws.winter.processing.DataIterator;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Parallel;
+
+/**
+ * Implementation of a {@link Blocker} that keeps the blocking keys of the
+ * second dataset in a Lucene index ({@link IIndex}). Each record of the first
+ * dataset is turned into a query over its blocking keys and paired with the
+ * top-k records of the second dataset that share the most (and most
+ * selective) blocking keys.
+ *
+ * If a {@link DefaultIndex} is used, the index is stored on disk and re-used
+ * by later runs (on 64-bit platforms, FSDirectory.open returns a memory-mapped
+ * directory). The second dataset is only indexed if the index is empty, changes
+ * to it can be applied with {@link #indexRecords(DataSet, Processable)} and
+ * {@link #deleteRecords(Collection)}. If an update of the index fails, the
+ * exception is passed on to the caller and the next call of
+ * {@link #runBlocking(DataSet, DataSet, Processable)} re-creates the index.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ * @param <RecordType>
+ *            the type of records which are the input for the blocking operation
+ * @param <SchemaElementType>
+ *            the type of schema elements that are used in the schema of
+ *            RecordType
+ * @param <CorrespondenceType>
+ *            the type of correspondences which are the input for the blocking
+ *            operation
+ */
+public class IndexBasedBlocker<RecordType extends Matchable, SchemaElementType extends Matchable, CorrespondenceType extends Matchable>
+		extends AbstractBlocker<RecordType, RecordType, CorrespondenceType>
+		implements Blocker<RecordType, SchemaElementType, RecordType, CorrespondenceType> {
+
+	public static final String ID_FIELD = "id";
+	public static final String KEY_FIELD = "key";
+
+	private BlockingKeyGenerator<RecordType, CorrespondenceType, RecordType> blockingFunction;
+	private BlockingKeyGenerator<RecordType, CorrespondenceType, RecordType> secondBlockingFunction;
+	private IIndex index;
+	private int topK;
+
+	private IndexReader indexReader = null;
+	// IndexSearcher is thread-safe, so all threads share one searcher per reader
+	private IndexSearcher indexSearcher = null;
+	// true if an update of the index failed, the index must be re-created before it can be queried
+	private volatile boolean indexIncomplete = false;
+
+	private static final Set<String> idFieldOnly = Collections.singleton(ID_FIELD);
+
+	private static final Logger logger = WinterLogManager.getLogger();
+
+	/**
+	 * Creates a new blocker that uses the same blocking function for both
+	 * datasets.
+	 *
+	 * @param blockingFunction
+	 *            the blocking function
+	 * @param index
+	 *            the index that stores the blocking keys of the second dataset
+	 * @param topK
+	 *            the maximum number of candidates for each record of the first
+	 *            dataset
+	 */
+	public IndexBasedBlocker(BlockingKeyGenerator<RecordType, CorrespondenceType, RecordType> blockingFunction,
+			IIndex index, int topK) {
+		this(blockingFunction, null, index, topK);
+	}
+
+	/**
+	 * Creates a new blocker with the given blocking function(s). If
+	 * secondBlockingFunction is null, blockingFunction will be used for both
+	 * datasets.
+	 *
+	 * @param blockingFunction
+	 *            the blocking function for the first dataset (query side)
+	 * @param secondBlockingFunction
+	 *            the blocking function for the second dataset (index side)
+	 * @param index
+	 *            the index that stores the blocking keys of the second dataset
+	 * @param topK
+	 *            the maximum number of candidates for each record of the first
+	 *            dataset
+	 */
+	public IndexBasedBlocker(BlockingKeyGenerator<RecordType, CorrespondenceType, RecordType> blockingFunction,
+			BlockingKeyGenerator<RecordType, CorrespondenceType, RecordType> secondBlockingFunction, IIndex index,
+			int topK) {
+		this.blockingFunction = blockingFunction;
+		this.secondBlockingFunction = secondBlockingFunction == null ? blockingFunction : secondBlockingFunction;
+		this.index = index;
+		this.topK = topK;
+	}
+
+	/**
+	 * @return the index that stores the blocking keys of the second dataset
+	 */
+	public IIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * @return the maximum number of candidates for each record of the first
+	 *         dataset
+	 */
+	public int getTopK() {
+		return topK;
+	}
+
+	/**
+	 * @param topK
+	 *            the maximum number of candidates for each record of the
+	 *            first dataset
+	 */
+	public void setTopK(int topK) {
+		this.topK = topK;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * de.uni_mannheim.informatik.dws.winter.matching.blockers.Blocker#runBlocking(de.uni_mannheim.informatik.dws.winter.model.DataSet,
+	 * de.uni_mannheim.informatik.dws.winter.model.DataSet,
+	 * de.uni_mannheim.informatik.dws.winter.processing.Processable)
+	 */
+	@Override
+	public Processable<Correspondence<RecordType, CorrespondenceType>> runBlocking(
+			DataSet<RecordType, SchemaElementType> dataset1, DataSet<RecordType, SchemaElementType> dataset2,
+			Processable<Correspondence<CorrespondenceType, Matchable>> schemaCorrespondences) {
+
+		if (indexIncomplete) {
+			logger.trace("Re-creating the index after a failed update");
+			clearIndex();
+		}
+
+		if (getNumberOfIndexedRecords() == 0) {
+			logger.trace(String.format("Indexing blocking key values for dataset2: %d records", dataset2.size()));
+			indexRecords(dataset2, schemaCorrespondences);
+		}
+
+		// the correspondences of the second dataset are required to create
+		// the causal correspondences of the blocked pairs
+		Map<String, Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> ds2 = null;
+		if (schemaCorrespondences != null) {
+			ds2 = new HashMap<>();
+			for (Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>> p : combineDataWithCorrespondences(
+					dataset2, schemaCorrespondences,
+					(r, c) -> c.next(new Pair<>(r.getSecondRecord().getDataSourceIdentifier(), r))).get()) {
+				ds2.put(p.getFirst().getIdentifier(), p);
+			}
+		}
+		final Map<String, Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> ds2Correspondences = ds2;
+
+		Processable<Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> ds1 = combineDataWithCorrespondences(
+				dataset1, schemaCorrespondences,
+				(r, c) -> c.next(new Pair<>(r.getFirstRecord().getDataSourceIdentifier(), r)));
+
+		logger.trace(String.format("Querying top-%d candidates for dataset1: %d records", topK, dataset1.size()));
+
+		final Collection<Correspondence<RecordType, CorrespondenceType>> blocked = new ConcurrentLinkedQueue<>();
+		try {
+			new Parallel<Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>>().foreach(ds1.get(), (p1) -> {
+				Set<String> keys = getBlockingKeys(blockingFunction, p1);
+
+				for (String id : queryIndex(keys)) {
+					RecordType record2 = dataset2.getRecord(id);
+
+					// the index can contain records that are not part of dataset2
+					if (record2 != null) {
+						if (ds2Correspondences != null) {
+							Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>> p2 = ds2Correspondences
+									.get(id);
+							blocked.add(new Correspondence<RecordType, CorrespondenceType>(p1.getFirst(), record2, 1.0,
+									p2 == null ? null : createCausalCorrespondences(p1, p2)));
+						} else {
+							blocked.add(new Correspondence<RecordType, CorrespondenceType>(p1.getFirst(), record2, 1.0, null));
+						}
+					}
+				}
+			}, "IndexBasedBlocker: querying the index");
+		} catch (Exception e) {
+			// a failed query has no candidates, so its pairs would be silently missing from the result
+			throw new RuntimeException("Querying the index failed", e);
+		}
+		Processable<Correspondence<RecordType, CorrespondenceType>> result = ds1.createProcessableFromCollection(blocked);
+
+		if (isMeasureBlockSizes()) {
+			logger.info(String.format("created %d pairs from %d indexed records", result.size(),
+					getNumberOfIndexedRecords()));
+		}
+
+		calculatePerformance(dataset1, dataset2, result);
+
+		return result;
+	}
+
+	/**
+	 * Adds the given records to the index. Records that are already contained
+	 * in the index (by identifier) are replaced.
+	 *
+	 * @param records
+	 *            the records to add or update
+	 * @param schemaCorrespondences
+	 *            the schema correspondences that are passed to the blocking
+	 *            function (can be null)
+	 * @throws UncheckedIOException
+	 *             if a record cannot be written to the index
+	 */
+	public void indexRecords(DataSet<RecordType, SchemaElementType> records,
+			Processable<Correspondence<CorrespondenceType, Matchable>> schemaCorrespondences) {
+		final IndexWriter writer = index.getIndexWriter();
+
+		try {
+			new Parallel<Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>>().foreach(
+					combineDataWithCorrespondences(records, schemaCorrespondences,
+							(r, c) -> c.next(new Pair<>(r.getSecondRecord().getDataSourceIdentifier(), r))).get(),
+					(p) -> {
+						Document doc = new Document();
+						doc.add(new StringField(ID_FIELD, p.getFirst().getIdentifier(), Field.Store.YES));
+						for (String key : getBlockingKeys(secondBlockingFunction, p)) {
+							doc.add(new StringField(KEY_FIELD, key, Field.Store.NO));
+						}
+
+						try {
+							writer.updateDocument(new Term(ID_FIELD, p.getFirst().getIdentifier()), doc);
+						} catch (IOException e) {
+							throw new UncheckedIOException("Could not write a record to the index", e);
+						}
+					}, "IndexBasedBlocker: indexing records");
+		} catch (UncheckedIOException e) {
+			markIndexIncomplete();
+			throw e;
+		} catch (Exception e) {
+			markIndexIncomplete();
+			throw new RuntimeException("Could not write the records to the index", e);
+		}
+
+		commit();
+	}
+
+	/**
+	 * Removes the records with the given identifiers from the index.
+	 *
+	 * @param identifiers
+	 *            the identifiers of the records that should be removed
+	 * @throws UncheckedIOException
+	 *             if the records cannot be removed from the index
+	 */
+	public void deleteRecords(Collection<String> identifiers) {
+		IndexWriter writer = index.getIndexWriter();
+
+		try {
+			for (String id : identifiers) {
+				writer.deleteDocuments(new Term(ID_FIELD, id));
+			}
+		} catch (IOException e) {
+			markIndexIncomplete();
+			throw new UncheckedIOException("Could not remove the records from the index", e);
+		}
+
+		commit();
+	}
+
+	/**
+	 * Removes all records from the index.
+	 *
+	 * @throws UncheckedIOException
+	 *             if the records cannot be removed from the index
+	 */
+	public void clearIndex() {
+		try {
+			index.getIndexWriter().deleteAll();
+		} catch (IOException e) {
+			markIndexIncomplete();
+			throw new UncheckedIOException("Could not clear the index", e);
+		}
+
+		commit();
+		indexIncomplete = false;
+	}
+
+	/**
+	 * @return the number of records in the index
+	 */
+	public int getNumberOfIndexedRecords() {
+		IndexReader reader = getIndexReader();
+		return reader == null ? 0 : reader.numDocs();
+	}
+
+	/**
+	 * Commits all changes to the index and makes sure that the next query uses
+	 * a new reader.
+	 */
+	protected synchronized void commit() {
+		index.closeIndexWriter();
+		index.closeIndexReader();
+		indexReader = null;
+		indexSearcher = null;
+	}
+
+	/**
+	 * Commits the changes that were applied before an update of the index
+	 * failed and makes sure that the index is re-created by the next call of
+	 * {@link #runBlocking(DataSet, DataSet, Processable)}.
+	 */
+	protected void markIndexIncomplete() {
+		indexIncomplete = true;
+		commit();
+	}
+
+	protected synchronized IndexReader getIndexReader() {
+		if (indexReader == null) {
+			// create the index if it does not exist yet, otherwise the reader
+			// cannot be opened
+			index.getIndexWriter();
+			index.closeIndexWriter();
+
+			IndexSearcher searcher = index.getIndexSearcher();
+			if (searcher != null) {
+				indexReader = searcher.getIndexReader();
+			}
+		}
+		return indexReader;
+	}
+
+	protected synchronized IndexSearcher getIndexSearcher() {
+		if (indexSearcher == null) {
+			indexSearcher = new IndexSearcher(getIndexReader());
+		}
+		return indexSearcher;
+	}
+
+	/**
+	 * Returns the identifiers of the top-k records in the index which share
+	 * blocking keys with the given keys.
+	 *
+	 * @param keys
+	 *            the blocking keys
+	 * @return the identifiers of the retrieved records, in descending order of
+	 *         their score
+	 * @throws UncheckedIOException
+	 *             if the index cannot be queried
+	 */
+	protected Collection<String> queryIndex(Set<String> keys) {
+		Collection<String> ids = new LinkedHashSet<>();
+
+		if (keys.size() > 0 && topK > 0) {
+			BooleanQuery query = new BooleanQuery();
+			for (String key : keys) {
+				if (query.clauses().size() >= BooleanQuery.getMaxClauseCount()) {
+					break;
+				}
+				query.add(new TermQuery(new Term(KEY_FIELD, key)), Occur.SHOULD);
+			}
+
+			try {
+				IndexSearcher searcher = getIndexSearcher();
+				TopDocs docs = searcher.search(query, topK);
+
+				for (ScoreDoc sd : docs.scoreDocs) {
+					ids.add(searcher.doc(sd.doc, idFieldOnly).get(ID_FIELD));
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException("Could not query the index", e);
+			}
+		}
+
+		return ids;
+	}
+
+	protected Set<String> getBlockingKeys(BlockingKeyGenerator<RecordType, CorrespondenceType, RecordType> function,
+			Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>> record) {
+		final Set<String> keys = new LinkedHashSet<>();
+
+		function.mapRecordToKey(record,
+				new DataIterator<Pair<String, Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>>>() {
+
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					public void initialise() {
+					}
+
+					@Override
+					public void next(
+							Pair<String, Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> record) {
+						keys.add(record.getFirst());
+					}
+
+					@Override
+					public void finalise() {
+					}
+				});
+
+		return keys;
+	}
+}
@@ -0,0 +1,755 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.blockers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+
+import de.uni_mannheim.informatik.dws.winter.matching.blockers.generators.BlockingKeyGenerator;
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.DataSet;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.Pair;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import de.uni_mannheim.informatik.dws.winter.processing.ProcessableCollection;
+import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Consumer;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Parallel;
+
+/**
+ * Implementation of meta-blocking based on blocking keys. The blocks that are
+ * created by the blocking keys are transformed into a blocking graph, in which
+ * each record is a node and two records are connected by an edge if they share
+ * at least one block. The edges are weighted by a {@link WeightingScheme} and
+ * pruned by a {@link PruningScheme}, only the remaining edges are returned as
+ * pairs.
+ *
+ * Based on 'Meta-Blocking: Taking Entity Resolution to the Next Level' by
+ * Papadakis et al. in 2014: dx.doi.org/10.1109/TKDE.2013.54
+ *
+ * The graph is never materialised: the edges of each node are accumulated from
+ * the blocks of the node (using integer ids for records and blocks) and the
+ * nodes are processed in parallel.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ * @param <RecordType>
+ *            the type of records which are the input for the blocking operation
+ * @param <SchemaElementType>
+ *            the type of schema elements that are used in the schema of
+ *            RecordType
+ * @param <BlockedType>
+ *            the type of record which is actually blocked
+ * @param <CorrespondenceType>
+ *            the type of correspondences which are the input for the blocking
+ *            operation
+ */
+public class MetaBlocker<RecordType extends Matchable, SchemaElementType extends Matchable, BlockedType extends Matchable, CorrespondenceType extends Matchable>
+		extends AbstractBlocker<RecordType, BlockedType, CorrespondenceType>
+		implements Blocker<RecordType, SchemaElementType, BlockedType, CorrespondenceType>,
+		SymmetricBlocker<RecordType, SchemaElementType, BlockedType, CorrespondenceType> {
+
+	/**
+	 * The edge weights of the blocking graph.
+	 */
+	public enum WeightingScheme {
+		/** Common Blocks Scheme: the number of shared blocks */
+		CBS,
+		/**
+		 * Enhanced Common Blocks Scheme: CBS, discounted by the number of
+		 * blocks of both records
+		 */
+		ECBS,
+		/** Jaccard Scheme: the Jaccard similarity of the block sets */
+		JS,
+		/**
+		 * Aggregate Reciprocal Comparisons Scheme: the sum of the inverse
+		 * number of comparisons of the shared blocks
+		 */
+		ARCS
+	}
+
+	/**
+	 * The pruning of the blocking graph.
+	 */
+	public enum PruningScheme {
+		/**
+		 * Weighted Edge Pruning: keeps all edges with at least the average
+		 * weight
+		 */
+		WEP,
+		/**
+		 * Cardinality Node Pruning: keeps the edges which are among the top-k
+		 * edges of at least one of their nodes
+		 */
+		CNP,
+		/**
+		 * Reciprocal Cardinality Node Pruning: keeps the edges which are among
+		 * the top-k edges of both of their nodes
+		 */
+		RCNP
+	}
+
+	private static final Logger logger = WinterLogManager.getLogger();
+
+	private BlockingKeyGenerator<RecordType, CorrespondenceType, BlockedType> blockingFunction;
+	private BlockingKeyGenerator<RecordType, CorrespondenceType, BlockedType> secondBlockingFunction;
+	private WeightingScheme weightingScheme;
+	private PruningScheme pruningScheme;
+	private double blockFilteringRatio = 0.0;
+
+	public MetaBlocker(BlockingKeyGenerator<RecordType, CorrespondenceType, BlockedType> blockingFunction,
+			WeightingScheme weightingScheme, PruningScheme pruningScheme) {
+		this(blockingFunction, null, weightingScheme, pruningScheme);
+	}
+
+	/**
+	 * Creates a new meta-blocker with the given blocking function(s). If two
+	 * datasets are used and secondBlockingFunction is not null,
+	 * secondBlockingFunction will be used for the second dataset. If it is
+	 * null, blockingFunction will be used for both datasets
+	 *
+	 * @param blockingFunction
+	 *            the blocking function for the first dataset
+	 * @param secondBlockingFunction
+	 *            the blocking function for the second dataset
+	 * @param weightingScheme
+	 *            the edge weights of the blocking graph
+	 * @param pruningScheme
+	 *            the pruning of the blocking graph
+	 */
+	public MetaBlocker(BlockingKeyGenerator<RecordType, CorrespondenceType, BlockedType> blockingFunction,
+			BlockingKeyGenerator<RecordType, CorrespondenceType, BlockedType> secondBlockingFunction,
+			WeightingScheme weightingScheme, PruningScheme pruningScheme) {
+		this.blockingFunction = blockingFunction;
+		this.secondBlockingFunction = secondBlockingFunction == null ? blockingFunction : secondBlockingFunction;
+		this.weightingScheme = weightingScheme;
+		this.pruningScheme = pruningScheme;
+	}
+
+	/**
+	 * Sets the ratio of block filtering, which is applied before the blocking
+	 * graph is created. For each record, this ratio of its blocks (starting
+	 * with the blocks which create the most comparisons) is removed. Ignored if
+	 * set to 0.
+	 *
+	 * @param blockFilteringRatio
+	 *            the ratio of blocks to remove for each record
+	 */
+	public void setBlockFilteringRatio(double blockFilteringRatio) {
+		this.blockFilteringRatio = blockFilteringRatio;
+	}
+
+	public WeightingScheme getWeightingScheme() {
+		return weightingScheme;
+	}
+
+	public PruningScheme getPruningScheme() {
+		return pruningScheme;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * de.uni_mannheim.informatik.wdi.matching.blocking.Blocker#runBlocking(de.
+	 * uni_mannheim.informatik.wdi.model.DataSet,
+	 * de.uni_mannheim.informatik.wdi.model.DataSet,
+	 * de.uni_mannheim.informatik.wdi.model.ResultSet,
+	 * de.uni_mannheim.informatik.wdi.matching.MatchingEngine)
+	 */
+	@Override
+	public Processable<Correspondence<BlockedType, CorrespondenceType>> runBlocking(
+			DataSet<RecordType, SchemaElementType> dataset1, DataSet<RecordType, SchemaElementType> dataset2,
+			Processable<Correspondence<CorrespondenceType, Matchable>> schemaCorrespondences) {
+
+		// combine the datasets with the schema correspondences
+		Processable<Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> ds1 = combineDataWithCorrespondences(
+				dataset1, schemaCorrespondences,
+				(r, c) -> c.next(new Pair<>(r.getFirstRecord().getDataSourceIdentifier(), r)));
+		Processable<Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> ds2 = combineDataWithCorrespondences(
+				dataset2, schemaCorrespondences,
+				(r, c) -> c.next(new Pair<>(r.getSecondRecord().getDataSourceIdentifier(), r)));
+
+		// assign integer ids to all records and blocks
+		Map<String, Integer> blockIds = new HashMap<>();
+		List<Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>>> records1 = new ArrayList<>();
+		List<Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>>> records2 = new ArrayList<>();
+		int[][] blocks1 = createBlockAssignments(ds1.map(blockingFunction), records1, blockIds);
+		int[][] blocks2 = createBlockAssignments(ds2.map(secondBlockingFunction), records2, blockIds);
+
+		int[][] neighbours = pruneBlockingGraph(blocks1, blocks2, blockIds.size(), false);
+
+		Processable<Correspondence<BlockedType, CorrespondenceType>> result = createCorrespondences(records1,
+				records2, neighbours, schemaCorrespondences != null);
+
+		calculatePerformance(dataset1, dataset2, result);
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * de.uni_mannheim.informatik.wdi.matching.blocking.Blocker#runBlocking(de.
+	 * uni_mannheim.informatik.wdi.model.DataSet, boolean,
+	 * de.uni_mannheim.informatik.wdi.model.ResultSet,
+	 * de.uni_mannheim.informatik.wdi.matching.MatchingEngine)
+	 */
+	@Override
+	public Processable<Correspondence<BlockedType, CorrespondenceType>> runBlocking(
+			DataSet<RecordType, SchemaElementType> dataset,
+			Processable<Correspondence<CorrespondenceType, Matchable>> schemaCorrespondences) {
+
+		// as we only use one dataset here, we don't know if the record is on
+		// the left- or right-hand side of the correspondence
+		Processable<Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> ds = combineDataWithCorrespondences(
+				dataset, schemaCorrespondences, (r, c) -> {
+					c.next(new Pair<>(r.getFirstRecord().getDataSourceIdentifier(), r));
+					c.next(new Pair<>(r.getSecondRecord().getDataSourceIdentifier(), r));
+				});
+
+		Map<String, Integer> blockIds = new HashMap<>();
+		List<Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>>> records = new ArrayList<>();
+		int[][] blocks = createBlockAssignments(ds.map(blockingFunction), records, blockIds);
+
+		int[][] neighbours = pruneBlockingGraph(blocks, blocks, blockIds.size(), true);
+
+		Processable<Correspondence<BlockedType, CorrespondenceType>> result = createCorrespondences(records, records,
+				neighbours, schemaCorrespondences != null);
+
+		calculatePerformance(dataset, dataset, result);
+		return result;
+	}
+
+	/**
+	 * Assigns an id to each distinct record and each blocking key and returns
+	 * the sorted block ids of each record.
+	 */
+	private int[][] createBlockAssignments(
+			Processable<Pair<String, Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>>>> blockingKeys,
+			List<Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>>> records,
+			Map<String, Integer> blockIds) {
+
+		Map<BlockedType, Integer> recordIds = new HashMap<>();
+		List<int[]> assignments = new ArrayList<>();
+		int[] sizes = new int[16];
+
+		for (Pair<String, Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>>> p : blockingKeys
+				.get()) {
+			Integer recordId = recordIds.get(p.getSecond().getFirst());
+			if (recordId == null) {
+				recordId = records.size();
+				recordIds.put(p.getSecond().getFirst(), recordId);
+				records.add(p.getSecond());
+				assignments.add(new int[2]);
+				if (sizes.length == recordId) {
+					sizes = Arrays.copyOf(sizes, sizes.length * 2);
+				}
+			}
+
+			Integer blockId = blockIds.get(p.getFirst());
+			if (blockId == null) {
+				blockId = blockIds.size();
+				blockIds.put(p.getFirst(), blockId);
+			}
+
+			int[] blocks = assignments.get(recordId);
+			if (blocks.length == sizes[recordId]) {
+				blocks = Arrays.copyOf(blocks, blocks.length * 2);
+				assignments.set(recordId, blocks);
+			}
+			blocks[sizes[recordId]++] = blockId;
+		}
+
+		// remove duplicate blocking keys of the same record
+		int[][] result = new int[assignments.size()][];
+		for (int i = 0; i < result.length; i++) {
+			int[] blocks = assignments.get(i);
+			Arrays.sort(blocks, 0, sizes[i]);
+			int size = 0;
+			for (int j = 0; j < sizes[i]; j++) {
+				if (size == 0 || blocks[size - 1] != blocks[j]) {
+					blocks[size++] = blocks[j];
+				}
+			}
+			result[i] = Arrays.copyOf(blocks, size);
+		}
+		return result;
+	}
+
+	/**
+	 * Creates and prunes the blocking graph. If symmetric is true, blocks1 and
+	 * blocks2 must be the same array and only edges from lower to higher ids
+	 * are returned.
+	 *
+	 * @return the sorted ids of the retained neighbours (in blocks2) of each
+	 *         record in blocks1
+	 */
+	private int[][] pruneBlockingGraph(int[][] blocks1, int[][] blocks2, int numBlocks, boolean symmetric) {
+		int[][] members1 = createBlockMembers(blocks1, numBlocks);
+		int[][] members2 = symmetric ? members1 : createBlockMembers(blocks2, numBlocks);
+		long[] comparisons = countComparisons(members1, members2, symmetric);
+
+		if (blockFilteringRatio > 0.0) {
+			blocks1 = filterBlocks(blocks1, comparisons);
+			blocks2 = symmetric ? blocks1 : filterBlocks(blocks2, comparisons);
+			members1 = createBlockMembers(blocks1, numBlocks);
+			members2 = symmetric ? members1 : createBlockMembers(blocks2, numBlocks);
+			comparisons = countComparisons(members1, members2, symmetric);
+		}
+
+		// blocks without comparisons do not create edges and must not be
+		// counted by the weighting schemes
+		blocks1 = removeEmptyBlocks(blocks1, comparisons);
+		blocks2 = symmetric ? blocks1 : removeEmptyBlocks(blocks2, comparisons);
+		int nonEmptyBlocks = 0;
+		long totalComparisons = 0;
+		for (long c : comparisons) {
+			if (c > 0) {
+				nonEmptyBlocks++;
+				totalComparisons += c;
+			}
+		}
+		logger.info(String.format("Blocking graph: %,d blocks with %,d comparisons", nonEmptyBlocks,
+				totalComparisons));
+
+		BlockingGraph graph = new BlockingGraph(blocks1, blocks2, members2, comparisons, nonEmptyBlocks, symmetric);
+
+		int[][] result;
+		if (pruningScheme == PruningScheme.WEP) {
+			result = pruneEdges(graph);
+		} else {
+			long assignments = 0;
+			int nodes = blocks1.length;
+			for (int[] b : blocks1) {
+				assignments += b.length;
+			}
+			if (!symmetric) {
+				nodes += blocks2.length;
+				for (int[] b : blocks2) {
+					assignments += b.length;
+				}
+			}
+			int k = Math.max(1, (int) Math.floor((double) assignments / (double) Math.max(1, nodes)));
+
+			int[][] top1 = selectTopNeighbours(graph, k);
+			int[][] top2 = symmetric ? top1
+					: selectTopNeighbours(
+							new BlockingGraph(blocks2, blocks1, members1, comparisons, nonEmptyBlocks, false), k);
+
+			result = pruneNodes(top1, top2, symmetric, pruningScheme == PruningScheme.RCNP);
+			logger.info(String.format("%s: keeping the top-%d edges of each node", pruningScheme, k));
+		}
+
+		long retained = 0;
+		for (int[] n : result) {
+			retained += n.length;
+		}
+		logger.info(String.format("%s/%s: %,d of %,d comparisons retained", weightingScheme, pruningScheme, retained,
+				totalComparisons));
+
+		return result;
+	}
+
+	private int[][] createBlockMembers(int[][] blocks, int numBlocks) {
+		int[] sizes = new int[numBlocks];
+		for (int[] b : blocks) {
+			for (int block : b) {
+				sizes[block]++;
+			}
+		}
+		int[][] members = new int[numBlocks][];
+		for (int i = 0; i < numBlocks; i++) {
+			members[i] = new int[sizes[i]];
+			sizes[i] = 0;
+		}
+		for (int record = 0; record < blocks.length; record++) {
+			for (int block : blocks[record]) {
+				members[block][sizes[block]++] = record;
+			}
+		}
+		return members;
+	}
+
+	private long[] countComparisons(int[][] members1, int[][] members2, boolean symmetric) {
+		long[] comparisons = new long[members1.length];
+		for (int i = 0; i < comparisons.length; i++) {
+			long size = members1[i].length;
+			comparisons[i] = symmetric ? size * (size - 1) / 2 : size * members2[i].length;
+		}
+		return comparisons;
+	}
+
+	/**
+	 * Removes the blockFilteringRatio of each record's blocks, starting with
+	 * the blocks with the most comparisons.
+	 */
+	private int[][] filterBlocks(int[][] blocks, final long[] comparisons) {
+		int[][] result = new int[blocks.length][];
+		for (int i = 0; i < blocks.length; i++) {
+			int toDelete = (int) Math.floor(blocks[i].length * blockFilteringRatio);
+			if (toDelete == 0) {
+				result[i] = blocks[i];
+				continue;
+			}
+			Integer[] sorted = new Integer[blocks[i].length];
+			for (int j = 0; j < sorted.length; j++) {
+				sorted[j] = blocks[i][j];
+			}
+			// descending by comparisons, ascending by block id for ties
+			Arrays.sort(sorted, (b1, b2) -> {
+				int cmp = Long.compare(comparisons[b2], comparisons[b1]);
+				return cmp != 0 ? cmp : Integer.compare(b1, b2);
+			});
+			int[] kept = new int[sorted.length - toDelete];
+			for (int j = toDelete; j < sorted.length; j++) {
+				kept[j - toDelete] = sorted[j];
+			}
+			Arrays.sort(kept);
+			result[i] = kept;
+		}
+		return result;
+	}
+
+	private int[][] removeEmptyBlocks(int[][] blocks, long[] comparisons) {
+		int[][] result = new int[blocks.length][];
+		for (int i = 0; i < blocks.length; i++) {
+			int size = 0;
+			int[] kept = new int[blocks[i].length];
+			for (int block : blocks[i]) {
+				if (comparisons[block] > 0) {
+					kept[size++] = block;
+				}
+			}
+			result[i] = size == kept.length ? kept : Arrays.copyOf(kept, size);
+		}
+		return result;
+	}
+
+	/**
+	 * Runs the body for all partitions in parallel. If a partition fails, its
+	 * part of the result is missing, so the exception is re-thrown.
+	 */
+	private static <T> void runParallel(Iterable<T> partitions, Consumer<T> body, String message) {
+		try {
+			new Parallel<T>().foreach(partitions, body, message);
+		} catch (Exception e) {
+			throw new RuntimeException(String.format("%s failed", message), e);
+		}
+	}
+
+	/**
+	 * Weighted Edge Pruning: the first pass determines the average edge weight,
+	 * the second pass collects the edges with at least the average weight.
+	 */
+	private int[][] pruneEdges(final BlockingGraph graph) {
+		final List<int[]> partitions = createPartitions(graph.size());
+		final double[] weightSums = new double[partitions.size()];
+		final long[] edgeCounts = new long[partitions.size()];
+		final ThreadLocal<Neighbourhood> neighbourhoods = ThreadLocal.withInitial(() -> graph.createNeighbourhood());
+
+		List<Integer> partitionIds = new ArrayList<>(partitions.size());
+		for (int i = 0; i < partitions.size(); i++) {
+			partitionIds.add(i);
+		}
+
+		runParallel(partitionIds, new Consumer<Integer>() {
+
+			@Override
+			public void execute(Integer partition) {
+				Neighbourhood n = neighbourhoods.get();
+				int[] range = partitions.get(partition);
+				// a failed partition is executed again, so its sums are only set once it is complete
+				double weightSum = 0.0;
+				long edgeCount = 0;
+				for (int node = range[0]; node < range[1]; node++) {
+					graph.accumulate(node, n);
+					for (int i = 0; i < n.size; i++) {
+						weightSum += n.weights[i];
+					}
+					edgeCount += n.size;
+				}
+				weightSums[partition] = weightSum;
+				edgeCounts[partition] = edgeCount;
+			}
+		}, "MetaBlocker: calculating average edge weight");
+
+		// sum up in a fixed order, so the threshold does not depend on the
+		// scheduling of the partitions
+		double weightSum = 0.0;
+		long edgeCount = 0;
+		for (int i = 0; i < partitions.size(); i++) {
+			weightSum += weightSums[i];
+			edgeCount += edgeCounts[i];
+		}
+		final double threshold = edgeCount == 0 ? 0.0 : weightSum / edgeCount;
+		logger.info(String.format("WEP: %,d edges with average weight %f", edgeCount, threshold));
+
+		final int[][] result = new int[graph.size()][];
+		runParallel(partitionIds, new Consumer<Integer>() {
+
+			@Override
+			public void execute(Integer partition) {
+				Neighbourhood n = neighbourhoods.get();
+				int[] range = partitions.get(partition);
+				for (int node = range[0]; node < range[1]; node++) {
+					graph.accumulate(node, n);
+					int[] kept = new int[n.size];
+					int size = 0;
+					for (int i = 0; i < n.size; i++) {
+						if (n.weights[i] >= threshold) {
+							kept[size++] = n.ids[i];
+						}
+					}
+					Arrays.sort(kept, 0, size);
+					result[node] = Arrays.copyOf(kept, size);
+				}
+			}
+		}, "MetaBlocker: pruning edges");
+
+		return result;
+	}
+
+	/**
+	 * Selects the k edges with the highest weights for each node (ties are
+	 * broken by the lower neighbour id).
+	 */
+	private int[][] selectTopNeighbours(final BlockingGraph graph, final int k) {
+		final List<int[]> partitions = createPartitions(graph.size());
+		final ThreadLocal<Neighbourhood> neighbourhoods = ThreadLocal.withInitial(() -> graph.createNeighbourhood());
+		final int[][] result = new int[graph.size()][];
+
+		runParallel(partitions, new Consumer<int[]>() {
+
+			@Override
+			public void execute(int[] range) {
+				Neighbourhood n = neighbourhoods.get();
+				int[] topIds = new int[k];
+				double[] topWeights = new double[k];
+				for (int node = range[0]; node < range[1]; node++) {
+					graph.accumulate(node, n);
+					int size = 0;
+					for (int i = 0; i < n.size; i++) {
+						int id = n.ids[i];
+						double weight = n.weights[i];
+						// insertion into the sorted top-k list
+						int pos = size;
+						while (pos > 0 && (topWeights[pos - 1] < weight
+								|| (topWeights[pos - 1] == weight && topIds[pos - 1] > id))) {
+							pos--;
+						}
+						if (pos < k) {
+							int last = Math.min(size, k - 1);
+							System.arraycopy(topIds, pos, topIds, pos + 1, last - pos);
+							System.arraycopy(topWeights, pos, topWeights, pos + 1, last - pos);
+							topIds[pos] = id;
+							topWeights[pos] = weight;
+							if (size < k) {
+								size++;
+							}
+						}
+					}
+					int[] top = Arrays.copyOf(topIds, size);
+					Arrays.sort(top);
+					result[node] = top;
+				}
+			}
+		}, "MetaBlocker: selecting top-k edges");
+
+		return result;
+	}
+
+	/**
+	 * Combines the top-k edges of both sides: an edge is retained if it is
+	 * selected by one (or, if reciprocal, by both) of its nodes.
+	 */
+	private int[][] pruneNodes(int[][] top1, int[][] top2, boolean symmetric, boolean reciprocal) {
+		int[][] result = new int[top1.length][];
+
+		if (reciprocal) {
+			for (int node = 0; node < top1.length; node++) {
+				int[] kept = new int[top1[node].length];
+				int size = 0;
+				for (int neighbour : top1[node]) {
+					if ((!symmetric || neighbour > node) && Arrays.binarySearch(top2[neighbour], node) >= 0) {
+						kept[size++] = neighbour;
+					}
+				}
+				result[node] = Arrays.copyOf(kept, size);
+			}
+		} else {
+			// invert the selection of the second side, the neighbour lists are
+			// sorted because the nodes are visited in ascending order
+			int[][] selectedBy = createBlockMembers(top2, top1.length);
+			for (int node = 0; node < top1.length; node++) {
+				int[] a = top1[node];
+				int[] b = selectedBy[node];
+				int[] kept = new int[a.length + b.length];
+				int size = 0, i = 0, j = 0;
+				while (i < a.length || j < b.length) {
+					int next;
+					if (j == b.length || (i < a.length && a[i] < b[j])) {
+						next = a[i++];
+					} else if (i == a.length || b[j] < a[i]) {
+						next = b[j++];
+					} else {
+						next = a[i++];
+						j++;
+					}
+					if (!symmetric || next > node) {
+						kept[size++] = next;
+					}
+				}
+				result[node] = Arrays.copyOf(kept, size);
+			}
+		}
+
+		return result;
+	}
+
+	private List<int[]> createPartitions(int size) {
+		// create more partitions than available threads so we can compensate
+		// for partitions which create less workload than others
+		int numPartitions = Math.max(1, Math.min(size, Runtime.getRuntime().availableProcessors() * 10));
+		List<int[]> partitions = new ArrayList<>(numPartitions);
+		for (int i = 0; i < numPartitions; i++) {
+			partitions.add(new int[] { (int) ((long) size * i / numPartitions),
+					(int) ((long) size * (i + 1) / numPartitions) });
+		}
+		return partitions;
+	}
+
+	private Processable<Correspondence<BlockedType, CorrespondenceType>> createCorrespondences(
+			List<Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>>> records1,
+			List<Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>>> records2,
+			int[][] neighbours, boolean createCauses) {
+		Processable<Correspondence<BlockedType, CorrespondenceType>> result = new ProcessableCollection<>();
+
+		for (int i = 0; i < neighbours.length; i++) {
+			for (int j : neighbours[i]) {
+				// if both lists are the same, the pairs are ordered by data source id
+				result.add(createBlockedCorrespondence(records1.get(i), records2.get(j), records1 == records2,
+						createCauses));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * The edges of a single node, re-used for all nodes processed by the same
+	 * thread.
+	 */
+	private static class Neighbourhood {
+		// indexed by neighbour id
+		final int[] commonBlocks;
+		final double[] reciprocalComparisons;
+		// the edges of the current node
+		final int[] ids;
+		final double[] weights;
+		int size;
+
+		Neighbourhood(int numNeighbours) {
+			commonBlocks = new int[numNeighbours];
+			reciprocalComparisons = new double[numNeighbours];
+			ids = new int[numNeighbours];
+			weights = new double[numNeighbours];
+		}
+	}
+
+	/**
+	 * The blocking graph from the perspective of the records in blocks1.
+	 */
+	private class BlockingGraph {
+
+		private final int[][] blocks1;
+		private final int[][] blocks2;
+		private final int[][] members2;
+		private final long[] comparisons;
+		private final int numBlocks;
+		private final boolean symmetric;
+
+		BlockingGraph(int[][] blocks1, int[][] blocks2, int[][] members2, long[] comparisons, int numBlocks,
+				boolean symmetric) {
+			this.blocks1 = blocks1;
+			this.blocks2 = blocks2;
+			this.members2 = members2;
+			this.comparisons = comparisons;
+			this.numBlocks = numBlocks;
+			this.symmetric = symmetric;
+		}
+
+		int size() {
+			return blocks1.length;
+		}
+
+		Neighbourhood createNeighbourhood() {
+			return new Neighbourhood(blocks2.length);
+		}
+
+		/**
+		 * Collects all edges of the given node and their weights. In the
+		 * symmetric case, each edge is only reported by its node with the lower
+		 * id if the pruning scheme is WEP.
+		 */
+		void accumulate(int node, Neighbourhood n) {
+			n.size = 0;
+			boolean arcs = weightingScheme == WeightingScheme.ARCS;
+			boolean lowerIdsOnly = symmetric && pruningScheme == PruningScheme.WEP;
+
+			for (int block : blocks1[node]) {
+				for (int neighbour : members2[block]) {
+					if ((symmetric && neighbour == node) || (lowerIdsOnly && neighbour < node)) {
+						continue;
+					}
+					if (n.commonBlocks[neighbour]++ == 0) {
+						n.ids[n.size++] = neighbour;
+					}
+					if (arcs) {
+						n.reciprocalComparisons[neighbour] += 1.0 / comparisons[block];
+					}
+				}
+			}
+
+			int blocksOfNode = blocks1[node].length;
+			for (int i = 0; i < n.size; i++) {
+				int neighbour = n.ids[i];
+				int common = n.commonBlocks[neighbour];
+				double weight;
+				switch (weightingScheme) {
+				case ECBS:
+					weight = common * Math.log10((double) numBlocks / blocksOfNode)
+							* Math.log10((double) numBlocks / blocks2[neighbour].length);
+					break;
+				case JS:
+					weight = (double) common / (blocksOfNode + blocks2[neighbour].length - common);
+					break;
+				case ARCS:
+					weight = n.reciprocalComparisons[neighbour];
+					n.reciprocalComparisons[neighbour] = 0.0;
+					break;
+				default:
+					weight = common;
+				}
+				n.weights[i] = weight;
+				n.commonBlocks[neighbour] = 0;
+			}
+		}
+	}
+
+}
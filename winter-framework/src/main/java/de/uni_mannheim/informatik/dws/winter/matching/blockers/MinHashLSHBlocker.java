@@ -0,0 +1,469 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.blockers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.slf4j.Logger;
+
+import de.uni_mannheim.informatik.dws.winter.matching.blockers.generators.BlockingKeyGenerator;
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.DataSet;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.Pair;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import de.uni_mannheim.informatik.dws.winter.processing.ProcessableCollection;
+import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Consumer;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Parallel;
+
+/**
+ * Implementation of a blocker based on locality-sensitive hashing of MinHash
+ * signatures. The tokens of each record are created by the
+ * {@link BlockingKeyGenerator} (every generated blocking key is one token). The
+ * MinHash signature of a record consists of bands * rows values and each band
+ * is hashed into a separate table. Records which end up in the same bucket of
+ * any band table are returned as pairs.
+ *
+ * Two records with a Jaccard similarity of s become a pair with probability 1 -
+ * (1 - s^rows)^bands. Use {@link #getBandLayout(double, double, int)} to choose
+ * bands and rows for a similarity threshold.
+ *
+ * The hash functions are drawn from a seeded universal family, so the result
+ * is reproducible for the same seed.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ * @param <RecordType>
+ *            the type of records which are the input for the blocking operation
+ * @param <SchemaElementType>
+ *            the type of schema elements that are used in the schema of
+ *            RecordType
+ * @param <BlockedType>
+ *            the type of record which is actually blocked
+ * @param <CorrespondenceType>
+ *            the type of correspondences which are the input for the blocking
+ *            operation
+ */
+public class MinHashLSHBlocker<RecordType extends Matchable, SchemaElementType extends Matchable, BlockedType extends Matchable, CorrespondenceType extends Matchable>
+		extends AbstractBlocker<RecordType, BlockedType, CorrespondenceType>
+		implements Blocker<RecordType, SchemaElementType, BlockedType, CorrespondenceType>,
+		SymmetricBlocker<RecordType, SchemaElementType, BlockedType, CorrespondenceType> {
+
+	private static final Logger logger = WinterLogManager.getLogger();
+
+	// the maximum length of an array on most JVMs
+	private static final int MAX_PAIRS = Integer.MAX_VALUE - 8;
+
+	private BlockingKeyGenerator<RecordType, CorrespondenceType, BlockedType> blockingFunction;
+	private BlockingKeyGenerator<RecordType, CorrespondenceType, BlockedType> secondBlockingFunction;
+	private int bands;
+	private int rows;
+	// the parameters of the hash functions h(x) = (a * x + b) >>> 33
+	private long[] hashMultipliers;
+	private long[] hashOffsets;
+
+	public MinHashLSHBlocker(BlockingKeyGenerator<RecordType, CorrespondenceType, BlockedType> blockingFunction,
+			int bands, int rows, long seed) {
+		this(blockingFunction, null, bands, rows, seed);
+	}
+
+	/**
+	 * Creates a new MinHash-LSH blocker with the given blocking function(s). If
+	 * two datasets are used and secondBlockingFunction is not null,
+	 * secondBlockingFunction will be used for the second dataset. If it is
+	 * null, blockingFunction will be used for both datasets
+	 *
+	 * @param blockingFunction
+	 *            the blocking function for the first dataset, generates the
+	 *            tokens of a record
+	 * @param secondBlockingFunction
+	 *            the blocking function for the second dataset
+	 * @param bands
+	 *            the number of bands (hash tables)
+	 * @param rows
+	 *            the number of MinHash values per band
+	 * @param seed
+	 *            the seed for the hash functions
+	 */
+	public MinHashLSHBlocker(BlockingKeyGenerator<RecordType, CorrespondenceType, BlockedType> blockingFunction,
+			BlockingKeyGenerator<RecordType, CorrespondenceType, BlockedType> secondBlockingFunction, int bands,
+			int rows, long seed) {
+		this.blockingFunction = blockingFunction;
+		this.secondBlockingFunction = secondBlockingFunction == null ? blockingFunction : secondBlockingFunction;
+		this.bands = bands;
+		this.rows = rows;
+
+		Random random = new Random(seed);
+		hashMultipliers = new long[bands * rows];
+		hashOffsets = new long[bands * rows];
+		for (int i = 0; i < hashMultipliers.length; i++) {
+			// multiply-shift hashing requires an odd multiplier
+			hashMultipliers[i] = random.nextLong() | 1L;
+			hashOffsets[i] = random.nextLong();
+		}
+	}
+
+	public int getBands() {
+		return bands;
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	/**
+	 * Returns the probability that two records with the given Jaccard
+	 * similarity end up in the same bucket of at least one band.
+	 *
+	 * @param similarity
+	 *            the Jaccard similarity of the two records
+	 * @param bands
+	 *            the number of bands
+	 * @param rows
+	 *            the number of rows per band
+	 * @return the probability that the records are returned as a pair
+	 */
+	public static double getCandidateProbability(double similarity, int bands, int rows) {
+		return 1.0 - Math.pow(1.0 - Math.pow(similarity, rows), bands);
+	}
+
+	/**
+	 * Chooses the number of bands and rows for a similarity threshold: among
+	 * all layouts with at most maxHashes hash functions which return pairs with
+	 * a Jaccard similarity of threshold with at least the given recall, the one
+	 * with the lowest probability of returning pairs below the threshold is
+	 * chosen.
+	 *
+	 * @param threshold
+	 *            the Jaccard similarity threshold
+	 * @param recall
+	 *            the required probability of returning a pair at the threshold
+	 * @param maxHashes
+	 *            the maximum number of hash functions (bands * rows)
+	 * @return the number of bands (first) and rows (second). If no layout
+	 *         reaches the recall, the layout with the highest recall is
+	 *         returned.
+	 */
+	public static Pair<Integer, Integer> getBandLayout(double threshold, double recall, int maxHashes) {
+		Pair<Integer, Integer> best = new Pair<>(maxHashes, 1);
+		double bestFalsePositives = Double.MAX_VALUE;
+
+		for (int r = 1; r <= maxHashes; r++) {
+			for (int b = 1; b * r <= maxHashes; b++) {
+				if (getCandidateProbability(threshold, b, r) >= recall) {
+					// more bands only increase the false positives, so the
+					// first b that reaches the recall is the best one for r
+					double falsePositives = getFalsePositiveArea(threshold, b, r);
+					if (falsePositives < bestFalsePositives) {
+						bestFalsePositives = falsePositives;
+						best = new Pair<>(b, r);
+					}
+					break;
+				}
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * integrates the candidate probability over all similarities below the
+	 * threshold
+	 */
+	private static double getFalsePositiveArea(double threshold, int bands, int rows) {
+		int steps = 100;
+		double area = 0.0;
+		for (int i = 0; i < steps; i++) {
+			double s = threshold * (i + 0.5) / steps;
+			area += getCandidateProbability(s, bands, rows) * threshold / steps;
+		}
+		return area;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * de.uni_mannheim.informatik.wdi.matching.blocking.Blocker#runBlocking(de.
+	 * uni_mannheim.informatik.wdi.model.DataSet,
+	 * de.uni_mannheim.informatik.wdi.model.DataSet,
+	 * de.uni_mannheim.informatik.wdi.model.ResultSet,
+	 * de.uni_mannheim.informatik.wdi.matching.MatchingEngine)
+	 */
+	@Override
+	public Processable<Correspondence<BlockedType, CorrespondenceType>> runBlocking(
+			DataSet<RecordType, SchemaElementType> dataset1, DataSet<RecordType, SchemaElementType> dataset2,
+			Processable<Correspondence<CorrespondenceType, Matchable>> schemaCorrespondences) {
+
+		// combine the datasets with the schema correspondences
+		Processable<Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> ds1 = combineDataWithCorrespondences(
+				dataset1, schemaCorrespondences,
+				(r, c) -> c.next(new Pair<>(r.getFirstRecord().getDataSourceIdentifier(), r)));
+		Processable<Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> ds2 = combineDataWithCorrespondences(
+				dataset2, schemaCorrespondences,
+				(r, c) -> c.next(new Pair<>(r.getSecondRecord().getDataSourceIdentifier(), r)));
+
+		List<Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>>> records1 = new ArrayList<>();
+		List<Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>>> records2 = new ArrayList<>();
+		long[][] tokens1 = createTokenHashes(ds1.map(blockingFunction), records1);
+		long[][] tokens2 = createTokenHashes(ds2.map(secondBlockingFunction), records2);
+
+		long[] pairs = createPairs(tokens1, tokens2, false);
+
+		Processable<Correspondence<BlockedType, CorrespondenceType>> result = createCorrespondences(records1,
+				records2, pairs, schemaCorrespondences != null);
+
+		calculatePerformance(dataset1, dataset2, result);
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * de.uni_mannheim.informatik.wdi.matching.blocking.Blocker#runBlocking(de.
+	 * uni_mannheim.informatik.wdi.model.DataSet, boolean,
+	 * de.uni_mannheim.informatik.wdi.model.ResultSet,
+	 * de.uni_mannheim.informatik.wdi.matching.MatchingEngine)
+	 */
+	@Override
+	public Processable<Correspondence<BlockedType, CorrespondenceType>> runBlocking(
+			DataSet<RecordType, SchemaElementType> dataset,
+			Processable<Correspondence<CorrespondenceType, Matchable>> schemaCorrespondences) {
+
+		// as we only use one dataset here, we don't know if the record is on
+		// the left- or right-hand side of the correspondence
+		Processable<Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> ds = combineDataWithCorrespondences(
+				dataset, schemaCorrespondences, (r, c) -> {
+					c.next(new Pair<>(r.getFirstRecord().getDataSourceIdentifier(), r));
+					c.next(new Pair<>(r.getSecondRecord().getDataSourceIdentifier(), r));
+				});
+
+		List<Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>>> records = new ArrayList<>();
+		long[][] tokens = createTokenHashes(ds.map(blockingFunction), records);
+
+		long[] pairs = createPairs(tokens, tokens, true);
+
+		Processable<Correspondence<BlockedType, CorrespondenceType>> result = createCorrespondences(records, records,
+				pairs, schemaCorrespondences != null);
+
+		calculatePerformance(dataset, dataset, result);
+		return result;
+	}
+
+	/**
+	 * Assigns an id to each distinct record and returns the hash values of its
+	 * distinct tokens
+	 */
+	private long[][] createTokenHashes(
+			Processable<Pair<String, Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>>>> blockingKeys,
+			List<Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>>> records) {
+
+		Map<BlockedType, Integer> recordIds = new HashMap<>();
+		List<long[]> tokens = new ArrayList<>();
+		List<Integer> sizes = new ArrayList<>();
+
+		for (Pair<String, Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>>> p : blockingKeys
+				.get()) {
+			Integer recordId = recordIds.get(p.getSecond().getFirst());
+			if (recordId == null) {
+				recordId = records.size();
+				recordIds.put(p.getSecond().getFirst(), recordId);
+				records.add(p.getSecond());
+				tokens.add(new long[4]);
+				sizes.add(0);
+			}
+
+			long[] t = tokens.get(recordId);
+			int size = sizes.get(recordId);
+			if (t.length == size) {
+				t = Arrays.copyOf(t, size * 2);
+				tokens.set(recordId, t);
+			}
+			// the string hash code is the input of the universal hash
+			// functions
+			t[size] = p.getFirst().hashCode() & 0xFFFFFFFFL;
+			sizes.set(recordId, size + 1);
+		}
+
+		long[][] result = new long[tokens.size()][];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = Arrays.copyOf(tokens.get(i), sizes.get(i));
+		}
+		return result;
+	}
+
+	/**
+	 * Builds the band tables (in parallel) and returns the sorted, distinct
+	 * pairs, encoded as id1 * tokens2.length + id2
+	 */
+	private long[] createPairs(final long[][] tokens1, final long[][] tokens2, final boolean symmetric) {
+		final long[][] bandPairs = new long[bands][];
+		final int[] bandBuckets = new int[bands];
+
+		List<Integer> bandIds = new ArrayList<>(bands);
+		for (int i = 0; i < bands; i++) {
+			bandIds.add(i);
+		}
+
+		try {
+			new Parallel<Integer>().foreach(bandIds, new Consumer<Integer>() {
+
+				@Override
+				public void execute(Integer band) {
+					// the band table maps the hash of the band's signature values
+					// to the records of both datasets
+					Map<Long, int[][]> table = new HashMap<>();
+					addToBandTable(table, band, tokens1, 0);
+					if (!symmetric) {
+						addToBandTable(table, band, tokens2, 1);
+					}
+
+					long[] pairs = new long[16];
+					int size = 0;
+					for (int[][] bucket : table.values()) {
+						int[] left = bucket[0];
+						int[] right = symmetric ? bucket[0] : bucket[1];
+						if (right == null || left == null) {
+							continue;
+						}
+						int leftSize = left[0];
+						int rightSize = right[0];
+						for (int i = 1; i <= leftSize; i++) {
+							for (int j = symmetric ? i + 1 : 1; j <= rightSize; j++) {
+								if (size == pairs.length) {
+									pairs = Arrays.copyOf(pairs, growPairs(size));
+								}
+								int id1 = left[i];
+								int id2 = right[j];
+								if (symmetric && id2 < id1) {
+									id1 = right[j];
+									id2 = left[i];
+								}
+								pairs[size++] = (long) id1 * tokens2.length + id2;
+							}
+						}
+					}
+
+					bandBuckets[band] = table.size();
+					bandPairs[band] = Arrays.copyOf(pairs, size);
+				}
+			}, "MinHashLSHBlocker: creating band tables");
+		} catch (Exception e) {
+			// a failed band has no pairs, so its candidates would be silently missing
+			throw new RuntimeException("Creating the MinHash-LSH band tables failed", e);
+		}
+
+		// merge the pairs of all bands
+		long total = 0;
+		for (int i = 0; i < bands; i++) {
+			total += bandPairs[i].length;
+			logger.trace(String.format("Band %d: %,d buckets, %,d pairs", i, bandBuckets[i], bandPairs[i].length));
+		}
+		if (total > MAX_PAIRS) {
+			throw new IllegalStateException(String.format(
+					"MinHash-LSH created %,d band pairs, which is more than an array can hold; use more rows per band to create fewer candidates",
+					total));
+		}
+		long[] pairs = new long[(int) total];
+		int offset = 0;
+		for (long[] p : bandPairs) {
+			System.arraycopy(p, 0, pairs, offset, p.length);
+			offset += p.length;
+		}
+		Arrays.sort(pairs);
+		int size = 0;
+		for (int i = 0; i < pairs.length; i++) {
+			if (size == 0 || pairs[size - 1] != pairs[i]) {
+				pairs[size++] = pairs[i];
+			}
+		}
+
+		logger.info(String.format("MinHash-LSH (%d bands, %d rows): %,d pairs from %,d band pairs", bands, rows, size,
+				total));
+
+		return Arrays.copyOf(pairs, size);
+	}
+
+	/**
+	 * @return the new length of a full array of band pairs
+	 */
+	private static int growPairs(int length) {
+		if (length >= MAX_PAIRS) {
+			throw new IllegalStateException(String.format(
+					"A MinHash-LSH band created more than %,d pairs; use more rows per band to create fewer candidates",
+					MAX_PAIRS));
+		}
+		return (int) Math.min(2L * length, MAX_PAIRS);
+	}
+
+	/**
+	 * Adds all records to the buckets of the band table. Each bucket holds one
+	 * list per dataset, the first element of the list is its size.
+	 */
+	private void addToBandTable(Map<Long, int[][]> table, int band, long[][] tokens, int side) {
+		for (int record = 0; record < tokens.length; record++) {
+			if (tokens[record].length == 0) {
+				continue;
+			}
+
+			long bucketKey = 1L;
+			for (int row = band * rows; row < (band + 1) * rows; row++) {
+				long a = hashMultipliers[row];
+				long b = hashOffsets[row];
+				long min = Long.MAX_VALUE;
+				for (long x : tokens[record]) {
+					long h = (a * x + b) >>> 33;
+					if (h < min) {
+						min = h;
+					}
+				}
+				bucketKey = bucketKey * 0x9E3779B97F4A7C15L + min;
+			}
+
+			int[][] bucket = table.get(bucketKey);
+			if (bucket == null) {
+				bucket = new int[2][];
+				table.put(bucketKey, bucket);
+			}
+			int[] list = bucket[side];
+			if (list == null) {
+				list = new int[4];
+			} else if (list[0] + 1 == list.length) {
+				list = Arrays.copyOf(list, list.length * 2);
+			}
+			list[++list[0]] = record;
+			bucket[side] = list;
+		}
+	}
+
+	private Processable<Correspondence<BlockedType, CorrespondenceType>> createCorrespondences(
+			List<Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>>> records1,
+			List<Pair<BlockedType, Processable<Correspondence<CorrespondenceType, Matchable>>>> records2,
+			long[] pairs, boolean createCauses) {
+		Processable<Correspondence<BlockedType, CorrespondenceType>> result = new ProcessableCollection<>();
+
+		for (long pair : pairs) {
+			result.add(createBlockedCorrespondence(records1.get((int) (pair / records2.size())),
+					records2.get((int) (pair % records2.size())), records1 == records2, createCauses));
+		}
+
+		return result;
+	}
+
+}
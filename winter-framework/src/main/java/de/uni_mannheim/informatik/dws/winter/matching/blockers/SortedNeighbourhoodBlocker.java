@@ -12,9 +12,16 @@
 package de.uni_mannheim.informatik.dws.winter.matching.blockers;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
 
 import de.uni_mannheim.informatik.dws.winter.matching.blockers.generators.BlockingKeyGenerator;
 import de.uni_mannheim.informatik.dws.winter.model.AbstractRecord;
@@ -25,14 +32,22 @@ import de.uni_mannheim.informatik.dws.winter.model.Pair;
 import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
 import de.uni_mannheim.informatik.dws.winter.processing.Processable;
 import de.uni_mannheim.informatik.dws.winter.processing.ProcessableCollection;
+import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Consumer;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Parallel;
 
 /**
  * Implementation of the Sorted-Neighbourhood {@link AbstractBlocker}, which
  * based on the blocking key of the {@link BlockingKeyGenerator} compares only
  * the surrounding {@link AbstractRecord}s.
  * 
- * Only supports single-threaded execution. Does not consider data source
- * identifiers.
+ * If several {@link BlockingKeyGenerator}s are specified, one pass is executed
+ * for each of them (concurrently) and the candidate pairs of all passes are
+ * merged without duplicates. The window size can either be fixed or adaptive
+ * (see {@link #setAdaptiveWindow(int, int, int)}).
+ * 
+ * When blocking two datasets, only records from different datasets are paired.
+ * Does not consider data source identifiers.
  * 
  * @author Robert Meusel (robert@dwslab.de)
  * @author Oliver Lehmberg (oli@dwslab.de)
@@ -51,15 +66,81 @@ public class SortedNeighbourhoodBlocker<RecordType extends Matchable, SchemaElem
 		implements Blocker<RecordType, SchemaElementType, RecordType, CorrespondenceType>,
 		SymmetricBlocker<RecordType, SchemaElementType, RecordType, CorrespondenceType> {
 
-	private BlockingKeyGenerator<RecordType, CorrespondenceType, RecordType> blockingFunction;
+	private static final Logger logger = WinterLogManager.getLogger();
+
+	private List<BlockingKeyGenerator<RecordType, CorrespondenceType, RecordType>> blockingFunctions;
 	private int windowSize;
 
+	private boolean adaptiveWindow = false;
+	private int minWindowSize;
+	private int maxWindowSize;
+	private int prefixLength;
+
+	private int[] passPairCounts = new int[0];
+	private double[] passReductionRatios = new double[0];
+
 	public SortedNeighbourhoodBlocker(BlockingKeyGenerator<RecordType, CorrespondenceType, RecordType> blockingFunction,
 			int windowSize) {
-		this.blockingFunction = blockingFunction;
+		this(Collections.singletonList(blockingFunction), windowSize);
+	}
+
+	/**
+	 * Creates a multi-pass blocker, which runs one pass for each of the
+	 * blocking functions and merges the resulting pairs.
+	 * 
+	 * @param blockingFunctions
+	 *            the blocking functions, one for each pass
+	 * @param windowSize
+	 *            the size of the sliding window
+	 */
+	public SortedNeighbourhoodBlocker(
+			List<BlockingKeyGenerator<RecordType, CorrespondenceType, RecordType>> blockingFunctions, int windowSize) {
+		this.blockingFunctions = new ArrayList<>(blockingFunctions);
 		this.windowSize = windowSize;
 	}
 
+	/**
+	 * Enables the adaptive window: the window is extended up to maxWindowSize
+	 * as long as the blocking keys of the neighbouring records share the first
+	 * prefixLength characters with the blocking key of the current record, and
+	 * is limited to minWindowSize otherwise.
+	 * 
+	 * @param minWindowSize
+	 *            the window size for dissimilar keys
+	 * @param maxWindowSize
+	 *            the window size for keys with a common prefix
+	 * @param prefixLength
+	 *            the length of the prefix that must be shared
+	 */
+	public void setAdaptiveWindow(int minWindowSize, int maxWindowSize, int prefixLength) {
+		this.adaptiveWindow = true;
+		this.minWindowSize = minWindowSize;
+		this.maxWindowSize = maxWindowSize;
+		this.prefixLength = prefixLength;
+	}
+
+	/**
+	 * Disables the adaptive window, i.e., the fixed window size is used.
+	 */
+	public void setFixedWindow() {
+		this.adaptiveWindow = false;
+	}
+
+	/**
+	 * @return the number of pairs that were created by each pass of the last
+	 *         blocking operation (before removing duplicates)
+	 */
+	public int[] getPassPairCounts() {
+		return passPairCounts;
+	}
+
+	/**
+	 * @return the reduction ratio of each pass of the last blocking operation
+	 */
+	public double[] getPassReductionRatios() {
+		return passReductionRatios;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -73,72 +154,12 @@ public class SortedNeighbourhoodBlocker<RecordType extends Matchable, SchemaElem
 	public Processable<Correspondence<RecordType, CorrespondenceType>> runBlocking(
 			DataSet<RecordType, SchemaElementType> dataset,
 			Processable<Correspondence<CorrespondenceType, Matchable>> schemaCorrespondences) {
-		Processable<Correspondence<RecordType, CorrespondenceType>> result = new ProcessableCollection<>();
-
 		Processable<Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> ds = combineDataWithCorrespondences(
 				dataset, schemaCorrespondences,
 				(r, c) -> c.next(new Pair<>(r.getFirstRecord().getDataSourceIdentifier(), r)));
 
-		// add all instances to one list, and compute the keys
-		Processable<Pair<String, Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>>> blockingKeys = ds
-				.map(blockingFunction);
-		ArrayList<Pair<String, Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>>> keyIdentifierList = new ArrayList<Pair<String, Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>>>(
-				blockingKeys.get());
-		// for (RecordType record : dataset.get()) {
-		// keyIdentifierList.add(new Pair<String, RecordType>(blockingFunction
-		// .getBlockingKey(record), record));
-		// }
-
-		// sort the list by the keys
-		Comparator<Pair<String, Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>>> pairComparator = new Comparator<Pair<String, Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>>>() {
-
-			@Override
-			public int compare(
-					Pair<String, Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> o1,
-					Pair<String, Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> o2) {
-				return o1.getFirst().compareTo(o2.getFirst());
-			}
-
-		};
-		Collections.sort(keyIdentifierList, pairComparator);
-		
-		HashMap<String, Integer> keyCounter = null;
-		if(isMeasureBlockSizes()){
-			keyCounter =new HashMap<String, Integer>();
-		}
-		
-		for (int i = 0; i < keyIdentifierList.size() - 1; i++) {
-			Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>> p1 = keyIdentifierList.get(i)
-					.getSecond();
-			for (int j = i + 1; ((j - i) < windowSize) && (j < keyIdentifierList.size()); j++) {
-				Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>> p2 = keyIdentifierList
-						.get(j).getSecond();
-
-				result.add(new Correspondence<RecordType, CorrespondenceType>(p1.getFirst(), p2.getFirst(), 1.0,
-						createCausalCorrespondences(p1, p2)));
-			}
-			
-			if(isMeasureBlockSizes()){
-				String key = keyIdentifierList.get(i).getFirst();
-				int count = 0;
-				if(keyCounter.containsKey(key)){
-					count = keyCounter.get(key);
-				}
-				count++;
-				keyCounter.put(key, count);
-			}
-		}
-		
-		if(isMeasureBlockSizes()){
-			for(String key : keyCounter.keySet()){
-				if(keyCounter.containsKey(key)){
-					Record model = new Record(key);
-					model.setValue(AbstractBlocker.blockingKeyValue, key);
-					model.setValue(AbstractBlocker.frequency, Integer.toString(keyCounter.get(key)));
-					this.appendBlockingResult(model);
-				}
-			}
-		}
+		Processable<Correspondence<RecordType, CorrespondenceType>> result = runPasses(ds, null,
+				(long) dataset.size() * (long) dataset.size());
 
 		calculatePerformance(dataset, dataset, result);
 		return result;
@@ -158,8 +179,6 @@ public class SortedNeighbourhoodBlocker<RecordType extends Matchable, SchemaElem
 	public Processable<Correspondence<RecordType, CorrespondenceType>> runBlocking(
 			DataSet<RecordType, SchemaElementType> dataset1, DataSet<RecordType, SchemaElementType> dataset2,
 			Processable<Correspondence<CorrespondenceType, Matchable>> schemaCorrespondences) {
-		Processable<Correspondence<RecordType, CorrespondenceType>> result = new ProcessableCollection<>();
-
 		Processable<Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> ds1 = combineDataWithCorrespondences(
 				dataset1, schemaCorrespondences,
 				(r, c) -> c.next(new Pair<>(r.getFirstRecord().getDataSourceIdentifier(), r)));
@@ -167,75 +186,62 @@ public class SortedNeighbourhoodBlocker<RecordType extends Matchable, SchemaElem
 				dataset2, schemaCorrespondences,
 				(r, c) -> c.next(new Pair<>(r.getFirstRecord().getDataSourceIdentifier(), r)));
 
-		// add all instances to one list, and compute the keys
-		Processable<Pair<String, Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>>> blocked1 = ds1
-				.map(blockingFunction);
-		ArrayList<Pair<String, Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>>> keyIdentifierList = new ArrayList<Pair<String, Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>>>(
-				blocked1.get());
-		// for (RecordType record : dataset1.get()) {
-		// keyIdentifierList.add(new Pair<String, RecordType>(blockingFunction
-		// .getBlockingKey(record), record));
-		// }
-		Processable<Pair<String, Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>>> blocked2 = ds2
-				.map(blockingFunction);
-		keyIdentifierList.addAll(blocked2.get());
-		// for (RecordType record : dataset2.get()) {
-		// keyIdentifierList.add(new Pair<String, RecordType>(blockingFunction
-		// .getBlockingKey(record), record));
-		// }
-		// sort the list by the keys
-		Comparator<Pair<String, Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>>> pairComparator = new Comparator<Pair<String, Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>>>() {
+		Processable<Correspondence<RecordType, CorrespondenceType>> result = runPasses(ds1, ds2,
+				(long) dataset1.size() * (long) dataset2.size());
 
-			@Override
-			public int compare(
-					Pair<String, Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> o1,
-					Pair<String, Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> o2) {
-				return o1.getFirst().compareTo(o2.getFirst());
-			}
+		calculatePerformance(dataset1, dataset2, result);
+		return result;
+	}
 
-		};
-		Collections.sort(keyIdentifierList, pairComparator);
-		
-		HashMap<String, Integer> keyCounter = null;
-		if(isMeasureBlockSizes()){
-			keyCounter =new HashMap<String, Integer>();
+	/**
+	 * Runs all passes and merges their results. If ds2 is null, the records of
+	 * ds1 are paired among each other.
+	 */
+	private Processable<Correspondence<RecordType, CorrespondenceType>> runPasses(
+			final Processable<Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> ds1,
+			final Processable<Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> ds2,
+			long maxPairs) {
+
+		final int passes = blockingFunctions.size();
+		final List<List<Correspondence<RecordType, CorrespondenceType>>> passResults = new ArrayList<>(
+				Collections.nCopies(passes, (List<Correspondence<RecordType, CorrespondenceType>>) null));
+		final List<Map<String, Integer>> passKeyCounts = new ArrayList<>(
+				Collections.nCopies(passes, (Map<String, Integer>) null));
+
+		List<Integer> passIndices = new ArrayList<>(passes);
+		for (int i = 0; i < passes; i++) {
+			passIndices.add(i);
 		}
-		
-		for (int i = 0; i < keyIdentifierList.size() - 1; i++) {
-			Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>> p1 = keyIdentifierList.get(i)
-					.getSecond();
-
-			// make sure r1 belongs to dataset1
-			if (dataset1.getRecord(p1.getFirst().getIdentifier()) != null) {
-
-				int counter = 1;
-				int j = i;
-				while ((counter < windowSize) && (j < (keyIdentifierList.size() - 1))) {
-					Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>> p2 = keyIdentifierList
-							.get(++j).getSecond();
-					// check if they belong *not* to the same dataset
-					if (!p2.getFirst().getProvenance().equals(p1.getFirst().getProvenance())) {
-						result.add(new Correspondence<RecordType, CorrespondenceType>(p1.getFirst(), p2.getFirst(), 1.0,
-								createCausalCorrespondences(p1, p2)));
-						counter++;
-					}
-				}
 
-			}
-			if(isMeasureBlockSizes()){
-				String key = keyIdentifierList.get(i).getFirst();
-				int count = 0;
-				if(keyCounter.containsKey(key)){
-					count = keyCounter.get(key);
+		// the passes are independent of each other, each one only writes to
+		// its own slot in the result lists
+		try {
+			new Parallel<Integer>().foreach(passIndices, new Consumer<Integer>() {
+
+				@Override
+				public void execute(Integer pass) {
+					Map<String, Integer> keyCounter = isMeasureBlockSizes() ? new HashMap<String, Integer>() : null;
+					passResults.set(pass, runPass(blockingFunctions.get(pass), ds1, ds2, keyCounter));
+					passKeyCounts.set(pass, keyCounter);
 				}
-				count++;
-				keyCounter.put(key, count);
-			}
+			}, String.format("SortedNeighbourhoodBlocker: %d passes", passes));
+		} catch (Exception e) {
+			// a failed pass has no result, merging the other passes would silently drop its pairs
+			throw new RuntimeException("Sorted neighbourhood blocking pass failed", e);
 		}
-		
-		if(isMeasureBlockSizes()){
-			for(String key : keyCounter.keySet()){
-				if(keyCounter.containsKey(key)){
+
+		passPairCounts = new int[passes];
+		passReductionRatios = new double[passes];
+		for (int pass = 0; pass < passes; pass++) {
+			passPairCounts[pass] = passResults.get(pass).size();
+			passReductionRatios[pass] = 1.0 - ((double) passPairCounts[pass] / (double) maxPairs);
+			logger.info(String.format("Pass %d: %,d pairs, reduction ratio %f", pass + 1, passPairCounts[pass],
+					passReductionRatios[pass]));
+		}
+
+		if (isMeasureBlockSizes()) {
+			for (Map<String, Integer> keyCounter : passKeyCounts) {
+				for (String key : keyCounter.keySet()) {
 					Record model = new Record(key);
 					model.setValue(AbstractBlocker.blockingKeyValue, key);
 					model.setValue(AbstractBlocker.frequency, Integer.toString(keyCounter.get(key)));
@@ -243,12 +249,129 @@ public class SortedNeighbourhoodBlocker<RecordType extends Matchable, SchemaElem
 				}
 			}
 		}
-		
-		calculatePerformance(dataset1, dataset2, result);
+
+		if (passes == 1) {
+			return new ProcessableCollection<>(passResults.get(0));
+		}
+
+		// merge the passes, the first pass that creates a pair determines its
+		// causes
+		Processable<Correspondence<RecordType, CorrespondenceType>> result = new ProcessableCollection<>();
+		Set<Pair<String, String>> created = new HashSet<>();
+		for (List<Correspondence<RecordType, CorrespondenceType>> passResult : passResults) {
+			for (Correspondence<RecordType, CorrespondenceType> cor : passResult) {
+				String id1 = cor.getFirstRecord().getIdentifier();
+				String id2 = cor.getSecondRecord().getIdentifier();
+				if (ds2 == null && id1.compareTo(id2) > 0) {
+					// pairs from a single dataset can be created in any order
+					String tmp = id1;
+					id1 = id2;
+					id2 = tmp;
+				}
+				if (created.add(new Pair<>(id1, id2))) {
+					result.add(cor);
+				}
+			}
+		}
+		logger.info(String.format("Merged %d passes: %,d pairs", passes, result.size()));
+
 		return result;
 	}
 
+	/**
+	 * Sorts the records by their blocking keys and creates the pairs within the
+	 * sliding window.
+	 */
+	private List<Correspondence<RecordType, CorrespondenceType>> runPass(
+			BlockingKeyGenerator<RecordType, CorrespondenceType, RecordType> blockingFunction,
+			Processable<Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> ds1,
+			Processable<Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> ds2,
+			Map<String, Integer> keyCounter) {
+
+		// add all instances to one list, and compute the keys
+		final List<Pair<String, Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>>> keyIdentifierList = new ArrayList<>(
+				ds1.map(blockingFunction).get());
+		int size1 = keyIdentifierList.size();
+		if (ds2 != null) {
+			keyIdentifierList.addAll(ds2.map(blockingFunction).get());
+		}
+		int size = keyIdentifierList.size();
+
+		// sort the list by the keys (stable, so records with equal keys keep
+		// their order)
+		Integer[] order = new Integer[size];
+		for (int i = 0; i < size; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return keyIdentifierList.get(o1).getFirst().compareTo(keyIdentifierList.get(o2).getFirst());
+			}
+		});
+
+		// the data source of each entry (0 = first dataset, 1 = second
+		// dataset) is kept parallel to the sorted keys
+		String[] keys = new String[size];
+		byte[] source = new byte[size];
+		List<Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>>> records = new ArrayList<>(
+				size);
+		for (int i = 0; i < size; i++) {
+			keys[i] = keyIdentifierList.get(order[i]).getFirst();
+			source[i] = (byte) (order[i] < size1 ? 0 : 1);
+			records.add(keyIdentifierList.get(order[i]).getSecond());
+		}
+
+		List<Correspondence<RecordType, CorrespondenceType>> result = new ArrayList<>();
+
+		for (int i = 0; i < size; i++) {
+			if (keyCounter != null) {
+				Integer count = keyCounter.get(keys[i]);
+				keyCounter.put(keys[i], count == null ? 1 : count + 1);
+			}
+
+			// make sure p1 belongs to dataset1
+			if (source[i] != 0) {
+				continue;
+			}
+
+			Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>> p1 = records.get(i);
+			int counter = 1;
+			for (int j = i + 1; j < size && counter < getWindowSize(keys[i], keys[j]); j++) {
+				// for two datasets, check if they belong *not* to the same
+				// dataset
+				if (ds2 == null || source[j] != source[i]) {
+					Pair<RecordType, Processable<Correspondence<CorrespondenceType, Matchable>>> p2 = records.get(j);
+					result.add(new Correspondence<RecordType, CorrespondenceType>(p1.getFirst(), p2.getFirst(), 1.0,
+							createCausalCorrespondences(p1, p2)));
+					counter++;
+				}
+			}
+		}
+
+		return result;
+	}
+
+	private int getWindowSize(String key, String neighbourKey) {
+		if (!adaptiveWindow) {
+			return windowSize;
+		} else if (key.length() >= prefixLength && neighbourKey.length() >= prefixLength
+				&& key.regionMatches(0, neighbourKey, 0, prefixLength)) {
+			return maxWindowSize;
+		} else {
+			return minWindowSize;
+		}
+	}
+
 	public BlockingKeyGenerator<RecordType, CorrespondenceType, RecordType> getBlockingFunction() {
-		return blockingFunction;
+		return blockingFunctions.get(0);
+	}
+
+	/**
+	 * @return the blocking functions, one for each pass
+	 */
+	public List<BlockingKeyGenerator<RecordType, CorrespondenceType, RecordType>> getBlockingFunctions() {
+		return blockingFunctions;
 	}
 }
@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.blockers.generators;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.Pair;
+import de.uni_mannheim.informatik.dws.winter.processing.DataIterator;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import de.uni_mannheim.informatik.dws.winter.processing.ProcessableCollection;
+import de.uni_mannheim.informatik.dws.winter.processing.ProcessableCollector;
+
+/**
+ * Decorator for a {@link BlockingKeyGenerator} which caches the generated
+ * blocking keys by data source identifier and record identifier. If the same
+ * records are blocked repeatedly (for example when running a blocker several
+ * times against the same dataset), the keys are only generated once. If one
+ * generator is used for two datasets with overlapping record identifiers, the
+ * records of the datasets must have different data source identifiers (see
+ * {@link Matchable#getDataSourceIdentifier()}), otherwise they share their
+ * cached keys.
+ *
+ * The blocking keys are stored in a dictionary and each record only references
+ * the ids of its keys. The cache is cleared whenever a different version is
+ * set, so the version must be changed whenever the records change. The cache
+ * can be written to and read from a file to re-use it in another run.
+ *
+ * The decorated generator must emit the input record as blocked element and
+ * its keys must not depend on the correspondences, as they are not considered
+ * when the keys are taken from the cache. Thread-safe, as long as the
+ * decorated generator is.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class CachedBlockingKeyGenerator<RecordType extends Matchable, CorrespondenceType extends Matchable>
+		extends RecordBlockingKeyGenerator<RecordType, CorrespondenceType> {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int FILE_FORMAT = 0x57424b32;
+
+	private BlockingKeyGenerator<RecordType, CorrespondenceType, RecordType> blockingFunction;
+	private long version;
+
+	// data source identifier -> record identifier -> ids of the blocking keys
+	private transient Map<Integer, Map<String, int[]>> cache = new ConcurrentHashMap<>();
+	// blocking key -> id
+	private transient Map<String, Integer> keyIds = new ConcurrentHashMap<>();
+	// id -> blocking key, replaced by a larger copy when it is full
+	private transient volatile String[] keys = new String[64];
+	private transient int numKeys = 0;
+
+	private transient AtomicLong hits = new AtomicLong();
+	private transient AtomicLong misses = new AtomicLong();
+
+	public CachedBlockingKeyGenerator(BlockingKeyGenerator<RecordType, CorrespondenceType, RecordType> blockingFunction) {
+		this(blockingFunction, 0L);
+	}
+
+	/**
+	 * @param blockingFunction
+	 *            the blocking function that generates the keys
+	 * @param version
+	 *            the version of the dataset(s) which are blocked
+	 */
+	public CachedBlockingKeyGenerator(BlockingKeyGenerator<RecordType, CorrespondenceType, RecordType> blockingFunction,
+			long version) {
+		this.blockingFunction = blockingFunction;
+		this.version = version;
+	}
+
+	/**
+	 * @return the decorated blocking function
+	 */
+	public BlockingKeyGenerator<RecordType, CorrespondenceType, RecordType> getBlockingFunction() {
+		return blockingFunction;
+	}
+
+	/**
+	 * @return the version of the cached blocking keys
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Sets the version of the dataset(s) which are blocked. If it differs from
+	 * the current version, the cache is cleared.
+	 *
+	 * @param version
+	 *            the new version
+	 */
+	public synchronized void setVersion(long version) {
+		if (version != this.version) {
+			this.version = version;
+			clear();
+		}
+	}
+
+	/**
+	 * Removes all blocking keys from the cache
+	 */
+	public synchronized void clear() {
+		cache.clear();
+		keyIds.clear();
+		keys = new String[64];
+		numKeys = 0;
+	}
+
+	/**
+	 * @return the number of records in the cache
+	 */
+	public int size() {
+		int size = 0;
+		for (Map<String, int[]> records : cache.values()) {
+			size += records.size();
+		}
+		return size;
+	}
+
+	/**
+	 * @return the number of records for which the keys were taken from the
+	 *         cache
+	 */
+	public long getCacheHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of records for which the keys were generated
+	 */
+	public long getCacheMisses() {
+		return misses.get();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uni_mannheim.informatik.dws.winter.matching.blockers.generators.
+	 * BlockingKeyGenerator#generateBlockingKeys(de.uni_mannheim.informatik.dws.
+	 * winter.model.Matchable,
+	 * de.uni_mannheim.informatik.dws.winter.processing.Processable,
+	 * de.uni_mannheim.informatik.dws.winter.processing.DataIterator)
+	 */
+	@Override
+	public void generateBlockingKeys(RecordType record,
+			Processable<Correspondence<CorrespondenceType, Matchable>> correspondences,
+			DataIterator<Pair<String, RecordType>> resultCollector) {
+
+		Map<String, int[]> records = getRecords(record.getDataSourceIdentifier());
+		int[] ids = records.get(record.getIdentifier());
+
+		if (ids == null) {
+			misses.incrementAndGet();
+
+			ProcessableCollector<Pair<String, RecordType>> collector = new ProcessableCollector<>();
+			collector.setResult(new ProcessableCollection<>());
+			collector.initialise();
+
+			blockingFunction.generateBlockingKeys(record, correspondences, collector);
+
+			collector.finalise();
+
+			ids = new int[collector.getResult().size()];
+			int i = 0;
+			for (Pair<String, RecordType> p : collector.getResult().get()) {
+				ids[i++] = getKeyId(p.getFirst());
+			}
+			records.put(record.getIdentifier(), ids);
+		} else {
+			hits.incrementAndGet();
+		}
+
+		// the ids were added to the dictionary before they were added to the
+		// cache, so the current dictionary contains all of them
+		String[] dictionary = keys;
+		for (int id : ids) {
+			resultCollector.next(new Pair<>(dictionary[id], record));
+		}
+	}
+
+	private Map<String, int[]> getRecords(int dataSourceIdentifier) {
+		return cache.computeIfAbsent(dataSourceIdentifier, (id) -> new ConcurrentHashMap<>());
+	}
+
+	private int getKeyId(String key) {
+		Integer id = keyIds.get(key);
+		if (id == null) {
+			synchronized (this) {
+				id = keyIds.get(key);
+				if (id == null) {
+					id = addKey(key);
+				}
+			}
+		}
+		return id;
+	}
+
+	/**
+	 * must be called while holding the lock
+	 */
+	private int addKey(String key) {
+		String[] dictionary = keys;
+		if (numKeys == dictionary.length) {
+			dictionary = Arrays.copyOf(dictionary, dictionary.length * 2);
+		}
+		int id = numKeys++;
+		dictionary[id] = key;
+		keys = dictionary;
+		keyIds.put(key, id);
+		return id;
+	}
+
+	/**
+	 * Writes the cached blocking keys and the version to a file.
+	 *
+	 * @param file
+	 *            the file
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public synchronized void writeCache(File file) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			out.writeInt(FILE_FORMAT);
+			out.writeLong(version);
+
+			out.writeInt(numKeys);
+			for (int i = 0; i < numKeys; i++) {
+				writeString(out, keys[i]);
+			}
+
+			out.writeInt(cache.size());
+			for (Map.Entry<Integer, Map<String, int[]>> dataSource : cache.entrySet()) {
+				out.writeInt(dataSource.getKey());
+				out.writeInt(dataSource.getValue().size());
+				for (Map.Entry<String, int[]> entry : dataSource.getValue().entrySet()) {
+					writeString(out, entry.getKey());
+					out.writeInt(entry.getValue().length);
+					for (int id : entry.getValue()) {
+						out.writeInt(id);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * writeUTF is limited to 64 KB, so strings are written as length-prefixed
+	 * UTF-8 bytes
+	 */
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Replaces the cache with the blocking keys from a file, if the file was
+	 * written with the current version.
+	 *
+	 * @param file
+	 *            the file
+	 * @return true, if the cache was loaded. false, if the file does not exist
+	 *         or was written with a different version.
+	 * @throws IOException
+	 *             if the file cannot be read
+	 */
+	public synchronized boolean readCache(File file) throws IOException {
+		if (!file.exists()) {
+			return false;
+		}
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != FILE_FORMAT) {
+				throw new IOException(String.format("%s is not a blocking key cache", file.getPath()));
+			}
+			if (in.readLong() != version) {
+				return false;
+			}
+
+			clear();
+
+			int numKeys = in.readInt();
+			for (int i = 0; i < numKeys; i++) {
+				addKey(readString(in));
+			}
+
+			int numDataSources = in.readInt();
+			for (int i = 0; i < numDataSources; i++) {
+				Map<String, int[]> records = getRecords(in.readInt());
+				int numRecords = in.readInt();
+				for (int j = 0; j < numRecords; j++) {
+					String identifier = readString(in);
+					int[] ids = new int[in.readInt()];
+					for (int k = 0; k < ids.length; k++) {
+						ids[k] = in.readInt();
+					}
+					records.put(identifier, ids);
+				}
+			}
+		}
+
+		return true;
+	}
+
+	private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
+		// the cache is not serialised
+		in.defaultReadObject();
+		cache = new ConcurrentHashMap<>();
+		keyIds = new ConcurrentHashMap<>();
+		keys = new String[64];
+		hits = new AtomicLong();
+		misses = new AtomicLong();
+	}
+
+}
@@ -95,6 +95,9 @@ public class LinearCombinationMatchingRule<RecordType extends Matchable, SchemaE
 	public void addComparator(Comparator<RecordType, SchemaElementType> comparator, double weight) throws Exception {
 		if (weight > 0.0) {
 			comparators.add(new Pair<Comparator<RecordType, SchemaElementType>, Double>(comparator, weight));
+			if (this.getFeatureCache() != null) {
+				comparator.setFeatureCache(this.getFeatureCache());
+			}
 			if (this.isDebugReportActive()) {
 				comparator.setComparisonLog(new ComparatorLogger());
 				addComparatorToLog(comparator);
@@ -94,6 +94,9 @@ public class LinearCombinationMatchingRuleWithPenalty<RecordType extends Matchab
 	public void addComparator(Comparator<RecordType, SchemaElementType> comparator, double weight, double penalty) throws Exception {
 		if (weight > 0.0) {
 			comparators.add(new Triple<>(comparator, weight, penalty));
+			if (this.getFeatureCache() != null) {
+				comparator.setFeatureCache(this.getFeatureCache());
+			}
 
 			if (this.isDebugReportActive()) {
 				comparator.setComparisonLog(new ComparatorLogger());
@@ -19,6 +19,7 @@ import java.util.List;
 
 import de.uni_mannheim.informatik.dws.winter.matching.rules.comparators.Comparator;
 import de.uni_mannheim.informatik.dws.winter.matching.rules.comparators.ComparatorLogger;
+import de.uni_mannheim.informatik.dws.winter.matching.rules.comparators.ValueFeatureCache;
 import org.slf4j.Logger;
 
 import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
@@ -63,6 +64,7 @@ public abstract class MatchingRule<RecordType extends Matchable, SchemaElementTy
 	private MatchingGoldStandard debugGoldStandard;
 
 	private ComparatorLogger comparisonLog;
+	private ValueFeatureCache featureCache;
 
 	private static final Logger logger = WinterLogManager.getLogger();
 
@@ -390,6 +392,16 @@ public abstract class MatchingRule<RecordType extends Matchable, SchemaElementTy
 		this.activateDebugReport(filePath, maxSize, null);
 	}
 
+	/**
+	 * Activates a cache for the pre-processed values of the compared records,
+	 * which is shared by all comparators that support it. Must be activated
+	 * before the comparators are added to the rule.
+	 */
+	public void activateFeatureCache() {
+		this.setFeatureCache(new ValueFeatureCache());
+		logger.info("Activated Feature Cache.");
+	}
+
 	/**
 	 * Fills the similarity value of a debug record. This debug record is added to the list of
 	 * debug results if the list's length does not exceed the maximum number of result entries yet.
@@ -487,4 +499,18 @@ public abstract class MatchingRule<RecordType extends Matchable, SchemaElementTy
 	public void setComparisonLog(ComparatorLogger comparatorLog) {
 		this.comparisonLog = comparatorLog;
 	}
+
+	@Override
+	public ValueFeatureCache getFeatureCache() {
+		return this.featureCache;
+	}
+
+	/**
+	 * Sets the cache for the pre-processed values of the compared records,
+	 * which is passed on to all comparators that are added afterwards.
+	 */
+	@Override
+	public void setFeatureCache(ValueFeatureCache featureCache) {
+		this.featureCache = featureCache;
+	}
 }
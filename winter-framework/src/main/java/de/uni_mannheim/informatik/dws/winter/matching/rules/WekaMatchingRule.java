@@ -58,6 +58,7 @@ import de.uni_mannheim.informatik.dws.winter.processing.Processable;
 import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
 import de.uni_mannheim.informatik.dws.winter.utils.query.Q;
 import de.uni_mannheim.informatik.dws.winter.utils.weka.EvaluationWithBalancing;
+import de.uni_mannheim.informatik.dws.winter.utils.weka.ParallelEvaluation;
 import weka.attributeSelection.AttributeSelection;
 import weka.attributeSelection.GreedyStepwise;
 import weka.attributeSelection.WrapperSubsetEval;
@@ -179,6 +180,9 @@ public class WekaMatchingRule<RecordType extends Matchable, SchemaElementType ex
 
 	public void addComparator(Comparator<RecordType, SchemaElementType> comparator) {
 		comparators.add(comparator);
+		if (this.getFeatureCache() != null) {
+			comparator.setFeatureCache(this.getFeatureCache());
+		}
 		if (this.isDebugReportActive()) {
 			comparator.setComparisonLog(new ComparatorLogger());
 			addComparatorToLog(comparator);
@@ -208,6 +212,8 @@ public class WekaMatchingRule<RecordType extends Matchable, SchemaElementType ex
 
 					GreedyStepwise search = new GreedyStepwise();
 					search.setSearchBackwards(this.backwardSelection);
+					// the subsets of each step are evaluated in parallel, each thread uses a copy of the evaluator
+					search.setNumExecutionSlots(Runtime.getRuntime().availableProcessors());
 
 					this.fs = new AttributeSelection();
 					WrapperSubsetEval wrapper = new WrapperSubsetEval();
@@ -227,8 +233,8 @@ public class WekaMatchingRule<RecordType extends Matchable, SchemaElementType ex
 					trainingData = fs.reduceDimensionality(trainingData);
 
 				}
-				// perform 10-fold Cross Validation to evaluate classifier
-				Evaluation eval = new Evaluation(trainingData);
+				// perform 10-fold Cross Validation to evaluate classifier, the folds are trained in parallel
+				Evaluation eval = new ParallelEvaluation(trainingData);
 
 				if (balanceTrainingData) {
 					Resample filter = new Resample();
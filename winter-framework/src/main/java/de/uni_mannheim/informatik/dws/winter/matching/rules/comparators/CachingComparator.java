@@ -0,0 +1,428 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.rules.comparators;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.processing.Function;
+import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+
+/**
+ * Decorator for a {@link Comparator} which caches the similarity values by
+ * the compared values. If the values of the compared attributes are
+ * frequently repeated, the decorated comparator is only called once per
+ * distinct value pair.
+ *
+ * The values which are passed to the decorated comparator are determined by
+ * two functions, and the decorated comparator must not use anything else of
+ * the records or the schema correspondence. If the comparator is symmetric,
+ * i.e., compare(a, b) = compare(b, a) for all values, the pairs (a, b) and (b,
+ * a) share the same cache entry.
+ *
+ * The cache is bounded: it is split into segments, which are locked
+ * independently, and each segment evicts its least recently used value pairs
+ * if it is full. If a comparison log is set, the entries of the decorated
+ * comparator in the log are stored with the similarity value and are restored
+ * if the value is taken from the cache.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ * @param <RecordType>
+ *            the type of records that are compared with this comparator
+ * @param <SchemaElementType>
+ *            the type of schema elements that are used in the schema of
+ *            RecordType
+ */
+public class CachingComparator<RecordType extends Matchable, SchemaElementType extends Matchable>
+		implements Comparator<RecordType, SchemaElementType> {
+
+	private static final long serialVersionUID = 1L;
+	private static final Logger logger = WinterLogManager.getLogger();
+
+	private static final int MIN_SEGMENTS = 16;
+
+	private Comparator<RecordType, SchemaElementType> comparator;
+	private Function<String, RecordType> value1;
+	private Function<String, RecordType> value2;
+	private int maxSize;
+	private boolean symmetric;
+
+	private transient Segment[] segments;
+	private transient LongAdder hits;
+	private transient LongAdder misses;
+
+	/**
+	 * @param comparator
+	 *            the comparator whose results are cached
+	 * @param value1
+	 *            the function that returns the value of the first record which
+	 *            is compared
+	 * @param value2
+	 *            the function that returns the value of the second record
+	 *            which is compared
+	 * @param maxSize
+	 *            the maximum number of value pairs in the cache
+	 * @param symmetric
+	 *            specifies whether the comparator returns the same similarity
+	 *            if the values are swapped
+	 */
+	public CachingComparator(Comparator<RecordType, SchemaElementType> comparator,
+			Function<String, RecordType> value1, Function<String, RecordType> value2, int maxSize,
+			boolean symmetric) {
+		this.comparator = comparator;
+		this.value1 = value1;
+		this.value2 = value2;
+		this.maxSize = maxSize;
+		this.symmetric = symmetric;
+		initialiseCache();
+	}
+
+	/**
+	 * Creates a caching comparator for a {@link Record} comparator which
+	 * compares the values of attribute1 in the first record and attribute2 in
+	 * the second record.
+	 *
+	 * @param comparator
+	 *            the comparator whose results are cached
+	 * @param attribute1
+	 *            the attribute of the first record
+	 * @param attribute2
+	 *            the attribute of the second record
+	 * @param maxSize
+	 *            the maximum number of value pairs in the cache
+	 * @param symmetric
+	 *            specifies whether the comparator returns the same similarity
+	 *            if the values are swapped
+	 * @return the caching comparator
+	 */
+	public static CachingComparator<Record, Attribute> forAttributes(Comparator<Record, Attribute> comparator,
+			Attribute attribute1, Attribute attribute2, int maxSize, boolean symmetric) {
+		return new CachingComparator<>(comparator, new AttributeValue(attribute1), new AttributeValue(attribute2),
+				maxSize, symmetric);
+	}
+
+	private void initialiseCache() {
+		// use a power of two, so the segment can be selected by a bit mask
+		int numSegments = Integer.highestOneBit(Math.max(MIN_SEGMENTS, Runtime.getRuntime().availableProcessors() * 4) - 1) << 1;
+		numSegments = Math.max(1, Math.min(numSegments, Integer.highestOneBit(Math.max(1, maxSize))));
+
+		int capacity = Math.max(1, maxSize / numSegments);
+		segments = new Segment[numSegments];
+		for (int i = 0; i < numSegments; i++) {
+			segments[i] = new Segment(capacity);
+		}
+		hits = new LongAdder();
+		misses = new LongAdder();
+	}
+
+	/**
+	 * @return the comparator whose results are cached
+	 */
+	public Comparator<RecordType, SchemaElementType> getComparator() {
+		return comparator;
+	}
+
+	/**
+	 * @return the maximum number of value pairs in the cache
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * @return true, if the value pairs (a, b) and (b, a) share a cache entry
+	 */
+	public boolean isSymmetric() {
+		return symmetric;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * de.uni_mannheim.informatik.dws.winter.matching.rules.comparators.Comparator
+	 * #compare(de.uni_mannheim.informatik.dws.winter.model.Matchable,
+	 * de.uni_mannheim.informatik.dws.winter.model.Matchable,
+	 * de.uni_mannheim.informatik.dws.winter.model.Correspondence)
+	 */
+	@Override
+	public double compare(RecordType record1, RecordType record2,
+			Correspondence<SchemaElementType, Matchable> schemaCorrespondence) {
+		String s1 = value1.execute(record1);
+		String s2 = value2.execute(record2);
+
+		boolean swapped = symmetric && compareValues(s1, s2) > 0;
+		ValuePair key = swapped ? new ValuePair(s2, s1) : new ValuePair(s1, s2);
+		Segment segment = segments[(key.hashCode() ^ (key.hashCode() >>> 16)) & (segments.length - 1)];
+		ComparatorLogger log = comparator.getComparisonLog();
+
+		CachedValue cached;
+		synchronized (segment) {
+			cached = segment.get(key);
+		}
+
+		// if the log is used, the value is only re-used if the log entries were
+		// recorded, too
+		if (cached != null && (log == null || cached.log != null)) {
+			hits.increment();
+			if (log != null) {
+				restoreLog(log, cached.log, swapped);
+			}
+			return cached.similarity;
+		}
+
+		misses.increment();
+		double similarity = comparator.compare(record1, record2, schemaCorrespondence);
+		cached = new CachedValue(similarity, log == null ? null : recordLog(log, swapped));
+
+		synchronized (segment) {
+			segment.put(key, cached);
+		}
+
+		return similarity;
+	}
+
+	private static int compareValues(String s1, String s2) {
+		if (s1 == null) {
+			return s2 == null ? 0 : -1;
+		} else if (s2 == null) {
+			return 1;
+		} else {
+			return s1.compareTo(s2);
+		}
+	}
+
+	/**
+	 * Returns the log entries of the current thread, with the values of the
+	 * records in the order of the cache key.
+	 */
+	private String[] recordLog(ComparatorLogger log, boolean swapped) {
+		String[] values = new String[ComparatorLogger.COMPARATORLOG.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = log.getValue(ComparatorLogger.COMPARATORLOG[i]);
+		}
+		if (swapped) {
+			swapRecordValues(values);
+		}
+		return values;
+	}
+
+	private void restoreLog(ComparatorLogger log, String[] values, boolean swapped) {
+		if (swapped) {
+			values = values.clone();
+			swapRecordValues(values);
+		}
+		log.setComparatorName(values[0]);
+		log.setRecord1Value(values[1]);
+		log.setRecord2Value(values[2]);
+		log.setRecord1PreprocessedValue(values[3]);
+		log.setRecord2PreprocessedValue(values[4]);
+		log.setSimilarity(values[5]);
+		log.setPostprocessedSimilarity(values[6]);
+	}
+
+	private void swapRecordValues(String[] values) {
+		String tmp = values[1];
+		values[1] = values[2];
+		values[2] = tmp;
+		tmp = values[3];
+		values[3] = values[4];
+		values[4] = tmp;
+	}
+
+	/**
+	 * Removes all value pairs from the cache and resets the statistics
+	 */
+	public void clear() {
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+		hits.reset();
+		misses.reset();
+	}
+
+	/**
+	 * @return the number of value pairs in the cache
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * @return the number of comparisons for which the similarity was taken from
+	 *         the cache
+	 */
+	public long getCacheHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of comparisons for which the decorated comparator was
+	 *         called
+	 */
+	public long getCacheMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return the fraction of comparisons for which the similarity was taken
+	 *         from the cache
+	 */
+	public double getHitRatio() {
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return total == 0 ? 0.0 : h / (double) total;
+	}
+
+	/**
+	 * Writes the cache statistics to the log
+	 */
+	public void logStatistics() {
+		logger.info(String.format("%s: %,d comparisons, %,d cache hits (%.2f%%), %d cached value pairs",
+				getName(null), getCacheHits() + getCacheMisses(), getCacheHits(), getHitRatio() * 100, size()));
+	}
+
+	@Override
+	public boolean hasMissingValue(RecordType record1, RecordType record2,
+			Correspondence<SchemaElementType, Matchable> schemaCorrespondence) {
+		return comparator.hasMissingValue(record1, record2, schemaCorrespondence);
+	}
+
+	@Override
+	public SchemaElementType getFirstSchemaElement(RecordType record) {
+		return comparator.getFirstSchemaElement(record);
+	}
+
+	@Override
+	public SchemaElementType getSecondSchemaElement(RecordType record) {
+		return comparator.getSecondSchemaElement(record);
+	}
+
+	@Override
+	public ComparatorLogger getComparisonLog() {
+		return comparator.getComparisonLog();
+	}
+
+	@Override
+	public void setComparisonLog(ComparatorLogger comparatorLog) {
+		comparator.setComparisonLog(comparatorLog);
+	}
+
+	@Override
+	public String getName(Correspondence<SchemaElementType, Matchable> schemaCorrespondence) {
+		return comparator.getName(schemaCorrespondence);
+	}
+
+	private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
+		// the cache is not serialised
+		in.defaultReadObject();
+		initialiseCache();
+	}
+
+	private static class ValuePair {
+
+		private final String first;
+		private final String second;
+		private final int hash;
+
+		public ValuePair(String first, String second) {
+			this.first = first;
+			this.second = second;
+			this.hash = 31 * Objects.hashCode(first) + Objects.hashCode(second);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ValuePair)) {
+				return false;
+			}
+			ValuePair other = (ValuePair) obj;
+			return hash == other.hash && Objects.equals(first, other.first) && Objects.equals(second, other.second);
+		}
+	}
+
+	private static class CachedValue {
+
+		private final double similarity;
+		// the entries of the comparison log, or null if no log was set
+		private final String[] log;
+
+		public CachedValue(double similarity, String[] log) {
+			this.similarity = similarity;
+			this.log = log;
+		}
+	}
+
+	/**
+	 * LRU map of a part of the value pairs, must only be accessed while holding
+	 * its lock.
+	 */
+	private static class Segment extends LinkedHashMap<ValuePair, CachedValue> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int capacity;
+
+		public Segment(int capacity) {
+			super(Math.min(capacity, 1024) * 4 / 3 + 1, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<ValuePair, CachedValue> eldest) {
+			return size() > capacity;
+		}
+	}
+
+	private static class AttributeValue implements Function<String, Record> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Attribute attribute;
+
+		public AttributeValue(Attribute attribute) {
+			this.attribute = attribute;
+		}
+
+		@Override
+		public String execute(Record input) {
+			return input.getValue(attribute);
+		}
+	}
+
+}
@@ -100,6 +100,22 @@ public interface Comparator<RecordType extends Matchable, SchemaElementType exte
 	default void setComparisonLog(ComparatorLogger comparatorLog) 
 	{
 	}
+
+	/**
+	 * @return Returns the cache for the pre-processed values, which is used by
+	 *         this comparator, or null if no cache is used
+	 */
+	default ValueFeatureCache getFeatureCache() {
+		return null;
+	}
+
+	/**
+	 * Sets a cache for the pre-processed values. Comparators which do not
+	 * support it ignore it.
+	 */
+	default void setFeatureCache(ValueFeatureCache featureCache)
+	{
+	}
 	
 	/**
 	 * Return the comparator's name
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.rules.comparators;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+
+import com.wcohen.ss.api.Token;
+import com.wcohen.ss.tokens.NGramTokenizer;
+import com.wcohen.ss.tokens.SimpleTokenizer;
+
+import de.uni_mannheim.informatik.dws.winter.matching.rules.MatchingRule;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import de.uni_mannheim.informatik.dws.winter.utils.SortedIntArrays;
+import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Consumer;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Parallel;
+
+/**
+ * Cache for the {@link ValueFeatures} of the compared attribute values. If it
+ * is activated on a {@link MatchingRule}, all comparators of the rule which
+ * support it share the tokens of the values, and each value is only
+ * normalised and tokenised once instead of once per compared pair and
+ * comparator.
+ *
+ * The features are identified by the record identifier and the schema element
+ * identifier. They are created when they are requested for the first time, or
+ * in advance by {@link #prepare(Processable, Attribute...)}.
+ *
+ * The tokens are created in the same way as by
+ * {@link com.wcohen.ss.tokens.SimpleTokenizer} (ignoring punctuation and case)
+ * and are identified by ids from a dictionary. The n-grams are created in the
+ * same way as by {@link com.wcohen.ss.tokens.NGramTokenizer}. n-grams with up
+ * to three characters (of code points below 1024) are encoded exactly, longer
+ * n-grams are hashed, so in rare cases two different n-grams can have the same
+ * hash.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class ValueFeatureCache implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+	private static final Logger logger = WinterLogManager.getLogger();
+
+	private int gramSize;
+
+	// schema element identifier -> record identifier -> features
+	private transient Map<String, Map<String, ValueFeatures>> features = new ConcurrentHashMap<>();
+	// token -> id
+	private transient Map<String, Integer> tokenIds = new ConcurrentHashMap<>();
+	private transient AtomicInteger nextTokenId = new AtomicInteger();
+
+	public ValueFeatureCache() {
+		this(3);
+	}
+
+	/**
+	 * @param gramSize
+	 *            the size of the n-grams
+	 */
+	public ValueFeatureCache(int gramSize) {
+		this.gramSize = gramSize;
+	}
+
+	/**
+	 * @return the size of the n-grams
+	 */
+	public int getGramSize() {
+		return gramSize;
+	}
+
+	/**
+	 * Returns the features of a value from the cache, or creates them if the
+	 * value is not in the cache.
+	 *
+	 * @param record
+	 *            the record that contains the value
+	 * @param schemaElement
+	 *            the schema element that contains the value
+	 * @param value
+	 *            the value
+	 * @return the features of the value or null if the value is null
+	 */
+	public ValueFeatures getFeatures(Matchable record, Matchable schemaElement, String value) {
+		if (value == null) {
+			return null;
+		}
+
+		Map<String, ValueFeatures> featuresForElement = features.get(schemaElement.getIdentifier());
+		if (featuresForElement == null) {
+			featuresForElement = features.computeIfAbsent(schemaElement.getIdentifier(),
+					(id) -> new ConcurrentHashMap<>());
+		}
+
+		ValueFeatures f = featuresForElement.get(record.getIdentifier());
+
+		// the original value is kept to detect values which changed
+		if (f == null || (f.getValue() != value && !f.getValue().equals(value))) {
+			f = createFeatures(value);
+			featuresForElement.put(record.getIdentifier(), f);
+		}
+
+		return f;
+	}
+
+	/**
+	 * Creates the features of all values of the given attributes in advance
+	 *
+	 * @param records
+	 *            the records
+	 * @param attributes
+	 *            the attributes
+	 */
+	public void prepare(Processable<Record> records, final Attribute... attributes) {
+		new Parallel<Record>().tryForeach(records.get(), new Consumer<Record>() {
+
+			@Override
+			public void execute(Record record) {
+				for (Attribute attribute : attributes) {
+					getFeatures(record, attribute, record.getValue(attribute));
+				}
+			}
+		}, "Creating value features");
+	}
+
+	/**
+	 * Creates the features of a value without adding them to the cache
+	 *
+	 * @param value
+	 *            the value (must not be null)
+	 * @return the features
+	 */
+	public ValueFeatures createFeatures(String value) {
+		// the tokenizers intern all tokens, so new instances are used for each
+		// value
+		SimpleTokenizer tokenizer = new SimpleTokenizer(true, true);
+
+		Token[] tokens = tokenizer.tokenize(value);
+		int[] ids = new int[tokens.length];
+		for (int i = 0; i < tokens.length; i++) {
+			ids[i] = getTokenId(tokens[i].getValue());
+		}
+
+		NGramTokenizer gramTokenizer = new NGramTokenizer(gramSize, gramSize, false, tokenizer);
+		Token[] grams = gramTokenizer.tokenize(value);
+		int[] hashes = new int[grams.length];
+		for (int i = 0; i < grams.length; i++) {
+			hashes[i] = hashGram(grams[i].getValue());
+		}
+
+		return new ValueFeatures(value, value.toLowerCase(), SortedIntArrays.toSet(ids, ids.length),
+				SortedIntArrays.toSet(hashes, hashes.length), tokens.length);
+	}
+
+	private int getTokenId(String token) {
+		Integer id = tokenIds.get(token);
+		if (id == null) {
+			id = tokenIds.computeIfAbsent(token, (t) -> nextTokenId.getAndIncrement());
+		}
+		return id;
+	}
+
+	private int hashGram(String gram) {
+		if (gram.length() <= 3) {
+			int code = 0;
+			boolean exact = true;
+			for (int i = 0; i < gram.length() && exact; i++) {
+				char c = gram.charAt(i);
+				exact = c < 1024;
+				code = (code << 10) | c;
+			}
+			if (exact) {
+				// all n-grams have the same length and the codes have at most
+				// 30 bits, so the sign bit distinguishes them from the hashes
+				return code;
+			}
+		}
+
+		int h = 0x811c9dc5;
+		for (int i = 0; i < gram.length(); i++) {
+			h = (h ^ gram.charAt(i)) * 0x01000193;
+		}
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		return h | 0x80000000;
+	}
+
+	/**
+	 * @return the number of cached values
+	 */
+	public int size() {
+		int size = 0;
+		for (Map<String, ValueFeatures> featuresForElement : features.values()) {
+			size += featuresForElement.size();
+		}
+		return size;
+	}
+
+	/**
+	 * @return the number of distinct tokens in the dictionary
+	 */
+	public int getNumberOfTokens() {
+		return tokenIds.size();
+	}
+
+	/**
+	 * Estimates the memory usage of the cache, including the token dictionary
+	 *
+	 * @return the estimated number of bytes that are used by the cache
+	 */
+	public long getEstimatedMemoryUsage() {
+		long bytes = 0;
+		for (Map<String, ValueFeatures> featuresForElement : features.values()) {
+			for (ValueFeatures f : featuresForElement.values()) {
+				// map entry and features
+				bytes += 32 + f.getEstimatedMemoryUsage();
+			}
+		}
+		for (String token : tokenIds.keySet()) {
+			// map entry, string and id
+			bytes += 32 + 40 + 2L * token.length() + 16;
+		}
+		return bytes;
+	}
+
+	/**
+	 * Writes the size and the estimated memory usage of the cache to the log
+	 */
+	public void logStatistics() {
+		logger.info(String.format("Value feature cache: %,d values, %,d distinct tokens, approx. %,d KB", size(),
+				getNumberOfTokens(), getEstimatedMemoryUsage() / 1024));
+	}
+
+	/**
+	 * Removes all values and tokens from the cache
+	 */
+	public synchronized void clear() {
+		features.clear();
+		tokenIds.clear();
+		nextTokenId.set(0);
+	}
+
+	private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
+		// the cache is not serialised
+		in.defaultReadObject();
+		features = new ConcurrentHashMap<>();
+		tokenIds = new ConcurrentHashMap<>();
+		nextTokenId = new AtomicInteger();
+	}
+
+}
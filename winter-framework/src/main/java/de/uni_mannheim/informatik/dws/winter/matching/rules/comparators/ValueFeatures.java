@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.rules.comparators;
+
+import de.uni_mannheim.informatik.dws.winter.similarity.string.JaccardOnNGramsSimilarity;
+import de.uni_mannheim.informatik.dws.winter.similarity.string.MaximumOfTokenContainment;
+import de.uni_mannheim.informatik.dws.winter.similarity.string.TokenizingJaccardSimilarity;
+
+/**
+ * The pre-processed representation of an attribute value, which is created by
+ * a {@link ValueFeatureCache}.
+ *
+ * The token ids and n-gram hashes are sorted and contain no duplicates, so
+ * they can be passed directly to {@link TokenizingJaccardSimilarity},
+ * {@link MaximumOfTokenContainment} and {@link JaccardOnNGramsSimilarity}.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class ValueFeatures {
+
+	private final String value;
+	private final String lowerCaseValue;
+	private final int[] tokenIds;
+	private final int[] gramHashes;
+	private final int tokenCount;
+
+	public ValueFeatures(String value, String lowerCaseValue, int[] tokenIds, int[] gramHashes, int tokenCount) {
+		this.value = value;
+		this.lowerCaseValue = lowerCaseValue;
+		this.tokenIds = tokenIds;
+		this.gramHashes = gramHashes;
+		this.tokenCount = tokenCount;
+	}
+
+	/**
+	 * @return the original value
+	 */
+	public String getValue() {
+		return value;
+	}
+
+	/**
+	 * @return the value in lower case
+	 */
+	public String getLowerCaseValue() {
+		return lowerCaseValue;
+	}
+
+	/**
+	 * @return the sorted ids of the distinct tokens of the value
+	 */
+	public int[] getTokenIds() {
+		return tokenIds;
+	}
+
+	/**
+	 * @return the sorted hashes of the distinct n-grams of the value
+	 */
+	public int[] getGramHashes() {
+		return gramHashes;
+	}
+
+	/**
+	 * @return the number of tokens of the value, including duplicates
+	 */
+	public int getTokenCount() {
+		return tokenCount;
+	}
+
+	/**
+	 * @return the estimated number of bytes that are used by this object
+	 */
+	public long getEstimatedMemoryUsage() {
+		// object header and fields
+		long bytes = 40;
+		// arrays
+		bytes += 16 + 4L * tokenIds.length;
+		bytes += 16 + 4L * gramHashes.length;
+		// the original value is referenced by the record, so only count the
+		// lower case value if it is a different string
+		if (lowerCaseValue != value) {
+			bytes += 40 + 2L * lowerCaseValue.length();
+		}
+		return bytes;
+	}
+
+}
@@ -0,0 +1,791 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matrices;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.uni_mannheim.informatik.dws.winter.model.Triple;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Consumer;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Parallel;
+
+/**
+ * A similarity matrix that stores the values in compressed sparse rows (CSR).
+ *
+ * The objects of both dimensions are mapped to int ids (in the order in which
+ * they are added). Values for new cells are collected in a buffer of
+ * coordinates and are merged into the rows by {@link #compact()}, which is
+ * called automatically before all operations that process the whole matrix.
+ * Values of existing cells are changed in place. Row-wise operations run in
+ * parallel for large matrices, column-wise operations use a transposed index,
+ * which is created when it is needed.
+ *
+ * In contrast to {@link SparseSimilarityMatrix}, {@link #makeColumnStochastic()}
+ * ignores empty cells instead of failing. Not thread-safe for concurrent
+ * modifications.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ * @param <T>	the type of the matrix' dimensions
+ */
+public class CSRSimilarityMatrix<T> extends SimilarityMatrix<T> {
+
+    // marks removed values, a NaN with a payload that is not created by arithmetic operations
+    private static final long REMOVED_BITS = 0x7ff80000dead0001L;
+    private static final double REMOVED = Double.longBitsToDouble(REMOVED_BITS);
+
+    // the minimum number of values for parallel operations
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private HashMap<T, Integer> firstIds;
+    private ArrayList<T> firstElements;
+    private HashMap<T, Integer> secondIds;
+    private ArrayList<T> secondElements;
+
+    // the values of row r are stored at rowOffsets[r] .. rowOffsets[r+1]-1, sorted by column
+    private int numCompressedRows = 0;
+    private int[] rowOffsets = new int[] { 0 };
+    private int[] columns = new int[0];
+    private double[] values = new double[0];
+    private int numRemoved = 0;
+
+    // values which are not in the compressed rows yet, linked per row
+    private int bufferSize = 0;
+    private int[] bufferRows = new int[16];
+    private int[] bufferColumns = new int[16];
+    private double[] bufferValues = new double[16];
+    private int[] bufferNext = new int[16];
+    // position + 1 of the last buffered value of each row
+    private int[] bufferHeads = new int[16];
+    // open addressing index (row, column) -> position + 1 of the buffered values
+    private long[] bufferIndexKeys = new long[32];
+    private int[] bufferIndexPositions = new int[32];
+
+    // transposed index, the positions of the values of column c are stored at
+    // columnOffsets[c] .. columnOffsets[c+1]-1
+    private int[] columnOffsets;
+    private int[] columnPositions;
+
+    public CSRSimilarityMatrix(int firstDimension, int secondDimension) {
+        firstIds = new HashMap<>();
+        firstElements = new ArrayList<>(firstDimension);
+        secondIds = new HashMap<>();
+        secondElements = new ArrayList<>(secondDimension);
+    }
+
+    private static boolean isRemoved(double value) {
+        return Double.doubleToRawLongBits(value) == REMOVED_BITS;
+    }
+
+    @Override
+    public Double get(T first, T second) {
+        Integer row = firstIds.get(first);
+        Integer column = secondIds.get(second);
+
+        if (row == null || column == null) {
+            return null;
+        }
+
+        int idx = findCompressed(row, column);
+        double value = REMOVED;
+        if (idx >= 0) {
+            value = values[idx];
+        } else {
+            int pos = findBuffered(row, column);
+            if (pos >= 0) {
+                value = bufferValues[pos];
+            }
+        }
+
+        return isRemoved(value) ? null : value;
+    }
+
+    @Override
+    public synchronized void set(T first, T second, Double similarity) {
+        if (first == null || second == null) {
+            throw new NullPointerException();
+        }
+
+        int row = getFirstId(first);
+        int column = getSecondId(second);
+        double value = similarity == null ? REMOVED : similarity;
+
+        int idx = findCompressed(row, column);
+        if (idx >= 0) {
+            boolean wasRemoved = isRemoved(values[idx]);
+            values[idx] = value;
+            if (wasRemoved && similarity != null) {
+                numRemoved--;
+            } else if (!wasRemoved && similarity == null) {
+                numRemoved++;
+            }
+        } else {
+            int pos = findBuffered(row, column);
+            if (pos >= 0) {
+                bufferValues[pos] = value;
+            } else if (similarity != null) {
+                addToBuffer(row, column, value);
+            }
+        }
+    }
+
+    private int getFirstId(T first) {
+        Integer id = firstIds.get(first);
+        if (id == null) {
+            id = firstElements.size();
+            firstIds.put(first, id);
+            firstElements.add(first);
+            if (id >= bufferHeads.length) {
+                bufferHeads = Arrays.copyOf(bufferHeads, bufferHeads.length * 2);
+            }
+        }
+        return id;
+    }
+
+    private int getSecondId(T second) {
+        Integer id = secondIds.get(second);
+        if (id == null) {
+            id = secondElements.size();
+            secondIds.put(second, id);
+            secondElements.add(second);
+        }
+        return id;
+    }
+
+    private int findCompressed(int row, int column) {
+        if (row >= numCompressedRows) {
+            return -1;
+        }
+        int idx = Arrays.binarySearch(columns, rowOffsets[row], rowOffsets[row + 1], column);
+        return idx >= 0 ? idx : -1;
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mask;
+    }
+
+    private int findBuffered(int row, int column) {
+        if (bufferSize == 0) {
+            return -1;
+        }
+        long key = key(row, column);
+        int mask = bufferIndexKeys.length - 1;
+        int slot = slot(key, mask);
+        while (bufferIndexPositions[slot] != 0) {
+            if (bufferIndexKeys[slot] == key) {
+                return bufferIndexPositions[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void addToBuffer(int row, int column, double value) {
+        if (bufferSize == bufferRows.length) {
+            int capacity = bufferRows.length * 2;
+            bufferRows = Arrays.copyOf(bufferRows, capacity);
+            bufferColumns = Arrays.copyOf(bufferColumns, capacity);
+            bufferValues = Arrays.copyOf(bufferValues, capacity);
+            bufferNext = Arrays.copyOf(bufferNext, capacity);
+        }
+        int pos = bufferSize++;
+        bufferRows[pos] = row;
+        bufferColumns[pos] = column;
+        bufferValues[pos] = value;
+        bufferNext[pos] = bufferHeads[row];
+        bufferHeads[row] = pos + 1;
+
+        if (bufferSize * 2 > bufferIndexKeys.length) {
+            rebuildBufferIndex(bufferIndexKeys.length * 2);
+        } else {
+            insertIntoBufferIndex(key(row, column), pos);
+        }
+    }
+
+    private void insertIntoBufferIndex(long key, int pos) {
+        int mask = bufferIndexKeys.length - 1;
+        int slot = slot(key, mask);
+        while (bufferIndexPositions[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        bufferIndexKeys[slot] = key;
+        bufferIndexPositions[slot] = pos + 1;
+    }
+
+    private void rebuildBufferIndex(int capacity) {
+        bufferIndexKeys = new long[capacity];
+        bufferIndexPositions = new int[capacity];
+        for (int pos = 0; pos < bufferSize; pos++) {
+            insertIntoBufferIndex(key(bufferRows[pos], bufferColumns[pos]), pos);
+        }
+    }
+
+    /**
+     * Merges the buffered values into the compressed rows and removes deleted
+     * values.
+     */
+    public synchronized void compact() {
+        final int numRows = firstElements.size();
+        if (bufferSize == 0 && numRemoved == 0 && numCompressedRows == numRows) {
+            return;
+        }
+
+        // count the values per row
+        final int[] newOffsets = new int[numRows + 1];
+        for (int row = 0; row < numRows; row++) {
+            int count = 0;
+            if (row < numCompressedRows) {
+                for (int i = rowOffsets[row]; i < rowOffsets[row + 1]; i++) {
+                    if (!isRemoved(values[i])) {
+                        count++;
+                    }
+                }
+            }
+            for (int pos = bufferHeads[row] - 1; pos >= 0; pos = bufferNext[pos] - 1) {
+                if (!isRemoved(bufferValues[pos])) {
+                    count++;
+                }
+            }
+            newOffsets[row + 1] = newOffsets[row] + count;
+        }
+
+        final int[] newColumns = new int[newOffsets[numRows]];
+        final double[] newValues = new double[newOffsets[numRows]];
+
+        // merge the compressed and the buffered values of each row
+        forEachPartition(newOffsets, numRows, new PartitionTask() {
+
+            @Override
+            public void execute(int partition, int fromRow, int toRow) {
+                long[] buffered = new long[16];
+                for (int row = fromRow; row < toRow; row++) {
+                    // sort the buffered values of the row by column
+                    int numBuffered = 0;
+                    for (int pos = bufferHeads[row] - 1; pos >= 0; pos = bufferNext[pos] - 1) {
+                        if (!isRemoved(bufferValues[pos])) {
+                            if (numBuffered == buffered.length) {
+                                buffered = Arrays.copyOf(buffered, buffered.length * 2);
+                            }
+                            buffered[numBuffered++] = key(bufferColumns[pos], pos);
+                        }
+                    }
+                    Arrays.sort(buffered, 0, numBuffered);
+
+                    int i = row < numCompressedRows ? rowOffsets[row] : 0;
+                    int end = row < numCompressedRows ? rowOffsets[row + 1] : 0;
+                    int j = 0;
+                    int target = newOffsets[row];
+                    while (i < end || j < numBuffered) {
+                        if (i < end && isRemoved(values[i])) {
+                            i++;
+                        } else if (j >= numBuffered || (i < end && columns[i] < (int) (buffered[j] >>> 32))) {
+                            newColumns[target] = columns[i];
+                            newValues[target++] = values[i++];
+                        } else {
+                            int pos = (int) buffered[j++];
+                            newColumns[target] = bufferColumns[pos];
+                            newValues[target++] = bufferValues[pos];
+                        }
+                    }
+                }
+            }
+        });
+
+        rowOffsets = newOffsets;
+        columns = newColumns;
+        values = newValues;
+        numCompressedRows = numRows;
+        numRemoved = 0;
+
+        Arrays.fill(bufferHeads, 0);
+        bufferSize = 0;
+        rebuildBufferIndex(32);
+
+        columnOffsets = null;
+        columnPositions = null;
+    }
+
+    /**
+     * Creates the transposed index, must be called after {@link #compact()}
+     */
+    private synchronized void createColumnIndex() {
+        if (columnOffsets != null) {
+            return;
+        }
+
+        int numColumns = secondElements.size();
+        int[] offsets = new int[numColumns + 1];
+        for (int i = 0; i < columns.length; i++) {
+            offsets[columns[i] + 1]++;
+        }
+        for (int c = 0; c < numColumns; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+
+        // the rows are processed in ascending order, so each column is sorted by row
+        int[] positions = new int[columns.length];
+        int[] fill = Arrays.copyOf(offsets, numColumns);
+        for (int i = 0; i < columns.length; i++) {
+            positions[fill[columns[i]]++] = i;
+        }
+
+        columnPositions = positions;
+        columnOffsets = offsets;
+    }
+
+    /**
+     * A task which processes a range of rows (or columns)
+     */
+    private interface PartitionTask {
+        void execute(int partition, int from, int to);
+    }
+
+    /**
+     * Splits the rows (or columns) into partitions with a similar number of
+     * values and executes the task for each partition. The partitions are
+     * processed in parallel if the matrix is large enough.
+     *
+     * @return the number of partitions
+     * @throws RuntimeException
+     *             if a partition fails, the results of the other partitions
+     *             must not be used in this case
+     */
+    private int forEachPartition(final int[] offsets, final int size, final PartitionTask task) {
+        int numValues = offsets[size];
+        final int numPartitions = numValues < PARALLEL_THRESHOLD ? 1
+                : Math.max(1, Math.min(size, Runtime.getRuntime().availableProcessors() * 10));
+
+        if (numPartitions == 1) {
+            task.execute(0, 0, size);
+            return 1;
+        }
+
+        // choose the boundaries such that each partition has a similar number of values
+        final int[] boundaries = new int[numPartitions + 1];
+        boundaries[numPartitions] = size;
+        for (int p = 1; p < numPartitions; p++) {
+            long target = (long) numValues * p / numPartitions;
+            int idx = Arrays.binarySearch(offsets, 0, size + 1, (int) target);
+            if (idx < 0) {
+                idx = -idx - 1;
+            }
+            boundaries[p] = Math.max(boundaries[p - 1], Math.min(idx, size));
+        }
+
+        // some tasks change the values in place, so a failed partition must not be executed again
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        try {
+            Parallel.forLoop(0, numPartitions, new Consumer<Integer>() {
+
+                @Override
+                public void execute(Integer p) {
+                    try {
+                        task.execute(p, boundaries[p], boundaries[p + 1]);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            throw new RuntimeException("Parallel processing of the similarity matrix failed", e);
+        }
+        if (failure.get() != null) {
+            throw new RuntimeException("Parallel processing of the similarity matrix failed", failure.get());
+        }
+
+        return numPartitions;
+    }
+
+    /**
+     * Applies a function to all values of the matrix
+     */
+    private void transformValues(final ValueFunction function) {
+        compact();
+        forEachPartition(rowOffsets, numCompressedRows, new PartitionTask() {
+
+            @Override
+            public void execute(int partition, int fromRow, int toRow) {
+                for (int i = rowOffsets[fromRow]; i < rowOffsets[toRow]; i++) {
+                    values[i] = function.apply(values[i]);
+                }
+            }
+        });
+    }
+
+    private interface ValueFunction {
+        double apply(double value);
+    }
+
+    /**
+     * Calculates the sum of all values of each row (or column)
+     */
+    private double[] sum(final int[] offsets, final int[] positions, int size) {
+        final double[] sums = new double[size];
+        forEachPartition(offsets, size, new PartitionTask() {
+
+            @Override
+            public void execute(int partition, int from, int to) {
+                for (int r = from; r < to; r++) {
+                    double sum = 0.0;
+                    for (int i = offsets[r]; i < offsets[r + 1]; i++) {
+                        double value = values[positions == null ? i : positions[i]];
+                        // the values of the matches are summed, which do not include NaN
+                        if (value == value) {
+                            sum += value;
+                        }
+                    }
+                    sums[r] = sum;
+                }
+            }
+        });
+        return sums;
+    }
+
+    @Override
+    public Collection<T> getFirstDimension() {
+        return Collections.unmodifiableList(firstElements);
+    }
+
+    @Override
+    public Collection<T> getSecondDimension() {
+        return Collections.unmodifiableList(secondElements);
+    }
+
+    @Override
+    public Collection<T> getMatches(T first) {
+        return getMatchesAboveThreshold(first, Double.NEGATIVE_INFINITY);
+    }
+
+    @Override
+    public Collection<T> getMatchesAboveThreshold(T first, double similarityThreshold) {
+        Integer row = firstIds.get(first);
+
+        if (row == null) {
+            return new ArrayList<T>();
+        }
+
+        ArrayList<T> result = new ArrayList<T>();
+        if (row < numCompressedRows) {
+            for (int i = rowOffsets[row]; i < rowOffsets[row + 1]; i++) {
+                // removed values are NaN, so they are never above the threshold
+                if (values[i] > similarityThreshold) {
+                    result.add(secondElements.get(columns[i]));
+                }
+            }
+        }
+        for (int pos = bufferHeads[row] - 1; pos >= 0; pos = bufferNext[pos] - 1) {
+            if (bufferValues[pos] > similarityThreshold) {
+                result.add(secondElements.get(bufferColumns[pos]));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void normalize(final double normalizingFactor) {
+        transformValues(new ValueFunction() {
+
+            @Override
+            public double apply(double value) {
+                return value / normalizingFactor;
+            }
+        });
+    }
+
+    @Override
+    public void multiplyScalar(final double scalar) {
+        if (scalar == 1.0) {
+            return;
+        }
+        transformValues(new ValueFunction() {
+
+            @Override
+            public double apply(double value) {
+                return value * scalar;
+            }
+        });
+    }
+
+    @Override
+    public void makeStochastic() {
+        compact();
+        final double sum = getSum();
+        normalize(sum);
+    }
+
+    @Override
+    public void makeRowStochastic() {
+        compact();
+        final double[] sums = sum(rowOffsets, null, numCompressedRows);
+        forEachPartition(rowOffsets, numCompressedRows, new PartitionTask() {
+
+            @Override
+            public void execute(int partition, int fromRow, int toRow) {
+                for (int row = fromRow; row < toRow; row++) {
+                    for (int i = rowOffsets[row]; i < rowOffsets[row + 1]; i++) {
+                        values[i] /= sums[row];
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void makeColumnStochastic() {
+        compact();
+        createColumnIndex();
+        final int[] offsets = columnOffsets;
+        final int[] positions = columnPositions;
+        final double[] sums = sum(offsets, positions, secondElements.size());
+        forEachPartition(offsets, secondElements.size(), new PartitionTask() {
+
+            @Override
+            public void execute(int partition, int from, int to) {
+                for (int column = from; column < to; column++) {
+                    for (int i = offsets[column]; i < offsets[column + 1]; i++) {
+                        values[positions[i]] /= sums[column];
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void invert() {
+        transformValues(new ValueFunction() {
+
+            @Override
+            public double apply(double value) {
+                return value > 0.0 ? 1.0 / value : value;
+            }
+        });
+    }
+
+    @Override
+    public SimilarityMatrix<T> makeBinary(final double threshold) {
+        transformValues(new ValueFunction() {
+
+            @Override
+            public double apply(double value) {
+                // NaN values are not changed, as they are not returned by getMatches()
+                if (value != value) {
+                    return value;
+                } else {
+                    return value > threshold ? 1.0 : 0.0;
+                }
+            }
+        });
+        return this;
+    }
+
+    @Override
+    public Collection<Double> getRowSums() {
+        compact();
+        double[] sums = sum(rowOffsets, null, numCompressedRows);
+        ArrayList<Double> result = new ArrayList<>(sums.length);
+        for (double sum : sums) {
+            result.add(sum);
+        }
+        return result;
+    }
+
+    @Override
+    public Collection<Double> getColSums() {
+        compact();
+        createColumnIndex();
+        double[] sums = sum(columnOffsets, columnPositions, secondElements.size());
+        ArrayList<Double> result = new ArrayList<>(sums.length);
+        for (double sum : sums) {
+            result.add(sum);
+        }
+        return result;
+    }
+
+    @Override
+    public Double getSum() {
+        compact();
+        double sum = 0.0;
+        for (double rowSum : sum(rowOffsets, null, numCompressedRows)) {
+            sum += rowSum;
+        }
+        return sum;
+    }
+
+    @Override
+    public void prune(final double belowThreshold) {
+        transformValues(new ValueFunction() {
+
+            @Override
+            public double apply(double value) {
+                return value < belowThreshold ? REMOVED : value;
+            }
+        });
+        synchronized (this) {
+            // the number of removed values is not counted, but it must be positive to remove them
+            numRemoved = 1;
+        }
+        compact();
+    }
+
+    @Override
+    public int getNumberOfNonZeroElements() {
+        compact();
+        final int[] counts = new int[Math.max(1, Runtime.getRuntime().availableProcessors() * 10)];
+        forEachPartition(rowOffsets, numCompressedRows, new PartitionTask() {
+
+            @Override
+            public void execute(int partition, int fromRow, int toRow) {
+                int count = 0;
+                for (int i = rowOffsets[fromRow]; i < rowOffsets[toRow]; i++) {
+                    if (values[i] > 0.0) {
+                        count++;
+                    }
+                }
+                counts[partition] = count;
+            }
+        });
+        int count = 0;
+        for (int c : counts) {
+            count += c;
+        }
+        return count;
+    }
+
+    @Override
+    public Double getMaxValue() {
+        compact();
+        final double[] maxima = new double[Math.max(1, Runtime.getRuntime().availableProcessors() * 10)];
+        Arrays.fill(maxima, Double.NaN);
+        forEachPartition(rowOffsets, numCompressedRows, new PartitionTask() {
+
+            @Override
+            public void execute(int partition, int fromRow, int toRow) {
+                double max = Double.NaN;
+                for (int i = rowOffsets[fromRow]; i < rowOffsets[toRow]; i++) {
+                    if (values[i] > max || (max != max && values[i] == values[i])) {
+                        max = values[i];
+                    }
+                }
+                maxima[partition] = max;
+            }
+        });
+        Double max = null;
+        for (double m : maxima) {
+            if (m == m && (max == null || m > max)) {
+                max = m;
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public List<Triple<T, T, Double>> getPairsSortedDescending() {
+        compact();
+
+        // the positions of all values, except NaN, sorted by descending value
+        int[] positions = new int[values.length];
+        int numPositions = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == values[i]) {
+                positions[numPositions++] = i;
+            }
+        }
+        positions = Arrays.copyOf(positions, numPositions);
+        sortDescending(positions, new int[numPositions], 0, numPositions);
+
+        List<Triple<T, T, Double>> triples = new ArrayList<>(numPositions);
+        for (int i : positions) {
+            int row = findRow(i);
+            triples.add(new Triple<T, T, Double>(firstElements.get(row), secondElements.get(columns[i]), values[i]));
+        }
+        return triples;
+    }
+
+    private int findRow(int position) {
+        int idx = Arrays.binarySearch(rowOffsets, 0, numCompressedRows + 1, position);
+        if (idx < 0) {
+            return -idx - 2;
+        } else {
+            // skip empty rows
+            while (rowOffsets[idx + 1] == position) {
+                idx++;
+            }
+            return idx;
+        }
+    }
+
+    /**
+     * stable merge sort of positions by descending value
+     */
+    private void sortDescending(int[] positions, int[] buffer, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sortDescending(positions, buffer, from, mid);
+        sortDescending(positions, buffer, mid, to);
+        if (values[positions[mid - 1]] >= values[positions[mid]]) {
+            return;
+        }
+        System.arraycopy(positions, from, buffer, from, to - from);
+        int i = from;
+        int j = mid;
+        int k = from;
+        while (i < mid && j < to) {
+            if (values[buffer[j]] > values[buffer[i]]) {
+                positions[k++] = buffer[j++];
+            } else {
+                positions[k++] = buffer[i++];
+            }
+        }
+        while (i < mid) {
+            positions[k++] = buffer[i++];
+        }
+        while (j < to) {
+            positions[k++] = buffer[j++];
+        }
+    }
+
+    @Override
+    public SimilarityMatrix<T> copy() {
+        compact();
+
+        CSRSimilarityMatrix<T> m = new CSRSimilarityMatrix<>(firstElements.size(), secondElements.size());
+        m.firstIds = new HashMap<>(firstIds);
+        m.firstElements = new ArrayList<>(firstElements);
+        m.secondIds = new HashMap<>(secondIds);
+        m.secondElements = new ArrayList<>(secondElements);
+        m.numCompressedRows = numCompressedRows;
+        m.rowOffsets = rowOffsets.clone();
+        m.columns = columns.clone();
+        m.values = values.clone();
+        m.bufferHeads = new int[Math.max(16, firstElements.size())];
+
+        return m;
+    }
+
+    @Override
+    protected SimilarityMatrix<T> createEmptyCopy() {
+        return new CSRSimilarityMatrixFactory().createSimilarityMatrix(getFirstDimension().size(),
+                getSecondDimension().size());
+    }
+}
@@ -33,6 +33,16 @@ public interface FusibleDataSet<RecordType extends Matchable & Fusible<SchemaEle
 	 */
 	void addOriginalId(RecordType record, String id);
 
+	/**
+	 * Removes an original ID from its fused record. Required by {@link de.uni_mannheim.informatik.dws.winter.datafusion.DataFusionEngine#runIncremental}, the default implementation throws an {@link IllegalStateException}.
+	 * 
+	 * @param id	the id
+	 * @return Returns the fused record of the original ID or null if the ID is unknown
+	 */
+	default RecordType removeOriginalId(String id) {
+		throw new IllegalStateException(String.format("%s does not support removing original IDs", getClass().getName()));
+	}
+
 	/**
 	 * 
 	 * @return Returns the score of this dataset
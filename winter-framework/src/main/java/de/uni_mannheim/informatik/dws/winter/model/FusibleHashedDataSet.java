@@ -46,6 +46,11 @@ public class FusibleHashedDataSet<RecordType extends Matchable & Fusible<SchemaE
 		originalIdIndex.put(id, record);
 	}
 
+	@Override
+	public RecordType removeOriginalId(String id) {
+		return originalIdIndex.remove(id);
+	}
+
 	@Override
 	public RecordType getRecord(String identifier) {
 		RecordType record = super.getRecord(identifier);
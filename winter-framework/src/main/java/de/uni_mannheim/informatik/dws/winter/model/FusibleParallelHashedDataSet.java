@@ -47,6 +47,11 @@ public class FusibleParallelHashedDataSet<RecordType extends Matchable & Fusible
 		originalIdIndex.put(id, record);
 	}
 
+	@Override
+	public RecordType removeOriginalId(String id) {
+		return originalIdIndex.remove(id);
+	}
+
 	@Override
 	public RecordType getRecord(String identifier) {
 		RecordType record = super.getRecord(identifier);
@@ -16,33 +16,38 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Serializable;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 
 import au.com.bytecode.opencsv.CSVReader;
 import au.com.bytecode.opencsv.CSVWriter;
+import de.uni_mannheim.informatik.dws.winter.utils.Interner;
+import de.uni_mannheim.informatik.dws.winter.utils.LongHashSet;
 import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
 //import de.uni_mannheim.informatik.dws.winter.utils.LogUtil;
 
 /**
  * Class representing a gold standard data.
  * 
+ * The record ids of all examples are interned to ints and the examples are indexed as pairs of ints packed into a long,
+ * so a lookup does not create any objects.
+ * Concurrent lookups are safe as long as no examples are added or removed.
+ * 
  * @author Oliver Lehmberg (oli@dwslab.de)
  * 
  */
 public class MatchingGoldStandard implements Serializable{
 
-	private static final long serialVersionUID = 1L;
+	private static final long serialVersionUID = 2L;
 	private List<Pair<String, String>> positiveExamples;
 	private List<Pair<String, String>> negativeExamples;
-	private Set<String> canonicalPositiveExamples;
-	private Set<String> canonicalNegativeExamples;
+	private Interner<String> ids;
+	private LongHashSet canonicalPositiveExamples;
+	private LongHashSet canonicalNegativeExamples;
 	private boolean isComplete = false;
 	private static final Logger logger = WinterLogManager.getLogger();
 	
@@ -69,8 +74,8 @@ public class MatchingGoldStandard implements Serializable{
 	 */
 	public void addPositiveExample(Pair<String, String> example) {
 		positiveExamples.add(example);
-		canonicalPositiveExamples.add(getCanonicalExample(example.getFirst(),
-				example.getSecond()));
+		canonicalPositiveExamples.add(getCanonicalExample(ids.getId(example.getFirst()),
+				ids.getId(example.getSecond())));
 	}
 
 	/**
@@ -80,8 +85,8 @@ public class MatchingGoldStandard implements Serializable{
 	 */
 	public void addNegativeExample(Pair<String, String> example) {
 		negativeExamples.add(example);
-		canonicalNegativeExamples.add(getCanonicalExample(example.getFirst(),
-				example.getSecond()));
+		canonicalNegativeExamples.add(getCanonicalExample(ids.getId(example.getFirst()),
+				ids.getId(example.getSecond())));
 	}
 
 	/**
@@ -92,9 +97,7 @@ public class MatchingGoldStandard implements Serializable{
 	 * @return true if the gold standard contains the combination as positive example
 	 */
 	public boolean containsPositive(String id1, String id2) {
-		String c = getCanonicalExample(id1, id2);
-
-		return canonicalPositiveExamples.contains(c);
+		return contains(canonicalPositiveExamples, id1, id2);
 	}
 
 	/**
@@ -108,9 +111,7 @@ public class MatchingGoldStandard implements Serializable{
 	 * @return true if the gold standard contains the combination as positive example
 	 */
 	public boolean containsPositive(Matchable record1, Matchable record2) {
-		String c = getCanonicalExample(record1, record2);
-
-		return canonicalPositiveExamples.contains(c);
+		return contains(canonicalPositiveExamples, record1.getIdentifier(), record2.getIdentifier());
 	}
 
 	/**
@@ -122,9 +123,7 @@ public class MatchingGoldStandard implements Serializable{
 	 * @return true if the gold standard contains the combination as negative example
 	 */
 	public boolean containsNegative(String id1, String id2) {
-		String c = getCanonicalExample(id1, id2);
-
-		return canonicalNegativeExamples.contains(c);
+		return contains(canonicalNegativeExamples, id1, id2);
 	}
 
 	/**
@@ -138,9 +137,7 @@ public class MatchingGoldStandard implements Serializable{
 	 * @return true if the gold standard contains the combination as negative example
 	 */
 	public boolean containsNegative(Matchable record1, Matchable record2) {
-		String c = getCanonicalExample(record1, record2);
-
-		return canonicalNegativeExamples.contains(c);
+		return contains(canonicalNegativeExamples, record1.getIdentifier(), record2.getIdentifier());
 	}
 
 
@@ -167,8 +164,9 @@ public class MatchingGoldStandard implements Serializable{
 	public MatchingGoldStandard() {
 		positiveExamples = new LinkedList<>();
 		negativeExamples = new LinkedList<>();
-		canonicalPositiveExamples = new HashSet<>();
-		canonicalNegativeExamples = new HashSet<>();
+		ids = new Interner<>();
+		canonicalPositiveExamples = new LongHashSet();
+		canonicalNegativeExamples = new LongHashSet();
 	}
 
 	/**
@@ -289,11 +287,16 @@ public class MatchingGoldStandard implements Serializable{
 		}
 
 		// check if any example was labeled as positive and negative
-		HashSet<String> allExamples = new HashSet<>();
-		allExamples.addAll(canonicalPositiveExamples);
-		allExamples.addAll(canonicalNegativeExamples);
+		boolean hasConflict = false;
+		for (Pair<String, String> example : getNegativeExamples()) {
+			if (containsNegative(example.getFirst(), example.getSecond())
+					&& containsPositive(example.getFirst(), example.getSecond())) {
+				hasConflict = true;
+				break;
+			}
+		}
 
-		if (allExamples.size() != (canonicalPositiveExamples.size() + canonicalNegativeExamples.size())) {
+		if (hasConflict) {
 			logger.warn("The gold standard contains an example that is both labelled as positive and negative!");
 		}
 
@@ -311,32 +314,28 @@ public class MatchingGoldStandard implements Serializable{
 		}
 	}
 
-	private String getCanonicalExample(String id1, String id2) {
-		String first, second;
-
-		if (id1.compareTo(id2) <= 0) {
-			first = id1;
-			second = id2;
-		} else {
-			first = id2;
-			second = id1;
+	private boolean contains(LongHashSet canonicalExamples, String id1, String id2) {
+		int first = ids.findId(id1);
+		if (first == -1) {
+			return false;
+		}
+		int second = ids.findId(id2);
+		if (second == -1) {
+			return false;
 		}
 
-		return first + "|" + second;
+		return canonicalExamples.contains(getCanonicalExample(first, second));
 	}
 
-	private String getCanonicalExample(Matchable record1, Matchable record2) {
-		String first, second;
-
-		if (record1.getIdentifier().compareTo(record2.getIdentifier()) <= 0) {
-			first = record1.getIdentifier();
-			second = record2.getIdentifier();
+	/**
+	 * The examples are undirected, so the smaller id is always stored in the upper half of the long
+	 */
+	private long getCanonicalExample(int id1, int id2) {
+		if (id1 <= id2) {
+			return ((long) id1 << 32) | id2;
 		} else {
-			first = record2.getIdentifier();
-			second = record1.getIdentifier();
+			return ((long) id2 << 32) | id1;
 		}
-
-		return first + "|" + second;
 	}
 	
 	/**
@@ -352,7 +351,7 @@ public class MatchingGoldStandard implements Serializable{
 			if(records.getRecord(example.getFirst())==null && records.getRecord(example.getSecond())==null) {
 				it.remove();
 				
-				canonicalPositiveExamples.remove(getCanonicalExample(example.getFirst(), example.getSecond()));
+				canonicalPositiveExamples.remove(getCanonicalExample(ids.getId(example.getFirst()), ids.getId(example.getSecond())));
 			}
 		}
 		it = negativeExamples.iterator();
@@ -361,7 +360,7 @@ public class MatchingGoldStandard implements Serializable{
 			if(records.getRecord(example.getFirst())==null && records.getRecord(example.getSecond())==null) {
 				it.remove();
 				
-				canonicalNegativeExamples.remove(getCanonicalExample(example.getFirst(), example.getSecond()));
+				canonicalNegativeExamples.remove(getCanonicalExample(ids.getId(example.getFirst()), ids.getId(example.getSecond())));
 			}
 		}
 	}
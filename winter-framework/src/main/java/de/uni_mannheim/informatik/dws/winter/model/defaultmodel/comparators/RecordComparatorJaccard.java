@@ -13,6 +13,7 @@ package de.uni_mannheim.informatik.dws.winter.model.defaultmodel.comparators;
 
 import de.uni_mannheim.informatik.dws.winter.matching.rules.comparators.Comparator;
 import de.uni_mannheim.informatik.dws.winter.matching.rules.comparators.ComparatorLogger;
+import de.uni_mannheim.informatik.dws.winter.matching.rules.comparators.ValueFeatures;
 import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
 import de.uni_mannheim.informatik.dws.winter.model.Matchable;
 import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
@@ -61,17 +62,32 @@ public class RecordComparatorJaccard extends StringComparator {
 			return 0.0;
 		}
 
-		s1 = preprocess(s1);
-		s2 = preprocess(s2);
-
-		if (this.comparisonLog != null) {
-			this.comparisonLog.setRecord1PreprocessedValue(s1);
-			this.comparisonLog.setRecord2PreprocessedValue(s2);
+		double similarity;
+		if (useFeatureCache()) {
+			// use the tokens from the cache
+			ValueFeatures f1 = getFeatureCache().getFeatures(record1, this.getAttributeRecord1(), s1);
+			ValueFeatures f2 = getFeatureCache().getFeatures(record2, this.getAttributeRecord2(), s2);
+
+			if (this.comparisonLog != null) {
+				this.comparisonLog.setRecord1PreprocessedValue(isLowerCase() ? f1.getLowerCaseValue() : s1);
+				this.comparisonLog.setRecord2PreprocessedValue(isLowerCase() ? f2.getLowerCaseValue() : s2);
+			}
+
+			// calculate similarity
+			similarity = sim.calculate(f1.getTokenIds(), f2.getTokenIds());
+		} else {
+			s1 = preprocess(s1);
+			s2 = preprocess(s2);
+
+			if (this.comparisonLog != null) {
+				this.comparisonLog.setRecord1PreprocessedValue(s1);
+				this.comparisonLog.setRecord2PreprocessedValue(s2);
+			}
+
+			// calculate similarity
+			similarity = sim.calculate(s1, s2);
 		}
 
-		// calculate similarity
-		double similarity = sim.calculate(s1, s2);
-
 		if (this.comparisonLog != null) {
 			this.comparisonLog.setSimilarity(Double.toString(similarity));
 		}
@@ -11,6 +11,7 @@
  */
 package de.uni_mannheim.informatik.dws.winter.model.defaultmodel.comparators;
 
+import de.uni_mannheim.informatik.dws.winter.matching.rules.comparators.ValueFeatureCache;
 import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
 
 /**
@@ -30,6 +31,7 @@ public abstract class StringComparator extends RecordComparator {
 	private static final long serialVersionUID = 1L;
 	private boolean removeBrackets = false;
 	private boolean lowerCase = false;
+	private ValueFeatureCache featureCache;
 	
 	
 	
@@ -55,6 +57,25 @@ public abstract class StringComparator extends RecordComparator {
 		this.lowerCase = lowerCase;
 	}
 
+	@Override
+	public ValueFeatureCache getFeatureCache() {
+		return featureCache;
+	}
+
+	@Override
+	public void setFeatureCache(ValueFeatureCache featureCache) {
+		this.featureCache = featureCache;
+	}
+
+	/**
+	 * @return true, if the features from the cache can be used instead of the
+	 *         pre-processed values. The tokens of the features ignore case, so
+	 *         this is only prevented by removing brackets.
+	 */
+	protected boolean useFeatureCache() {
+		return featureCache != null && !removeBrackets;
+	}
+
 	protected String preprocess(String s) {
 		
 		if(s==null) {
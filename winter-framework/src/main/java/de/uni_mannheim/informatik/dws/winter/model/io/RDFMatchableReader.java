@@ -14,10 +14,12 @@ package de.uni_mannheim.informatik.dws.winter.model.io;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
+import org.apache.jena.graph.Node;
 import org.apache.jena.query.Query;
 import org.apache.jena.query.QueryExecution;
 import org.apache.jena.query.QueryExecutionFactory;
@@ -29,6 +31,7 @@ import org.apache.jena.rdf.model.ModelFactory;
 
 import de.uni_mannheim.informatik.dws.winter.model.DataSet;
 import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Consumer;
 
 /**
  * @author Oliver Lehmberg (oli@dwslab.de)
@@ -36,6 +39,24 @@ import de.uni_mannheim.informatik.dws.winter.model.Matchable;
  */
 public abstract class RDFMatchableReader<RecordType extends Matchable, SchemaElementType extends Matchable> {
 
+	private int maxBufferedTriples = 1000000;
+
+	/**
+	 * @return the maxBufferedTriples
+	 */
+	public int getMaxBufferedTriples() {
+		return maxBufferedTriples;
+	}
+
+	/**
+	 * Specifies how many triples are kept in memory by {@link #loadFromRDFStream(File, Map, String, boolean, DataSet)} before they are written to a temporary file.
+	 * 
+	 * @param maxBufferedTriples the maxBufferedTriples to set
+	 */
+	public void setMaxBufferedTriples(int maxBufferedTriples) {
+		this.maxBufferedTriples = maxBufferedTriples;
+	}
+
 	public void loadFromRDF(File file, String sparqlQuery, DataSet<RecordType, SchemaElementType> dataset) throws IOException {
 		
 
@@ -85,6 +106,51 @@ public abstract class RDFMatchableReader<RecordType extends Matchable, SchemaEle
 		}
 	}
 	
+	/**
+	 * Loads the values of the specified properties for all subjects in the RDF file without loading the file into memory.
+	 * The first attribute is the URI of the subject, the remaining attributes are the keys of properties (in iteration order).
+	 * If a subject has multiple values for a property, the first value is used. Missing values are empty strings.
+	 * 
+	 * Use {@link #loadFromRDF(File, String, DataSet)} for queries that cannot be expressed as a selection of properties per subject.
+	 * 
+	 * @param file				the RDF file, the syntax is determined by the file extension
+	 * @param properties		maps attribute names to property URIs
+	 * @param typeURI			if not null, only subjects with this rdf:type are loaded
+	 * @param groupedBySubject	specifies whether all triples of a subject are consecutive in the file
+	 * @param dataset
+	 * @throws IOException
+	 */
+	public void loadFromRDFStream(final File file, Map<String, String> properties, String typeURI, boolean groupedBySubject, final DataSet<RecordType, SchemaElementType> dataset) throws IOException {
+		
+		// add attribute names
+		final String[] header = new String[properties.size() + 1];
+		header[0] = "URI";
+		int i = 1;
+		for(String attribute : properties.keySet()) {
+			header[i++] = attribute;
+		}
+		readLine(file, 0, header, dataset);
+
+		final Model model = SubjectGroupingStreamRDF.createFormattingModel();
+
+		SubjectGroupingStreamRDF stream = new SubjectGroupingStreamRDF(new ArrayList<>(properties.values()), typeURI, new Consumer<Node[]>() {
+
+			private int rowNumber = 1;
+
+			@Override
+			public void execute(Node[] row) {
+				String[] values = new String[row.length];
+				for(int i = 0; i < row.length; i++) {
+					values[i] = row[i] == null ? "" : SubjectGroupingStreamRDF.format(row[i], model);
+				}
+				readLine(file, rowNumber++, values, dataset);
+			}
+		});
+		stream.setGroupedBySubject(groupedBySubject);
+		stream.setMaxBufferedTriples(maxBufferedTriples);
+		stream.parse(file);
+	}
+
 	protected abstract void readLine(File file, int rowNumber, String[] values, DataSet<RecordType, SchemaElementType> dataset);
 	
 }
@@ -0,0 +1,545 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.model.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.out.NodeFmtLib;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.sparql.util.NodeFactoryExtra;
+import org.apache.jena.vocabulary.RDF;
+
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Consumer;
+
+/**
+ *
+ * A stream parser for RDF documents, which groups the triples by their subject and emits one row per subject.
+ * A row contains the subject (at index 0) and the first value of each of the selected properties (at index i+1 for the i-th property).
+ *
+ * In contrast to loading the document into a {@link Model} and executing a SPARQL query, the document is never completely loaded into memory:
+ *
+ * If the document is grouped by subject (i.e., all triples of a subject are consecutive, as is the case for most N-Triples dumps), a row is emitted as soon as the subject changes.
+ * Otherwise, at most maxBufferedTriples triples are kept in memory. If more triples are selected, they are sorted by subject and written to temporary files, which are merged when the end of the document is reached.
+ * If a temporary file cannot be written or read, parsing fails with an {@link UncheckedIOException}.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class SubjectGroupingStreamRDF extends StreamRDFBase {
+
+	private static final int TYPE_INDEX = -1;
+
+	private final String[] properties;
+	private final Map<String, Integer> propertyIndices;
+	private final String typeURI;
+	private final Consumer<Node[]> consumer;
+
+	private boolean groupedBySubject = false;
+	private int maxBufferedTriples = 1000000;
+	private File temporaryDirectory = null;
+
+	// state for documents that are grouped by subject
+	private Node currentSubject = null;
+	private Node[] currentRow = null;
+	private boolean currentHasType = false;
+
+	// state for documents that are not grouped by subject
+	private List<BufferedTriple> buffer = new ArrayList<>();
+	private List<File> runs = new LinkedList<>();
+
+	private static class BufferedTriple {
+		String subject;
+		int property;
+		Node value;
+
+		public BufferedTriple(String subject, int property, Node value) {
+			this.subject = subject;
+			this.property = property;
+			this.value = value;
+		}
+	}
+
+	/**
+	 * @param properties
+	 *            the URIs of the properties which are extracted
+	 * @param typeURI
+	 *            if not null, only subjects with rdf:type typeURI are emitted
+	 * @param consumer
+	 *            receives the rows
+	 */
+	public SubjectGroupingStreamRDF(List<String> properties, String typeURI, Consumer<Node[]> consumer) {
+		this.properties = properties.toArray(new String[properties.size()]);
+		this.propertyIndices = new HashMap<>();
+		for (int i = 0; i < this.properties.length; i++) {
+			propertyIndices.put(this.properties[i], i);
+		}
+		this.typeURI = typeURI;
+		this.consumer = consumer;
+	}
+
+	/**
+	 * @return the groupedBySubject
+	 */
+	public boolean isGroupedBySubject() {
+		return groupedBySubject;
+	}
+
+	/**
+	 * Specifies whether all triples of a subject are consecutive in the document. If true, rows are emitted as soon as the subject changes and no triples are buffered.
+	 *
+	 * @param groupedBySubject
+	 *            the groupedBySubject to set
+	 */
+	public void setGroupedBySubject(boolean groupedBySubject) {
+		this.groupedBySubject = groupedBySubject;
+	}
+
+	/**
+	 * @return the maxBufferedTriples
+	 */
+	public int getMaxBufferedTriples() {
+		return maxBufferedTriples;
+	}
+
+	/**
+	 * Specifies how many triples are kept in memory before they are written to a temporary file (only used if the document is not grouped by subject)
+	 *
+	 * @param maxBufferedTriples
+	 *            the maxBufferedTriples to set
+	 */
+	public void setMaxBufferedTriples(int maxBufferedTriples) {
+		this.maxBufferedTriples = maxBufferedTriples;
+	}
+
+	/**
+	 * @param temporaryDirectory
+	 *            the directory for the temporary files (if null, the system's default temporary directory is used)
+	 */
+	public void setTemporaryDirectory(File temporaryDirectory) {
+		this.temporaryDirectory = temporaryDirectory;
+	}
+
+	/**
+	 * @return the URIs of the extracted properties
+	 */
+	public String[] getProperties() {
+		return properties;
+	}
+
+	/**
+	 * Parses the provided file and emits all rows. The syntax is determined by the file extension (files ending with .gz are decompressed), RDF/XML is used if the extension is unknown.
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	public void parse(File file) throws IOException {
+		String name = file.getName();
+		InputStream in = new FileInputStream(file);
+		if (name.endsWith(".gz")) {
+			in = new GZIPInputStream(in);
+			name = name.substring(0, name.length() - 3);
+		}
+		try {
+			RDFDataMgr.parse(this, in, RDFLanguages.filenameToLang(name, Lang.RDFXML));
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Parses the provided reader and emits all rows. The syntax is determined by the file name (files ending with .gz must be decompressed by the reader), RDF/XML is used if the extension is unknown.
+	 *
+	 * @param reader
+	 * @param fileName
+	 */
+	public void parse(Reader reader, String fileName) {
+		if (fileName.endsWith(".gz")) {
+			fileName = fileName.substring(0, fileName.length() - 3);
+		}
+		// the parser reads UTF-8 from input streams, parsing from a reader is deprecated
+		RDFDataMgr.parse(this, new ReaderInputStream(reader), RDFLanguages.filenameToLang(fileName, Lang.RDFXML));
+	}
+
+	/**
+	 * Encodes the characters of a reader as UTF-8
+	 */
+	private static class ReaderInputStream extends InputStream {
+
+		private final Reader reader;
+		private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+				.onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		private final CharBuffer chars = CharBuffer.allocate(8192);
+		private final ByteBuffer bytes = ByteBuffer.allocate(8192 * 3);
+		private boolean endOfInput = false;
+		private boolean flushed = false;
+
+		public ReaderInputStream(Reader reader) {
+			this.reader = reader;
+			chars.flip();
+			bytes.flip();
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			while (!bytes.hasRemaining()) {
+				if (flushed) {
+					return -1;
+				}
+				encode();
+			}
+			int n = Math.min(len, bytes.remaining());
+			bytes.get(b, off, n);
+			return n;
+		}
+
+		private void encode() throws IOException {
+			// keep characters that could not be encoded yet (i.e., the first half of a surrogate pair)
+			chars.compact();
+			if (!endOfInput && reader.read(chars) == -1) {
+				endOfInput = true;
+			}
+			chars.flip();
+
+			bytes.clear();
+			encoder.encode(chars, bytes, endOfInput);
+			if (endOfInput) {
+				encoder.flush(bytes);
+				flushed = true;
+			}
+			bytes.flip();
+		}
+
+		@Override
+		public void close() throws IOException {
+			reader.close();
+		}
+	}
+
+	/**
+	 * converts a node into a string in the same format as the values of a SPARQL result
+	 */
+	public static String format(Node node, Model model) {
+		if (node == null) {
+			return null;
+		} else {
+			RDFNode rdfNode = model.asRDFNode(node);
+			return rdfNode.toString();
+		}
+	}
+
+	/**
+	 * @return a model that can be used to format the emitted nodes with {@link #format(Node, Model)}
+	 */
+	public static Model createFormattingModel() {
+		return ModelFactory.createDefaultModel();
+	}
+
+	@Override
+	public void start() {
+		currentSubject = null;
+		currentRow = null;
+		currentHasType = false;
+		buffer.clear();
+		runs.clear();
+	}
+
+	@Override
+	public void triple(Triple triple) {
+		Node predicate = triple.getPredicate();
+		Node object = triple.getObject();
+
+		boolean isType = typeURI != null && RDF.type.asNode().equals(predicate) && object.isURI() && typeURI.equals(object.getURI());
+		Integer property = predicate.isURI() ? propertyIndices.get(predicate.getURI()) : null;
+
+		if (!isType && property == null) {
+			return;
+		}
+
+		if (groupedBySubject) {
+			if (!triple.getSubject().equals(currentSubject)) {
+				emitCurrentRow();
+				currentSubject = triple.getSubject();
+				currentRow = new Node[properties.length + 1];
+				currentRow[0] = currentSubject;
+				currentHasType = false;
+			}
+			if (isType) {
+				currentHasType = true;
+			}
+			if (property != null && currentRow[property + 1] == null) {
+				currentRow[property + 1] = object;
+			}
+		} else {
+			String subject = NodeFmtLib.str(triple.getSubject());
+			if (isType) {
+				buffer.add(new BufferedTriple(subject, TYPE_INDEX, null));
+			}
+			if (property != null) {
+				buffer.add(new BufferedTriple(subject, property, object));
+			}
+			if (buffer.size() >= maxBufferedTriples) {
+				spill();
+			}
+		}
+	}
+
+	@Override
+	public void finish() {
+		if (groupedBySubject) {
+			emitCurrentRow();
+		} else if (runs.size() == 0) {
+			sortBuffer();
+			emitSorted(buffer);
+			buffer.clear();
+		} else {
+			spill();
+			mergeRuns();
+		}
+	}
+
+	private void emitCurrentRow() {
+		if (currentRow != null) {
+			emit(currentRow, currentHasType);
+		}
+		currentRow = null;
+	}
+
+	private void emit(Node[] row, boolean hasType) {
+		if (typeURI == null) {
+			// only emit subjects with at least one of the selected properties
+			for (int i = 1; i < row.length; i++) {
+				if (row[i] != null) {
+					consumer.execute(row);
+					return;
+				}
+			}
+		} else if (hasType) {
+			consumer.execute(row);
+		}
+	}
+
+	private void sortBuffer() {
+		// the sort is stable, so the values of each subject remain in the order of the document
+		Collections.sort(buffer, new Comparator<BufferedTriple>() {
+
+			@Override
+			public int compare(BufferedTriple o1, BufferedTriple o2) {
+				return o1.subject.compareTo(o2.subject);
+			}
+		});
+	}
+
+	private void emitSorted(List<BufferedTriple> sorted) {
+		String subject = null;
+		Node[] row = null;
+		boolean hasType = false;
+		for (BufferedTriple t : sorted) {
+			if (!t.subject.equals(subject)) {
+				if (row != null) {
+					emit(row, hasType);
+				}
+				subject = t.subject;
+				row = new Node[properties.length + 1];
+				row[0] = NodeFactoryExtra.parseNode(subject);
+				hasType = false;
+			}
+			add(row, t);
+			if (t.property == TYPE_INDEX) {
+				hasType = true;
+			}
+		}
+		if (row != null) {
+			emit(row, hasType);
+		}
+	}
+
+	private void add(Node[] row, BufferedTriple t) {
+		if (t.property != TYPE_INDEX && row[t.property + 1] == null) {
+			row[t.property + 1] = t.value;
+		}
+	}
+
+	/**
+	 * sorts the buffered triples by subject and writes them to a temporary file
+	 *
+	 * @throws UncheckedIOException
+	 *             if the file cannot be written, the triples remain in the buffer in this case
+	 */
+	private void spill() {
+		sortBuffer();
+		File run = null;
+		try {
+			run = File.createTempFile("winter_rdf_run", ".tsv", temporaryDirectory);
+			run.deleteOnExit();
+			try (BufferedWriter w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(run), "UTF-8"))) {
+				for (BufferedTriple t : buffer) {
+					// N-Triples syntax escapes tabs and line breaks, so they can be used as separators
+					w.write(t.subject);
+					w.write('\t');
+					w.write(Integer.toString(t.property));
+					w.write('\t');
+					if (t.value != null) {
+						w.write(NodeFmtLib.str(t.value));
+					}
+					w.write('\n');
+				}
+			}
+		} catch (IOException e) {
+			if (run != null) {
+				run.delete();
+			}
+			throw new UncheckedIOException("Could not write buffered triples to a temporary file", e);
+		}
+		runs.add(run);
+		buffer.clear();
+	}
+
+	private static class RunReader {
+		int runIndex;
+		BufferedReader reader;
+		BufferedTriple current;
+
+		public RunReader(int runIndex, File run) throws IOException {
+			this.runIndex = runIndex;
+			this.reader = new BufferedReader(new InputStreamReader(new FileInputStream(run), "UTF-8"));
+		}
+
+		public boolean next() throws IOException {
+			String line = reader.readLine();
+			if (line == null) {
+				reader.close();
+				current = null;
+				return false;
+			} else {
+				String[] parts = line.split("\t", 3);
+				int property = Integer.parseInt(parts[1]);
+				current = new BufferedTriple(parts[0], property, property == TYPE_INDEX ? null : NodeFactoryExtra.parseNode(parts[2]));
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * merges the sorted temporary files and emits the rows
+	 */
+	private void mergeRuns() {
+		// for equal subjects, the run which was written first contains the triples that occurred first in the document
+		PriorityQueue<RunReader> queue = new PriorityQueue<>(Math.max(1, runs.size()), new Comparator<RunReader>() {
+
+			@Override
+			public int compare(RunReader o1, RunReader o2) {
+				int result = o1.current.subject.compareTo(o2.current.subject);
+				if (result == 0) {
+					result = Integer.compare(o1.runIndex, o2.runIndex);
+				}
+				return result;
+			}
+		});
+
+		List<RunReader> readers = new ArrayList<>(runs.size());
+		try {
+			int runIndex = 0;
+			for (File run : runs) {
+				RunReader reader = new RunReader(runIndex++, run);
+				readers.add(reader);
+				if (reader.next()) {
+					queue.add(reader);
+				}
+			}
+
+			String subject = null;
+			Node[] row = null;
+			boolean hasType = false;
+			while (!queue.isEmpty()) {
+				RunReader reader = queue.poll();
+				BufferedTriple t = reader.current;
+
+				if (!t.subject.equals(subject)) {
+					if (row != null) {
+						emit(row, hasType);
+					}
+					subject = t.subject;
+					row = new Node[properties.length + 1];
+					row[0] = NodeFactoryExtra.parseNode(subject);
+					hasType = false;
+				}
+				add(row, t);
+				if (t.property == TYPE_INDEX) {
+					hasType = true;
+				}
+
+				if (reader.next()) {
+					queue.add(reader);
+				}
+			}
+			if (row != null) {
+				emit(row, hasType);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not read buffered triples from a temporary file", e);
+		} finally {
+			for (RunReader reader : readers) {
+				try {
+					reader.reader.close();
+				} catch (IOException e) {
+					// the file is deleted anyway
+				}
+			}
+			for (File run : runs) {
+				run.delete();
+			}
+			runs.clear();
+		}
+	}
+
+}
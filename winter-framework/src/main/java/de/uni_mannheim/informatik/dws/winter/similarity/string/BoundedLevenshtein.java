@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.similarity.string;
+
+import java.util.Arrays;
+
+/**
+ * Calculates the Levenshtein edit distance between two strings, optionally
+ * bounded by a maximum distance. Characters are compared case-insensitively
+ * (by {@link Character#toLowerCase(char)}), which is the behaviour of
+ * secondstring's Levenstein.
+ *
+ * If the shorter string (after removing the common prefix and suffix) has at
+ * most 64 characters, the bit-parallel algorithm of Myers (in the formulation
+ * of Hyyrö) is used, otherwise a dynamic programme that is restricted to a
+ * band of width maxDistance around the diagonal. Both stop as soon as the
+ * result is known to exceed maxDistance.
+ *
+ * Instances re-use their buffers and are not thread-safe.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public final class BoundedLevenshtein {
+
+	private static final int INFINITY = Integer.MAX_VALUE / 2;
+
+	private static final ThreadLocal<BoundedLevenshtein> instances = new ThreadLocal<BoundedLevenshtein>() {
+		protected BoundedLevenshtein initialValue() {
+			return new BoundedLevenshtein();
+		}
+	};
+
+	/**
+	 * @return an instance that is exclusively used by the calling thread
+	 */
+	public static BoundedLevenshtein getInstance() {
+		return instances.get();
+	}
+
+	private char[] first = new char[64];
+	private char[] second = new char[64];
+	private int[] previousRow = new int[65];
+	private int[] currentRow = new int[65];
+
+	// pattern bit vectors for the bit-parallel algorithm (open addressing, the
+	// stamps avoid clearing the table for every pattern)
+	private final char[] peqKeys = new char[128];
+	private final long[] peqValues = new long[128];
+	private final int[] peqStamps = new int[128];
+	private int peqStamp = 0;
+
+	/**
+	 * Calculates the edit distance between first and second
+	 *
+	 * @param first
+	 *            the first string (must not be null)
+	 * @param second
+	 *            the second string (must not be null)
+	 * @return the edit distance
+	 */
+	public int distance(String first, String second) {
+		return distance(first, second, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Calculates the edit distance between first and second if it is at most
+	 * maxDistance.
+	 *
+	 * @param first
+	 *            the first string (must not be null)
+	 * @param second
+	 *            the second string (must not be null)
+	 * @param maxDistance
+	 *            the maximum distance of interest
+	 * @return the edit distance, or maxDistance + 1 if it is larger than
+	 *         maxDistance
+	 */
+	public int distance(String first, String second, int maxDistance) {
+		// make first the shorter string
+		if (first.length() > second.length()) {
+			String tmp = first;
+			first = second;
+			second = tmp;
+		}
+
+		int m = first.length();
+		int n = second.length();
+		int exceeded = maxDistance == Integer.MAX_VALUE ? maxDistance : maxDistance + 1;
+
+		if (n - m > maxDistance) {
+			return exceeded;
+		}
+
+		char[] a = this.first = lowerCase(first, this.first);
+		char[] b = this.second = lowerCase(second, this.second);
+
+		// the common prefix and suffix do not change the distance
+		int start = 0;
+		while (start < m && a[start] == b[start]) {
+			start++;
+		}
+		while (m > start && a[m - 1] == b[n - 1]) {
+			m--;
+			n--;
+		}
+		m -= start;
+		n -= start;
+
+		int d;
+		if (m == 0) {
+			d = n;
+		} else if (m <= 64) {
+			d = bitParallel(a, b, start, m, n, maxDistance);
+		} else {
+			d = banded(a, b, start, m, n, Math.min(maxDistance, n));
+		}
+
+		return d > maxDistance ? exceeded : d;
+	}
+
+	private char[] lowerCase(String s, char[] buffer) {
+		if (buffer.length < s.length()) {
+			buffer = new char[Math.max(s.length(), buffer.length * 2)];
+		}
+		for (int i = 0; i < s.length(); i++) {
+			buffer[i] = Character.toLowerCase(s.charAt(i));
+		}
+		return buffer;
+	}
+
+	/**
+	 * Myers' bit-parallel algorithm, a[start..start+m) is the pattern with m
+	 * &lt;= 64, b[start..start+n) is the text with n &gt;= m.
+	 */
+	private int bitParallel(char[] a, char[] b, int start, int m, int n, int maxDistance) {
+		peqStamp++;
+		if (peqStamp == 0) {
+			// the stamps overflowed, clear the table
+			Arrays.fill(peqStamps, 0);
+			peqStamp = 1;
+		}
+		for (int i = 0; i < m; i++) {
+			int slot = findSlot(a[start + i]);
+			if (peqStamps[slot] != peqStamp) {
+				peqStamps[slot] = peqStamp;
+				peqKeys[slot] = a[start + i];
+				peqValues[slot] = 0L;
+			}
+			peqValues[slot] |= 1L << i;
+		}
+
+		long last = 1L << (m - 1);
+		long pv = -1L;
+		long mv = 0L;
+		int score = m;
+
+		for (int j = 0; j < n; j++) {
+			int slot = findSlot(b[start + j]);
+			long eq = peqStamps[slot] == peqStamp ? peqValues[slot] : 0L;
+
+			long xv = eq | mv;
+			long xh = (((eq & pv) + pv) ^ pv) | eq;
+			long ph = mv | ~(xh | pv);
+			long mh = pv & xh;
+
+			if ((ph & last) != 0) {
+				score++;
+			} else if ((mh & last) != 0) {
+				score--;
+			}
+
+			// each remaining character of the text can reduce the score by at
+			// most one
+			if (score - (n - j - 1) > maxDistance) {
+				return maxDistance + 1;
+			}
+
+			ph = (ph << 1) | 1L;
+			mh <<= 1;
+			pv = mh | ~(xv | ph);
+			mv = ph & xv;
+		}
+
+		return score;
+	}
+
+	private int findSlot(char c) {
+		int slot = (c * 0x9E3779B1) >>> 25;
+		while (peqStamps[slot] == peqStamp && peqKeys[slot] != c) {
+			slot = (slot + 1) & 127;
+		}
+		return slot;
+	}
+
+	/**
+	 * Dynamic programme restricted to the cells with |i - j| &lt;= k,
+	 * a[start..start+m) and b[start..start+n) with n &gt;= m.
+	 */
+	private int banded(char[] a, char[] b, int start, int m, int n, int k) {
+		if (previousRow.length < n + 2) {
+			previousRow = new int[n + 2];
+			currentRow = new int[n + 2];
+		}
+		int[] previous = previousRow;
+		int[] current = currentRow;
+
+		int hi = Math.min(n, k);
+		for (int j = 0; j <= hi; j++) {
+			previous[j] = j;
+		}
+		if (hi < n) {
+			previous[hi + 1] = INFINITY;
+		}
+
+		for (int i = 1; i <= m; i++) {
+			int lo = Math.max(1, i - k);
+			hi = Math.min(n, i + k);
+			char c = a[start + i - 1];
+
+			int left = lo == 1 ? i : INFINITY;
+			current[lo - 1] = left;
+			int rowMinimum = left;
+
+			for (int j = lo; j <= hi; j++) {
+				int v = previous[j - 1] + (c == b[start + j - 1] ? 0 : 1);
+				int up = previous[j] + 1;
+				if (up < v) {
+					v = up;
+				}
+				if (left + 1 < v) {
+					v = left + 1;
+				}
+				current[j] = v;
+				left = v;
+				if (v < rowMinimum) {
+					rowMinimum = v;
+				}
+			}
+			if (hi < n) {
+				current[hi + 1] = INFINITY;
+			}
+
+			if (rowMinimum > k) {
+				return k + 1;
+			}
+
+			int[] tmp = previous;
+			previous = current;
+			current = tmp;
+		}
+
+		return previous[n];
+	}
+}
@@ -16,7 +16,9 @@ import com.wcohen.ss.Jaccard;
 import com.wcohen.ss.tokens.NGramTokenizer;
 import com.wcohen.ss.tokens.SimpleTokenizer;
 
+import de.uni_mannheim.informatik.dws.winter.matching.rules.comparators.ValueFeatures;
 import de.uni_mannheim.informatik.dws.winter.similarity.SimilarityMeasure;
+import de.uni_mannheim.informatik.dws.winter.utils.SortedIntArrays;
 
 /**
  * 
@@ -45,4 +47,32 @@ public class JaccardOnNGramsSimilarity extends SimilarityMeasure<String> {
         return j.score(first, second);
     }
 
+    /**
+     * Calculates the similarity between the n-grams of two strings, which are
+     * given as sorted arrays of distinct n-gram hashes (see
+     * {@link ValueFeatures#getGramHashes()}). The hashes must have been
+     * created with the n-gram size of this similarity measure.
+     * 
+     * @param first
+     *            the n-gram hashes of the first string
+     * @param second
+     *            the n-gram hashes of the second string
+     * @return the similarity score, or 0.0 if one of the strings has no n-grams
+     */
+    public double calculate(int[] first, int[] second) {
+        if(first.length == 0 || second.length == 0) {
+            return 0.0;
+        }
+        
+        int common = SortedIntArrays.intersectionSize(first, second);
+        return common / (double) (first.length + second.length - common);
+    }
+
+    /**
+     * @return the size of the n-grams
+     */
+    public int getGramSize() {
+        return gramSize;
+    }
+
 }
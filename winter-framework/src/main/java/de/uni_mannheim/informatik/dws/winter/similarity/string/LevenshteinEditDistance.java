@@ -1,6 +1,5 @@
 package de.uni_mannheim.informatik.dws.winter.similarity.string;
 
-import com.wcohen.ss.Levenstein;
 import de.uni_mannheim.informatik.dws.winter.similarity.SimilarityMeasure;
 
 /**
@@ -19,8 +18,7 @@ public class LevenshteinEditDistance extends SimilarityMeasure<String> {
         if (first == null || second == null) {
             return -1.0;
         } else {
-            Levenstein l = new Levenstein();
-            return Math.abs(l.score(first, second));
+            return BoundedLevenshtein.getInstance().distance(first, second);
         }
     }
 
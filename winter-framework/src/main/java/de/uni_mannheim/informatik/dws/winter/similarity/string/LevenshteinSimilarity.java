@@ -11,14 +11,16 @@
  */
 package de.uni_mannheim.informatik.dws.winter.similarity.string;
 
-import com.wcohen.ss.Levenstein;
-
 import de.uni_mannheim.informatik.dws.winter.similarity.SimilarityMeasure;
 
 /**
  * {@link SimilarityMeasure}, that calculates the Levenshtein similarity between
  * two strings.
  * 
+ * If a threshold is set, the edit distance is only calculated up to the
+ * largest distance that can still reach the threshold and all similarities
+ * below the threshold are returned as 0.0.
+ * 
  * @author Oliver Lehmberg (oli@dwslab.de)
  * 
  */
@@ -26,17 +28,57 @@ public class LevenshteinSimilarity extends SimilarityMeasure<String> {
 
 	private static final long serialVersionUID = 1L;
 
+	private double threshold = 0.0;
+
+	public LevenshteinSimilarity() {
+	}
+
+	/**
+	 * @param threshold
+	 *            similarities below this value are returned as 0.0
+	 */
+	public LevenshteinSimilarity(double threshold) {
+		this.threshold = threshold;
+	}
+
+	/**
+	 * @return the threshold
+	 */
+	public double getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * @param threshold
+	 *            similarities below this value are returned as 0.0
+	 */
+	public void setThreshold(double threshold) {
+		this.threshold = threshold;
+	}
+
 	@Override
 	public double calculate(String first, String second) {
 		if (first == null || second == null) {
 			return 0.0;
 		} else {
-			Levenstein l = new Levenstein();
+			int length = Math.max(first.length(), second.length());
+			BoundedLevenshtein l = BoundedLevenshtein.getInstance();
+
+			if (threshold > 0.0) {
+				// 1 - d / length >= threshold <=> d <= length * (1 - threshold)
+				// (one more to be safe against rounding, the result is
+				// checked against the threshold below)
+				int maxDistance = (int) Math.floor(length * (1.0 - threshold)) + 1;
+
+				double score = (double) l.distance(first, second, maxDistance) / length;
+				double similarity = 1 - score;
 
-			double score = Math.abs(l.score(first, second));
-			score = score / Math.max(first.length(), second.length());
+				return similarity < threshold ? 0.0 : similarity;
+			} else {
+				double score = (double) l.distance(first, second) / length;
 
-			return 1 - score;
+				return 1 - score;
+			}
 		}
 	}
 
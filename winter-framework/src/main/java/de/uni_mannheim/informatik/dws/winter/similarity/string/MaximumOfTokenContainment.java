@@ -17,8 +17,10 @@ import java.util.Set;
 import com.wcohen.ss.api.Token;
 import com.wcohen.ss.tokens.SimpleTokenizer;
 
+import de.uni_mannheim.informatik.dws.winter.matching.rules.comparators.ValueFeatures;
 import de.uni_mannheim.informatik.dws.winter.similarity.SimilarityMeasure;
 import de.uni_mannheim.informatik.dws.winter.similarity.list.MaximumOfContainment;
+import de.uni_mannheim.informatik.dws.winter.utils.SortedIntArrays;
 
 /**
  * @author Oliver Lehmberg (oli@dwslab.de)
@@ -53,4 +55,24 @@ public class MaximumOfTokenContainment extends SimilarityMeasure<String> {
 		return sim.calculate(s1, s2);
 	}
 
+	/**
+	 * Calculates the similarity between two tokenised strings, which are given
+	 * as sorted arrays of distinct token ids (see
+	 * {@link ValueFeatures#getTokenIds()}).
+	 * 
+	 * @param first
+	 *            the token ids of the first string
+	 * @param second
+	 *            the token ids of the second string
+	 * @return the similarity score, or 0.0 if one of the strings has no tokens
+	 */
+	public double calculate(int[] first, int[] second) {
+		if(first.length == 0 || second.length == 0) {
+			return 0.0;
+		}
+
+		int common = SortedIntArrays.intersectionSize(first, second);
+		return common / (double) Math.min(first.length, second.length);
+	}
+
 }
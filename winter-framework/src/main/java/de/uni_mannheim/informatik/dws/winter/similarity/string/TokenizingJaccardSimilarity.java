@@ -15,7 +15,9 @@ import com.wcohen.ss.Jaccard;
 import com.wcohen.ss.tokens.SimpleTokenizer;
 import org.apache.commons.lang3.StringUtils;
 
+import de.uni_mannheim.informatik.dws.winter.matching.rules.comparators.ValueFeatures;
 import de.uni_mannheim.informatik.dws.winter.similarity.SimilarityMeasure;
+import de.uni_mannheim.informatik.dws.winter.utils.SortedIntArrays;
 
 /**
  * {@link SimilarityMeasure}, that calculates the Jaccard similarity between two
@@ -46,4 +48,25 @@ public class TokenizingJaccardSimilarity extends SimilarityMeasure<String> {
 		}
 	}
 
+	/**
+	 * Calculates the similarity between two tokenised strings, which are given
+	 * as sorted arrays of distinct token ids (see
+	 * {@link ValueFeatures#getTokenIds()}).
+	 * 
+	 * @param first
+	 * 			the token ids of the first string
+	 * @param second
+	 * 			the token ids of the second string
+	 * @return the similarity score between the first and second string, or 0.0
+	 *         if one of them has no tokens
+	 */
+	public double calculate(int[] first, int[] second) {
+		if(first.length == 0 || second.length == 0) {
+			return 0.0;
+		} else {
+			int common = SortedIntArrays.intersectionSize(first, second);
+			return common / (double) (first.length + second.length - common);
+		}
+	}
+
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.utils;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * 
+ * Assigns consecutive int ids (starting at 0) to objects, objects which are equal according to {@link Object#equals(Object)} get the same id.
+ * 
+ * Uses open addressing with primitive arrays, so no objects are created when an id is looked up. Not thread-safe.
+ * 
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class Interner<T> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Object[] keys;
+	private int[] ids;
+	private Object[] objects;
+	private int size = 0;
+	
+	public Interner() {
+		this(16);
+	}
+	
+	/**
+	 * @param expectedSize	the expected number of distinct objects
+	 */
+	public Interner(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) * 2;
+		keys = new Object[capacity];
+		ids = new int[capacity];
+		objects = new Object[Math.max(4, expectedSize)];
+	}
+	
+	private static int slot(int hash, int mask) {
+		int h = hash * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+	
+	/**
+	 * Returns the id of the object, a new id is assigned if the object was not interned before
+	 * @param object	the object (must not be null)
+	 * @return the id
+	 */
+	public int getId(T object) {
+		int mask = keys.length - 1;
+		int slot = slot(object.hashCode(), mask);
+		Object key;
+		while((key = keys[slot]) != null) {
+			if(key == object || key.equals(object)) {
+				return ids[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		
+		int id = size++;
+		keys[slot] = object;
+		ids[slot] = id;
+		if(id == objects.length) {
+			objects = Arrays.copyOf(objects, objects.length * 2);
+		}
+		objects[id] = object;
+		
+		if(size * 2 > keys.length) {
+			rehash(keys.length * 2);
+		}
+		
+		return id;
+	}
+	
+	/**
+	 * @param object	the object
+	 * @return the id of the object or -1 if the object was not interned before
+	 */
+	public int findId(Object object) {
+		if(object == null) {
+			return -1;
+		}
+		int mask = keys.length - 1;
+		int slot = slot(object.hashCode(), mask);
+		Object key;
+		while((key = keys[slot]) != null) {
+			if(key == object || key.equals(object)) {
+				return ids[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+	
+	/**
+	 * @param id	the id
+	 * @return the first object that was interned with the id
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(int id) {
+		return (T)objects[id];
+	}
+	
+	/**
+	 * @return the number of distinct objects
+	 */
+	public int size() {
+		return size;
+	}
+	
+	private void rehash(int capacity) {
+		int mask = capacity - 1;
+		Object[] newKeys = new Object[capacity];
+		int[] newIds = new int[capacity];
+		for(int id = 0; id < size; id++) {
+			int slot = slot(objects[id].hashCode(), mask);
+			while(newKeys[slot] != null) {
+				slot = (slot + 1) & mask;
+			}
+			newKeys[slot] = objects[id];
+			newIds[slot] = id;
+		}
+		keys = newKeys;
+		ids = newIds;
+	}
+}
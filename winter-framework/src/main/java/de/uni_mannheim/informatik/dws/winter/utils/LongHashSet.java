@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.utils;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ *
+ * A set of long values.
+ *
+ * Uses open addressing with a primitive array, so no objects are created when a value is added or looked up. Concurrent calls to {@link #contains(long)} are safe as long as the set is not modified.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class LongHashSet implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	// marks an empty slot, the value itself is stored in containsEmptyValue
+	private static final long EMPTY = Long.MIN_VALUE;
+
+	private long[] values;
+	private int size = 0;
+	private boolean containsEmptyValue = false;
+
+	public LongHashSet() {
+		this(16);
+	}
+
+	/**
+	 * @param expectedSize	the expected number of values
+	 */
+	public LongHashSet(int expectedSize) {
+		values = newTable(Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) * 2);
+	}
+
+	private static long[] newTable(int capacity) {
+		long[] table = new long[capacity];
+		Arrays.fill(table, EMPTY);
+		return table;
+	}
+
+	private static int slot(long value, int mask) {
+		long h = value * 0x9E3779B97F4A7C15L;
+		return (int)(h ^ (h >>> 32)) & mask;
+	}
+
+	/**
+	 * @param value	the value
+	 * @return true if the value was not contained in the set before
+	 */
+	public boolean add(long value) {
+		if(value == EMPTY) {
+			boolean added = !containsEmptyValue;
+			if(added) {
+				containsEmptyValue = true;
+				size++;
+			}
+			return added;
+		}
+
+		int mask = values.length - 1;
+		int slot = slot(value, mask);
+		long v;
+		while((v = values[slot]) != EMPTY) {
+			if(v == value) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		values[slot] = value;
+		size++;
+
+		if(size * 2 > values.length) {
+			rehash(values.length * 2);
+		}
+
+		return true;
+	}
+
+	/**
+	 * @param value	the value
+	 * @return true if the set contains the value
+	 */
+	public boolean contains(long value) {
+		if(value == EMPTY) {
+			return containsEmptyValue;
+		}
+
+		int mask = values.length - 1;
+		int slot = slot(value, mask);
+		long v;
+		while((v = values[slot]) != EMPTY) {
+			if(v == value) {
+				return true;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * @param value	the value
+	 * @return true if the value was contained in the set
+	 */
+	public boolean remove(long value) {
+		if(value == EMPTY) {
+			boolean removed = containsEmptyValue;
+			if(removed) {
+				containsEmptyValue = false;
+				size--;
+			}
+			return removed;
+		}
+
+		int mask = values.length - 1;
+		int slot = slot(value, mask);
+		long v;
+		while((v = values[slot]) != EMPTY) {
+			if(v == value) {
+				// move the following values of the same probe sequence back, so they can still be found
+				int gap = slot;
+				int next = (slot + 1) & mask;
+				while((v = values[next]) != EMPTY) {
+					int home = slot(v, mask);
+					if(((next - home) & mask) >= ((next - gap) & mask)) {
+						values[gap] = v;
+						gap = next;
+					}
+					next = (next + 1) & mask;
+				}
+				values[gap] = EMPTY;
+				size--;
+				return true;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * @return the number of values
+	 */
+	public int size() {
+		return size;
+	}
+
+	private void rehash(int capacity) {
+		int mask = capacity - 1;
+		long[] newValues = newTable(capacity);
+		for(long v : values) {
+			if(v != EMPTY) {
+				int slot = slot(v, mask);
+				while(newValues[slot] != EMPTY) {
+					slot = (slot + 1) & mask;
+				}
+				newValues[slot] = v;
+			}
+		}
+		values = newValues;
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.utils;
+
+import java.util.Arrays;
+
+/**
+ *
+ * Utility Class for sets of integers, which are represented as sorted arrays
+ * without duplicates
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class SortedIntArrays {
+
+	/**
+	 * Creates a set from the first length values of an array
+	 *
+	 * @param values
+	 *            the values (are sorted in place)
+	 * @param length
+	 *            the number of values to use
+	 * @return a sorted array without duplicates
+	 */
+	public static int[] toSet(int[] values, int length) {
+		Arrays.sort(values, 0, length);
+
+		int size = 0;
+		for (int i = 0; i < length; i++) {
+			if (size == 0 || values[i] != values[size - 1]) {
+				values[size++] = values[i];
+			}
+		}
+
+		return Arrays.copyOf(values, size);
+	}
+
+	/**
+	 * Merges two sets to count their common values
+	 *
+	 * @param first
+	 *            a sorted array without duplicates
+	 * @param second
+	 *            a sorted array without duplicates
+	 * @return the number of values that are contained in both arrays
+	 */
+	public static int intersectionSize(int[] first, int[] second) {
+		int i = 0;
+		int j = 0;
+		int common = 0;
+
+		while (i < first.length && j < second.length) {
+			int a = first[i];
+			int b = second[j];
+			if (a < b) {
+				i++;
+			} else if (a > b) {
+				j++;
+			} else {
+				common++;
+				i++;
+				j++;
+			}
+		}
+
+		return common;
+	}
+
+}
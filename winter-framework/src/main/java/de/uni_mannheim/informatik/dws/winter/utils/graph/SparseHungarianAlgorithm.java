@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.utils.graph;
+
+import java.util.Arrays;
+
+/**
+ * Maximum weight matching in a sparse bipartite graph with double weights (Hungarian algorithm with shortest augmenting paths).
+ * 
+ * The left vertices are added one after another and each one is matched along the shortest augmenting path, which is found by Dijkstra's algorithm on the reduced costs.
+ * Every left vertex has an additional private right vertex with weight 0, so the matching is not required to be perfect and edges with a weight of 0 or less are never selected.
+ * 
+ * The graph is specified by the edge arrays: edge e connects the left vertex left[e] and the right vertex right[e] with weight weights[e].
+ * Between multiple edges with the same weight, the edge with the smallest index is selected.
+ * 
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class SparseHungarianAlgorithm {
+
+	private final int numLeft;
+	private final int numRight;
+	private final int[] left;
+	private final int[] right;
+	private final double[] weights;
+	
+	/**
+	 * @param numLeft	the number of left vertices
+	 * @param numRight	the number of right vertices
+	 * @param left		the left vertex of each edge (0 .. numLeft-1)
+	 * @param right		the right vertex of each edge (0 .. numRight-1)
+	 * @param weights	the weight of each edge
+	 */
+	public SparseHungarianAlgorithm(int numLeft, int numRight, int[] left, int[] right, double[] weights) {
+		this.numLeft = numLeft;
+		this.numRight = numRight;
+		this.left = left;
+		this.right = right;
+		this.weights = weights;
+	}
+	
+	/**
+	 * @return the indices of the selected edges in ascending order
+	 */
+	public int[] computeMatching() {
+		// adjacency lists of the left vertices, only edges with positive weights can be part of a maximum weight matching
+		int[] offsets = new int[numLeft + 1];
+		for(int e = 0; e < left.length; e++) {
+			if(weights[e] > 0) {
+				offsets[left[e] + 1]++;
+			}
+		}
+		for(int i = 0; i < numLeft; i++) {
+			offsets[i + 1] += offsets[i];
+		}
+		int[] edges = new int[offsets[numLeft]];
+		int[] fill = Arrays.copyOf(offsets, numLeft);
+		for(int e = 0; e < left.length; e++) {
+			if(weights[e] > 0) {
+				edges[fill[left[e]]++] = e;
+			}
+		}
+		
+		// the costs are the negative weights, the column of the private vertex of row i is numRight + i
+		int numColumns = numRight + numLeft;
+		double[] u = new double[numLeft];
+		double[] v = new double[numColumns];
+		int[] rowForColumn = new int[numColumns];
+		int[] edgeForRow = new int[numLeft];
+		Arrays.fill(rowForColumn, -1);
+		
+		double[] pathCosts = new double[numColumns];
+		Arrays.fill(pathCosts, Double.POSITIVE_INFINITY);
+		int[] pathRow = new int[numColumns];
+		int[] pathEdge = new int[numColumns];
+		boolean[] scanned = new boolean[numColumns];
+		int[] scannedRows = new int[numLeft];
+		int[] scannedColumns = new int[numColumns];
+		int[] touched = new int[numColumns];
+		int[] columnForRow = new int[numLeft];
+		Arrays.fill(columnForRow, -1);
+		Heap heap = new Heap(numColumns, pathCosts);
+		
+		for(int current = 0; current < numLeft; current++) {
+			int numScannedRows = 0;
+			int numScannedColumns = 0;
+			int numTouched = 0;
+			double minCost = 0;
+			int row = current;
+			int sink;
+			
+			while(true) {
+				scannedRows[numScannedRows++] = row;
+				
+				for(int k = offsets[row]; k <= offsets[row + 1]; k++) {
+					int e;
+					int column;
+					double cost;
+					if(k < offsets[row + 1]) {
+						e = edges[k];
+						column = right[e];
+						cost = -weights[e];
+					} else {
+						e = -1;
+						column = numRight + row;
+						cost = 0;
+					}
+					
+					if(!scanned[column]) {
+						double reduced = minCost + cost - u[row] - v[column];
+						if(reduced < pathCosts[column]) {
+							if(pathCosts[column]==Double.POSITIVE_INFINITY) {
+								touched[numTouched++] = column;
+							}
+							pathCosts[column] = reduced;
+							pathRow[column] = row;
+							pathEdge[column] = e;
+							heap.update(column);
+						}
+					}
+				}
+				
+				// the private column of the current row is always reachable, so the heap is never empty
+				int column = heap.poll();
+				minCost = pathCosts[column];
+				scanned[column] = true;
+				scannedColumns[numScannedColumns++] = column;
+				
+				if(rowForColumn[column]==-1) {
+					sink = column;
+					break;
+				} else {
+					row = rowForColumn[column];
+				}
+			}
+			
+			// update the potentials
+			u[current] += minCost;
+			for(int k = 1; k < numScannedRows; k++) {
+				int r = scannedRows[k];
+				u[r] += minCost - pathCosts[columnForRow[r]];
+			}
+			for(int k = 0; k < numScannedColumns; k++) {
+				int c = scannedColumns[k];
+				v[c] -= minCost - pathCosts[c];
+			}
+			
+			// augment the matching along the path
+			int column = sink;
+			while(true) {
+				int r = pathRow[column];
+				rowForColumn[column] = r;
+				edgeForRow[r] = pathEdge[column];
+				int previous = columnForRow[r];
+				columnForRow[r] = column;
+				if(r==current) {
+					break;
+				}
+				column = previous;
+			}
+			
+			for(int k = 0; k < numTouched; k++) {
+				pathCosts[touched[k]] = Double.POSITIVE_INFINITY;
+				scanned[touched[k]] = false;
+			}
+			heap.clear();
+		}
+		
+		int[] selected = new int[numLeft];
+		int numSelected = 0;
+		for(int r = 0; r < numLeft; r++) {
+			if(columnForRow[r] < numRight) {
+				selected[numSelected++] = edgeForRow[r];
+			}
+		}
+		selected = Arrays.copyOf(selected, numSelected);
+		Arrays.sort(selected);
+		return selected;
+	}
+	
+	/**
+	 * Binary min-heap of column indices, ordered by their path costs (and their index for equal costs)
+	 */
+	private static class Heap {
+		
+		private final int[] heap;
+		private final int[] position;
+		private final double[] keys;
+		private int size = 0;
+		
+		public Heap(int capacity, double[] keys) {
+			heap = new int[capacity];
+			position = new int[capacity];
+			Arrays.fill(position, -1);
+			this.keys = keys;
+		}
+		
+		private boolean less(int a, int b) {
+			return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+		}
+		
+		/**
+		 * inserts the element or moves it up after its key was decreased
+		 */
+		public void update(int element) {
+			int i = position[element];
+			if(i==-1) {
+				i = size++;
+			}
+			while(i > 0) {
+				int parent = (i - 1) >>> 1;
+				if(!less(element, heap[parent])) {
+					break;
+				}
+				heap[i] = heap[parent];
+				position[heap[i]] = i;
+				i = parent;
+			}
+			heap[i] = element;
+			position[element] = i;
+		}
+		
+		public int poll() {
+			int top = heap[0];
+			position[top] = -1;
+			int last = heap[--size];
+			if(size > 0) {
+				int i = 0;
+				while(true) {
+					int child = 2 * i + 1;
+					if(child >= size) {
+						break;
+					}
+					if(child + 1 < size && less(heap[child + 1], heap[child])) {
+						child++;
+					}
+					if(!less(heap[child], last)) {
+						break;
+					}
+					heap[i] = heap[child];
+					position[heap[i]] = i;
+					i = child;
+				}
+				heap[i] = last;
+				position[last] = i;
+			}
+			return top;
+		}
+		
+		public void clear() {
+			for(int i = 0; i < size; i++) {
+				position[heap[i]] = -1;
+			}
+			size = 0;
+		}
+	}
+}
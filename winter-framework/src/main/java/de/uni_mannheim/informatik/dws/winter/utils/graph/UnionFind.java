@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.utils.graph;
+
+import java.util.Arrays;
+
+/**
+ * Disjoint sets of the integers 0 .. n-1 (union-find) with path compression and union by size.
+ * 
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class UnionFind {
+
+	private int[] parent;
+	private int[] size;
+	private int numberOfElements = 0;
+	private int numberOfSets = 0;
+	
+	public UnionFind() {
+		this(16);
+	}
+	
+	public UnionFind(int initialCapacity) {
+		parent = new int[Math.max(1, initialCapacity)];
+		size = new int[parent.length];
+	}
+	
+	/**
+	 * Adds a new element in its own set
+	 * @return the new element
+	 */
+	public int add() {
+		if(numberOfElements==parent.length) {
+			parent = Arrays.copyOf(parent, parent.length * 2);
+			size = Arrays.copyOf(size, size.length * 2);
+		}
+		int element = numberOfElements++;
+		parent[element] = element;
+		size[element] = 1;
+		numberOfSets++;
+		return element;
+	}
+	
+	/**
+	 * Adds new elements until the given element exists
+	 * @param element	the element
+	 */
+	public void ensureElement(int element) {
+		while(numberOfElements<=element) {
+			add();
+		}
+	}
+	
+	/**
+	 * @param element	the element
+	 * @return the representative of the set that contains the element
+	 */
+	public int find(int element) {
+		int root = element;
+		while(parent[root]!=root) {
+			root = parent[root];
+		}
+		
+		// path compression
+		while(parent[element]!=root) {
+			int next = parent[element];
+			parent[element] = root;
+			element = next;
+		}
+		
+		return root;
+	}
+	
+	/**
+	 * Merges the sets that contain the two elements
+	 * @param first		the first element
+	 * @param second	the second element
+	 * @return true if the elements were in different sets
+	 */
+	public boolean union(int first, int second) {
+		int a = find(first);
+		int b = find(second);
+		
+		if(a==b) {
+			return false;
+		}
+		
+		// the smaller set is added to the larger set
+		if(size[a]<size[b]) {
+			int tmp = a;
+			a = b;
+			b = tmp;
+		}
+		parent[b] = a;
+		size[a] += size[b];
+		numberOfSets--;
+		
+		return true;
+	}
+	
+	/**
+	 * @param first		the first element
+	 * @param second	the second element
+	 * @return true if both elements are in the same set
+	 */
+	public boolean isConnected(int first, int second) {
+		return find(first)==find(second);
+	}
+	
+	/**
+	 * @param element	the element
+	 * @return the size of the set that contains the element
+	 */
+	public int getSetSize(int element) {
+		return size[find(element)];
+	}
+	
+	/**
+	 * @return the number of elements
+	 */
+	public int getNumberOfElements() {
+		return numberOfElements;
+	}
+	
+	/**
+	 * @return the number of disjoint sets
+	 */
+	public int getNumberOfSets() {
+		return numberOfSets;
+	}
+	
+	/**
+	 * Groups the elements by their sets
+	 * @return the elements of each set in ascending order, the sets are sorted by their smallest element
+	 */
+	public int[][] getSets() {
+		int[] setIndex = new int[numberOfElements];
+		Arrays.fill(setIndex, -1);
+		int[][] sets = new int[numberOfSets][];
+		int[] fill = new int[numberOfSets];
+		int numSets = 0;
+		
+		for(int element = 0; element < numberOfElements; element++) {
+			int root = find(element);
+			if(setIndex[root]==-1) {
+				setIndex[root] = numSets;
+				sets[numSets++] = new int[size[root]];
+			}
+			int s = setIndex[root];
+			sets[s][fill[s]++] = element;
+		}
+		
+		return sets;
+	}
+}
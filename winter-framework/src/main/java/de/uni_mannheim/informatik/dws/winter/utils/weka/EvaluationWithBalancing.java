@@ -11,12 +11,6 @@
  */
 package de.uni_mannheim.informatik.dws.winter.utils.weka;
 
-import java.util.Random;
-
-import weka.classifiers.AbstractClassifier;
-import weka.classifiers.Classifier;
-import weka.classifiers.evaluation.Evaluation;
-import weka.classifiers.evaluation.output.prediction.AbstractOutput;
 import weka.core.Instances;
 import weka.filters.Filter;
 
@@ -24,7 +18,7 @@ import weka.filters.Filter;
  * @author Oliver Lehmberg (oli@dwslab.de)
  *
  */
-public class EvaluationWithBalancing extends Evaluation {
+public class EvaluationWithBalancing extends ParallelEvaluation {
 
 	private Filter trainingDataFilter;
 	
@@ -40,43 +34,11 @@ public class EvaluationWithBalancing extends Evaluation {
 	private static final long serialVersionUID = 1L;
 	
 	/* (non-Javadoc)
-	 * @see weka.classifiers.evaluation.Evaluation#crossValidateModel(weka.classifiers.Classifier, weka.core.Instances, int, java.util.Random, java.lang.Object[])
+	 * @see de.uni_mannheim.informatik.dws.winter.utils.weka.ParallelEvaluation#prepareTrainingData(weka.core.Instances)
 	 */
 	@Override
-	public void crossValidateModel(Classifier classifier, Instances data, int numFolds, Random random,
-			Object... forPredictionsPrinting) throws Exception {
-	    // Make a copy of the data we can reorder
-	    data = new Instances(data);
-	    data.randomize(random);
-	    if (data.classAttribute().isNominal()) {
-	      data.stratify(numFolds);
-	    }
-
-	    // We assume that the first element is a
-	    // weka.classifiers.evaluation.output.prediction.AbstractOutput object
-	    AbstractOutput classificationOutput = null;
-	    if (forPredictionsPrinting.length > 0) {
-	      // print the header first
-	      classificationOutput = (AbstractOutput) forPredictionsPrinting[0];
-	      classificationOutput.setHeader(data);
-	      classificationOutput.printHeader();
-	    }
-
-	    // Do the folds
-	    for (int i = 0; i < numFolds; i++) {
-	      Instances train = data.trainCV(numFolds, i, random);
-	      train = Filter.useFilter(train, trainingDataFilter);
-	      setPriors(train);
-	      Classifier copiedClassifier = AbstractClassifier.makeCopy(classifier);
-	      copiedClassifier.buildClassifier(train);
-	      Instances test = data.testCV(numFolds, i);
-	      evaluateModel(copiedClassifier, test, forPredictionsPrinting);
-	    }
-	    m_NumFolds = numFolds;
-
-	    if (classificationOutput != null) {
-	      classificationOutput.printFooter();
-	    }
+	protected Instances prepareTrainingData(Instances train) throws Exception {
+		return Filter.useFilter(train, trainingDataFilter);
 	}
 
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.utils.weka;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Consumer;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Parallel;
+import weka.classifiers.AbstractClassifier;
+import weka.classifiers.Classifier;
+import weka.classifiers.evaluation.Evaluation;
+import weka.classifiers.evaluation.output.prediction.AbstractOutput;
+import weka.core.Instances;
+
+/**
+ * Evaluation which trains the classifiers of a cross-validation in parallel.
+ * 
+ * The folds are created and evaluated in the same order as by {@link Evaluation#crossValidateModel(Classifier, Instances, int, Random, Object...)}, 
+ * so the random number generator is used in the same way and the results are the same as for a sequential cross-validation.
+ * 
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class ParallelEvaluation extends Evaluation {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * @param data
+	 * @throws Exception
+	 */
+	public ParallelEvaluation(Instances data) throws Exception {
+		super(data);
+	}
+	
+	/**
+	 * Is called for the training data of each fold before the classifier is trained
+	 * 
+	 * @param train	the training data of the fold
+	 * @return the training data that is used to train the classifier
+	 * @throws Exception
+	 */
+	protected Instances prepareTrainingData(Instances train) throws Exception {
+		return train;
+	}
+
+	/* (non-Javadoc)
+	 * @see weka.classifiers.evaluation.Evaluation#crossValidateModel(weka.classifiers.Classifier, weka.core.Instances, int, java.util.Random, java.lang.Object[])
+	 */
+	@Override
+	public void crossValidateModel(Classifier classifier, Instances data, int numFolds, Random random,
+			Object... forPredictionsPrinting) throws Exception {
+		// Make a copy of the data we can reorder
+		data = new Instances(data);
+		data.randomize(random);
+		if (data.classAttribute().isNominal()) {
+			data.stratify(numFolds);
+		}
+
+		// We assume that the first element is a
+		// weka.classifiers.evaluation.output.prediction.AbstractOutput object
+		AbstractOutput classificationOutput = null;
+		if (forPredictionsPrinting.length > 0) {
+			// print the header first
+			classificationOutput = (AbstractOutput) forPredictionsPrinting[0];
+			classificationOutput.setHeader(data);
+			classificationOutput.printHeader();
+		}
+
+		// create the folds sequentially, as the random number generator is used for the training data
+		final Instances[] train = new Instances[numFolds];
+		Instances[] test = new Instances[numFolds];
+		List<Integer> folds = new ArrayList<>(numFolds);
+		for (int i = 0; i < numFolds; i++) {
+			train[i] = prepareTrainingData(data.trainCV(numFolds, i, random));
+			test[i] = data.testCV(numFolds, i);
+			folds.add(i);
+		}
+
+		// train the classifiers in parallel
+		final Classifier[] classifiers = AbstractClassifier.makeCopies(classifier, numFolds);
+		final Exception[] exceptions = new Exception[numFolds];
+		new Parallel<Integer>().tryForeach(folds, new Consumer<Integer>() {
+
+			@Override
+			public void execute(Integer i) {
+				try {
+					classifiers[i].buildClassifier(train[i]);
+				} catch (Exception e) {
+					exceptions[i] = e;
+				}
+			}
+		});
+
+		// evaluate the classifiers in the order of the folds
+		for (int i = 0; i < numFolds; i++) {
+			if (exceptions[i] != null) {
+				throw exceptions[i];
+			}
+			setPriors(train[i]);
+			evaluateModel(classifiers[i], test[i], forPredictionsPrinting);
+		}
+		m_NumFolds = numFolds;
+
+		if (classificationOutput != null) {
+			classificationOutput.printFooter();
+		}
+	}
+
+}
@@ -875,6 +875,10 @@ public class Table implements Serializable {
 		 ***********************************************/
 		Collection<Pair<TableRow, TableRow>> duplicates = new LinkedList<>();
 		
+		// the column indices of the key and of all remaining columns are the same for all rows
+		int[] keyIndices = getColumnIndices(key);
+		int[] nonKeyIndices = getColumnIndices(Q.without(getColumns(), key));
+
 		// use the provided key to perform duplicate detection
 		// keep a map of (key values)->(first row with these values) for the
 		// chosen key
@@ -891,126 +895,18 @@ public class Table implements Serializable {
 			TableRow r = rowIt.next();
 
 			// get the values of the key for the current row
-			ArrayList<Object> keyValues = new ArrayList<>(key.size());
-			for (TableColumn c : key) {
-				keyValues.add(r.get(c.getColumnIndex()));
+			ArrayList<Object> keyValues = new ArrayList<>(keyIndices.length);
+			for (int idx : keyIndices) {
+				keyValues.add(r.get(idx));
 			}
 
 			boolean keepRow = true;
 
 			// check if the key values have been seen before
-			if (seenKeyValues.containsKey(keyValues)) {
-
-				TableRow existing = seenKeyValues.get(keyValues);
-
-				if(conflictHandling != ConflictHandling.ReturnConflicts) {
-					duplicates.add(new Pair<>(existing, r));
-				}
-				
-				if (conflictHandling != ConflictHandling.KeepFirst) {
-
-					// check the remaining attributes for equality
-					boolean equal = true;
-					boolean conflictingNullsOnly = true;
-					List<Integer> nullIndices = new LinkedList<>();
-					for (TableColumn c : Q.without(getColumns(), key)) {
-						Object existingValue = existing.get(c.getColumnIndex());
-						Object duplicateValue = r.get(c.getColumnIndex());
-
-						// if (existingValue != null && existingValue.equals(duplicateValue)) {
-						if(Q.equals(existingValue, duplicateValue, true)) {				// both values equal or both NULL
-							// equal values
-						} else if (existingValue == null && duplicateValue != null
-								|| existingValue != null && duplicateValue == null) {	// one value NULL
-							// conflict with a NULL value
-							equal = false;
-							nullIndices.add(c.getColumnIndex());
-						} else {														// different values
-							equal = false;
-							conflictingNullsOnly = false;
-						}
-					}
+			TableRow existing = seenKeyValues.get(keyValues);
+			if (existing != null) {
 
-					if (!equal) {
-						// the records are not equal
-						if (conflictHandling == ConflictHandling.KeepBoth
-								|| conflictHandling == ConflictHandling.ReplaceNULLs && !conflictingNullsOnly) {
-							// if handling is set to keep both we don't merge
-							// if handling is set to replace nulls, but there is
-							// a conflict between non-null values, we don't
-							// merge
-							// continue;
-							keepRow = true;
-						} else if(conflictHandling == ConflictHandling.ReturnConflicts) {
-							duplicates.add(new Pair<>(existing, r));
-							keepRow = true;
-					 	} else if(conflictHandling == ConflictHandling.CreateList || conflictHandling == ConflictHandling.CreateSet) {
-							// if handling is set to create list or create set, we merge all values and  assign them to the first record
-							
-							for (TableColumn c : Q.without(getColumns(), key)) {
-								
-								Object existingValue = existing.get(c.getColumnIndex());
-								Object conflictingValue = r.get(c.getColumnIndex());
-								Collection<Object> values = null;
-								if(conflictHandling==ConflictHandling.CreateSet) {
-									values = new HashSet<>();
-								} else {
-									values = new LinkedList<>();
-								}
-
-								if(existingValue!=null) {
-									if(existingValue.getClass().isArray()) {
-										values.addAll(Q.toList((Object[])existingValue));
-									} else {
-										values.add(existingValue);
-									}
-								}
-
-								if(conflictingValue!=null) {
-									if(conflictingValue.getClass().isArray()) {
-										values.addAll(Q.toList((Object[])conflictingValue));
-									} else {
-										values.add(conflictingValue);
-									}
-								}
-								
-								if(values.size()<=1) {
-									// if the result has only one element, don't treat it as multi-valued
-									existing.set(c.getColumnIndex(), Q.firstOrDefault(values));
-								} else {
-									existing.set(c.getColumnIndex(), values.toArray());
-								}
-							}
-
-							keepRow = false;
-						} else {
-							// if handling is set to replace nulls, and there
-							// are only conflicts between values and nulls, we
-							// set the values in the existing record and remove
-							// the second record
-							for (Integer idx : nullIndices) {
-								if (existing.get(idx) == null) {
-									existing.set(idx, r.get(idx));
-								}
-							}
-
-							keepRow = false;
-						}
-					} else {
-						keepRow = false;
-					}
-				} else {
-					keepRow = false;
-				}
-
-				if(!keepRow) {
-					// remove the duplicate row
-					// rowIt.remove();
-					
-					// and add the table name of the duplicate row to the existing
-					// row
-					existing.addProvenanceForRow(r);
-				}
+				keepRow = resolveDuplicate(existing, r, nonKeyIndices, conflictHandling, duplicates);
 			} else {
 				// if not, add the current key values to the list of seen values
 				seenKeyValues.put(keyValues, r);
@@ -1037,6 +933,284 @@ public class Table implements Serializable {
 		
 		return duplicates;
 	}
+	/**
+	 * 
+	 * Removes duplicates from the table using all available processors. Rows are partitioned by the hash value of their key, and each partition is de-duplicated independently.
+	 * Within a partition, rows are processed in their original order, so the result (including the returned duplicates and their order) is identical to {@link #deduplicate(Collection, ConflictHandling, boolean)}.
+	 * 
+	 * @param key
+	 * @param conflictHandling
+	 * @param reorganiseRowNumbers specifies if reorganiseRowNumbers() should be called after deduplication
+	 * @throws RuntimeException if the de-duplication of a partition fails, the rows of the table are not replaced in this case
+	 */
+	public Collection<Pair<TableRow, TableRow>> deduplicateParallel(Collection<TableColumn> key, final ConflictHandling conflictHandling, boolean reorganiseRowNumbers) {
+		final int[] keyIndices = getColumnIndices(key);
+		final int[] nonKeyIndices = getColumnIndices(Q.without(getColumns(), key));
+		final ArrayList<TableRow> allRows = rows;
+		final int numRows = allRows.size();
+
+		// hash the key values of all rows, no key objects are created
+		final int[] hashes = new int[numRows];
+		for(int i = 0; i < numRows; i++) {
+			hashes[i] = hashKey(allRows.get(i), keyIndices);
+		}
+
+		// assign the rows to partitions (counting sort by partition, which keeps the original row order within each partition)
+		final int numPartitions = Math.max(1, Math.min(numRows / 1024, Runtime.getRuntime().availableProcessors() * 4));
+		final int[] partitionStart = new int[numPartitions + 1];
+		for(int i = 0; i < numRows; i++) {
+			partitionStart[partition(hashes[i], numPartitions) + 1]++;
+		}
+		for(int p = 0; p < numPartitions; p++) {
+			partitionStart[p + 1] += partitionStart[p];
+		}
+		final int[] partitionedRows = new int[numRows];
+		int[] fill = Arrays.copyOf(partitionStart, numPartitions);
+		for(int i = 0; i < numRows; i++) {
+			partitionedRows[fill[partition(hashes[i], numPartitions)]++] = i;
+		}
+
+		// the results of all partitions, indexed by the row's position in the table
+		final boolean[] keep = new boolean[numRows];
+		@SuppressWarnings("unchecked")
+		final Pair<TableRow, TableRow>[] duplicateByRow = (Pair<TableRow, TableRow>[]) new Pair<?, ?>[numRows];
+
+		try {
+			Parallel.forLoop(0, numPartitions, new Consumer<Integer>() {
+
+				@Override
+				public void execute(Integer p) {
+					int from = partitionStart[p];
+					int to = partitionStart[p + 1];
+
+					// open addressing hash table containing the position (+1) of the first row for each key
+					int capacity = Integer.highestOneBit(Math.max(2, (to - from) * 2) - 1) << 1;
+					int mask = capacity - 1;
+					int[] slots = new int[capacity];
+					LinkedList<Pair<TableRow, TableRow>> duplicates = new LinkedList<>();
+
+					for(int j = from; j < to; j++) {
+						int rowIdx = partitionedRows[j];
+						TableRow r = allRows.get(rowIdx);
+
+						int slot = hashes[rowIdx] & mask;
+						TableRow existing = null;
+						while(slots[slot] != 0) {
+							int candidate = slots[slot] - 1;
+							if(hashes[candidate] == hashes[rowIdx] && keyEquals(allRows.get(candidate), r, keyIndices)) {
+								existing = allRows.get(candidate);
+								break;
+							}
+							slot = (slot + 1) & mask;
+						}
+
+						if(existing != null) {
+							keep[rowIdx] = resolveDuplicate(existing, r, nonKeyIndices, conflictHandling, duplicates);
+
+							if(duplicates.size() > 0) {
+								duplicateByRow[rowIdx] = duplicates.removeFirst();
+							}
+						} else {
+							slots[slot] = rowIdx + 1;
+							keep[rowIdx] = true;
+						}
+					}
+				}
+			});
+		} catch (Exception e) {
+			// the rows of the failed partition were not processed, so the table must not be changed
+			throw new RuntimeException("Parallel de-duplication of the table failed", e);
+		}
+
+		// collect the results in the original row order
+		Collection<Pair<TableRow, TableRow>> duplicates = new LinkedList<>();
+		ArrayList<TableRow> deduplicatedRows = new ArrayList<>(numRows);
+		for(int i = 0; i < numRows; i++) {
+			if(duplicateByRow[i] != null) {
+				duplicates.add(duplicateByRow[i]);
+			}
+			if(keep[i]) {
+				deduplicatedRows.add(allRows.get(i));
+			}
+		}
+
+		setRows(deduplicatedRows);
+		this.rows.trimToSize();
+
+		if(reorganiseRowNumbers) {
+			reorganiseRowNumbers();
+		}
+
+		return duplicates;
+	}
+
+	/**
+	 * Removes duplicates from the table using all available processors and calls reorganiseRowNumbers() afterwards.
+	 * 
+	 * @see #deduplicateParallel(Collection, ConflictHandling, boolean)
+	 */
+	public Collection<Pair<TableRow, TableRow>> deduplicateParallel(Collection<TableColumn> key, ConflictHandling conflictHandling) {
+		return deduplicateParallel(key, conflictHandling, true);
+	}
+
+	private int[] getColumnIndices(Collection<TableColumn> columns) {
+		int[] indices = new int[columns.size()];
+		int i = 0;
+		for(TableColumn c : columns) {
+			indices[i++] = c.getColumnIndex();
+		}
+		return indices;
+	}
+
+	/**
+	 * calculates the same hash value as List.hashCode() of the key values, but without creating the list
+	 */
+	private static int hashKey(TableRow r, int[] keyIndices) {
+		int hash = 1;
+		for(int idx : keyIndices) {
+			Object value = r.get(idx);
+			hash = 31 * hash + (value == null ? 0 : value.hashCode());
+		}
+		return hash;
+	}
+
+	private static boolean keyEquals(TableRow r1, TableRow r2, int[] keyIndices) {
+		for(int idx : keyIndices) {
+			Object v1 = r1.get(idx);
+			Object v2 = r2.get(idx);
+			if(!(v1 == null ? v2 == null : v1.equals(v2))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int partition(int hash, int numPartitions) {
+		// spread the bits, as the lower bits are used for the open addressing inside the partition
+		int h = hash ^ (hash >>> 16);
+		return ((h * 0x9E3779B9) >>> 1) % numPartitions;
+	}
+
+	/**
+	 * Applies the conflict handling to a row r which has the same key values as the row existing, which was seen before.
+	 * If required, existing is updated with the values of r and a pair of both rows is added to duplicates.
+	 * 
+	 * @return true if r must be kept in the table
+	 */
+	private boolean resolveDuplicate(TableRow existing, TableRow r, int[] nonKeyIndices, ConflictHandling conflictHandling, Collection<Pair<TableRow, TableRow>> duplicates) {
+		boolean keepRow = true;
+
+		if(conflictHandling != ConflictHandling.ReturnConflicts) {
+			duplicates.add(new Pair<>(existing, r));
+		}
+		
+		if (conflictHandling != ConflictHandling.KeepFirst) {
+
+			// check the remaining attributes for equality
+			boolean equal = true;
+			boolean conflictingNullsOnly = true;
+			List<Integer> nullIndices = new LinkedList<>();
+			for (int idx : nonKeyIndices) {
+				Object existingValue = existing.get(idx);
+				Object duplicateValue = r.get(idx);
+
+				// if (existingValue != null && existingValue.equals(duplicateValue)) {
+				if(Q.equals(existingValue, duplicateValue, true)) {				// both values equal or both NULL
+					// equal values
+				} else if (existingValue == null && duplicateValue != null
+						|| existingValue != null && duplicateValue == null) {	// one value NULL
+					// conflict with a NULL value
+					equal = false;
+					nullIndices.add(idx);
+				} else {														// different values
+					equal = false;
+					conflictingNullsOnly = false;
+				}
+			}
+
+			if (!equal) {
+				// the records are not equal
+				if (conflictHandling == ConflictHandling.KeepBoth
+						|| conflictHandling == ConflictHandling.ReplaceNULLs && !conflictingNullsOnly) {
+					// if handling is set to keep both we don't merge
+					// if handling is set to replace nulls, but there is
+					// a conflict between non-null values, we don't
+					// merge
+					// continue;
+					keepRow = true;
+				} else if(conflictHandling == ConflictHandling.ReturnConflicts) {
+					duplicates.add(new Pair<>(existing, r));
+					keepRow = true;
+			 	} else if(conflictHandling == ConflictHandling.CreateList || conflictHandling == ConflictHandling.CreateSet) {
+					// if handling is set to create list or create set, we merge all values and  assign them to the first record
+					
+					for (int idx : nonKeyIndices) {
+						
+						Object existingValue = existing.get(idx);
+						Object conflictingValue = r.get(idx);
+						Collection<Object> values = null;
+						if(conflictHandling==ConflictHandling.CreateSet) {
+							values = new HashSet<>();
+						} else {
+							values = new LinkedList<>();
+						}
+
+						if(existingValue!=null) {
+							if(existingValue.getClass().isArray()) {
+								values.addAll(Q.toList((Object[])existingValue));
+							} else {
+								values.add(existingValue);
+							}
+						}
+
+						if(conflictingValue!=null) {
+							if(conflictingValue.getClass().isArray()) {
+								values.addAll(Q.toList((Object[])conflictingValue));
+							} else {
+								values.add(conflictingValue);
+							}
+						}
+						
+						if(values.size()<=1) {
+							// if the result has only one element, don't treat it as multi-valued
+							existing.set(idx, Q.firstOrDefault(values));
+						} else {
+							existing.set(idx, values.toArray());
+						}
+					}
+
+					keepRow = false;
+				} else {
+					// if handling is set to replace nulls, and there
+					// are only conflicts between values and nulls, we
+					// set the values in the existing record and remove
+					// the second record
+					for (Integer idx : nullIndices) {
+						if (existing.get(idx) == null) {
+							existing.set(idx, r.get(idx));
+						}
+					}
+
+					keepRow = false;
+				}
+			} else {
+				keepRow = false;
+			}
+		} else {
+			keepRow = false;
+		}
+
+		if(!keepRow) {
+			// remove the duplicate row
+			// rowIt.remove();
+			
+			// and add the table name of the duplicate row to the existing
+			// row
+			existing.addProvenanceForRow(r);
+		}
+
+		return keepRow;
+	}
 
 	/**
 	 * checks for duplicate values of the provided column combination and returns all rows which contain duplicate values.
@@ -17,8 +17,8 @@ import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
@@ -63,6 +63,13 @@ public class WebTablesStringNormalizer {
 		add("(n/a)"); 
 		}};
 
+	// re-used buffer for the normalisation of headers and values, which avoids creating intermediate strings
+	private static final ThreadLocal<char[]> buffer = new ThreadLocal<char[]>() {
+		protected char[] initialValue() {
+			return new char[256];
+		}
+	};
+
 	/**
 	 *
 	 * @param columnName
@@ -73,24 +80,58 @@ public class WebTablesStringNormalizer {
 		{
 			return "";
 		} else {
-			columnName = StringEscapeUtils.unescapeJava(columnName);
-			columnName = columnName.replace("\"", "");
-			columnName = columnName.replace("|", " ");
-			columnName = columnName.replace(",", "");
-			columnName = columnName.replace("{", "");
-			columnName = columnName.replace("}", "");
-			columnName = columnName.replaceAll("\n", "");
-
-			columnName = columnName.replace("&nbsp;", " ");
-			columnName = columnName.replace("&nbsp", " ");
-			columnName = columnName.replace("nbsp", " ");
-			columnName = columnName.replaceAll("<.*>", "");
-
-			columnName = columnName.toLowerCase();
-			columnName = columnName.trim();
-
-			columnName = columnName.replaceAll("\\.", "");
-			columnName = columnName.replaceAll("\\$", "");
+			// unescapeJava does not change strings without a backslash
+			if(columnName.indexOf('\\')>=0) {
+				columnName = StringEscapeUtils.unescapeJava(columnName);
+			}
+
+			char[] buf = getBuffer(columnName.length());
+			int len = 0;
+
+			// remove quotes, commas, curly brackets and line breaks, replace pipes with spaces
+			for(int i = 0; i < columnName.length(); i++) {
+				char c = columnName.charAt(i);
+				switch(c) {
+				case '"':
+				case ',':
+				case '{':
+				case '}':
+				case '\n':
+					break;
+				case '|':
+					buf[len++] = ' ';
+					break;
+				default:
+					buf[len++] = c;
+				}
+			}
+
+			len = replaceNbsp(buf, len, true, true);
+			len = removeEnclosed(buf, len, '<', '>');
+
+			if(!toLowerCase(buf, len)) {
+				String lowerCase = new String(buf, 0, len).toLowerCase();
+				len = lowerCase.length();
+				buf = getBuffer(len);
+				lowerCase.getChars(0, len, buf, 0);
+			}
+
+			// trim
+			int start = 0;
+			while(start < len && buf[start] <= ' ') {
+				start++;
+			}
+			while(len > start && buf[len - 1] <= ' ') {
+				len--;
+			}
+
+			// remove dots and dollar signs
+			int end = start;
+			for(int i = start; i < len; i++) {
+				if(buf[i] != '.' && buf[i] != '$') {
+					buf[end++] = buf[i];
+				}
+			}
 			// clean the values from additional strings
 			// if (columnName.contains("/")) {
 			// 	columnName = columnName.substring(0, columnName.indexOf("/"));
@@ -99,35 +140,221 @@ public class WebTablesStringNormalizer {
 			// if (columnName.contains("\\")) {
 			// 	columnName = columnName.substring(0, columnName.indexOf("\\"));
 			// }
-			if (possibleNullValues.contains(columnName)) {
-				columnName = nullValue;
+			if (isNullValue(buf, start, end)) {
+				return nullValue;
 			}
 			
-			return columnName;
+			return new String(buf, start, end - start);
 		}
 	}
 
-	private static final Pattern bracketsPattern = Pattern.compile("\\(.*\\)");
-
 	public static String normaliseValue(String value, boolean removeContentInBrackets) {
-		try {
-			value = value.replaceAll("\n", "");
-			value = value.replace("&nbsp;", " ");
-			value = value.replace("&nbsp", " ");
-			value = value.replaceAll("[&\\?]#[0-9]{1,3};", "");
-			value = value.replace("nbsp", " ");
-			value = value.replaceAll("<.*>", "");
-			value = value.toLowerCase();
-			value = value.trim();
-			if (possibleNullValues.contains(value)) {
-				value = nullValue;
-			}
-			if (removeContentInBrackets) {
-				value = bracketsPattern.matcher(value).replaceAll("");
-			}
-		} catch (Exception e) {
-		}
-		return value;
+		if(value==null) {
+			return null;
+		}
+
+		char[] buf = getBuffer(value.length());
+		int len = 0;
+
+		// remove line breaks
+		for(int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if(c != '\n') {
+				buf[len++] = c;
+			}
+		}
+
+		len = replaceNbsp(buf, len, true, false);
+		len = removeCharacterReferences(buf, len);
+		len = replaceNbsp(buf, len, false, true);
+		len = removeEnclosed(buf, len, '<', '>');
+
+		if(!toLowerCase(buf, len)) {
+			String lowerCase = new String(buf, 0, len).toLowerCase();
+			len = lowerCase.length();
+			buf = getBuffer(len);
+			lowerCase.getChars(0, len, buf, 0);
+		}
+
+		// trim
+		int start = 0;
+		while(start < len && buf[start] <= ' ') {
+			start++;
+		}
+		while(len > start && buf[len - 1] <= ' ') {
+			len--;
+		}
+
+		if (isNullValue(buf, start, len)) {
+			if(removeContentInBrackets) {
+				buf = nullValue.toCharArray();
+				return new String(buf, 0, removeEnclosed(buf, buf.length, '(', ')'));
+			} else {
+				return nullValue;
+			}
+		}
+		if (removeContentInBrackets) {
+			len = start + removeEnclosed(buf, start, len, '(', ')');
+		}
+
+		return new String(buf, start, len - start);
+	}
+
+	private static char[] getBuffer(int length) {
+		char[] buf = buffer.get();
+		if(buf.length < length) {
+			buf = new char[Math.max(length, buf.length * 2)];
+			buffer.set(buf);
+		}
+		return buf;
+	}
+
+	private static boolean isNullValue(char[] buf, int start, int end) {
+		for(String nullString : possibleNullValues) {
+			if(nullString.length() == end - start) {
+				int i = 0;
+				while(i < nullString.length() && nullString.charAt(i) == buf[start + i]) {
+					i++;
+				}
+				if(i == nullString.length()) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * replaces "&amp;nbsp;" and "&amp;nbsp" (if entities is true) and "nbsp" (if bare is true) with a space
+	 * 
+	 * @return the new length of the content in buf
+	 */
+	private static int replaceNbsp(char[] buf, int len, boolean entities, boolean bare) {
+		int w = 0;
+		int r = 0;
+		while(r < len) {
+			if(entities && buf[r] == '&' && matches(buf, r + 1, len, "nbsp")) {
+				buf[w++] = ' ';
+				r += (r + 5 < len && buf[r + 5] == ';') ? 6 : 5;
+			} else if(bare && buf[r] == 'n' && matches(buf, r, len, "nbsp")) {
+				buf[w++] = ' ';
+				r += 4;
+			} else {
+				buf[w++] = buf[r++];
+			}
+		}
+		return w;
+	}
+
+	private static boolean matches(char[] buf, int offset, int len, String s) {
+		if(offset + s.length() > len) {
+			return false;
+		}
+		for(int i = 0; i < s.length(); i++) {
+			if(buf[offset + i] != s.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * removes numeric character references with up to three digits, i.e., all matches of "[&amp;\\?]#[0-9]{1,3};"
+	 * 
+	 * @return the new length of the content in buf
+	 */
+	private static int removeCharacterReferences(char[] buf, int len) {
+		int w = 0;
+		int r = 0;
+		while(r < len) {
+			char c = buf[r];
+			if((c == '&' || c == '?') && r + 1 < len && buf[r + 1] == '#') {
+				int digits = 0;
+				while(digits < 3 && r + 2 + digits < len && buf[r + 2 + digits] >= '0' && buf[r + 2 + digits] <= '9') {
+					digits++;
+				}
+				if(digits > 0 && r + 2 + digits < len && buf[r + 2 + digits] == ';') {
+					r += 3 + digits;
+					continue;
+				}
+			}
+			buf[w++] = buf[r++];
+		}
+		return w;
+	}
+
+	private static int removeEnclosed(char[] buf, int len, char open, char close) {
+		return removeEnclosed(buf, 0, len, open, close);
+	}
+
+	/**
+	 * removes everything from the first occurrence of open to the last occurrence of close in every line, i.e., all matches of "&lt;.*&gt;" for open='&lt;' and close='&gt;'.
+	 * The result is moved to the start of the range.
+	 * 
+	 * @return the length of the remaining content, which starts at position from in buf
+	 */
+	private static int removeEnclosed(char[] buf, int from, int to, char open, char close) {
+		int w = from;
+		int r = from;
+		while(r < to) {
+			// find the end of the current line (the regex '.' does not match line terminators)
+			int lineEnd = r;
+			int first = -1;
+			int last = -1;
+			while(lineEnd < to && !isLineTerminator(buf[lineEnd])) {
+				if(first == -1 && buf[lineEnd] == open) {
+					first = lineEnd;
+				} else if(first != -1 && buf[lineEnd] == close) {
+					last = lineEnd;
+				}
+				lineEnd++;
+			}
+
+			for(int i = r; i < lineEnd; i++) {
+				if(last == -1 || i < first || i > last) {
+					buf[w++] = buf[i];
+				}
+			}
+			if(lineEnd < to) {
+				// keep the line terminator
+				buf[w++] = buf[lineEnd];
+			}
+			r = lineEnd + 1;
+		}
+		return w - from;
+	}
+
+	private static boolean isLineTerminator(char c) {
+		return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
+
+	/**
+	 * converts the content of the buffer to lower case in place, which gives the same result as String.toLowerCase() for all characters that are not subject to special casing rules
+	 * 
+	 * @return false if the buffer contains characters which require String.toLowerCase() (buf is not modified in that case)
+	 */
+	private static boolean toLowerCase(char[] buf, int len) {
+		String language = Locale.getDefault().getLanguage();
+		if("tr".equals(language) || "az".equals(language) || "lt".equals(language)) {
+			return false;
+		}
+		for(int i = 0; i < len; i++) {
+			char c = buf[i];
+			if(c == '\u0130' || c == '\u03A3' || Character.isSurrogate(c)) {
+				return false;
+			}
+		}
+		for(int i = 0; i < len; i++) {
+			char c = buf[i];
+			if(c < 0x80) {
+				if(c >= 'A' && c <= 'Z') {
+					buf[i] = (char)(c + ('a' - 'A'));
+				}
+			} else {
+				buf[i] = Character.toLowerCase(c);
+			}
+		}
+		return true;
 	}
 
 	/**
@@ -16,6 +16,7 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -24,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.zip.GZIPInputStream;
 
+import org.apache.jena.graph.Node;
 import org.apache.jena.query.Query;
 import org.apache.jena.query.QueryExecution;
 import org.apache.jena.query.QueryExecutionFactory;
@@ -33,13 +35,17 @@ import org.apache.jena.query.ResultSet;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
 
+import de.uni_mannheim.informatik.dws.winter.model.io.SubjectGroupingStreamRDF;
 import de.uni_mannheim.informatik.dws.winter.preprocessing.datatypes.DataType;
 import de.uni_mannheim.informatik.dws.winter.utils.query.Q;
 import de.uni_mannheim.informatik.dws.winter.webtables.Table;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Consumer;
 import de.uni_mannheim.informatik.dws.winter.webtables.TableColumn;
 
 /**
- * A parser that loads the result of a SPARQL query executed against an RDF document as table
+ * A parser that loads the result of a SPARQL query executed against an RDF document as table.
+ * 
+ * Alternatively, the parser can stream the RDF document and load the values of a set of properties for each subject, which does not require the document to fit into memory.
  * 
  * @author Oliver Lehmberg (oli@dwslab.de)
  *
@@ -48,11 +54,61 @@ public class RdfTableParser extends TableParser {
 
 	private String queryString;
 
+	private Map<String, String> properties;
+	private String typeURI;
+	private boolean groupedBySubject = false;
+	private int maxBufferedTriples = 1000000;
+
 	public RdfTableParser(String query) {
 		this.queryString = query;
 		setStringNormalizer(new DynamicStringNormalizer());
 	}
 
+	/**
+	 * Creates a parser that streams the RDF document. The first column of the table contains the URI of the subject, 
+	 * the remaining columns contain the first value of each property for the subject.
+	 * 
+	 * @param properties	maps column names to property URIs
+	 * @param typeURI		if not null, only subjects with this rdf:type are loaded
+	 */
+	public RdfTableParser(Map<String, String> properties, String typeURI) {
+		this.properties = properties;
+		this.typeURI = typeURI;
+		setStringNormalizer(new DynamicStringNormalizer());
+	}
+
+	/**
+	 * @return the groupedBySubject
+	 */
+	public boolean isGroupedBySubject() {
+		return groupedBySubject;
+	}
+
+	/**
+	 * Specifies whether all triples of a subject are consecutive in the document (only used when streaming)
+	 * 
+	 * @param groupedBySubject the groupedBySubject to set
+	 */
+	public void setGroupedBySubject(boolean groupedBySubject) {
+		this.groupedBySubject = groupedBySubject;
+	}
+
+	/**
+	 * @return the maxBufferedTriples
+	 */
+	public int getMaxBufferedTriples() {
+		return maxBufferedTriples;
+	}
+
+	/**
+	 * Specifies how many triples are kept in memory before they are written to a temporary file (only used when streaming a document that is not grouped by subject)
+	 * 
+	 * @param maxBufferedTriples the maxBufferedTriples to set
+	 */
+	public void setMaxBufferedTriples(int maxBufferedTriples) {
+		this.maxBufferedTriples = maxBufferedTriples;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -90,6 +146,10 @@ public class RdfTableParser extends TableParser {
 	@Override
 	public Table parseTable(Reader reader, String fileName) throws IOException {
 
+		if(queryString == null) {
+			return parseTableFromStream(reader, fileName);
+		}
+
 		// create an empty model
 		Model model = ModelFactory.createDefaultModel();
 
@@ -121,20 +181,10 @@ public class RdfTableParser extends TableParser {
 						attributes.put(att, attributes.size());
 						
 						if(soln.get(att).isLiteral()) {
-							switch (soln.getLiteral(att).getDatatype().getURI()) {
-							case "http://www.w3.org/2001/XMLSchema#decimal":
-								types.put(att, DataType.numeric);
-								break;
-							case "http://www.w3.org/2001/XMLSchema#date":
-								types.put(att, DataType.date);
-								break;
-							case "http://www.w3.org/2001/XMLSchema#string":
-								types.put(att, DataType.string);
-								break;
-							default:
-								types.put(att, DataType.unknown);
+							DataType type = getDataType(soln.getLiteral(att).getDatatype().getURI());
+							types.put(att, type);
+							if(type == DataType.unknown) {
 								typesAlreadyDetected = false;
-								break;
 							}
 						} else {
 							types.put(att, DataType.string);
@@ -210,4 +260,107 @@ public class RdfTableParser extends TableParser {
 		return table;
 	}
 
+	private DataType getDataType(String datatypeURI) {
+		switch (datatypeURI) {
+		case "http://www.w3.org/2001/XMLSchema#decimal":
+			return DataType.numeric;
+		case "http://www.w3.org/2001/XMLSchema#date":
+			return DataType.date;
+		case "http://www.w3.org/2001/XMLSchema#string":
+			return DataType.string;
+		default:
+			return DataType.unknown;
+		}
+	}
+
+	/**
+	 * Streams the RDF document and adds a row to the table for every subject as soon as it is complete.
+	 */
+	protected Table parseTableFromStream(Reader reader, String fileName) throws IOException {
+
+		// create new table
+		final Table table = new Table();
+		table.setPath(fileName);
+
+		// the first column contains the subject URIs
+		List<String> columnNames = new ArrayList<>(properties.size() + 1);
+		columnNames.add("URI");
+		columnNames.addAll(properties.keySet());
+
+		int colIdx = 0;
+		for (String columnName : columnNames) {
+			TableColumn c = new TableColumn(colIdx, table);
+
+			String header = columnName;
+			if (isCleanHeader()) {
+				header = this.getStringNormalizer().normaliseHeader(header);
+			}
+			c.setHeader(header);
+
+			table.addColumn(c);
+
+			colIdx++;
+		}
+
+		// the data type of each column is determined by the first value
+		final DataType[] types = new DataType[columnNames.size()];
+		types[0] = DataType.string;
+
+		final Model model = SubjectGroupingStreamRDF.createFormattingModel();
+
+		SubjectGroupingStreamRDF stream = new SubjectGroupingStreamRDF(new ArrayList<>(properties.values()), typeURI, new Consumer<Node[]>() {
+
+			private int rowNumber = 0;
+
+			@Override
+			public void execute(Node[] row) {
+				String[] values = new String[row.length];
+				for(int i = 0; i < row.length; i++) {
+					values[i] = SubjectGroupingStreamRDF.format(row[i], model);
+
+					if(types[i] == null && row[i] != null) {
+						if(row[i].isLiteral()) {
+							types[i] = getDataType(row[i].getLiteralDatatypeURI());
+						} else {
+							types[i] = DataType.string;
+						}
+					}
+				}
+				populateRow(values, table, rowNumber++);
+			}
+		});
+		stream.setGroupedBySubject(groupedBySubject);
+		stream.setMaxBufferedTriples(maxBufferedTriples);
+		stream.parse(reader, fileName);
+
+		// check whether table content is not empty!
+		if (table.getSize()==0)
+			return null;
+
+		boolean typesAlreadyDetected = true;
+		for(int i = 0; i < types.length; i++) {
+			if(types[i] == null) {
+				types[i] = DataType.unknown;
+			}
+			if(types[i] == DataType.unknown) {
+				typesAlreadyDetected = false;
+			}
+			table.getSchema().get(i).setDataType(types[i]);
+		}
+
+		if (typesAlreadyDetected && isConvertValues()) {
+			table.convertValues();
+		} else if (isConvertValues()) {
+			table.inferSchemaAndConvertValues(this.getTypeDetector());
+		} else {
+			table.inferSchema(this.getTypeDetector());
+		}
+
+		if (!table.hasSubjectColumn()) {
+			table.identifySubjectColumn();
+		}
+
+		return table;
+	}
+
 }
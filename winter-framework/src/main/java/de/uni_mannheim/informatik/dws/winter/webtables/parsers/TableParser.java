@@ -128,42 +128,54 @@ public abstract class TableParser {
         int tableRowIndex = 0;
         for (int rowIdx = 0; rowIdx < tContent.length; rowIdx++) {
             if (!ArrayUtils.contains(skipRows, rowIdx)) {
-                String[] rowData = tContent[rowIdx];
-                Object[] values = new Object[tContent[rowIdx].length];
-                for (int i = 0; i < rowData.length && i < values.length; i++) {
-                    if (rowData[i] != null && !rowData[i].trim().isEmpty()) {
-
-                        if (ListHandler.checkIfList(rowData[i]) && checkForList) {
-                            List<String> listValues = new LinkedList<>();
-                            for (String v : ListHandler.splitList(rowData[i])) {
-                                v = stringNormalizer.normaliseValue(rowData[i], false);
-
-                                if (!((String) v).equalsIgnoreCase(StringNormalizer.nullValue)) {
-                                } else {
-                                    listValues.add(v);
-                                }
-                            }
-                            values[i] = listValues.toArray();
-                        } else {
-                            values[i] = stringNormalizer.normaliseValue(rowData[i], false);
+                populateRow(tContent[rowIdx], t, tableRowIndex);
+                tableRowIndex++;
+            }
+        }
+    }
 
-                            if (((String) values[i]).equalsIgnoreCase(StringNormalizer.nullValue)) {
-                                values[i] = null;
-                            } else {
-                                values[i] = values[i];
-                            }
-                        }
+    /**
+     * Normalises the values of a single row and adds it to the provided table.
+     *
+     * @param rowData has the content of the row
+     * @param t has the table, which is populated
+     * @param tableRowIndex the row number of the new row
+     * @return the new row
+     */
+    public TableRow populateRow(String[] rowData, Table t, int tableRowIndex) {
+        Object[] values = new Object[rowData.length];
+        for (int i = 0; i < rowData.length && i < values.length; i++) {
+            if (rowData[i] != null && !rowData[i].trim().isEmpty()) {
 
+                if (ListHandler.checkIfList(rowData[i]) && checkForList) {
+                    List<String> listValues = new LinkedList<>();
+                    for (String v : ListHandler.splitList(rowData[i])) {
+                        v = stringNormalizer.normaliseValue(rowData[i], false);
+
+                        if (!((String) v).equalsIgnoreCase(StringNormalizer.nullValue)) {
+                        } else {
+                            listValues.add(v);
+                        }
+                    }
+                    values[i] = listValues.toArray();
+                } else {
+                    values[i] = stringNormalizer.normaliseValue(rowData[i], false);
+
+                    if (((String) values[i]).equalsIgnoreCase(StringNormalizer.nullValue)) {
+                        values[i] = null;
+                    } else {
+                        values[i] = values[i];
                     }
                 }
 
-                // make sure the row number is the row's position in the table.
-                TableRow r = new TableRow(tableRowIndex, t);
-                tableRowIndex++;
-                r.set(values);
-                t.addRow(r);
             }
         }
+
+        // make sure the row number is the row's position in the table.
+        TableRow r = new TableRow(tableRowIndex, t);
+        r.set(values);
+        t.addRow(r);
+        return r;
     }
 
     public abstract Table parseTable(File file);
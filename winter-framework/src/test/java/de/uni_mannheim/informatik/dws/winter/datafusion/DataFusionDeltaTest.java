@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.datafusion;
+
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import junit.framework.TestCase;
+
+/**
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class DataFusionDeltaTest extends TestCase {
+
+	private Record a = new Record("a", "ds1");
+	private Record b = new Record("b", "ds2");
+	private Record c = new Record("c", "ds2");
+
+	public void testCancelOut() {
+		DataFusionDelta<Record, Attribute> delta = new DataFusionDelta<>();
+		delta.addCorrespondence(new Correspondence<Record, Matchable>(a, b, 1.0));
+		delta.removeCorrespondence(new Correspondence<Record, Matchable>(a, b, 1.0));
+		assertTrue(delta.isEmpty());
+
+		delta.removeCorrespondence(new Correspondence<Record, Matchable>(a, b, 1.0));
+		delta.addCorrespondence(new Correspondence<Record, Matchable>(a, b, 1.0));
+		assertTrue(delta.isEmpty());
+	}
+
+	public void testCancelOutInOppositeDirection() {
+		DataFusionDelta<Record, Attribute> delta = new DataFusionDelta<>();
+		delta.addCorrespondence(new Correspondence<Record, Matchable>(a, b, 1.0));
+		delta.removeCorrespondence(new Correspondence<Record, Matchable>(b, a, 1.0));
+		assertTrue(delta.isEmpty());
+
+		delta.removeCorrespondence(new Correspondence<Record, Matchable>(a, b, 1.0));
+		delta.addCorrespondence(new Correspondence<Record, Matchable>(b, a, 1.0));
+		assertTrue(delta.isEmpty());
+
+		// only correspondences between the same records cancel out
+		delta.addCorrespondence(new Correspondence<Record, Matchable>(a, b, 1.0));
+		delta.removeCorrespondence(new Correspondence<Record, Matchable>(c, a, 1.0));
+		assertEquals(1, delta.getAddedCorrespondences().size());
+		assertEquals(1, delta.getRemovedCorrespondences().size());
+	}
+
+}
@@ -0,0 +1,354 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.datafusion;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.lang3.StringUtils;
+
+import de.uni_mannheim.informatik.dws.winter.datafusion.conflictresolution.ConflictResolutionFunction;
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.FusedValue;
+import de.uni_mannheim.informatik.dws.winter.model.FusibleDataSet;
+import de.uni_mannheim.informatik.dws.winter.model.FusibleFactory;
+import de.uni_mannheim.informatik.dws.winter.model.FusibleHashedDataSet;
+import de.uni_mannheim.informatik.dws.winter.model.FusibleValue;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.Pair;
+import de.uni_mannheim.informatik.dws.winter.model.RecordGroup;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import de.uni_mannheim.informatik.dws.winter.processing.ProcessableCollection;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Parallel;
+import junit.framework.TestCase;
+
+/**
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class DataFusionEngineTest extends TestCase {
+
+	private static final Attribute NAME = new Attribute("name");
+
+	/**
+	 * Fuses the smallest name, so the result does not depend on the order of the records in a group
+	 */
+	private static class NameFuser extends AttributeValueFuser<String, Record, Attribute> {
+
+		public NameFuser() {
+			super(new ConflictResolutionFunction<String, Record, Attribute>() {
+
+				@Override
+				public FusedValue<String, Record, Attribute> resolveConflict(
+						Collection<FusibleValue<String, Record, Attribute>> values) {
+					String smallest = null;
+					for (FusibleValue<String, Record, Attribute> value : values) {
+						if (smallest == null || value.getValue().compareTo(smallest) < 0) {
+							smallest = value.getValue();
+						}
+					}
+					return new FusedValue<>(smallest);
+				}
+			});
+		}
+
+		@Override
+		public void fuse(RecordGroup<Record, Attribute> group, Record fusedRecord,
+				Processable<Correspondence<Attribute, Matchable>> schemaCorrespondences, Attribute schemaElement) {
+			fusedRecord.setValue(NAME, getFusedValue(group, schemaCorrespondences, schemaElement).getValue());
+		}
+
+		@Override
+		public boolean hasValue(Record record, Correspondence<Attribute, Matchable> correspondence) {
+			return record.hasValue(NAME);
+		}
+
+		@Override
+		public String getValue(Record record, Correspondence<Attribute, Matchable> correspondence) {
+			return record.getValue(NAME);
+		}
+	}
+
+	private static class NameRule extends EvaluationRule<Record, Attribute> {
+
+		@Override
+		public boolean isEqual(Record record1, Record record2, Attribute schemaElement) {
+			return record1.getValue(NAME).equals(record2.getValue(NAME));
+		}
+
+		@Override
+		public boolean isEqual(Record record1, Record record2,
+				Correspondence<Attribute, Matchable> schemaCorrespondence) {
+			return isEqual(record1, record2, NAME);
+		}
+	}
+
+	private DataFusionStrategy<Record, Attribute> strategy;
+	private FusibleDataSet<Record, Attribute> ds1;
+	private FusibleDataSet<Record, Attribute> ds2;
+	private List<Correspondence<Record, Matchable>> correspondences;
+
+	private DataFusionEngine<Record, Attribute> createEngine() {
+		strategy = new DataFusionStrategy<>(
+				new FusibleFactory<Record, Attribute>() {
+
+					@Override
+					public Record createInstanceForFusion(RecordGroup<Record, Attribute> cluster) {
+						return new Record("fused:" + StringUtils.join(new TreeSet<>(cluster.getRecordIds()), "+"),
+								"fused");
+					}
+				});
+		strategy.addAttributeFuser(NAME, new NameFuser(), new NameRule());
+		return new DataFusionEngine<>(strategy);
+	}
+
+	private Record createRecord(String id, String provenance, Random r) {
+		Record record = new Record(id, provenance);
+		record.setValue(NAME, "name" + r.nextInt(1000000));
+		return record;
+	}
+
+	private void createData(int numRecords, Random r) {
+		ds1 = new FusibleHashedDataSet<>();
+		ds2 = new FusibleHashedDataSet<>();
+		for (int i = 0; i < numRecords; i++) {
+			ds1.add(createRecord("a" + i, "ds1", r));
+			ds2.add(createRecord("b" + i, "ds2", r));
+		}
+
+		// mostly 1:1 correspondences and some records with multiple correspondences
+		correspondences = new ArrayList<>();
+		for (int i = 0; i < numRecords; i++) {
+			correspondences.add(createCorrespondence(i, r.nextInt(4) == 0 ? r.nextInt(numRecords) : i));
+		}
+	}
+
+	private Correspondence<Record, Matchable> createCorrespondence(int index1, int index2) {
+		return new Correspondence<>(ds1.getRecord("a" + index1), ds2.getRecord("b" + index2), 1.0);
+	}
+
+	private CorrespondenceSet<Record, Attribute> createCorrespondenceSet(
+			Collection<Correspondence<Record, Matchable>> correspondences) {
+		CorrespondenceSet<Record, Attribute> set = new CorrespondenceSet<>();
+		set.createFromCorrespondences(new ProcessableCollection<>(correspondences), ds1, ds2);
+		return set;
+	}
+
+	/**
+	 * Changes about 1% of the records and correspondences, updates the list of correspondences
+	 */
+	private DataFusionDelta<Record, Attribute> createDelta(int numRecords, Random r) {
+		DataFusionDelta<Record, Attribute> delta = new DataFusionDelta<>();
+		int numChanges = Math.max(1, numRecords / 400);
+
+		for (int i = 0; i < numChanges; i++) {
+			// add a correspondence
+			Correspondence<Record, Matchable> added = createCorrespondence(r.nextInt(numRecords),
+					r.nextInt(numRecords));
+			delta.addCorrespondence(added);
+			correspondences.add(added);
+
+			// remove a correspondence
+			Correspondence<Record, Matchable> removed = correspondences.remove(r.nextInt(correspondences.size()));
+			delta.removeCorrespondence(removed);
+
+			// change a record
+			Record changed = createRecord("b" + r.nextInt(numRecords), "ds2", r);
+			ds2.add(changed);
+			delta.addRecord(changed.getIdentifier());
+
+			// remove a record
+			String removedId = "a" + r.nextInt(numRecords);
+			if (ds1.getRecord(removedId) != null) {
+				ds1.removeRecord(removedId);
+				delta.removeRecord(removedId);
+			}
+		}
+
+		// remove all correspondences of the removed records
+		List<Correspondence<Record, Matchable>> remaining = new ArrayList<>();
+		for (Correspondence<Record, Matchable> cor : correspondences) {
+			if (!delta.getRemovedRecordIds().contains(cor.getFirstRecord().getIdentifier())) {
+				remaining.add(cor);
+			}
+		}
+		correspondences = remaining;
+
+		return delta;
+	}
+
+	private Set<Set<String>> getGroups(CorrespondenceSet<Record, Attribute> correspondences) {
+		Set<Set<String>> groups = new HashSet<>();
+		for (RecordGroup<Record, Attribute> grp : correspondences.getRecordGroups()) {
+			assertTrue(groups.add(new HashSet<>(grp.getRecordIds())));
+		}
+		return groups;
+	}
+
+	private void assertSameResult(FusibleDataSet<Record, Attribute> expected,
+			FusibleDataSet<Record, Attribute> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (Record record : expected.get()) {
+			Record fused = actual.getRecord(record.getIdentifier());
+			assertNotNull(fused);
+			assertEquals(record.getValue(NAME), fused.getValue(NAME));
+		}
+
+		// the original ids point to the same fused records
+		for (String prefix : new String[] { "a", "b" }) {
+			for (int i = 0; i < ds1.size() + 100; i++) {
+				Record expectedRecord = expected.getRecord(prefix + i);
+				Record actualRecord = actual.getRecord(prefix + i);
+				if (expectedRecord == null) {
+					assertNull(actualRecord);
+				} else {
+					assertEquals(expectedRecord.getIdentifier(), actualRecord.getIdentifier());
+				}
+			}
+		}
+	}
+
+	public void testRunIncremental() {
+		Random r = new Random(1);
+		createData(2000, r);
+		DataFusionEngine<Record, Attribute> engine = createEngine();
+
+		CorrespondenceSet<Record, Attribute> incrementalSet = createCorrespondenceSet(correspondences);
+		FusibleDataSet<Record, Attribute> incrementalResult = engine.run(incrementalSet, null);
+
+		for (int iteration = 0; iteration < 5; iteration++) {
+			DataFusionDelta<Record, Attribute> delta = createDelta(2000, r);
+			incrementalResult = engine.runIncremental(incrementalResult, incrementalSet, delta, ds1, ds2, null);
+
+			CorrespondenceSet<Record, Attribute> fullSet = createCorrespondenceSet(correspondences);
+			FusibleDataSet<Record, Attribute> fullResult = engine.run(fullSet, null);
+
+			assertEquals(getGroups(fullSet), getGroups(incrementalSet));
+			assertSameResult(fullResult, incrementalResult);
+		}
+	}
+
+	public void testRunIncrementalWithEmptyDelta() {
+		Random r = new Random(1);
+		createData(100, r);
+		DataFusionEngine<Record, Attribute> engine = createEngine();
+
+		CorrespondenceSet<Record, Attribute> set = createCorrespondenceSet(correspondences);
+		FusibleDataSet<Record, Attribute> result = engine.run(set, null);
+		Set<Set<String>> groups = getGroups(set);
+		int size = result.size();
+
+		result = engine.runIncremental(result, set, new DataFusionDelta<>(), ds1, ds2, null);
+		assertEquals(groups, getGroups(set));
+		assertEquals(size, result.size());
+	}
+
+	public void testGetConsistencies() {
+		Random r = new Random(1);
+		createData(2000, r);
+		// few distinct names, so some groups are consistent
+		for (Record record : ds2.get()) {
+			record.setValue(NAME, "name" + r.nextInt(3));
+		}
+		for (Record record : ds1.get()) {
+			record.setValue(NAME, "name" + r.nextInt(3));
+		}
+		DataFusionEngine<Record, Attribute> engine = createEngine();
+		CorrespondenceSet<Record, Attribute> set = createCorrespondenceSet(correspondences);
+
+		// calculate the consistencies sequentially
+		double sum = 0.0;
+		int count = 0;
+		Map<Set<String>, Double> groupConsistencies = new HashMap<>();
+		for (RecordGroup<Record, Attribute> grp : set.getRecordGroups()) {
+			Double consistency = strategy.getAttributeConsistency(grp, null).get(NAME.getIdentifier());
+			if (consistency != null) {
+				sum += consistency;
+				count++;
+			}
+			groupConsistencies.put(new HashSet<>(grp.getRecordIds()), consistency);
+		}
+
+		int numProcessors = Runtime.getRuntime().availableProcessors();
+		try {
+			for (int threads : new int[] { 1, 4 }) {
+				Parallel.SetDefaultNumProcessors(threads);
+
+				assertEquals(sum / count, engine.getAttributeConsistencies(set, null).get(NAME.getIdentifier()), 1e-9);
+
+				Set<Pair<RecordGroup<Record, Attribute>, Double>> consistencies = engine.getRecordGroupConsistencies(set,
+						null);
+				assertEquals(groupConsistencies.size(), consistencies.size());
+				for (Pair<RecordGroup<Record, Attribute>, Double> p : consistencies) {
+					assertEquals(groupConsistencies.get(new HashSet<>(p.getFirst().getRecordIds())), p.getSecond());
+				}
+			}
+		} finally {
+			Parallel.SetDefaultNumProcessors(numProcessors);
+		}
+	}
+
+	public void testRunIncrementalOnLargerDelta() {
+		int numRecords = 10000;
+		Random r = new Random(1);
+		createData(numRecords, r);
+		DataFusionEngine<Record, Attribute> engine = createEngine();
+
+		CorrespondenceSet<Record, Attribute> incrementalSet = createCorrespondenceSet(correspondences);
+		FusibleDataSet<Record, Attribute> incrementalResult = engine.run(incrementalSet, null);
+
+		// changes about 1% of the records and correspondences
+		DataFusionDelta<Record, Attribute> delta = createDelta(numRecords, r);
+		incrementalResult = engine.runIncremental(incrementalResult, incrementalSet, delta, ds1, ds2, null);
+
+		CorrespondenceSet<Record, Attribute> fullSet = createCorrespondenceSet(correspondences);
+		FusibleDataSet<Record, Attribute> fullResult = engine.run(fullSet, null);
+
+		assertEquals(getGroups(fullSet), getGroups(incrementalSet));
+		assertSameResult(fullResult, incrementalResult);
+	}
+
+	public void testUpdateWithoutCorrespondences() throws IOException {
+		Random r = new Random(1);
+		createData(10, r);
+
+		File file = File.createTempFile("correspondences", ".csv");
+		file.deleteOnExit();
+		try (FileWriter writer = new FileWriter(file)) {
+			writer.write("\"a1\",\"x1\",\"1.0\"\n\"a2\",\"x1\",\"1.0\"\n");
+		}
+
+		CorrespondenceSet<Record, Attribute> set = new CorrespondenceSet<>();
+		set.loadCorrespondences(file, ds1);
+		assertEquals(1, set.getRecordGroups().size());
+
+		try {
+			set.update(new DataFusionDelta<>(), ds1, ds2);
+			fail("Groups without correspondences must not be updated");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.datafusion;
+
+import java.util.Random;
+
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.FusibleDataSet;
+import de.uni_mannheim.informatik.dws.winter.model.FusibleHashedDataSet;
+import de.uni_mannheim.informatik.dws.winter.model.HashedDataSet;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Parallel;
+import junit.framework.TestCase;
+
+/**
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class DataFusionEvaluatorTest extends TestCase {
+
+	private static final Attribute NAME = new Attribute("name");
+	private static final Attribute CITY = new Attribute("city");
+
+	private static class EqualValueRule extends EvaluationRule<Record, Attribute> {
+
+		@Override
+		public boolean isEqual(Record record1, Record record2, Attribute schemaElement) {
+			return record1.getValue(schemaElement).equals(record2.getValue(schemaElement));
+		}
+
+		@Override
+		public boolean isEqual(Record record1, Record record2,
+				Correspondence<Attribute, Matchable> schemaCorrespondence) {
+			return isEqual(record1, record2, (Attribute) null);
+		}
+	}
+
+	public void testEvaluate() {
+		Random r = new Random(1);
+		FusibleDataSet<Record, Attribute> fused = new FusibleHashedDataSet<>();
+		HashedDataSet<Record, Attribute> goldStandard = new HashedDataSet<>();
+		int correctValues = 0;
+
+		for (int i = 0; i < 5000; i++) {
+			Record gs = new Record("r" + i, "gs");
+			gs.setValue(NAME, "name" + i);
+			gs.setValue(CITY, "city" + i);
+			goldStandard.add(gs);
+
+			// some records of the gold standard are missing in the fused data
+			if (r.nextInt(10) > 0) {
+				Record record = new Record("r" + i, "fused");
+				record.setValue(NAME, r.nextBoolean() ? "name" + i : "other");
+				record.setValue(CITY, r.nextInt(4) > 0 ? "city" + i : "other");
+				fused.add(record);
+
+				correctValues += record.getValue(NAME).equals(gs.getValue(NAME)) ? 1 : 0;
+				correctValues += record.getValue(CITY).equals(gs.getValue(CITY)) ? 1 : 0;
+			}
+		}
+
+		DataFusionStrategy<Record, Attribute> strategy = new DataFusionStrategy<>(null);
+		strategy.addAttributeFuser(NAME, null, new EqualValueRule());
+		strategy.addAttributeFuser(CITY, null, new EqualValueRule());
+
+		DataFusionEvaluator<Record, Attribute> evaluator = new DataFusionEvaluator<>(strategy);
+
+		double expected = (double) correctValues / (2.0 * goldStandard.size());
+		int numProcessors = Runtime.getRuntime().availableProcessors();
+
+		try {
+			for (int threads : new int[] { 1, 4 }) {
+				Parallel.SetDefaultNumProcessors(threads);
+				assertEquals(expected, evaluator.evaluate(fused, goldStandard, null), 1e-12);
+			}
+		} finally {
+			Parallel.SetDefaultNumProcessors(numProcessors);
+		}
+	}
+
+}
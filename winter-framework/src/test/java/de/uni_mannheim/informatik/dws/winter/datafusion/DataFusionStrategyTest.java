@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.datafusion;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import de.uni_mannheim.informatik.dws.winter.processing.ProcessableCollection;
+import junit.framework.TestCase;
+
+/**
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class DataFusionStrategyTest extends TestCase {
+
+	private Attribute[] targetAttributes;
+
+	private DataFusionStrategy<Record, Attribute> createStrategy(int numTargetAttributes) {
+		DataFusionStrategy<Record, Attribute> strategy = new DataFusionStrategy<>(null);
+		targetAttributes = new Attribute[numTargetAttributes];
+		for (int i = 0; i < numTargetAttributes; i++) {
+			targetAttributes[i] = new Attribute("target" + i);
+			strategy.addAttributeFuser(targetAttributes[i], null, null);
+		}
+		return strategy;
+	}
+
+	/**
+	 * Creates a correspondence from every attribute of every source schema to the target schema
+	 */
+	private Processable<Correspondence<Attribute, Matchable>> createSchemaCorrespondences(int numSources) {
+		Processable<Correspondence<Attribute, Matchable>> correspondences = new ProcessableCollection<>();
+		for (int source = 0; source < numSources; source++) {
+			for (int i = 0; i < targetAttributes.length; i++) {
+				Attribute sourceAttribute = new Attribute("source" + source + "_" + i, "source" + source);
+				correspondences.add(new Correspondence<Attribute, Matchable>(sourceAttribute, targetAttributes[i], 1.0));
+			}
+		}
+		return correspondences;
+	}
+
+	private Map<String, Set<String>> getSourceAttributes(List<AttributeFusionTask<Record, Attribute>> tasks) {
+		Map<String, Set<String>> sourceAttributes = new HashMap<>();
+		for (AttributeFusionTask<Record, Attribute> task : tasks) {
+			Set<String> ids = new HashSet<>();
+			for (Correspondence<Attribute, Matchable> cor : task.getCorrespondences().get()) {
+				assertEquals(task.getSchemaElement(), cor.getSecondRecord());
+				ids.add(cor.getFirstRecord().getIdentifier());
+			}
+			assertNull(sourceAttributes.put(task.getSchemaElement().getIdentifier(), ids));
+		}
+		return sourceAttributes;
+	}
+
+	public void testGetAttributeFusers() {
+		DataFusionStrategy<Record, Attribute> strategy = createStrategy(5);
+		Processable<Correspondence<Attribute, Matchable>> correspondences = createSchemaCorrespondences(10);
+
+		Map<String, Set<String>> sourceAttributes = getSourceAttributes(strategy.getAttributeFusers(null, correspondences));
+		assertEquals(5, sourceAttributes.size());
+		assertEquals(10, sourceAttributes.get("target0").size());
+
+		// without an index, all changes of the correspondences are used
+		correspondences.add(new Correspondence<Attribute, Matchable>(new Attribute("new", "source10"), targetAttributes[0], 1.0));
+		sourceAttributes = getSourceAttributes(strategy.getAttributeFusers(null, correspondences));
+		assertTrue(sourceAttributes.get("target0").contains("new"));
+
+		Processable<Correspondence<Attribute, Matchable>> other = new ProcessableCollection<>();
+		other.add(new Correspondence<Attribute, Matchable>(new Attribute("a", "source0"), targetAttributes[1], 1.0));
+		sourceAttributes = getSourceAttributes(strategy.getAttributeFusers(null, other));
+		assertEquals(1, sourceAttributes.size());
+		assertEquals(1, sourceAttributes.get("target1").size());
+
+		// also if a correspondence is replaced without changing the number of correspondences
+		other.remove(other.firstOrNull());
+		other.add(new Correspondence<Attribute, Matchable>(new Attribute("b", "source0"), targetAttributes[2], 1.0));
+		sourceAttributes = getSourceAttributes(strategy.getAttributeFusers(null, other));
+		assertEquals(1, sourceAttributes.size());
+		assertTrue(sourceAttributes.get("target2").contains("b"));
+
+		// the indexed correspondences are answered from the index, other correspondences are not
+		strategy.indexAttributeFusers(correspondences);
+		List<AttributeFusionTask<Record, Attribute>> indexed = strategy.getAttributeFusers(null, correspondences);
+		assertSame(indexed.get(0), strategy.getAttributeFusers(null, correspondences).get(0));
+		sourceAttributes = getSourceAttributes(strategy.getAttributeFusers(null, other));
+		assertEquals(1, sourceAttributes.size());
+		assertTrue(sourceAttributes.get("target2").contains("b"));
+
+		// after the index is removed, changes are used again
+		correspondences.remove(correspondences.firstOrNull());
+		correspondences.add(new Correspondence<Attribute, Matchable>(new Attribute("replaced", "source11"), targetAttributes[0], 1.0));
+		strategy.invalidateAttributeFuserIndex();
+		sourceAttributes = getSourceAttributes(strategy.getAttributeFusers(null, correspondences));
+		assertTrue(sourceAttributes.get("target0").contains("replaced"));
+
+		// adding a fuser removes the index
+		strategy.indexAttributeFusers(other);
+		EvaluationRule<Record, Attribute> rule = new EvaluationRule<Record, Attribute>() {
+
+			@Override
+			public boolean isEqual(Record record1, Record record2, Attribute schemaElement) {
+				return true;
+			}
+
+			@Override
+			public boolean isEqual(Record record1, Record record2,
+					Correspondence<Attribute, Matchable> schemaCorrespondence) {
+				return true;
+			}
+		};
+		strategy.addAttributeFuser(targetAttributes[2], null, rule);
+		assertSame(rule, strategy.getAttributeFusers(null, other).get(0).getEvaluationRule());
+	}
+
+	public void testGetAttributeFusersOnManySources() {
+		DataFusionStrategy<Record, Attribute> strategy = createStrategy(20);
+		Processable<Correspondence<Attribute, Matchable>> correspondences = createSchemaCorrespondences(500);
+
+		// the tasks created by scanning the correspondences
+		Map<String, Set<String>> scanned = getSourceAttributes(strategy.getAttributeFusers(null, correspondences));
+		assertEquals(20, scanned.size());
+		assertEquals(500, scanned.get("target0").size());
+
+		// repeated lookups are answered from the index
+		strategy.indexAttributeFusers(correspondences);
+		for (int i = 0; i < 10; i++) {
+			assertEquals(scanned, getSourceAttributes(strategy.getAttributeFusers(null, correspondences)));
+		}
+	}
+
+}
@@ -1,7 +1,11 @@
 package de.uni_mannheim.informatik.dws.winter.datafusion.conflictresolution.numeric;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -33,4 +37,28 @@ public class MedianTest extends TestCase {
         assertEquals(2.0d, result.getValue());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testResolveConflictWithTies() {
+        Median<Record,Attribute> median = new Median<>();
+        Random r = new Random(1);
+
+        for (int n = 1; n < 200; n++) {
+            Collection<FusibleValue<Double, Record, Attribute>> values = new LinkedList<>();
+            List<Double> sorted = new ArrayList<>();
+
+            // few distinct values, so the median is often surrounded by equal values
+            int range = 1 + r.nextInt(5);
+            for (int i = 0; i < n; i++) {
+                double value = r.nextInt(range) - range / 2;
+                values.add(new FusibleValue<Double,Record,Attribute>(value, null, null));
+                sorted.add(value);
+            }
+
+            Collections.sort(sorted);
+            double expected = n % 2 == 0 ? (sorted.get(n / 2 - 1) + sorted.get(n / 2)) / 2.0 : sorted.get(n / 2);
+
+            assertEquals(expected, median.resolveConflict(values).getValue());
+        }
+    }
+
+}
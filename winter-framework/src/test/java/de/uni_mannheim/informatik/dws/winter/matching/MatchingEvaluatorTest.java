@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.MatchingGoldStandard;
+import de.uni_mannheim.informatik.dws.winter.model.Pair;
+import de.uni_mannheim.informatik.dws.winter.model.Performance;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import de.uni_mannheim.informatik.dws.winter.processing.ProcessableCollection;
+import junit.framework.TestCase;
+
+/**
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class MatchingEvaluatorTest extends TestCase {
+
+	private static final int NUM_RECORDS = 1000;
+
+	private Record[] records1;
+	private Record[] records2;
+
+	@Override
+	protected void setUp() throws Exception {
+		records1 = new Record[NUM_RECORDS];
+		records2 = new Record[NUM_RECORDS];
+		for (int i = 0; i < NUM_RECORDS; i++) {
+			records1[i] = new Record("a" + i, "ds1");
+			records2[i] = new Record("b" + i, "ds2");
+		}
+	}
+
+	private String canonical(String id1, String id2) {
+		return id1.compareTo(id2) <= 0 ? id1 + "|" + id2 : id2 + "|" + id1;
+	}
+
+	/**
+	 * Evaluates with string keys, as the gold standard did before the record ids were interned
+	 */
+	private Performance evaluateWithStrings(Processable<Correspondence<Record, Attribute>> correspondences,
+			Set<String> positives, Set<String> negatives, int numPositives, boolean isComplete) {
+		int correct = 0;
+		int matched = 0;
+		for (Correspondence<Record, Attribute> cor : correspondences.get()) {
+			String c = canonical(cor.getFirstRecord().getIdentifier(), cor.getSecondRecord().getIdentifier());
+			if (positives.contains(c)) {
+				correct++;
+				matched++;
+			} else if (isComplete || negatives.contains(c)) {
+				matched++;
+			}
+		}
+		return new Performance(correct, matched, numPositives);
+	}
+
+	private void assertSamePerformance(Performance expected, Performance actual) {
+		assertEquals(expected.getNumberOfCorrectlyPredicted(), actual.getNumberOfCorrectlyPredicted());
+		assertEquals(expected.getNumberOfPredicted(), actual.getNumberOfPredicted());
+		assertEquals(expected.getNumberOfCorrectTotal(), actual.getNumberOfCorrectTotal());
+	}
+
+	public void testEvaluateMatching() {
+		Random r = new Random(1);
+		MatchingGoldStandard gs = new MatchingGoldStandard();
+		Set<String> positives = new HashSet<>();
+		Set<String> negatives = new HashSet<>();
+
+		for (int i = 0; i < NUM_RECORDS; i++) {
+			gs.addPositiveExample(new Pair<>(records1[i].getIdentifier(), records2[i].getIdentifier()));
+			positives.add(canonical(records1[i].getIdentifier(), records2[i].getIdentifier()));
+
+			// negative examples in both directions
+			Record negative = records2[r.nextInt(NUM_RECORDS)];
+			if (r.nextBoolean()) {
+				gs.addNegativeExample(new Pair<>(records1[i].getIdentifier(), negative.getIdentifier()));
+			} else {
+				gs.addNegativeExample(new Pair<>(negative.getIdentifier(), records1[i].getIdentifier()));
+			}
+			negatives.add(canonical(records1[i].getIdentifier(), negative.getIdentifier()));
+		}
+
+		// large enough to be evaluated in parallel, contains duplicates and pairs in both directions
+		Processable<Correspondence<Record, Attribute>> correspondences = new ProcessableCollection<>();
+		for (int i = 0; i < 300000; i++) {
+			Record first = records1[r.nextInt(NUM_RECORDS)];
+			Record second = r.nextInt(4) == 0 ? records2[Integer.parseInt(first.getIdentifier().substring(1))]
+					: records2[r.nextInt(NUM_RECORDS)];
+			if (r.nextBoolean()) {
+				correspondences.add(new Correspondence<Record, Attribute>(first, second, 1.0));
+			} else {
+				correspondences.add(new Correspondence<Record, Attribute>(second, first, 1.0));
+			}
+		}
+		// records which are not in the gold standard
+		correspondences.add(new Correspondence<Record, Attribute>(new Record("x", "ds1"), records2[0], 1.0));
+
+		MatchingEvaluator<Record, Attribute> evaluator = new MatchingEvaluator<>();
+		for (boolean isComplete : new boolean[] { false, true }) {
+			gs.setComplete(isComplete);
+			Performance expected = evaluateWithStrings(correspondences, positives, negatives, NUM_RECORDS,
+					isComplete);
+
+			assertSamePerformance(expected, evaluator.evaluateMatching(correspondences, gs));
+			assertSamePerformance(expected, evaluator.evaluateMatching(correspondences.get(), gs));
+		}
+	}
+
+}
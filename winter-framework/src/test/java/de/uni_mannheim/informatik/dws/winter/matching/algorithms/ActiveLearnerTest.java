@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.algorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import de.uni_mannheim.informatik.dws.winter.matching.MatchingEvaluator;
+import de.uni_mannheim.informatik.dws.winter.matching.blockers.StandardRecordBlocker;
+import de.uni_mannheim.informatik.dws.winter.matching.blockers.generators.StaticBlockingKeyGenerator;
+import de.uni_mannheim.informatik.dws.winter.matching.rules.WekaMatchingRule;
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.DataSet;
+import de.uni_mannheim.informatik.dws.winter.model.HashedDataSet;
+import de.uni_mannheim.informatik.dws.winter.model.MatchingGoldStandard;
+import de.uni_mannheim.informatik.dws.winter.model.Pair;
+import de.uni_mannheim.informatik.dws.winter.model.Performance;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.comparators.RecordComparatorEqual;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.comparators.RecordComparatorJaccard;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.comparators.RecordComparatorLevenshtein;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import junit.framework.TestCase;
+import weka.classifiers.trees.J48;
+
+/**
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class ActiveLearnerTest extends TestCase {
+
+	private static final Attribute NAME = new Attribute("name");
+	private static final Attribute CITY = new Attribute("city");
+
+	private static final String[] TOKENS = { "john", "jane", "smith", "miller", "anna", "peter", "paul", "mary",
+			"berlin", "mannheim", "hamburg", "munich", "thomas", "maria", "schmidt", "weber", "fischer", "meyer",
+			"wagner", "becker", "cologne", "frankfurt", "stuttgart", "leipzig" };
+
+	private DataSet<Record, Attribute> ds1;
+	private DataSet<Record, Attribute> ds2;
+	private MatchingGoldStandard gs;
+
+	private String randomValue(Random r) {
+		StringBuilder sb = new StringBuilder();
+		int length = 1 + r.nextInt(3);
+		for (int i = 0; i < length; i++) {
+			if (i > 0) {
+				sb.append(" ");
+			}
+			sb.append(TOKENS[r.nextInt(TOKENS.length)]);
+		}
+		return sb.toString();
+	}
+
+	private String modify(Random r, String value) {
+		// drop or swap a character
+		int position = r.nextInt(value.length());
+		if (r.nextBoolean()) {
+			return value.substring(0, position) + value.substring(position + 1);
+		} else {
+			return value.substring(0, position) + TOKENS[r.nextInt(TOKENS.length)].charAt(0)
+					+ value.substring(position + 1);
+		}
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		Random r = new Random(1);
+		ds1 = new HashedDataSet<>();
+		ds2 = new HashedDataSet<>();
+		gs = new MatchingGoldStandard();
+
+		for (int i = 0; i < 50; i++) {
+			Record a = new Record("a" + i, "ds1");
+			a.setValue(NAME, randomValue(r));
+			a.setValue(CITY, randomValue(r));
+			ds1.add(a);
+
+			Record b = new Record("b" + i, "ds2");
+			if (r.nextBoolean()) {
+				b.setValue(NAME, modify(r, a.getValue(NAME)));
+				b.setValue(CITY, r.nextInt(4) == 0 ? randomValue(r) : a.getValue(CITY));
+				gs.addPositiveExample(new Pair<>(a.getIdentifier(), b.getIdentifier()));
+			} else {
+				b.setValue(NAME, randomValue(r));
+				b.setValue(CITY, randomValue(r));
+			}
+			ds2.add(b);
+		}
+
+		// all other pairs are non-matches
+		gs.setComplete(true);
+	}
+
+	private WekaMatchingRule<Record, Attribute> createRule() {
+		WekaMatchingRule<Record, Attribute> rule = new WekaMatchingRule<>(0.5);
+		rule.setClassifier(new J48());
+		rule.activateFeatureCache();
+		rule.addComparator(new RecordComparatorLevenshtein(NAME, NAME));
+		rule.addComparator(new RecordComparatorJaccard(NAME, NAME, 0.3, true));
+		rule.addComparator(new RecordComparatorEqual(NAME, NAME));
+		rule.addComparator(new RecordComparatorLevenshtein(CITY, CITY));
+		rule.addComparator(new RecordComparatorJaccard(CITY, CITY, 0.3, true));
+		return rule;
+	}
+
+	private Processable<Correspondence<Record, Attribute>> getCandidates() {
+		return new StandardRecordBlocker<Record, Attribute>(new StaticBlockingKeyGenerator<>()).runBlocking(ds1, ds2,
+				null);
+	}
+
+	private Performance evaluate(WekaMatchingRule<Record, Attribute> rule,
+			Processable<Correspondence<Record, Attribute>> candidates) {
+		List<Correspondence<Record, Attribute>> result = new ArrayList<>();
+		for (Correspondence<Record, Attribute> cor : candidates.get()) {
+			Correspondence<Record, Attribute> match = rule.apply(cor.getFirstRecord(), cor.getSecondRecord(), null);
+			if (match != null && match.getSimilarityScore() >= rule.getFinalThreshold()) {
+				result.add(match);
+			}
+		}
+		return new MatchingEvaluator<Record, Attribute>().evaluateMatching(result, gs);
+	}
+
+	/**
+	 * @return the F1 of a rule that is learned from all candidates
+	 */
+	private double learnFromAllCandidates(Processable<Correspondence<Record, Attribute>> candidates) {
+		MatchingGoldStandard training = new MatchingGoldStandard();
+		for (Correspondence<Record, Attribute> cor : candidates.get()) {
+			Pair<String, String> example = new Pair<>(cor.getFirstRecord().getIdentifier(),
+					cor.getSecondRecord().getIdentifier());
+			if (gs.containsPositive(cor.getFirstRecord(), cor.getSecondRecord())) {
+				training.addPositiveExample(example);
+			} else {
+				training.addNegativeExample(example);
+			}
+		}
+
+		WekaMatchingRule<Record, Attribute> rule = createRule();
+		new RuleLearner<Record, Attribute>().learnMatchingRule(ds1, ds2, null, rule, training);
+		return evaluate(rule, candidates).getF1();
+	}
+
+	private void runActiveLearning(ActiveLearner.SelectionStrategy strategy) {
+		Processable<Correspondence<Record, Attribute>> candidates = getCandidates();
+		double fullF1 = learnFromAllCandidates(candidates);
+
+		WekaMatchingRule<Record, Attribute> rule = createRule();
+		ActiveLearner<Record, Attribute> learner = new ActiveLearner<>(rule);
+		learner.setSelectionStrategy(strategy);
+		learner.setInitialSize(10);
+		learner.setBatchSize(10);
+		learner.setCommitteeSize(3);
+		learner.setEvaluationGoldStandard(gs);
+
+		GoldStandardOracle<Record> oracle = new GoldStandardOracle<>(gs);
+		MatchingGoldStandard labelled = learner.learnMatchingRule(ds1, ds2, null,
+				new StandardRecordBlocker<Record, Attribute>(new StaticBlockingKeyGenerator<>()), oracle, 10);
+
+		// the initial batch and one batch per iteration
+		assertEquals(11, learner.getLabelsPerIteration().size());
+		assertEquals(11, learner.getPerformancePerIteration().size());
+		int numLabels = labelled.getPositiveExamples().size() + labelled.getNegativeExamples().size();
+		assertEquals(110, numLabels);
+		assertEquals(numLabels, oracle.getNumberOfLabels());
+		assertEquals(numLabels, (int) learner.getLabelsPerIteration().get(10));
+		assertTrue(labelled.getPositiveExamples().size() > 0);
+		for (Pair<String, String> example : labelled.getPositiveExamples()) {
+			assertTrue(gs.containsPositive(example.getFirst(), example.getSecond()));
+		}
+
+		// the reported performance is the performance of the learned rule
+		double f1 = learner.getPerformancePerIteration().get(10).getF1();
+		assertEquals(evaluate(rule, candidates).getF1(), f1, 1e-9);
+
+		// less than 5% of the labels are sufficient
+		assertTrue(f1 >= fullF1 - 0.05);
+	}
+
+	public void testUncertaintySampling() {
+		runActiveLearning(ActiveLearner.SelectionStrategy.UNCERTAINTY);
+	}
+
+	public void testQueryByCommittee() {
+		runActiveLearning(ActiveLearner.SelectionStrategy.COMMITTEE);
+	}
+
+	public void testQueryByCommitteeWithoutMatches() {
+		WekaMatchingRule<Record, Attribute> rule = createRule();
+		ActiveLearner<Record, Attribute> learner = new ActiveLearner<>(rule);
+		learner.setSelectionStrategy(ActiveLearner.SelectionStrategy.COMMITTEE);
+		learner.setInitialSize(10);
+		learner.setBatchSize(10);
+		learner.setCommitteeSize(3);
+
+		// without a labelled match, no committee can be learned, so all candidates are labelled while searching for a match
+		MatchingGoldStandard labelled = learner.learnMatchingRule(ds1, ds2, null,
+				new StandardRecordBlocker<Record, Attribute>(new StaticBlockingKeyGenerator<>()),
+				(record1, record2) -> Boolean.FALSE, 2);
+
+		assertEquals(0, labelled.getPositiveExamples().size());
+		assertEquals(getCandidates().size(), labelled.getNegativeExamples().size());
+	}
+
+	public void testGoldStandardOracle() {
+		MatchingGoldStandard partial = new MatchingGoldStandard();
+		partial.addPositiveExample(new Pair<>("a", "b"));
+		partial.addNegativeExample(new Pair<>("a", "c"));
+
+		GoldStandardOracle<Record> oracle = new GoldStandardOracle<>(partial);
+		assertEquals(Boolean.TRUE, oracle.label(new Record("a"), new Record("b")));
+		assertEquals(Boolean.TRUE, oracle.label(new Record("b"), new Record("a")));
+		assertEquals(Boolean.FALSE, oracle.label(new Record("a"), new Record("c")));
+		assertNull(oracle.label(new Record("a"), new Record("d")));
+
+		partial.setComplete(true);
+		assertEquals(Boolean.FALSE, oracle.label(new Record("a"), new Record("d")));
+		assertEquals(5, oracle.getNumberOfLabels());
+	}
+
+}
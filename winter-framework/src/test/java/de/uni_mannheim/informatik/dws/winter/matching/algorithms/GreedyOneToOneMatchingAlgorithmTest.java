@@ -1,10 +1,20 @@
 package de.uni_mannheim.informatik.dws.winter.matching.algorithms;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
 import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
 import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.Pair;
 import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.processing.DataIterator;
+import de.uni_mannheim.informatik.dws.winter.processing.Group;
 import de.uni_mannheim.informatik.dws.winter.processing.Processable;
 import de.uni_mannheim.informatik.dws.winter.processing.ProcessableCollection;
+import de.uni_mannheim.informatik.dws.winter.processing.RecordKeyValueMapper;
 import junit.framework.TestCase;
 
 public class GreedyOneToOneMatchingAlgorithmTest extends TestCase {
@@ -40,4 +50,104 @@ public class GreedyOneToOneMatchingAlgorithmTest extends TestCase {
 		}
 	}
 
+	private static class SourceRecord extends Record {
+
+		private static final long serialVersionUID = 1L;
+		private int dataSource;
+
+		public SourceRecord(String identifier, int dataSource) {
+			super(identifier);
+			this.dataSource = dataSource;
+		}
+
+		@Override
+		public int getDataSourceIdentifier() {
+			return dataSource;
+		}
+	}
+
+	/**
+	 * The greedy matching based on sorted Processables and a set of matched records
+	 */
+	private List<Correspondence<Record, Matchable>> runReference(Processable<Correspondence<Record, Matchable>> correspondences, boolean groupByLeft, boolean groupByRight) {
+		Processable<Group<Pair<Integer, Integer>, Correspondence<Record, Matchable>>> grouped = correspondences.group(
+				(Correspondence<Record, Matchable> record, DataIterator<Pair<Pair<Integer, Integer>, Correspondence<Record, Matchable>>> resultCollector) -> {
+					int leftGroup = groupByLeft ? record.getFirstRecord().getDataSourceIdentifier() : 0;
+					int rightGroup = groupByRight ? record.getSecondRecord().getDataSourceIdentifier() : 0;
+					resultCollector.next(new Pair<>(new Pair<>(leftGroup, rightGroup), record));
+				});
+
+		List<Correspondence<Record, Matchable>> result = new ArrayList<>();
+		for(Group<Pair<Integer, Integer>, Correspondence<Record, Matchable>> group : grouped.get()) {
+			Set<Record> matchedElements = new HashSet<>();
+			for(Correspondence<Record, Matchable> cor : group.getRecords().sort((c)->c.getSimilarityScore(),false).get()) {
+				if(!matchedElements.contains(cor.getFirstRecord()) && !matchedElements.contains(cor.getSecondRecord())) {
+					result.add(cor);
+					matchedElements.add(cor.getFirstRecord());
+					matchedElements.add(cor.getSecondRecord());
+				}
+			}
+		}
+		return result;
+	}
+
+	private ProcessableCollection<Correspondence<Record, Matchable>> createCorrespondences(Random r, int numCorrespondences, int numRecords, int numDataSources) {
+		Record[] records = new Record[numRecords];
+		for(int i = 0; i < numRecords; i++) {
+			records[i] = new SourceRecord("r" + i, i % numDataSources);
+		}
+		ProcessableCollection<Correspondence<Record, Matchable>> cors = new ProcessableCollection<>();
+		for(int i = 0; i < numCorrespondences; i++) {
+			// few distinct scores to create ties
+			double sim = r.nextInt(20) / 20.0;
+			cors.add(new Correspondence<Record, Matchable>(records[r.nextInt(numRecords)], records[r.nextInt(numRecords)], sim));
+		}
+		return cors;
+	}
+
+	private void assertSameResult(List<Correspondence<Record, Matchable>> expected, Processable<Correspondence<Record, Matchable>> actual) {
+		assertEquals(expected.size(), actual.size());
+		int i = 0;
+		for(Correspondence<Record, Matchable> cor : actual.get()) {
+			assertSame(expected.get(i++), cor);
+		}
+	}
+
+	public void testEqualsReference() {
+		Random r = new Random(1);
+
+		for(int run = 0; run < 10; run++) {
+			ProcessableCollection<Correspondence<Record, Matchable>> cors = createCorrespondences(r, 2000, 300, 1 + r.nextInt(4));
+			// equal records in different objects
+			cors.add(new Correspondence<Record, Matchable>(new SourceRecord("r0", 0), new SourceRecord("r1", 1), 1.0));
+			cors.add(new Correspondence<Record, Matchable>(new SourceRecord("r1", 1), new SourceRecord("r0", 0), 1.0));
+			cors.add(new Correspondence<Record, Matchable>(new SourceRecord("r2", 0), new SourceRecord("r3", 1), Double.NaN));
+
+			for(int grouping = 0; grouping < 4; grouping++) {
+				boolean groupByLeft = (grouping & 1) != 0;
+				boolean groupByRight = (grouping & 2) != 0;
+
+				GreedyOneToOneMatchingAlgorithm<Record, Matchable> greedy = new GreedyOneToOneMatchingAlgorithm<>(cors);
+				greedy.setGroupByLeftDataSource(groupByLeft);
+				greedy.setGroupByRightDataSource(groupByRight);
+				greedy.run();
+
+				assertSameResult(runReference(cors, groupByLeft, groupByRight), greedy.getResult());
+			}
+		}
+	}
+
+	public void testEqualsReferenceOnManyCorrespondences() {
+		ProcessableCollection<Correspondence<Record, Matchable>> cors = createCorrespondences(new Random(2), 200000, 20000, 4);
+
+		List<Correspondence<Record, Matchable>> expected = runReference(cors, true, true);
+
+		GreedyOneToOneMatchingAlgorithm<Record, Matchable> greedy = new GreedyOneToOneMatchingAlgorithm<>(cors);
+		greedy.setGroupByLeftDataSource(true);
+		greedy.setGroupByRightDataSource(true);
+		greedy.run();
+
+		assertSameResult(expected, greedy.getResult());
+	}
+
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.algorithms;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.jgrapht.WeightedGraph;
+import org.jgrapht.alg.matching.MaximumWeightBipartiteMatching;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.Pair;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.processing.DataIterator;
+import de.uni_mannheim.informatik.dws.winter.processing.Group;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import de.uni_mannheim.informatik.dws.winter.processing.ProcessableCollection;
+import junit.framework.TestCase;
+
+/**
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class MaximumBipartiteMatchingAlgorithmTest extends TestCase {
+
+	public void testRun() {
+		// Input: a-b (0.9), a-c (0.8), d-b (0.8), d-c (0.1)
+		// Output: a-c (0.8), d-b (0.8)
+		
+		Correspondence<Record, Matchable> ab = new Correspondence<Record, Matchable>(new Record("a"), new Record("b"), 0.9);
+		Correspondence<Record, Matchable> ac = new Correspondence<Record, Matchable>(new Record("a"), new Record("c"), 0.8);
+		Correspondence<Record, Matchable> db = new Correspondence<Record, Matchable>(new Record("d"), new Record("b"), 0.8);
+		Correspondence<Record, Matchable> dc = new Correspondence<Record, Matchable>(new Record("d"), new Record("c"), 0.1);
+		// components with a single element on one side
+		Correspondence<Record, Matchable> ef = new Correspondence<Record, Matchable>(new Record("e"), new Record("f"), 0.5);
+		Correspondence<Record, Matchable> eg = new Correspondence<Record, Matchable>(new Record("e"), new Record("g"), 0.7);
+		Correspondence<Record, Matchable> hi = new Correspondence<Record, Matchable>(new Record("h"), new Record("i"), 0.0);
+		
+		ProcessableCollection<Correspondence<Record, Matchable>> cors = new ProcessableCollection<>();
+		cors.add(ab);
+		cors.add(ac);
+		cors.add(db);
+		cors.add(dc);
+		cors.add(ef);
+		cors.add(eg);
+		cors.add(hi);
+		
+		MaximumBipartiteMatchingAlgorithm<Record, Matchable> matching = new MaximumBipartiteMatchingAlgorithm<>(cors);
+		matching.run();
+		
+		List<Correspondence<Record, Matchable>> result = new ArrayList<>(matching.getResult().get());
+		assertEquals(3, result.size());
+		assertSame(ac, result.get(0));
+		assertSame(db, result.get(1));
+		assertSame(eg, result.get(2));
+	}
+	
+	private static class SourceRecord extends Record {
+
+		private static final long serialVersionUID = 1L;
+		private int dataSource;
+
+		public SourceRecord(String identifier, int dataSource) {
+			super(identifier);
+			this.dataSource = dataSource;
+		}
+
+		@Override
+		public int getDataSourceIdentifier() {
+			return dataSource;
+		}
+	}
+	
+	/**
+	 * The maximum weight matching based on one jgrapht graph per group
+	 */
+	private List<Correspondence<Record, Matchable>> runReference(Processable<Correspondence<Record, Matchable>> correspondences, boolean groupByLeft, boolean groupByRight) {
+		Processable<Group<Pair<Integer, Integer>, Correspondence<Record, Matchable>>> grouped = correspondences.group(
+				(Correspondence<Record, Matchable> record, DataIterator<Pair<Pair<Integer, Integer>, Correspondence<Record, Matchable>>> resultCollector) -> {
+					int leftGroup = groupByLeft ? record.getFirstRecord().getDataSourceIdentifier() : 0;
+					int rightGroup = groupByRight ? record.getSecondRecord().getDataSourceIdentifier() : 0;
+					resultCollector.next(new Pair<>(new Pair<>(leftGroup, rightGroup), record));
+				});
+
+		List<Correspondence<Record, Matchable>> result = new ArrayList<>();
+		for(Group<Pair<Integer, Integer>, Correspondence<Record, Matchable>> group : grouped.get()) {
+			WeightedGraph<Matchable, DefaultWeightedEdge> graph = new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+			Set<Matchable> partition1 = new HashSet<>();
+			Set<Matchable> partition2 = new HashSet<>();
+			Map<DefaultWeightedEdge, Correspondence<Record, Matchable>> edgeToCorrespondence = new HashMap<>();
+			
+			for(Correspondence<Record, Matchable> cor : group.getRecords().get()) {
+				partition1.add(cor.getFirstRecord());
+				partition2.add(cor.getSecondRecord());
+				graph.addVertex(cor.getFirstRecord());
+				graph.addVertex(cor.getSecondRecord());
+				DefaultWeightedEdge edge = graph.addEdge(cor.getFirstRecord(), cor.getSecondRecord());
+				if(edge!=null) {
+					graph.setEdgeWeight(edge, (int)(cor.getSimilarityScore() * 1000000));
+					edgeToCorrespondence.put(edge, cor);
+				}
+			}
+			
+			for(DefaultWeightedEdge edge : new MaximumWeightBipartiteMatching<>(graph, partition1, partition2).computeMatching().getEdges()) {
+				result.add(edgeToCorrespondence.get(edge));
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Creates correspondences between the records of clusters, like the output of a matching rule with blocking
+	 */
+	private ProcessableCollection<Correspondence<Record, Matchable>> createCorrespondences(Random r, int numClusters, int maxClusterSize, int numDataSources) {
+		ProcessableCollection<Correspondence<Record, Matchable>> cors = new ProcessableCollection<>();
+		int id = 0;
+		for(int c = 0; c < numClusters; c++) {
+			// most clusters are small
+			int size = 1 + (int)(maxClusterSize * Math.pow(r.nextDouble(), 4));
+			Record[] left = new Record[size];
+			Record[] right = new Record[1 + r.nextInt(size)];
+			for(int i = 0; i < left.length; i++) {
+				left[i] = new SourceRecord("l" + id++, r.nextInt(numDataSources));
+			}
+			for(int i = 0; i < right.length; i++) {
+				right[i] = new SourceRecord("r" + id++, r.nextInt(numDataSources));
+			}
+			
+			for(int i = 0; i < left.length; i++) {
+				for(int j = 0; j < right.length; j++) {
+					if(r.nextInt(3) > 0) {
+						// there are 1000 distinct scores, so the integer weights of the reference are exact
+						cors.add(new Correspondence<Record, Matchable>(left[i], right[j], r.nextInt(1000) / 1000.0));
+					}
+				}
+			}
+		}
+		return cors;
+	}
+	
+	private double getTotalSimilarity(Iterable<Correspondence<Record, Matchable>> correspondences) {
+		Set<Matchable> left = new HashSet<>();
+		Set<Matchable> right = new HashSet<>();
+		double total = 0;
+		for(Correspondence<Record, Matchable> cor : correspondences) {
+			// the elements of each group are matched only once
+			Pair<Integer, Integer> group = new Pair<>(cor.getFirstRecord().getDataSourceIdentifier(), cor.getSecondRecord().getDataSourceIdentifier());
+			assertTrue(left.add(new Record(cor.getFirstRecord().getIdentifier() + group)));
+			assertTrue(right.add(new Record(cor.getSecondRecord().getIdentifier() + group)));
+			total += cor.getSimilarityScore();
+		}
+		return total;
+	}
+	
+	public void testEqualsReference() {
+		Random r = new Random(1);
+		
+		for(int run = 0; run < 20; run++) {
+			ProcessableCollection<Correspondence<Record, Matchable>> cors = createCorrespondences(r, 50, 20, 1 + r.nextInt(3));
+			
+			MaximumBipartiteMatchingAlgorithm<Record, Matchable> matching = new MaximumBipartiteMatchingAlgorithm<>(cors);
+			matching.setGroupByLeftDataSource(true);
+			matching.setGroupByRightDataSource(true);
+			matching.run();
+			
+			assertEquals(getTotalSimilarity(runReference(cors, true, true)), getTotalSimilarity(matching.getResult().get()), 1e-6);
+		}
+	}
+	
+	public void testEqualsReferenceOnManyClusters() {
+		ProcessableCollection<Correspondence<Record, Matchable>> cors = createCorrespondences(new Random(2), 200, 40, 2);
+		
+		MaximumBipartiteMatchingAlgorithm<Record, Matchable> matching = new MaximumBipartiteMatchingAlgorithm<>(cors);
+		matching.setGroupByLeftDataSource(true);
+		matching.setGroupByRightDataSource(true);
+		matching.run();
+		
+		assertEquals(getTotalSimilarity(runReference(cors, true, true)), getTotalSimilarity(matching.getResult().get()), 1e-6);
+	}
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.algorithms;
+
+import java.util.Random;
+
+import de.uni_mannheim.informatik.dws.winter.matching.rules.WekaMatchingRule;
+import de.uni_mannheim.informatik.dws.winter.model.DataSet;
+import de.uni_mannheim.informatik.dws.winter.model.HashedDataSet;
+import de.uni_mannheim.informatik.dws.winter.model.MatchingGoldStandard;
+import de.uni_mannheim.informatik.dws.winter.model.Pair;
+import de.uni_mannheim.informatik.dws.winter.model.Performance;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.FeatureVectorDataSet;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.comparators.RecordComparatorEqual;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.comparators.RecordComparatorJaccard;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.comparators.RecordComparatorLevenshtein;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Parallel;
+import junit.framework.TestCase;
+import weka.classifiers.trees.J48;
+
+/**
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class RuleLearnerTest extends TestCase {
+
+	private static final Attribute NAME = new Attribute("name");
+	private static final Attribute CITY = new Attribute("city");
+
+	private static final String[] TOKENS = { "john", "jane", "smith", "miller", "anna", "peter", "paul", "mary",
+			"berlin", "mannheim", "hamburg", "munich" };
+
+	private String randomValue(Random r) {
+		StringBuilder sb = new StringBuilder();
+		int length = 1 + r.nextInt(3);
+		for (int i = 0; i < length; i++) {
+			if (i > 0) {
+				sb.append(" ");
+			}
+			sb.append(TOKENS[r.nextInt(TOKENS.length)]);
+		}
+		return sb.toString();
+	}
+
+	private String modify(Random r, String value) {
+		// drop or swap a character
+		int position = r.nextInt(value.length());
+		if (r.nextBoolean()) {
+			return value.substring(0, position) + value.substring(position + 1);
+		} else {
+			return value.substring(0, position) + TOKENS[r.nextInt(TOKENS.length)].charAt(0)
+					+ value.substring(position + 1);
+		}
+	}
+
+	private WekaMatchingRule<Record, Attribute> createRule(boolean forwardSelection) {
+		WekaMatchingRule<Record, Attribute> rule = new WekaMatchingRule<>(0.5);
+		rule.setClassifier(new J48());
+		rule.activateFeatureCache();
+		rule.addComparator(new RecordComparatorLevenshtein(NAME, NAME));
+		rule.addComparator(new RecordComparatorJaccard(NAME, NAME, 0.3, true));
+		rule.addComparator(new RecordComparatorEqual(NAME, NAME));
+		rule.addComparator(new RecordComparatorLevenshtein(CITY, CITY));
+		rule.addComparator(new RecordComparatorJaccard(CITY, CITY, 0.3, true));
+		rule.setForwardSelection(forwardSelection);
+		return rule;
+	}
+
+	public void testParallelLearningIsDeterministic() {
+		Random r = new Random(1);
+		DataSet<Record, Attribute> ds1 = new HashedDataSet<>();
+		DataSet<Record, Attribute> ds2 = new HashedDataSet<>();
+		MatchingGoldStandard gs = new MatchingGoldStandard();
+
+		for (int i = 0; i < 300; i++) {
+			Record a = new Record("a" + i, "ds1");
+			a.setValue(NAME, randomValue(r));
+			a.setValue(CITY, randomValue(r));
+			ds1.add(a);
+
+			Record b = new Record("b" + i, "ds2");
+			if (r.nextBoolean()) {
+				// a (noisy) duplicate
+				b.setValue(NAME, modify(r, a.getValue(NAME)));
+				b.setValue(CITY, r.nextInt(4) == 0 ? randomValue(r) : a.getValue(CITY));
+				gs.addPositiveExample(new Pair<>(a.getIdentifier(), b.getIdentifier()));
+			} else {
+				b.setValue(NAME, randomValue(r));
+				b.setValue(CITY, randomValue(r));
+				gs.addNegativeExample(new Pair<>(a.getIdentifier(), b.getIdentifier()));
+			}
+			ds2.add(b);
+		}
+		// an example which is not in the data sets
+		gs.addNegativeExample(new Pair<>("a1", "x1"));
+
+		RuleLearner<Record, Attribute> learner = new RuleLearner<>();
+		int numProcessors = Runtime.getRuntime().availableProcessors();
+
+		try {
+			Parallel.SetDefaultNumProcessors(1);
+			WekaMatchingRule<Record, Attribute> sequentialRule = createRule(true);
+			FeatureVectorDataSet sequentialFeatures = learner.generateTrainingDataForLearning(ds1, ds2, gs,
+					sequentialRule, null);
+			Performance sequential = sequentialRule.learnParameters(sequentialFeatures);
+
+			Parallel.SetDefaultNumProcessors(4);
+			WekaMatchingRule<Record, Attribute> parallelRule = createRule(true);
+			FeatureVectorDataSet parallelFeatures = learner.generateTrainingDataForLearning(ds1, ds2, gs,
+					parallelRule, null);
+			Performance parallel = parallelRule.learnParameters(parallelFeatures);
+
+			// the copies of the rule share the feature cache of the original rule
+			assertTrue(parallelRule.getFeatureCache().size() > 0);
+
+			// the copies of the rule produce the same features as the original rule
+			WekaMatchingRule<Record, Attribute> referenceRule = createRule(true);
+			for (Pair<String, String> example : gs.getPositiveExamples()) {
+				Record expected = referenceRule.generateFeatures(ds1.getRecord(example.getFirst()),
+						ds2.getRecord(example.getSecond()), null, sequentialFeatures);
+				Record actual = sequentialFeatures.getRecord(expected.getIdentifier());
+				for (Attribute a : sequentialFeatures.getSchema().get()) {
+					if (!a.equals(FeatureVectorDataSet.ATTRIBUTE_LABEL)) {
+						assertEquals(expected.getValue(a), actual.getValue(a));
+					}
+				}
+			}
+
+			assertEquals(300, parallelFeatures.size());
+			assertEquals(sequentialFeatures.size(), parallelFeatures.size());
+			for (Record expected : sequentialFeatures.get()) {
+				Record actual = parallelFeatures.getRecord(expected.getIdentifier());
+				assertNotNull(actual);
+				for (Attribute a : sequentialFeatures.getSchema().get()) {
+					// the feature attributes are created for each data set, so they are compared by name
+					assertEquals(expected.getValue(a), actual.getValue(parallelFeatures.getAttribute(a.getIdentifier())));
+				}
+			}
+
+			assertEquals(sequential.getNumberOfPredicted(), parallel.getNumberOfPredicted());
+			assertEquals(sequential.getNumberOfCorrectlyPredicted(), parallel.getNumberOfCorrectlyPredicted());
+			assertEquals(sequential.getNumberOfCorrectTotal(), parallel.getNumberOfCorrectTotal());
+			assertEquals(sequentialRule.getModelDescription(), parallelRule.getModelDescription());
+		} finally {
+			Parallel.SetDefaultNumProcessors(numProcessors);
+		}
+	}
+
+}
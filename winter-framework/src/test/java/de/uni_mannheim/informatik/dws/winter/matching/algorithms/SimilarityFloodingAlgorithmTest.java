@@ -739,6 +739,56 @@ public class SimilarityFloodingAlgorithmTest {
         }
     }
 
+    private List<SFTestMatchable> createSchema(String prefix, int numColumns, long seed) {
+        java.util.Random random = new java.util.Random(seed);
+        DataType[] types = { DataType.string, DataType.numeric, DataType.date, DataType.bool };
+        List<SFTestMatchable> columns = new ArrayList<>();
+        for (int i = 0; i < numColumns; i++) {
+            String name = prefix + "col" + random.nextInt(numColumns * 10);
+            columns.add(new SFTestMatchable(types[random.nextInt(types.length)], name + "_" + i, name));
+        }
+        return columns;
+    }
+
+    private SimpleDirectedGraph<IPGNode<SFTestMatchable>, CoeffEdge> createIPG(SimilarityFloodingAlgorithm<SFTestMatchable, SFTestMatchable> similarityFloodingAlgorithm,
+        List<SFTestMatchable> columnsSchemaOne, List<SFTestMatchable> columnsSchemaTwo) {
+        SimpleDirectedGraph<SFNode<SFTestMatchable>, LabeledEdge> schemaGraphA = similarityFloodingAlgorithm.createGraphForSchema(columnsSchemaOne, "A");
+        SimpleDirectedGraph<SFNode<SFTestMatchable>, LabeledEdge> schemaGraphB = similarityFloodingAlgorithm.createGraphForSchema(columnsSchemaTwo, "B");
+        SimpleDirectedGraph<PairwiseConnectivityNode<SFTestMatchable>, LabeledEdge> pcg = similarityFloodingAlgorithm.generatePairwiseConnectivityGraph(schemaGraphA, schemaGraphB);
+        return similarityFloodingAlgorithm.generateInducedPropagationGraph(schemaGraphA, schemaGraphB, pcg);
+    }
+
+    private void resetSimilarities(SimpleDirectedGraph<IPGNode<SFTestMatchable>, CoeffEdge> ipg) {
+        for (IPGNode<SFTestMatchable> node : ipg.vertexSet()) {
+            node.setCurrSim(node.getInitSim());
+            node.setNextSim(0);
+        }
+    }
+
+    @Test
+    public void testCompiledFixpointShouldEqualFixpointOnGraph() {
+        List<SFTestMatchable> columnsSchemaOne = createSchema("a", 30, 1);
+        List<SFTestMatchable> columnsSchemaTwo = createSchema("b", 25, 2);
+
+        for (FixpointFormula formula : FixpointFormula.values()) {
+            SimilarityFloodingAlgorithm<SFTestMatchable, SFTestMatchable> similarityFloodingAlgorithm = new SimilarityFloodingAlgorithm<>(null, null, new SFComparatorLevenshtein(),
+                formula);
+            SimpleDirectedGraph<IPGNode<SFTestMatchable>, CoeffEdge> ipg = createIPG(similarityFloodingAlgorithm, columnsSchemaOne, columnsSchemaTwo);
+
+            similarityFloodingAlgorithm.similarityFloodingOnGraph(ipg, 1000);
+            HashMap<IPGNode<SFTestMatchable>, Double> expected = new HashMap<>();
+            for (IPGNode<SFTestMatchable> node : ipg.vertexSet()) {
+                expected.put(node, node.getCurrSim());
+            }
+
+            resetSimilarities(ipg);
+            similarityFloodingAlgorithm.similarityFlooding(ipg, 1000);
+            for (IPGNode<SFTestMatchable> node : ipg.vertexSet()) {
+                assertEquals(formula.toString(), expected.get(node), node.getCurrSim(), 1e-9);
+            }
+        }
+    }
+
     private HashMap<String, HashMap<String, Double>> getResultMap(SimilarityFloodingAlgorithm<SFTestMatchable, SFTestMatchable> similarityFloodingAlgorithm) {
         SimpleDirectedGraph<IPGNode<SFTestMatchable>, CoeffEdge> ipg = similarityFloodingAlgorithm.getIpg();
         List<IPGNode<SFTestMatchable>> ipgList = new ArrayList<>(ipg.vertexSet());
@@ -11,6 +11,10 @@
  */
 package de.uni_mannheim.informatik.dws.winter.matching.algorithms;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import de.uni_mannheim.informatik.dws.winter.matching.algorithms.TransitiveCorrespondencesCreator.PathSimilarity;
 import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
 import de.uni_mannheim.informatik.dws.winter.model.Matchable;
 import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
@@ -80,4 +84,122 @@ public class TransitiveCorrespondencesCreatorTest extends TestCase {
 		assertEquals(true, result.get().contains(bc));
 	}
 
+	/**
+	 * @return the similarity scores of all correspondences by the unordered pair of record identifiers, without correspondences between the same record
+	 */
+	private Map<String, Double> getPairs(Processable<Correspondence<Record, Matchable>> correspondences) {
+		Map<String, Double> pairs = new HashMap<>();
+		for(Correspondence<Record, Matchable> cor : correspondences.get()) {
+			String first = cor.getFirstRecord().getIdentifier();
+			String second = cor.getSecondRecord().getIdentifier();
+			if(!first.equals(second)) {
+				String key = first.compareTo(second) < 0 ? first + "/" + second : second + "/" + first;
+				pairs.put(key, cor.getSimilarityScore());
+			}
+		}
+		return pairs;
+	}
+	
+	private Processable<Correspondence<Record, Matchable>> runClosure(Processable<Correspondence<Record, Matchable>> cors, PathSimilarity pathSimilarity, int maxComponentSize) {
+		TransitiveCorrespondencesCreator<Record, Matchable> transitivity = new TransitiveCorrespondencesCreator<>(cors, true);
+		transitivity.setComputeClosure(true);
+		transitivity.setPathSimilarity(pathSimilarity);
+		transitivity.setMaxComponentSize(maxComponentSize);
+		transitivity.run();
+		return transitivity.getResult();
+	}
+	
+	public void testClosureOnChain() {
+		// a -> b -> c -> d -> e
+		double[] sims = { 0.9, 0.5, 0.7, 0.8 };
+		ProcessableCollection<Correspondence<Record, Matchable>> cors = new ProcessableCollection<>();
+		String[] ids = { "a", "b", "c", "d", "e" };
+		for(int i = 0; i < sims.length; i++) {
+			cors.add(new Correspondence<Record, Matchable>(new Record(ids[i]), new Record(ids[i+1]), sims[i]));
+		}
+		
+		// one step of transitivity only connects records with one record in between
+		TransitiveCorrespondencesCreator<Record, Matchable> transitivity = new TransitiveCorrespondencesCreator<>(cors, false);
+		transitivity.run();
+		Map<String, Double> oneStep = getPairs(transitivity.getResult());
+		assertEquals(7, oneStep.size());
+		assertFalse(oneStep.containsKey("a/d"));
+		
+		// applying it repeatedly creates the closure
+		Processable<Correspondence<Record, Matchable>> repeated = cors;
+		for(int i = 0; i < 3; i++) {
+			transitivity = new TransitiveCorrespondencesCreator<>(repeated, false);
+			transitivity.run();
+			repeated = transitivity.getResult();
+		}
+		
+		Map<String, Double> closure = getPairs(runClosure(cors, PathSimilarity.MEAN, 0));
+		assertEquals(10, closure.size());
+		assertEquals(getPairs(repeated).keySet(), closure.keySet());
+		
+		// the pairs with one record in between have the same similarities
+		for(String pair : new String[] { "a/c", "b/d", "c/e" }) {
+			assertEquals(oneStep.get(pair), closure.get(pair), 1e-9);
+		}
+		// the existing correspondences are not changed
+		assertEquals(0.5, closure.get("b/c"), 1e-9);
+		
+		assertEquals((0.9+0.5+0.7+0.8)/4.0, closure.get("a/e"), 1e-9);
+		assertEquals((0.5+0.7)/2.0, closure.get("b/d"), 1e-9);
+		
+		Map<String, Double> min = getPairs(runClosure(cors, PathSimilarity.MIN, 0));
+		assertEquals(0.5, min.get("a/e"), 1e-9);
+		assertEquals(0.7, min.get("c/e"), 1e-9);
+		
+		Map<String, Double> max = getPairs(runClosure(cors, PathSimilarity.MAX, 0));
+		assertEquals(0.9, max.get("a/e"), 1e-9);
+		assertEquals(0.8, max.get("c/e"), 1e-9);
+		
+		// the component has 5 records
+		assertEquals(4, getPairs(runClosure(cors, PathSimilarity.MEAN, 4)).size());
+		assertEquals(10, getPairs(runClosure(cors, PathSimilarity.MEAN, 5)).size());
+	}
+	
+	public void testClosureOnStar() {
+		// a hub record that is connected to 20 other records, and a second component
+		ProcessableCollection<Correspondence<Record, Matchable>> cors = new ProcessableCollection<>();
+		for(int i = 0; i < 20; i++) {
+			cors.add(new Correspondence<Record, Matchable>(new Record("hub"), new Record("r" + i), 0.5 + i / 100.0));
+		}
+		cors.add(new Correspondence<Record, Matchable>(new Record("x"), new Record("y"), 1.0));
+		cors.add(new Correspondence<Record, Matchable>(new Record("z"), new Record("y"), 0.6));
+		
+		// all records are connected via the hub, so one step of transitivity creates the closure
+		TransitiveCorrespondencesCreator<Record, Matchable> transitivity = new TransitiveCorrespondencesCreator<>(cors, false);
+		transitivity.run();
+		Map<String, Double> oneStep = getPairs(transitivity.getResult());
+		
+		Map<String, Double> closure = getPairs(runClosure(cors, PathSimilarity.MEAN, 0));
+		assertEquals(21 * 20 / 2 + 3, closure.size());
+		assertEquals(oneStep.keySet(), closure.keySet());
+		for(String pair : oneStep.keySet()) {
+			assertEquals(pair, oneStep.get(pair), closure.get(pair), 1e-9);
+		}
+		
+		// the correspondences of the large component are not created
+		Map<String, Double> capped = getPairs(runClosure(cors, PathSimilarity.MEAN, 10));
+		assertEquals(20 + 3, capped.size());
+		assertEquals(0.8, capped.get("x/z"), 1e-9);
+	}
+	
+	public void testClosureUsesPathWithHighestMinimum() {
+		// a - b - c with a weak direct correspondence between a and d
+		ProcessableCollection<Correspondence<Record, Matchable>> cors = new ProcessableCollection<>();
+		cors.add(new Correspondence<Record, Matchable>(new Record("a"), new Record("b"), 0.9));
+		cors.add(new Correspondence<Record, Matchable>(new Record("b"), new Record("c"), 0.9));
+		cors.add(new Correspondence<Record, Matchable>(new Record("c"), new Record("d"), 0.9));
+		cors.add(new Correspondence<Record, Matchable>(new Record("a"), new Record("d"), 0.1));
+		
+		Map<String, Double> closure = getPairs(runClosure(cors, PathSimilarity.MIN, 0));
+		assertEquals(6, closure.size());
+		// the path a - b - c is used instead of a - d - c
+		assertEquals(0.9, closure.get("a/c"), 1e-9);
+		assertEquals(0.1, closure.get("a/d"), 1e-9);
+	}
+
 }
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.blockers;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import de.uni_mannheim.informatik.dws.winter.matching.blockers.generators.RecordBlockingKeyGenerator;
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.DataSet;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.Pair;
+import de.uni_mannheim.informatik.dws.winter.model.ParallelHashedDataSet;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.processing.DataIterator;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import junit.framework.TestCase;
+
+/**
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class CanopyBlockerTest extends TestCase {
+
+	private static final Attribute name = new Attribute("name");
+
+	private RecordBlockingKeyGenerator<Record, Attribute> getTokenBlockingKeyGenerator() {
+		return new RecordBlockingKeyGenerator<Record, Attribute>() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void generateBlockingKeys(Record record,
+					Processable<Correspondence<Attribute, Matchable>> correspondences,
+					DataIterator<Pair<String, Record>> resultCollector) {
+				for (String token : record.getValue(name).split(" ")) {
+					resultCollector.next(new Pair<>(token, record));
+				}
+			}
+		};
+	}
+
+	private Record createRecord(String id, String value) {
+		Record r = new Record(id);
+		r.setValue(name, value);
+		return r;
+	}
+
+	private Set<String> getPairs(Processable<Correspondence<Record, Attribute>> result) {
+		Set<String> pairs = new HashSet<>();
+		for (Correspondence<Record, Attribute> cor : result.get()) {
+			pairs.add(cor.getFirstRecord().getIdentifier() + "/" + cor.getSecondRecord().getIdentifier());
+		}
+		return pairs;
+	}
+
+	public void testRunBlocking() {
+		DataSet<Record, Attribute> ds1 = new ParallelHashedDataSet<>(Arrays.asList(
+				createRecord("a1", "john smith london"), createRecord("a2", "jane doe paris"),
+				createRecord("a3", "peter pan berlin")));
+		DataSet<Record, Attribute> ds2 = new ParallelHashedDataSet<>(Arrays.asList(
+				createRecord("b1", "john smith london uk"), createRecord("b2", "jane doe rome"),
+				createRecord("b3", "max mustermann hamburg")));
+
+		// a1/b1 have a similarity of 0.75, a2/b2 of 0.5, all others 0.0
+		CanopyBlocker<Record, Attribute, Record, Attribute> blocker = new CanopyBlocker<>(
+				getTokenBlockingKeyGenerator(), 0.4, 0.7);
+		blocker.setMeasureBlockSizes(true);
+		Processable<Correspondence<Record, Attribute>> result = blocker.runBlocking(ds1, ds2, null);
+
+		assertEquals(new HashSet<>(Arrays.asList("a1/b1", "a2/b2")), getPairs(result));
+		assertEquals(2, result.size());
+		assertSame(result, blocker.getBlockedPairs());
+		assertEquals(1.0 - 2.0 / 9.0, blocker.getReductionRatio(), 1e-9);
+
+		// a1 and b1 remove each other from the pool, but a2 and b2 do not, so
+		// both of them become the center of a canopy
+		assertEquals(5, blocker.getCanopyCount());
+		assertEquals(7.0 / 5.0, blocker.getAverageCanopySize(), 1e-9);
+
+		// with a higher loose threshold, a2/b2 are not in the same canopy
+		blocker = new CanopyBlocker<>(getTokenBlockingKeyGenerator(), 0.6, 0.7);
+		assertEquals(new HashSet<>(Arrays.asList("a1/b1")), getPairs(blocker.runBlocking(ds1, ds2, null)));
+		assertEquals(5, blocker.getCanopyCount());
+	}
+
+	public void testSingleDataSet() {
+		DataSet<Record, Attribute> ds = new ParallelHashedDataSet<>(Arrays.asList(
+				createRecord("a1", "john smith london"), createRecord("a2", "john smith london uk"),
+				createRecord("a3", "john smith"), createRecord("a4", "peter pan berlin")));
+
+		CanopyBlocker<Record, Attribute, Record, Attribute> blocker = new CanopyBlocker<>(
+				getTokenBlockingKeyGenerator(), 0.5, 1.0);
+		Processable<Correspondence<Record, Attribute>> result = blocker.runBlocking(ds, null);
+
+		Set<String> pairs = new HashSet<>();
+		for (Correspondence<Record, Attribute> cor : result.get()) {
+			String id1 = cor.getFirstRecord().getIdentifier();
+			String id2 = cor.getSecondRecord().getIdentifier();
+			assertTrue(pairs.add(id1.compareTo(id2) < 0 ? id1 + "/" + id2 : id2 + "/" + id1));
+		}
+		// a2/a3 have a similarity of exactly 0.5
+		assertEquals(new HashSet<>(Arrays.asList("a1/a2", "a1/a3", "a2/a3")), pairs);
+	}
+
+	public void testReduction() {
+		Random r = new Random(1);
+		DataSet<Record, Attribute> ds1 = new ParallelHashedDataSet<>();
+		DataSet<Record, Attribute> ds2 = new ParallelHashedDataSet<>();
+		for (int i = 0; i < 300; i++) {
+			Set<String> tokens = new HashSet<>();
+			while (tokens.size() < 10) {
+				tokens.add("t" + r.nextInt(1000));
+			}
+			String value = String.join(" ", tokens);
+			ds1.add(createRecord("a" + i, value));
+			// one changed token: similarity 9/11
+			ds2.add(createRecord("b" + i, value.substring(value.indexOf(' ') + 1) + " u" + i));
+		}
+
+		CanopyBlocker<Record, Attribute, Record, Attribute> blocker = new CanopyBlocker<>(
+				getTokenBlockingKeyGenerator(), 0.5, 0.8);
+		Set<String> pairs = getPairs(blocker.runBlocking(ds1, ds2, null));
+
+		for (int i = 0; i < 300; i++) {
+			assertTrue(pairs.contains("a" + i + "/b" + i));
+		}
+
+		StandardRecordBlocker<Record, Attribute> standard = new StandardRecordBlocker<>(
+				getTokenBlockingKeyGenerator());
+		int standardPairs = standard.runBlocking(ds1, ds2, null).size();
+		assertTrue(pairs.size() * 10 < standardPairs);
+		assertTrue(blocker.getCanopyCount() >= 300);
+	}
+
+	public void testTightThresholdLowerThanLooseThreshold() {
+		try {
+			new CanopyBlocker<Record, Attribute, Record, Attribute>(getTokenBlockingKeyGenerator(), 0.7, 0.4);
+			fail("A tight threshold below the loose threshold must be rejected");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+}
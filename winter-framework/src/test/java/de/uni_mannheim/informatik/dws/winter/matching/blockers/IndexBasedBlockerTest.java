@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.blockers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+
+import de.uni_mannheim.informatik.dws.winter.index.io.DefaultIndex;
+import de.uni_mannheim.informatik.dws.winter.index.io.InMemoryIndex;
+import de.uni_mannheim.informatik.dws.winter.matching.blockers.generators.RecordBlockingKeyGenerator;
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.DataSet;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.Pair;
+import de.uni_mannheim.informatik.dws.winter.model.ParallelHashedDataSet;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.processing.DataIterator;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import junit.framework.TestCase;
+
+/**
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class IndexBasedBlockerTest extends TestCase {
+
+	private static final Attribute name = new Attribute("name");
+
+	private RecordBlockingKeyGenerator<Record, Attribute> getTokenBlockingKeyGenerator() {
+		return new RecordBlockingKeyGenerator<Record, Attribute>() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void generateBlockingKeys(Record record,
+					Processable<Correspondence<Attribute, Matchable>> correspondences,
+					DataIterator<Pair<String, Record>> resultCollector) {
+				for (String token : record.getValue(name).split(" ")) {
+					resultCollector.next(new Pair<>(token, record));
+				}
+			}
+		};
+	}
+
+	private DataSet<Record, Attribute> createDataSet(String prefix, int size, Random r) {
+		DataSet<Record, Attribute> ds = new ParallelHashedDataSet<>();
+		ds.addAttribute(name);
+		for (int i = 0; i < size; i++) {
+			Record rec = new Record(prefix + i);
+			rec.setValue(name, String.format("t%d t%d", r.nextInt(50), r.nextInt(50)));
+			ds.add(rec);
+		}
+		return ds;
+	}
+
+	private Set<String> getPairs(Processable<Correspondence<Record, Attribute>> result) {
+		Set<String> pairs = new HashSet<>();
+		for (Correspondence<Record, Attribute> cor : result.get()) {
+			pairs.add(cor.getFirstRecord().getIdentifier() + "/" + cor.getSecondRecord().getIdentifier());
+		}
+		return pairs;
+	}
+
+	public void testRunBlocking() {
+		Random r = new Random(1);
+		DataSet<Record, Attribute> ds1 = createDataSet("a", 200, r);
+		DataSet<Record, Attribute> ds2 = createDataSet("b", 300, r);
+
+		StandardRecordBlocker<Record, Attribute> standard = new StandardRecordBlocker<>(
+				getTokenBlockingKeyGenerator());
+		Set<String> expected = getPairs(standard.runBlocking(ds1, ds2, null));
+
+		IndexBasedBlocker<Record, Attribute, Attribute> blocker = new IndexBasedBlocker<>(
+				getTokenBlockingKeyGenerator(), new InMemoryIndex(), ds2.size());
+		Processable<Correspondence<Record, Attribute>> result = blocker.runBlocking(ds1, ds2, null);
+
+		assertEquals(ds2.size(), blocker.getNumberOfIndexedRecords());
+		assertEquals(expected.size(), result.size());
+		assertEquals(expected, getPairs(result));
+
+		// a small k limits the number of candidates per record
+		blocker.setTopK(2);
+		result = blocker.runBlocking(ds1, ds2, null);
+		assertTrue(result.size() <= 2 * ds1.size());
+		assertTrue(expected.containsAll(getPairs(result)));
+	}
+
+	public void testIndexUpdates() {
+		Record a1 = new Record("a1");
+		a1.setValue(name, "john smith");
+		Record a2 = new Record("a2");
+		a2.setValue(name, "jane doe");
+
+		Record b1 = new Record("b1");
+		b1.setValue(name, "john smith");
+		Record b2 = new Record("b2");
+		b2.setValue(name, "jane miller");
+		Record b3 = new Record("b3");
+		b3.setValue(name, "peter smith");
+
+		DataSet<Record, Attribute> ds1 = new ParallelHashedDataSet<>(Arrays.asList(a1, a2));
+		DataSet<Record, Attribute> ds2 = new ParallelHashedDataSet<>(Arrays.asList(b1, b2, b3));
+
+		IndexBasedBlocker<Record, Attribute, Attribute> blocker = new IndexBasedBlocker<>(
+				getTokenBlockingKeyGenerator(), new InMemoryIndex(), 10);
+
+		assertEquals(new HashSet<>(Arrays.asList("a1/b1", "a1/b3", "a2/b2")),
+				getPairs(blocker.runBlocking(ds1, ds2, null)));
+
+		// the top-ranked candidate shares the most blocking keys
+		blocker.setTopK(1);
+		assertEquals(new HashSet<>(Arrays.asList("a1/b1", "a2/b2")), getPairs(blocker.runBlocking(ds1, ds2, null)));
+		blocker.setTopK(10);
+
+		// delete a record
+		blocker.deleteRecords(Arrays.asList("b1"));
+		ds2.removeRecord("b1");
+		assertEquals(2, blocker.getNumberOfIndexedRecords());
+		assertEquals(new HashSet<>(Arrays.asList("a1/b3", "a2/b2")), getPairs(blocker.runBlocking(ds1, ds2, null)));
+
+		// update a record and add a new one
+		b2.setValue(name, "peter miller");
+		Record b4 = new Record("b4");
+		b4.setValue(name, "jane doe");
+		ds2.add(b4);
+		blocker.indexRecords(new ParallelHashedDataSet<>(Arrays.asList(b2, b4)), null);
+		assertEquals(3, blocker.getNumberOfIndexedRecords());
+		assertEquals(new HashSet<>(Arrays.asList("a1/b3", "a2/b4")), getPairs(blocker.runBlocking(ds1, ds2, null)));
+
+		// clear the index
+		blocker.clearIndex();
+		assertEquals(0, blocker.getNumberOfIndexedRecords());
+	}
+
+	public void testReopenDefaultIndex() throws IOException {
+		Random r = new Random(1);
+		DataSet<Record, Attribute> ds1 = createDataSet("a", 50, r);
+		DataSet<Record, Attribute> ds2 = createDataSet("b", 80, r);
+		File dir = Files.createTempDirectory("IndexBasedBlockerTest").toFile();
+
+		try {
+			IndexBasedBlocker<Record, Attribute, Attribute> blocker = new IndexBasedBlocker<>(
+					getTokenBlockingKeyGenerator(), new DefaultIndex(dir.getAbsolutePath()), ds2.size());
+			Set<String> expected = getPairs(blocker.runBlocking(ds1, ds2, null));
+			blocker.deleteRecords(Arrays.asList("b0"));
+			blocker.getIndex().closeIndexReader();
+
+			// a new blocker on the same directory uses the existing index instead of indexing dataset2 again
+			IndexBasedBlocker<Record, Attribute, Attribute> reopened = new IndexBasedBlocker<>(
+					getTokenBlockingKeyGenerator(), new DefaultIndex(dir.getAbsolutePath()), ds2.size());
+			assertEquals(ds2.size() - 1, reopened.getNumberOfIndexedRecords());
+
+			Set<String> pairs = getPairs(reopened.runBlocking(ds1, ds2, null));
+			assertEquals(ds2.size() - 1, reopened.getNumberOfIndexedRecords());
+			for (String pair : expected) {
+				assertEquals(!pair.endsWith("/b0"), pairs.contains(pair));
+			}
+			assertTrue(expected.containsAll(pairs));
+			reopened.getIndex().closeIndexReader();
+		} finally {
+			FileUtils.deleteDirectory(dir);
+		}
+	}
+
+	public void testRecreateIndexAfterFailedUpdate() {
+		Random r = new Random(1);
+		DataSet<Record, Attribute> ds1 = createDataSet("a", 50, r);
+		DataSet<Record, Attribute> ds2 = createDataSet("b", 80, r);
+		final boolean[] fail = { true };
+
+		RecordBlockingKeyGenerator<Record, Attribute> generator = new RecordBlockingKeyGenerator<Record, Attribute>() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void generateBlockingKeys(Record record,
+					Processable<Correspondence<Attribute, Matchable>> correspondences,
+					DataIterator<Pair<String, Record>> resultCollector) {
+				if (fail[0] && record.getIdentifier().equals("b10")) {
+					throw new IllegalStateException("failed to create the blocking keys");
+				}
+				getTokenBlockingKeyGenerator().generateBlockingKeys(record, correspondences, resultCollector);
+			}
+		};
+
+		IndexBasedBlocker<Record, Attribute, Attribute> blocker = new IndexBasedBlocker<>(generator,
+				new InMemoryIndex(), ds2.size());
+		try {
+			blocker.indexRecords(ds2, null);
+			fail("A failed update must not be ignored");
+		} catch (RuntimeException e) {
+			// expected
+		}
+
+		// the incomplete index is not used for blocking
+		fail[0] = false;
+		Set<String> expected = getPairs(new StandardRecordBlocker<Record, Attribute>(getTokenBlockingKeyGenerator())
+				.runBlocking(ds1, ds2, null));
+		assertEquals(expected, getPairs(blocker.runBlocking(ds1, ds2, null)));
+		assertEquals(ds2.size(), blocker.getNumberOfIndexedRecords());
+	}
+
+}
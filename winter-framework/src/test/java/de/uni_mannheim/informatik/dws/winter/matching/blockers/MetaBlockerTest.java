@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.blockers;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import de.uni_mannheim.informatik.dws.winter.matching.blockers.MetaBlocker.PruningScheme;
+import de.uni_mannheim.informatik.dws.winter.matching.blockers.MetaBlocker.WeightingScheme;
+import de.uni_mannheim.informatik.dws.winter.matching.blockers.generators.RecordBlockingKeyGenerator;
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.DataSet;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.Pair;
+import de.uni_mannheim.informatik.dws.winter.model.ParallelHashedDataSet;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.processing.DataIterator;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import junit.framework.TestCase;
+
+/**
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class MetaBlockerTest extends TestCase {
+
+	private static final Attribute name = new Attribute("name");
+
+	private RecordBlockingKeyGenerator<Record, Attribute> getTokenBlockingKeyGenerator() {
+		return new RecordBlockingKeyGenerator<Record, Attribute>() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void generateBlockingKeys(Record record,
+					Processable<Correspondence<Attribute, Matchable>> correspondences,
+					DataIterator<Pair<String, Record>> resultCollector) {
+				for (String token : record.getValue(name).split(" ")) {
+					resultCollector.next(new Pair<>(token, record));
+				}
+			}
+		};
+	}
+
+	private Record createRecord(String id, String value) {
+		Record r = new Record(id);
+		r.setValue(name, value);
+		return r;
+	}
+
+	private DataSet<Record, Attribute> createDataSet(String prefix, int size, Random r) {
+		DataSet<Record, Attribute> ds = new ParallelHashedDataSet<>();
+		ds.addAttribute(name);
+		for (int i = 0; i < size; i++) {
+			// skewed token distribution: low token ids are frequent
+			ds.add(createRecord(prefix + i, String.format("t%d t%d t%d", r.nextInt(5), r.nextInt(40), r.nextInt(200))));
+		}
+		return ds;
+	}
+
+	private Set<String> getPairs(Processable<Correspondence<Record, Attribute>> result) {
+		Set<String> pairs = new HashSet<>();
+		for (Correspondence<Record, Attribute> cor : result.get()) {
+			String id1 = cor.getFirstRecord().getIdentifier();
+			String id2 = cor.getSecondRecord().getIdentifier();
+			pairs.add(id1.compareTo(id2) < 0 ? id1 + "/" + id2 : id2 + "/" + id1);
+		}
+		return pairs;
+	}
+
+	public void testCommonBlocks() {
+		// a1 shares 3 blocks with b1, 2 blocks with b3 and 1 block with b2
+		DataSet<Record, Attribute> ds1 = new ParallelHashedDataSet<>(
+				Arrays.asList(createRecord("a1", "john smith london"), createRecord("a2", "jane doe paris")));
+		DataSet<Record, Attribute> ds2 = new ParallelHashedDataSet<>(Arrays.asList(
+				createRecord("b1", "john smith london"), createRecord("b2", "peter smith berlin"),
+				createRecord("b3", "jane miller london smith"), createRecord("b4", "jane doe paris")));
+
+		// edges: a1-b1 (3), a1-b2 (1), a1-b3 (2), a2-b3 (1), a2-b4 (3) with
+		// an average weight of 2
+		MetaBlocker<Record, Attribute, Record, Attribute> blocker = new MetaBlocker<>(getTokenBlockingKeyGenerator(),
+				WeightingScheme.CBS, PruningScheme.WEP);
+		Processable<Correspondence<Record, Attribute>> result = blocker.runBlocking(ds1, ds2, null);
+		assertEquals(new HashSet<>(Arrays.asList("a1/b1", "a1/b3", "a2/b4")), getPairs(result));
+		assertEquals(1.0 - 3.0 / 8.0, blocker.getReductionRatio(), 1e-9);
+
+		// 16 block assignments for 6 nodes: k = 2
+		// a1: b1, b3; a2: b4, b3; b1: a1; b2: a1; b3: a1, a2; b4: a2
+		blocker = new MetaBlocker<>(getTokenBlockingKeyGenerator(), WeightingScheme.CBS, PruningScheme.CNP);
+		assertEquals(new HashSet<>(Arrays.asList("a1/b1", "a1/b2", "a1/b3", "a2/b3", "a2/b4")),
+				getPairs(blocker.runBlocking(ds1, ds2, null)));
+
+		blocker = new MetaBlocker<>(getTokenBlockingKeyGenerator(), WeightingScheme.CBS, PruningScheme.RCNP);
+		assertEquals(new HashSet<>(Arrays.asList("a1/b1", "a1/b3", "a2/b3", "a2/b4")),
+				getPairs(blocker.runBlocking(ds1, ds2, null)));
+	}
+
+	public void testPruningSchemes() {
+		Random r = new Random(1);
+		DataSet<Record, Attribute> ds1 = createDataSet("a", 300, r);
+		DataSet<Record, Attribute> ds2 = createDataSet("b", 400, r);
+
+		StandardRecordBlocker<Record, Attribute> standard = new StandardRecordBlocker<>(
+				getTokenBlockingKeyGenerator());
+		Set<String> all = getPairs(standard.runBlocking(ds1, ds2, null));
+
+		for (WeightingScheme weighting : WeightingScheme.values()) {
+			Set<String> cnp = null;
+			for (PruningScheme pruning : PruningScheme.values()) {
+				MetaBlocker<Record, Attribute, Record, Attribute> blocker = new MetaBlocker<>(
+						getTokenBlockingKeyGenerator(), weighting, pruning);
+				Processable<Correspondence<Record, Attribute>> result = blocker.runBlocking(ds1, ds2, null);
+				Set<String> pairs = getPairs(result);
+
+				// no duplicates, only pairs that share a block and fewer pairs
+				// than without meta-blocking
+				assertEquals(pairs.size(), result.size());
+				assertTrue(all.containsAll(pairs));
+				assertTrue(String.format("%s/%s", weighting, pruning), pairs.size() < all.size());
+				assertTrue(pairs.size() > 0);
+
+				// the result does not depend on the scheduling
+				assertEquals(pairs, getPairs(blocker.runBlocking(ds1, ds2, null)));
+
+				if (pruning == PruningScheme.CNP) {
+					cnp = pairs;
+				} else if (pruning == PruningScheme.RCNP) {
+					assertTrue(cnp.containsAll(pairs));
+				}
+			}
+		}
+	}
+
+	public void testSingleDataSet() {
+		Random r = new Random(2);
+		DataSet<Record, Attribute> ds = createDataSet("a", 300, r);
+
+		StandardRecordBlocker<Record, Attribute> standard = new StandardRecordBlocker<>(
+				getTokenBlockingKeyGenerator());
+		Set<String> all = getPairs(standard.runBlocking(ds, null));
+
+		for (PruningScheme pruning : PruningScheme.values()) {
+			MetaBlocker<Record, Attribute, Record, Attribute> blocker = new MetaBlocker<>(
+					getTokenBlockingKeyGenerator(), WeightingScheme.JS, pruning);
+			Processable<Correspondence<Record, Attribute>> result = blocker.runBlocking(ds, null);
+			Set<String> pairs = getPairs(result);
+
+			assertEquals(pairs.size(), result.size());
+			assertTrue(all.containsAll(pairs));
+			assertTrue(pairs.size() < all.size());
+			for (Correspondence<Record, Attribute> cor : result.get()) {
+				assertNotSame(cor.getFirstRecord(), cor.getSecondRecord());
+			}
+		}
+	}
+
+	public void testBlockFiltering() {
+		Random r = new Random(3);
+		DataSet<Record, Attribute> ds1 = createDataSet("a", 300, r);
+		DataSet<Record, Attribute> ds2 = createDataSet("b", 300, r);
+
+		MetaBlocker<Record, Attribute, Record, Attribute> blocker = new MetaBlocker<>(getTokenBlockingKeyGenerator(),
+				WeightingScheme.ARCS, PruningScheme.WEP);
+		Set<String> unfiltered = getPairs(blocker.runBlocking(ds1, ds2, null));
+
+		// removing the largest block of each record removes the frequent
+		// tokens
+		blocker.setBlockFilteringRatio(0.34);
+		Set<String> filtered = getPairs(blocker.runBlocking(ds1, ds2, null));
+		assertTrue(filtered.size() > 0);
+		assertTrue(filtered.size() < unfiltered.size());
+	}
+
+}
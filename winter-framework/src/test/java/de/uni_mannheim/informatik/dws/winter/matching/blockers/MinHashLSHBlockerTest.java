@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.blockers;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import de.uni_mannheim.informatik.dws.winter.matching.blockers.generators.RecordBlockingKeyGenerator;
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.DataSet;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.Pair;
+import de.uni_mannheim.informatik.dws.winter.model.ParallelHashedDataSet;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.processing.DataIterator;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import junit.framework.TestCase;
+
+/**
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class MinHashLSHBlockerTest extends TestCase {
+
+	private static final Attribute name = new Attribute("name");
+
+	private static final int TOKENS = 20;
+	private static final int SHARED_TOKENS = 15;
+	// 15 shared tokens out of 25 distinct tokens
+	private static final double SIMILARITY = 0.6;
+
+	private RecordBlockingKeyGenerator<Record, Attribute> getTokenBlockingKeyGenerator() {
+		return new RecordBlockingKeyGenerator<Record, Attribute>() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void generateBlockingKeys(Record record,
+					Processable<Correspondence<Attribute, Matchable>> correspondences,
+					DataIterator<Pair<String, Record>> resultCollector) {
+				for (String token : record.getValue(name).split(" ")) {
+					resultCollector.next(new Pair<>(token, record));
+				}
+			}
+		};
+	}
+
+	private DataSet<Record, Attribute> ds1;
+	private DataSet<Record, Attribute> ds2;
+
+	/**
+	 * creates record pairs a_i/b_i with a Jaccard similarity of 0.6, all other
+	 * tokens are drawn from a vocabulary of 2000 tokens
+	 */
+	@Override
+	protected void setUp() throws Exception {
+		Random r = new Random(1);
+		ds1 = new ParallelHashedDataSet<>();
+		ds2 = new ParallelHashedDataSet<>();
+		int nextUnique = 0;
+		for (int i = 0; i < 400; i++) {
+			Set<String> tokens = new HashSet<>();
+			while (tokens.size() < TOKENS) {
+				tokens.add("t" + r.nextInt(2000));
+			}
+			StringBuilder a = new StringBuilder();
+			StringBuilder b = new StringBuilder();
+			int n = 0;
+			for (String token : tokens) {
+				a.append(token).append(" ");
+				if (n++ < SHARED_TOKENS) {
+					b.append(token).append(" ");
+				} else {
+					b.append("u").append(nextUnique++).append(" ");
+				}
+			}
+			Record ra = new Record("a" + i);
+			ra.setValue(name, a.toString().trim());
+			ds1.add(ra);
+			Record rb = new Record("b" + i);
+			rb.setValue(name, b.toString().trim());
+			ds2.add(rb);
+		}
+	}
+
+	private Set<String> getPairs(Processable<Correspondence<Record, Attribute>> result) {
+		Set<String> pairs = new HashSet<>();
+		for (Correspondence<Record, Attribute> cor : result.get()) {
+			pairs.add(cor.getFirstRecord().getIdentifier() + "/" + cor.getSecondRecord().getIdentifier());
+		}
+		return pairs;
+	}
+
+	public void testGetBandLayout() {
+		Pair<Integer, Integer> layout = MinHashLSHBlocker.getBandLayout(SIMILARITY, 0.9, 128);
+		int bands = layout.getFirst();
+		int rows = layout.getSecond();
+
+		assertTrue(bands * rows <= 128);
+		assertTrue(MinHashLSHBlocker.getCandidateProbability(SIMILARITY, bands, rows) >= 0.9);
+		// more rows per band than a single row per band, which would return
+		// almost all pairs
+		assertTrue(rows > 1);
+		assertTrue(MinHashLSHBlocker.getCandidateProbability(0.2, bands, rows) < 0.1);
+	}
+
+	public void testRecallAndReduction() {
+		Pair<Integer, Integer> layout = MinHashLSHBlocker.getBandLayout(SIMILARITY, 0.9, 128);
+		MinHashLSHBlocker<Record, Attribute, Record, Attribute> blocker = new MinHashLSHBlocker<>(
+				getTokenBlockingKeyGenerator(), layout.getFirst(), layout.getSecond(), 42);
+		Processable<Correspondence<Record, Attribute>> result = blocker.runBlocking(ds1, ds2, null);
+		Set<String> pairs = getPairs(result);
+		assertEquals(pairs.size(), result.size());
+
+		int found = 0;
+		for (int i = 0; i < ds1.size(); i++) {
+			if (pairs.contains("a" + i + "/b" + i)) {
+				found++;
+			}
+		}
+		double recall = found / (double) ds1.size();
+		double expected = MinHashLSHBlocker.getCandidateProbability(SIMILARITY, layout.getFirst(),
+				layout.getSecond());
+		// four standard deviations of the binomial distribution
+		double bound = 4 * Math.sqrt(expected * (1 - expected) / ds1.size());
+		assertTrue(String.format("recall %f, expected %f", recall, expected), recall >= expected - bound);
+
+		StandardRecordBlocker<Record, Attribute> standard = new StandardRecordBlocker<>(
+				getTokenBlockingKeyGenerator());
+		int standardPairs = standard.runBlocking(ds1, ds2, null).size();
+		assertTrue(String.format("%d vs %d pairs", pairs.size(), standardPairs), pairs.size() * 10 < standardPairs);
+
+		// the same seed results in the same pairs
+		blocker = new MinHashLSHBlocker<>(getTokenBlockingKeyGenerator(), layout.getFirst(), layout.getSecond(), 42);
+		assertEquals(pairs, getPairs(blocker.runBlocking(ds1, ds2, null)));
+	}
+
+	public void testSingleDataSet() {
+		for (Record r : ds2.get()) {
+			ds1.add(r);
+		}
+		MinHashLSHBlocker<Record, Attribute, Record, Attribute> blocker = new MinHashLSHBlocker<>(
+				getTokenBlockingKeyGenerator(), 20, 3, 42);
+		Processable<Correspondence<Record, Attribute>> result = blocker.runBlocking(ds1, null);
+
+		Set<String> pairs = new HashSet<>();
+		for (Correspondence<Record, Attribute> cor : result.get()) {
+			assertNotSame(cor.getFirstRecord(), cor.getSecondRecord());
+			String id1 = cor.getFirstRecord().getIdentifier();
+			String id2 = cor.getSecondRecord().getIdentifier();
+			assertTrue(pairs.add(id1.compareTo(id2) < 0 ? id1 + "/" + id2 : id2 + "/" + id1));
+		}
+
+		int found = 0;
+		for (int i = 0; i < 400; i++) {
+			if (pairs.contains("a" + i + "/b" + i)) {
+				found++;
+			}
+		}
+		// the candidate probability for 20 bands of 3 rows is 0.99
+		assertTrue(found > 360);
+	}
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.blockers;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import de.uni_mannheim.informatik.dws.winter.matching.blockers.generators.BlockingKeyGenerator;
+import de.uni_mannheim.informatik.dws.winter.matching.blockers.generators.RecordBlockingKeyGenerator;
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.DataSet;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.Pair;
+import de.uni_mannheim.informatik.dws.winter.model.ParallelHashedDataSet;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.processing.DataIterator;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import junit.framework.TestCase;
+
+/**
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class SortedNeighbourhoodBlockerTest extends TestCase {
+
+	private static final Attribute name = new Attribute("name");
+	private static final Attribute city = new Attribute("city");
+
+	private RecordBlockingKeyGenerator<Record, Attribute> getBlockingKeyGenerator(final Attribute attribute) {
+		return new RecordBlockingKeyGenerator<Record, Attribute>() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void generateBlockingKeys(Record record,
+					Processable<Correspondence<Attribute, Matchable>> correspondences,
+					DataIterator<Pair<String, Record>> resultCollector) {
+				resultCollector.next(new Pair<>(record.getValue(attribute), record));
+			}
+		};
+	}
+
+	private Record createRecord(String id, String nameValue, String cityValue) {
+		Record r = new Record(id);
+		r.setValue(name, nameValue);
+		r.setValue(city, cityValue);
+		return r;
+	}
+
+	private DataSet<Record, Attribute> createDataSet1() {
+		return new ParallelHashedDataSet<>(Arrays.asList(createRecord("a1", "apple", "x"),
+				createRecord("a2", "banana", "y"), createRecord("a3", "cherry", "z")));
+	}
+
+	private DataSet<Record, Attribute> createDataSet2() {
+		return new ParallelHashedDataSet<>(Arrays.asList(createRecord("b1", "apricot", "y"),
+				createRecord("b2", "blueberry", "x"), createRecord("b3", "date", "z"),
+				createRecord("b4", "avocado", "w")));
+	}
+
+	private Set<String> getPairs(Processable<Correspondence<Record, Attribute>> result) {
+		Set<String> pairs = new HashSet<>();
+		for (Correspondence<Record, Attribute> cor : result.get()) {
+			pairs.add(cor.getFirstRecord().getIdentifier() + "/" + cor.getSecondRecord().getIdentifier());
+		}
+		return pairs;
+	}
+
+	public void testSinglePass() {
+		// sorted by name: apple(a1) apricot(b1) avocado(b4) banana(a2)
+		// blueberry(b2) cherry(a3) date(b3)
+		SortedNeighbourhoodBlocker<Record, Attribute, Attribute> blocker = new SortedNeighbourhoodBlocker<>(
+				getBlockingKeyGenerator(name), 2);
+		Processable<Correspondence<Record, Attribute>> result = blocker.runBlocking(createDataSet1(),
+				createDataSet2(), null);
+
+		assertEquals(3, result.size());
+		assertEquals(new HashSet<>(Arrays.asList("a1/b1", "a2/b2", "a3/b3")), getPairs(result));
+		assertEquals(1, blocker.getPassPairCounts().length);
+		assertEquals(3, blocker.getPassPairCounts()[0]);
+		assertEquals(blocker.getReductionRatio(), blocker.getPassReductionRatios()[0], 1e-9);
+
+		blocker = new SortedNeighbourhoodBlocker<>(getBlockingKeyGenerator(name), 3);
+		assertEquals(new HashSet<>(Arrays.asList("a1/b1", "a1/b4", "a2/b2", "a2/b3", "a3/b3")),
+				getPairs(blocker.runBlocking(createDataSet1(), createDataSet2(), null)));
+	}
+
+	public void testMultiPass() {
+		// sorted by city: w(b4) x(a1) x(b2) y(a2) y(b1) z(a3) z(b3)
+		SortedNeighbourhoodBlocker<Record, Attribute, Attribute> blocker = new SortedNeighbourhoodBlocker<>(
+				Arrays.<BlockingKeyGenerator<Record, Attribute, Record>> asList(getBlockingKeyGenerator(name),
+						getBlockingKeyGenerator(city)),
+				2);
+		Processable<Correspondence<Record, Attribute>> result = blocker.runBlocking(createDataSet1(),
+				createDataSet2(), null);
+
+		// a3/b3 is created by both passes, but must only be contained once
+		assertEquals(5, result.size());
+		assertEquals(new HashSet<>(Arrays.asList("a1/b1", "a2/b2", "a3/b3", "a1/b2", "a2/b1")), getPairs(result));
+		assertEquals(2, blocker.getPassPairCounts().length);
+		assertEquals(3, blocker.getPassPairCounts()[0]);
+		assertEquals(3, blocker.getPassPairCounts()[1]);
+		assertEquals(1.0 - 3.0 / 12.0, blocker.getPassReductionRatios()[1], 1e-9);
+		assertEquals(1.0 - 5.0 / 12.0, blocker.getReductionRatio(), 1e-9);
+	}
+
+	public void testMultiPassSingleDataSet() {
+		DataSet<Record, Attribute> ds = createDataSet2();
+
+		SortedNeighbourhoodBlocker<Record, Attribute, Attribute> single = new SortedNeighbourhoodBlocker<>(
+				getBlockingKeyGenerator(name), 3);
+		Set<String> expected = getPairs(single.runBlocking(ds, null));
+
+		// two identical passes must not produce more pairs than one pass
+		SortedNeighbourhoodBlocker<Record, Attribute, Attribute> blocker = new SortedNeighbourhoodBlocker<>(
+				Arrays.<BlockingKeyGenerator<Record, Attribute, Record>> asList(getBlockingKeyGenerator(name),
+						getBlockingKeyGenerator(name)),
+				3);
+		Processable<Correspondence<Record, Attribute>> result = blocker.runBlocking(ds, null);
+
+		assertEquals(expected.size(), result.size());
+		assertEquals(expected, getPairs(result));
+		assertEquals(expected.size(), blocker.getPassPairCounts()[1]);
+	}
+
+	public void testAdaptiveWindow() {
+		SortedNeighbourhoodBlocker<Record, Attribute, Attribute> blocker = new SortedNeighbourhoodBlocker<>(
+				getBlockingKeyGenerator(name), 2);
+		blocker.setAdaptiveWindow(1, 3, 1);
+
+		// the window grows for keys starting with the same character and
+		// shrinks for cherry/date
+		assertEquals(new HashSet<>(Arrays.asList("a1/b1", "a1/b4", "a2/b2")),
+				getPairs(blocker.runBlocking(createDataSet1(), createDataSet2(), null)));
+
+		blocker.setFixedWindow();
+		assertEquals(new HashSet<>(Arrays.asList("a1/b1", "a2/b2", "a3/b3")),
+				getPairs(blocker.runBlocking(createDataSet1(), createDataSet2(), null)));
+	}
+
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.blockers.generators;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.uni_mannheim.informatik.dws.winter.matching.blockers.SortedNeighbourhoodBlocker;
+import de.uni_mannheim.informatik.dws.winter.matching.blockers.StandardRecordBlocker;
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.DataSet;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.Pair;
+import de.uni_mannheim.informatik.dws.winter.model.ParallelHashedDataSet;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.processing.DataIterator;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import junit.framework.TestCase;
+
+/**
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class CachedBlockingKeyGeneratorTest extends TestCase {
+
+	private static final Attribute name = new Attribute("name");
+
+	private final AtomicInteger calls = new AtomicInteger();
+
+	private RecordBlockingKeyGenerator<Record, Attribute> getTokenBlockingKeyGenerator() {
+		return new RecordBlockingKeyGenerator<Record, Attribute>() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void generateBlockingKeys(Record record,
+					Processable<Correspondence<Attribute, Matchable>> correspondences,
+					DataIterator<Pair<String, Record>> resultCollector) {
+				calls.incrementAndGet();
+				for (String token : record.getValue(name).split(" ")) {
+					resultCollector.next(new Pair<>(token, record));
+				}
+			}
+		};
+	}
+
+	private DataSet<Record, Attribute> createDataSet(String prefix, int size, Random r) {
+		DataSet<Record, Attribute> ds = new ParallelHashedDataSet<>();
+		ds.addAttribute(name);
+		for (int i = 0; i < size; i++) {
+			Record rec = new Record(prefix + i);
+			rec.setValue(name, String.format("t%d t%d t%d", r.nextInt(50), r.nextInt(50), r.nextInt(50)));
+			ds.add(rec);
+		}
+		return ds;
+	}
+
+	private List<String> getKeys(BlockingKeyGenerator<Record, Attribute, Record> generator,
+			DataSet<Record, Attribute> ds) {
+		List<String> keys = new ArrayList<>();
+		for (Record r : ds.get()) {
+			generator.generateBlockingKeys(r, null, new DataIterator<Pair<String, Record>>() {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public void initialise() {
+				}
+
+				@Override
+				public void next(Pair<String, Record> record) {
+					assertSame(r, record.getSecond());
+					keys.add(r.getIdentifier() + ":" + record.getFirst());
+				}
+
+				@Override
+				public void finalise() {
+				}
+			});
+		}
+		return keys;
+	}
+
+	private Set<String> getPairs(Processable<Correspondence<Record, Attribute>> result) {
+		Set<String> pairs = new HashSet<>();
+		for (Correspondence<Record, Attribute> cor : result.get()) {
+			pairs.add(cor.getFirstRecord().getIdentifier() + "/" + cor.getSecondRecord().getIdentifier());
+		}
+		return pairs;
+	}
+
+	public void testIdenticalKeysAndPairs() {
+		Random r = new Random(1);
+		DataSet<Record, Attribute> ds1 = createDataSet("a", 200, r);
+		DataSet<Record, Attribute> ds2 = createDataSet("b", 300, r);
+
+		RecordBlockingKeyGenerator<Record, Attribute> generator = getTokenBlockingKeyGenerator();
+		CachedBlockingKeyGenerator<Record, Attribute> cached = new CachedBlockingKeyGenerator<>(generator);
+
+		// the keys are identical, including their order
+		assertEquals(getKeys(generator, ds1), getKeys(cached, ds1));
+		assertEquals(getKeys(generator, ds1), getKeys(cached, ds1));
+		assertEquals(ds1.size(), cached.getCacheMisses());
+		assertEquals(ds1.size(), cached.getCacheHits());
+
+		Set<String> expected = getPairs(new StandardRecordBlocker<>(generator).runBlocking(ds1, ds2, null));
+		for (int i = 0; i < 2; i++) {
+			assertEquals(expected, getPairs(new StandardRecordBlocker<>(cached).runBlocking(ds1, ds2, null)));
+		}
+
+		expected = getPairs(new SortedNeighbourhoodBlocker<Record, Attribute, Attribute>(generator, 5).runBlocking(ds1, ds2, null));
+		assertEquals(expected, getPairs(new SortedNeighbourhoodBlocker<Record, Attribute, Attribute>(cached, 5).runBlocking(ds1, ds2, null)));
+
+		// the keys were only generated once per record
+		assertEquals(ds1.size() + ds2.size(), cached.getCacheMisses());
+		assertEquals(ds1.size() + ds2.size(), cached.size());
+	}
+
+	public void testVersion() {
+		Record a = new Record("a");
+		a.setValue(name, "john smith");
+		DataSet<Record, Attribute> ds = new ParallelHashedDataSet<>(Collections.singletonList(a));
+
+		CachedBlockingKeyGenerator<Record, Attribute> cached = new CachedBlockingKeyGenerator<>(
+				getTokenBlockingKeyGenerator(), 1L);
+		getKeys(cached, ds);
+
+		// the record changed, but the version is the same
+		a.setValue(name, "jane doe");
+		assertTrue(getKeys(cached, ds).contains("a:john"));
+		cached.setVersion(1L);
+		assertTrue(getKeys(cached, ds).contains("a:john"));
+
+		// a new version invalidates the cache
+		cached.setVersion(2L);
+		assertEquals(0, cached.size());
+		assertTrue(getKeys(cached, ds).contains("a:jane"));
+	}
+
+	public void testFile() throws Exception {
+		Random r = new Random(2);
+		DataSet<Record, Attribute> ds = createDataSet("a", 100, r);
+		File file = File.createTempFile("blocking_keys", ".bin");
+		file.deleteOnExit();
+
+		CachedBlockingKeyGenerator<Record, Attribute> cached = new CachedBlockingKeyGenerator<>(
+				getTokenBlockingKeyGenerator(), 5L);
+		List<String> keys = getKeys(cached, ds);
+		cached.writeCache(file);
+
+		// a new generator with the same version does not generate any keys
+		calls.set(0);
+		CachedBlockingKeyGenerator<Record, Attribute> loaded = new CachedBlockingKeyGenerator<>(
+				getTokenBlockingKeyGenerator(), 5L);
+		assertTrue(loaded.readCache(file));
+		assertEquals(keys, getKeys(loaded, ds));
+		assertEquals(0, calls.get());
+		assertEquals(0, loaded.getCacheMisses());
+
+		// new keys can be added to the loaded cache
+		Record b = new Record("b");
+		b.setValue(name, "t1 new");
+		List<String> newKeys = getKeys(loaded, new ParallelHashedDataSet<>(Collections.singletonList(b)));
+		assertEquals(2, newKeys.size());
+		assertTrue(newKeys.contains("b:new"));
+
+		// a different version is not loaded
+		CachedBlockingKeyGenerator<Record, Attribute> other = new CachedBlockingKeyGenerator<>(
+				getTokenBlockingKeyGenerator(), 6L);
+		assertFalse(other.readCache(file));
+		assertEquals(0, other.size());
+	}
+
+	public void testLongKeysInFile() throws Exception {
+		// writeUTF cannot write strings that are longer than 64 KB
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 40000; i++) {
+			sb.append("\u00e4");
+		}
+		Record a = new Record("a");
+		a.setValue(name, sb.toString() + " short");
+		DataSet<Record, Attribute> ds = new ParallelHashedDataSet<>(Collections.singletonList(a));
+		File file = File.createTempFile("blocking_keys", ".bin");
+		file.deleteOnExit();
+
+		CachedBlockingKeyGenerator<Record, Attribute> cached = new CachedBlockingKeyGenerator<>(
+				getTokenBlockingKeyGenerator());
+		List<String> keys = getKeys(cached, ds);
+		cached.writeCache(file);
+
+		CachedBlockingKeyGenerator<Record, Attribute> loaded = new CachedBlockingKeyGenerator<>(
+				getTokenBlockingKeyGenerator());
+		assertTrue(loaded.readCache(file));
+		assertEquals(keys, getKeys(loaded, ds));
+		assertEquals(0, loaded.getCacheMisses());
+	}
+
+	public void testOverlappingIdentifiers() throws Exception {
+		Record a = new SourceRecord("1", 0);
+		a.setValue(name, "john smith");
+		Record b = new SourceRecord("1", 1);
+		b.setValue(name, "jane doe");
+		File file = File.createTempFile("blocking_keys", ".bin");
+		file.deleteOnExit();
+
+		// records of different data sources do not share their cached keys
+		CachedBlockingKeyGenerator<Record, Attribute> cached = new CachedBlockingKeyGenerator<>(
+				getTokenBlockingKeyGenerator());
+		assertEquals(Arrays.asList("1:john", "1:smith"),
+				getKeys(cached, new ParallelHashedDataSet<>(Collections.singletonList(a))));
+		assertEquals(Arrays.asList("1:jane", "1:doe"),
+				getKeys(cached, new ParallelHashedDataSet<>(Collections.singletonList(b))));
+		assertEquals(2, cached.size());
+		cached.writeCache(file);
+
+		CachedBlockingKeyGenerator<Record, Attribute> loaded = new CachedBlockingKeyGenerator<>(
+				getTokenBlockingKeyGenerator());
+		assertTrue(loaded.readCache(file));
+		assertEquals(Arrays.asList("1:jane", "1:doe"),
+				getKeys(loaded, new ParallelHashedDataSet<>(Collections.singletonList(b))));
+		assertEquals(0, loaded.getCacheMisses());
+	}
+
+	private static class SourceRecord extends Record {
+
+		private static final long serialVersionUID = 1L;
+		private int dataSource;
+
+		public SourceRecord(String identifier, int dataSource) {
+			super(identifier);
+			this.dataSource = dataSource;
+		}
+
+		@Override
+		public int getDataSourceIdentifier() {
+			return dataSource;
+		}
+	}
+
+}
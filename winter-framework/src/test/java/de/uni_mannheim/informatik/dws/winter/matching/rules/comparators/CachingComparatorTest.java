@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.rules.comparators;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.comparators.RecordComparatorLevenshtein;
+import de.uni_mannheim.informatik.dws.winter.similarity.string.GeneralisedStringJaccard;
+import de.uni_mannheim.informatik.dws.winter.similarity.string.LevenshteinSimilarity;
+import junit.framework.TestCase;
+
+/**
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class CachingComparatorTest extends TestCase {
+
+	private static final Attribute NAME = new Attribute("name");
+	private static final Attribute LABEL = new Attribute("label");
+
+	private Record createRecord(String id, Attribute attribute, String value) {
+		Record r = new Record(id, "test");
+		r.setValue(attribute, value);
+		return r;
+	}
+
+	public void testCompare() {
+		RecordComparatorLevenshtein comparator = new RecordComparatorLevenshtein(NAME, LABEL);
+		CachingComparator<Record, Attribute> cached = CachingComparator.forAttributes(comparator, NAME, LABEL, 100,
+				false);
+
+		Record a = createRecord("a", NAME, "Mannheim");
+		Record b = createRecord("b", LABEL, "Manheim");
+		Record c = createRecord("c", LABEL, "Mannheim");
+
+		assertEquals(comparator.compare(a, b, null), cached.compare(a, b, null));
+		assertEquals(comparator.compare(a, c, null), cached.compare(a, c, null));
+		assertEquals(0, cached.getCacheHits());
+		assertEquals(2, cached.getCacheMisses());
+
+		// a different record with the same value is taken from the cache
+		Record a2 = createRecord("a2", NAME, "Mannheim");
+		assertEquals(comparator.compare(a2, b, null), cached.compare(a2, b, null));
+		assertEquals(1, cached.getCacheHits());
+		assertEquals(1.0 / 3.0, cached.getHitRatio(), 1e-9);
+		assertEquals(2, cached.size());
+
+		cached.clear();
+		assertEquals(0, cached.size());
+		assertEquals(0, cached.getCacheHits());
+		assertEquals(0.0, cached.getHitRatio());
+	}
+
+	public void testSymmetric() {
+		RecordComparatorLevenshtein comparator = new RecordComparatorLevenshtein(NAME, NAME);
+		CachingComparator<Record, Attribute> symmetric = CachingComparator.forAttributes(comparator, NAME, NAME, 100,
+				true);
+		CachingComparator<Record, Attribute> asymmetric = CachingComparator.forAttributes(comparator, NAME, NAME, 100,
+				false);
+
+		Record a = createRecord("a", NAME, "Mannheim");
+		Record b = createRecord("b", NAME, "Manheim");
+
+		for (CachingComparator<Record, Attribute> c : Arrays.asList(symmetric, asymmetric)) {
+			assertEquals(comparator.compare(a, b, null), c.compare(a, b, null));
+			assertEquals(comparator.compare(b, a, null), c.compare(b, a, null));
+		}
+
+		assertEquals(1, symmetric.getCacheHits());
+		assertEquals(1, symmetric.size());
+		assertEquals(0, asymmetric.getCacheHits());
+		assertEquals(2, asymmetric.size());
+	}
+
+	public void testMaxSize() {
+		RecordComparatorLevenshtein comparator = new RecordComparatorLevenshtein(NAME, NAME);
+		CachingComparator<Record, Attribute> cached = CachingComparator.forAttributes(comparator, NAME, NAME, 64,
+				true);
+
+		Record a = createRecord("a", NAME, "Mannheim");
+		for (int i = 0; i < 1000; i++) {
+			Record b = createRecord("b" + i, NAME, "Mannheim " + i);
+			assertEquals(comparator.compare(a, b, null), cached.compare(a, b, null));
+			assertTrue(cached.size() <= 64);
+		}
+		assertEquals(1000, cached.getCacheMisses());
+
+		// the most recently used pair is still in the cache
+		cached.compare(a, createRecord("c", NAME, "Mannheim 999"), null);
+		assertEquals(1, cached.getCacheHits());
+
+		// the least recently used pair was evicted
+		cached.compare(a, createRecord("c", NAME, "Mannheim 0"), null);
+		assertEquals(1, cached.getCacheHits());
+	}
+
+	public void testComparisonLog() {
+		RecordComparatorLevenshtein comparator = new RecordComparatorLevenshtein(NAME, NAME);
+		comparator.setLowerCase(true);
+		CachingComparator<Record, Attribute> cached = CachingComparator.forAttributes(comparator, NAME, NAME, 100,
+				true);
+		ComparatorLogger log = new ComparatorLogger();
+		cached.setComparisonLog(log);
+		assertSame(log, cached.getComparisonLog());
+		assertSame(log, comparator.getComparisonLog());
+		assertEquals(comparator.getName(null), cached.getName(null));
+
+		Record a = createRecord("a", NAME, "Mannheim");
+		Record b = createRecord("b", NAME, "MANHEIM");
+
+		log.initialise();
+		double sim = cached.compare(a, b, null);
+		String[] expected = getLog(log);
+		assertEquals("Mannheim", log.getRecord1Value());
+		assertEquals("manheim", log.getRecord2PreprocessedValue());
+
+		// the log is restored for a cache hit
+		log.initialise();
+		assertEquals(sim, cached.compare(a, b, null));
+		assertEquals(1, cached.getCacheHits());
+		assertEquals(String.join("|", expected), String.join("|", getLog(log)));
+
+		// and for the swapped values
+		log.initialise();
+		assertEquals(sim, cached.compare(b, a, null));
+		assertEquals(2, cached.getCacheHits());
+		assertEquals("MANHEIM", log.getRecord1Value());
+		assertEquals("Mannheim", log.getRecord2Value());
+		assertEquals("manheim", log.getRecord1PreprocessedValue());
+		assertEquals("mannheim", log.getRecord2PreprocessedValue());
+		assertEquals(expected[5], log.getSimilarity());
+	}
+
+	public void testComparisonLogAfterCaching() {
+		RecordComparatorLevenshtein comparator = new RecordComparatorLevenshtein(NAME, NAME);
+		CachingComparator<Record, Attribute> cached = CachingComparator.forAttributes(comparator, NAME, NAME, 100,
+				true);
+
+		Record a = createRecord("a", NAME, "Mannheim");
+		Record b = createRecord("b", NAME, "Manheim");
+		cached.compare(a, b, null);
+
+		// the cached value has no log entries, so it is calculated again
+		ComparatorLogger log = new ComparatorLogger();
+		cached.setComparisonLog(log);
+		log.initialise();
+		cached.compare(a, b, null);
+		assertEquals(0, cached.getCacheHits());
+		assertEquals("Manheim", log.getRecord2Value());
+
+		log.initialise();
+		cached.compare(a, b, null);
+		assertEquals(1, cached.getCacheHits());
+		assertEquals("Manheim", log.getRecord2Value());
+	}
+
+	private String[] getLog(ComparatorLogger log) {
+		String[] values = new String[ComparatorLogger.COMPARATORLOG.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = log.getValue(ComparatorLogger.COMPARATORLOG[i]);
+		}
+		return values;
+	}
+
+	private String randomString(Random r, int length) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			sb.append((char) ('a' + r.nextInt(26)));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * samples from a Zipf distribution over {0, ..., n-1} with exponent 1
+	 */
+	private int[] zipf(Random r, int n, int samples) {
+		double[] cumulative = new double[n];
+		double sum = 0.0;
+		for (int i = 0; i < n; i++) {
+			sum += 1.0 / (i + 1);
+			cumulative[i] = sum;
+		}
+		int[] result = new int[samples];
+		for (int i = 0; i < samples; i++) {
+			int idx = Arrays.binarySearch(cumulative, r.nextDouble() * sum);
+			result[i] = Math.min(n - 1, idx < 0 ? -idx - 1 : idx);
+		}
+		return result;
+	}
+
+	public void testCompareOnZipfianValues() {
+		Random r = new Random(1);
+		int numValues = 100;
+		int numPairs = 5000;
+
+		String[] values = new String[numValues];
+		for (int i = 0; i < numValues; i++) {
+			values[i] = randomString(r, 4 + r.nextInt(8)) + " " + randomString(r, 4 + r.nextInt(8)) + " "
+					+ randomString(r, 4 + r.nextInt(8)) + " " + randomString(r, 4 + r.nextInt(8));
+		}
+		int[] first = zipf(r, numValues, numPairs);
+		int[] second = zipf(r, numValues, numPairs);
+
+		// a token-based similarity, where each pair of tokens is compared by
+		// their edit distance
+		GeneralisedStringJaccard sim = new GeneralisedStringJaccard(new LevenshteinSimilarity(), 0.5, 0.0);
+		Comparator<Record, Attribute> comparator = new Comparator<Record, Attribute>() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public double compare(Record record1, Record record2,
+					Correspondence<Attribute, Matchable> schemaCorrespondence) {
+				return sim.calculate(record1.getValue(NAME), record2.getValue(NAME));
+			}
+		};
+		CachingComparator<Record, Attribute> cached = CachingComparator.forAttributes(comparator, NAME, NAME, 100000,
+				true);
+
+		Set<Set<String>> distinctPairs = new HashSet<>();
+		for (int i = 0; i < numPairs; i++) {
+			Record a = createRecord("a" + i, NAME, values[first[i]]);
+			Record b = createRecord("b" + i, NAME, values[second[i]]);
+			assertEquals(comparator.compare(a, b, null), cached.compare(a, b, null));
+			distinctPairs.add(new HashSet<>(Arrays.asList(values[first[i]], values[second[i]])));
+		}
+
+		// the cache is large enough for all pairs, so each distinct pair of
+		// values is only compared once
+		assertEquals(distinctPairs.size(), cached.getCacheMisses());
+		assertEquals(numPairs - distinctPairs.size(), cached.getCacheHits());
+		assertEquals((double) (numPairs - distinctPairs.size()) / numPairs, cached.getHitRatio(), 1e-9);
+		assertTrue(cached.getHitRatio() > 0.3);
+	}
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matching.rules.comparators;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import de.uni_mannheim.informatik.dws.winter.matching.rules.LinearCombinationMatchingRule;
+import de.uni_mannheim.informatik.dws.winter.model.DataSet;
+import de.uni_mannheim.informatik.dws.winter.model.ParallelHashedDataSet;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.comparators.RecordComparatorJaccard;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.comparators.RecordComparatorMissingValueJaccard;
+import junit.framework.TestCase;
+
+/**
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class ValueFeatureCacheTest extends TestCase {
+
+	private static final Attribute NAME = new Attribute("name");
+	private static final Attribute CITY = new Attribute("city");
+
+	private Record createRecord(String id, String name, String city) {
+		Record r = new Record(id, "test");
+		r.setValue(NAME, name);
+		r.setValue(CITY, city);
+		return r;
+	}
+
+	public void testGetFeatures() {
+		ValueFeatureCache cache = new ValueFeatureCache();
+
+		Record a = createRecord("a", "John Smith, Jr.", "Mannheim");
+		Record b = createRecord("b", "smith john smith", "Mannheim");
+
+		ValueFeatures f = cache.getFeatures(a, NAME, a.getValue(NAME));
+		assertEquals("john smith, jr.", f.getLowerCaseValue());
+		assertEquals(3, f.getTokenIds().length);
+		assertEquals(3, f.getTokenCount());
+		assertSame(f, cache.getFeatures(a, NAME, a.getValue(NAME)));
+
+		// same tokens have the same ids
+		ValueFeatures g = cache.getFeatures(b, NAME, b.getValue(NAME));
+		assertEquals(2, g.getTokenIds().length);
+		assertEquals(3, g.getTokenCount());
+		assertTrue(Arrays.equals(g.getTokenIds(), Arrays.copyOf(f.getTokenIds(), 2)));
+
+		// the features are created per attribute
+		assertNotSame(cache.getFeatures(a, CITY, a.getValue(CITY)), cache.getFeatures(b, CITY, b.getValue(CITY)));
+		assertEquals(4, cache.size());
+		assertEquals(4, cache.getNumberOfTokens());
+
+		// a changed value replaces the features
+		a.setValue(NAME, "Jane Smith");
+		ValueFeatures h = cache.getFeatures(a, NAME, a.getValue(NAME));
+		assertNotSame(f, h);
+		assertEquals("Jane Smith", h.getValue());
+		assertEquals(4, cache.size());
+
+		assertNull(cache.getFeatures(a, NAME, null));
+
+		assertTrue(cache.getEstimatedMemoryUsage() > 0);
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getNumberOfTokens());
+	}
+
+	public void testPrepare() {
+		DataSet<Record, Attribute> ds = new ParallelHashedDataSet<>();
+		for (int i = 0; i < 100; i++) {
+			ds.add(createRecord("r" + i, "name " + i, i % 2 == 0 ? null : "city " + i));
+		}
+
+		ValueFeatureCache cache = new ValueFeatureCache();
+		cache.prepare(ds, NAME, CITY);
+
+		assertEquals(150, cache.size());
+		assertEquals(102, cache.getNumberOfTokens());
+		cache.logStatistics();
+	}
+
+	private String randomName(Random r) {
+		String[] tokens = { "john", "jane", "smith", "miller", "anna", "berlin", "mannheim", "jr.", "dr.", "müller",
+				"Paul", "Peter", "(ed.)", "co", "ltd" };
+		StringBuilder sb = new StringBuilder();
+		int length = 1 + r.nextInt(5);
+		for (int i = 0; i < length; i++) {
+			if (i > 0) {
+				sb.append(" ");
+			}
+			sb.append(tokens[r.nextInt(tokens.length)]);
+		}
+		return sb.toString();
+	}
+
+	public void testMatchingRule() throws Exception {
+		Random r = new Random(1);
+		Record[] records = new Record[300];
+		for (int i = 0; i < records.length; i++) {
+			records[i] = createRecord("r" + i, randomName(r), r.nextInt(10) == 0 ? null : randomName(r));
+		}
+
+		LinearCombinationMatchingRule<Record, Attribute> uncached = new LinearCombinationMatchingRule<>(0.5);
+		uncached.addComparator(new RecordComparatorJaccard(NAME, NAME, 0.2, false), 0.5);
+		uncached.addComparator(new RecordComparatorMissingValueJaccard(CITY, CITY, 0.0, true), 0.5);
+
+		LinearCombinationMatchingRule<Record, Attribute> cached = new LinearCombinationMatchingRule<>(0.5);
+		cached.activateFeatureCache();
+		RecordComparatorJaccard comparator = new RecordComparatorJaccard(NAME, NAME, 0.2, false);
+		comparator.setLowerCase(true);
+		cached.addComparator(comparator, 0.5);
+		cached.addComparator(new RecordComparatorMissingValueJaccard(CITY, CITY, 0.0, true), 0.5);
+		assertSame(cached.getFeatureCache(), comparator.getFeatureCache());
+
+		double[] expected = new double[records.length * records.length];
+		for (int i = 0; i < records.length; i++) {
+			for (int j = 0; j < records.length; j++) {
+				expected[i * records.length + j] = uncached.apply(records[i], records[j], null).getSimilarityScore();
+			}
+		}
+
+		for (int i = 0; i < records.length; i++) {
+			for (int j = 0; j < records.length; j++) {
+				assertEquals(expected[i * records.length + j],
+						cached.apply(records[i], records[j], null).getSimilarityScore(), 1e-9);
+			}
+		}
+
+		// all values of both attributes are cached
+		int numValues = 0;
+		for (Record record : records) {
+			numValues += record.hasValue(CITY) ? 2 : 1;
+		}
+		assertEquals(numValues, cached.getFeatureCache().size());
+		cached.getFeatureCache().logStatistics();
+	}
+
+}
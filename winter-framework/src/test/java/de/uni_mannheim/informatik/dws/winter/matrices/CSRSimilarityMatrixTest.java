@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.matrices;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import de.uni_mannheim.informatik.dws.winter.model.Triple;
+import junit.framework.TestCase;
+
+/**
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class CSRSimilarityMatrixTest extends TestCase {
+
+	private static final double DELTA = 1e-9;
+
+	/**
+	 * Sets random values in both matrices, including updates and removals of
+	 * existing values. The values are rounded to create ties.
+	 */
+	private void fill(Random r, int rows, int columns, double density, SimilarityMatrix<String> expected,
+			CSRSimilarityMatrix<String> actual, boolean compactInBetween) {
+		int numValues = (int) (rows * columns * density);
+		for (int i = 0; i < numValues; i++) {
+			String first = "r" + r.nextInt(rows);
+			String second = "c" + r.nextInt(columns);
+			Double value = r.nextInt(20) == 0 ? null : Math.round(r.nextDouble() * 100) / 100.0;
+			expected.set(first, second, value);
+			actual.set(first, second, value);
+
+			if (compactInBetween && i % 97 == 0) {
+				actual.compact();
+			}
+		}
+	}
+
+	private void assertEqualMatrices(SimilarityMatrix<String> expected, SimilarityMatrix<String> actual) {
+		assertEquals(new HashSet<>(expected.getFirstDimension()), new HashSet<>(actual.getFirstDimension()));
+		assertEquals(new HashSet<>(expected.getSecondDimension()), new HashSet<>(actual.getSecondDimension()));
+
+		for (String first : expected.getFirstDimension()) {
+			assertEquals(new HashSet<>(expected.getMatches(first)), new HashSet<>(actual.getMatches(first)));
+			assertEquals(new HashSet<>(expected.getMatchesAboveThreshold(first, 0.5)),
+					new HashSet<>(actual.getMatchesAboveThreshold(first, 0.5)));
+
+			for (String second : expected.getSecondDimension()) {
+				Double e = expected.get(first, second);
+				Double a = actual.get(first, second);
+				if (e == null) {
+					assertNull(a);
+				} else {
+					assertNotNull(a);
+					assertEquals(e, a, DELTA);
+				}
+			}
+		}
+	}
+
+	private void assertEqualSums(SimilarityMatrix<String> expected, SimilarityMatrix<String> actual) {
+		assertEquals(expected.getSum(), actual.getSum(), DELTA);
+
+		Iterator<String> it = actual.getFirstDimension().iterator();
+		Map<String, Double> rowSums = new HashMap<>();
+		for (Double sum : actual.getRowSums()) {
+			rowSums.put(it.next(), sum);
+		}
+		it = expected.getFirstDimension().iterator();
+		for (Double sum : expected.getRowSums()) {
+			assertEquals(sum, rowSums.get(it.next()), DELTA);
+		}
+
+		it = actual.getSecondDimension().iterator();
+		Map<String, Double> colSums = new HashMap<>();
+		for (Double sum : actual.getColSums()) {
+			colSums.put(it.next(), sum);
+		}
+		it = expected.getSecondDimension().iterator();
+		for (Double sum : expected.getColSums()) {
+			assertEquals(sum, colSums.get(it.next()), DELTA);
+		}
+	}
+
+	private SimilarityMatrix<String> sparse() {
+		return new SparseSimilarityMatrixFactory().createSimilarityMatrix(0, 0);
+	}
+
+	private CSRSimilarityMatrix<String> csr() {
+		return (CSRSimilarityMatrix<String>) new CSRSimilarityMatrixFactory().<String>createSimilarityMatrix(0, 0);
+	}
+
+	public void testGetAndSet() {
+		CSRSimilarityMatrix<String> m = csr();
+		assertNull(m.get("a", "b"));
+		assertTrue(m.getMatches("a").isEmpty());
+
+		m.set("a", "b", 0.5);
+		m.set("a", "c", 0.0);
+		m.set("b", "c", 1.0);
+		assertEquals(0.5, m.get("a", "b"), DELTA);
+		assertEquals(2, m.getMatches("a").size());
+		assertEquals(1, m.getMatchesAboveThreshold("a", 0.0).size());
+
+		// values in the compressed rows are changed in place
+		m.compact();
+		m.set("a", "b", 0.7);
+		m.set("a", "c", null);
+		m.add("b", "c", 1.0);
+		m.set("c", "a", 0.1);
+		assertEquals(0.7, m.get("a", "b"), DELTA);
+		assertNull(m.get("a", "c"));
+		assertEquals(2.0, m.get("b", "c"), DELTA);
+		assertEquals(0.1, m.get("c", "a"), DELTA);
+		assertEquals(1, m.getMatches("a").size());
+		assertEquals(1, m.getMatches("c").size());
+
+		// removed values can be set again
+		m.set("a", "c", 0.3);
+		assertEquals(0.3, m.get("a", "c"), DELTA);
+		m.set("a", "c", null);
+		m.compact();
+		assertNull(m.get("a", "c"));
+		assertEquals(1, m.getMatches("a").size());
+
+		// the dimensions contain all objects that were used
+		assertEquals(3, m.getFirstDimension().size());
+		assertEquals(3, m.getSecondDimension().size());
+	}
+
+	public void testRandomOperations() {
+		Random r = new Random(1);
+
+		for (int run = 0; run < 10; run++) {
+			SimilarityMatrix<String> expected = sparse();
+			CSRSimilarityMatrix<String> actual = csr();
+			fill(r, 20 + r.nextInt(30), 20 + r.nextInt(30), 0.3, expected, actual, run % 2 == 0);
+
+			assertEqualMatrices(expected, actual);
+			assertEqualSums(expected, actual);
+			assertEquals(expected.getMaxValue(), actual.getMaxValue(), DELTA);
+			assertEquals(expected.getNumberOfElements(), actual.getNumberOfElements());
+			assertEquals(expected.getNumberOfNonZeroElements(), actual.getNumberOfNonZeroElements());
+
+			SimilarityMatrix<String> expectedCopy = expected.copy();
+			SimilarityMatrix<String> actualCopy = actual.copy();
+			assertTrue(actualCopy instanceof CSRSimilarityMatrix);
+			assertEqualMatrices(expectedCopy, actualCopy);
+
+			// the copy is independent of the original
+			actualCopy.multiplyScalar(2.0);
+			expectedCopy.multiplyScalar(2.0);
+			assertEqualMatrices(expected, actual);
+			assertEqualMatrices(expectedCopy, actualCopy);
+
+			expected.normalize(3.0);
+			actual.normalize(3.0);
+			assertEqualMatrices(expected, actual);
+
+			expected.normalize();
+			actual.normalize();
+			assertEqualMatrices(expected, actual);
+
+			expected.prune(0.2);
+			actual.prune(0.2);
+			assertEqualMatrices(expected, actual);
+			assertEqualSums(expected, actual);
+
+			expected.invert();
+			actual.invert();
+			assertEqualMatrices(expected, actual);
+
+			expected.makeRowStochastic();
+			actual.makeRowStochastic();
+			assertEqualMatrices(expected, actual);
+
+			expected.makeStochastic();
+			actual.makeStochastic();
+			assertEqualMatrices(expected, actual);
+
+			// values set after an operation are buffered until the next one
+			fill(r, 60, 60, 0.1, expected, actual, false);
+			assertEqualMatrices(expected, actual);
+			assertEqualSums(expected, actual);
+
+			expected.makeBinary(0.3);
+			actual.makeBinary(0.3);
+			assertEqualMatrices(expected, actual);
+			assertEquals(expected.getNumberOfNonZeroElements(), actual.getNumberOfNonZeroElements());
+		}
+	}
+
+	public void testMakeColumnStochastic() {
+		Random r = new Random(2);
+		SimilarityMatrix<String> expected = sparse();
+		CSRSimilarityMatrix<String> actual = csr();
+
+		// the implementation in SimilarityMatrix requires a value in each cell
+		for (int i = 0; i < 30; i++) {
+			for (int j = 0; j < 20; j++) {
+				double value = r.nextDouble();
+				expected.set("r" + i, "c" + j, value);
+				actual.set("r" + i, "c" + j, value);
+			}
+		}
+
+		expected.makeColumnStochastic();
+		actual.makeColumnStochastic();
+		assertEqualMatrices(expected, actual);
+
+		for (double sum : actual.getColSums()) {
+			assertEquals(1.0, sum, DELTA);
+		}
+
+		// empty cells are ignored
+		CSRSimilarityMatrix<String> m = csr();
+		m.set("a", "x", 1.0);
+		m.set("b", "x", 3.0);
+		m.set("b", "y", 2.0);
+		m.makeColumnStochastic();
+		assertEquals(0.25, m.get("a", "x"), DELTA);
+		assertEquals(0.75, m.get("b", "x"), DELTA);
+		assertEquals(1.0, m.get("b", "y"), DELTA);
+		assertNull(m.get("a", "y"));
+	}
+
+	public void testGetPairsSortedDescending() {
+		Random r = new Random(3);
+		SimilarityMatrix<String> expected = sparse();
+		CSRSimilarityMatrix<String> actual = csr();
+		fill(r, 40, 40, 0.5, expected, actual, true);
+
+		List<Triple<String, String, Double>> expectedPairs = expected.getPairsSortedDescending();
+		List<Triple<String, String, Double>> actualPairs = actual.getPairsSortedDescending();
+		assertEquals(expectedPairs.size(), actualPairs.size());
+
+		// the order of pairs with the same value differs, so the pairs are compared per value
+		Map<Double, HashSet<String>> expectedByValue = new HashMap<>();
+		Map<Double, HashSet<String>> actualByValue = new HashMap<>();
+		for (int i = 0; i < expectedPairs.size(); i++) {
+			assertEquals(expectedPairs.get(i).getThird(), actualPairs.get(i).getThird(), DELTA);
+			add(expectedByValue, expectedPairs.get(i));
+			add(actualByValue, actualPairs.get(i));
+		}
+		assertEquals(expectedByValue, actualByValue);
+
+		// ties are sorted by row and column
+		CSRSimilarityMatrix<String> m = csr();
+		m.set("a", "x", 0.5);
+		m.set("b", "x", 0.9);
+		m.set("a", "y", 0.5);
+		m.set("c", "x", 0.5);
+		List<Triple<String, String, Double>> pairs = m.getPairsSortedDescending();
+		assertEquals("b", pairs.get(0).getFirst());
+		assertEquals("a", pairs.get(1).getFirst());
+		assertEquals("x", pairs.get(1).getSecond());
+		assertEquals("a", pairs.get(2).getFirst());
+		assertEquals("y", pairs.get(2).getSecond());
+		assertEquals("c", pairs.get(3).getFirst());
+	}
+
+	private void add(Map<Double, HashSet<String>> map, Triple<String, String, Double> t) {
+		HashSet<String> pairs = map.get(t.getThird());
+		if (pairs == null) {
+			pairs = new HashSet<>();
+			map.put(t.getThird(), pairs);
+		}
+		pairs.add(t.getFirst() + "/" + t.getSecond());
+	}
+
+	public void testLargeMatrix() {
+		// large enough to process the rows in parallel
+		Random r = new Random(4);
+		SimilarityMatrix<String> expected = sparse();
+		CSRSimilarityMatrix<String> actual = csr();
+
+		List<String> rows = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			rows.add("r" + i);
+		}
+
+		for (int i = 0; i < 200000; i++) {
+			String first = rows.get(r.nextInt(rows.size()));
+			String second = "c" + r.nextInt(1000);
+			double value = r.nextDouble();
+			expected.set(first, second, value);
+		}
+
+		for (String first : expected.getFirstDimension()) {
+			for (String second : expected.getMatches(first)) {
+				actual.set(first, second, expected.get(first, second));
+			}
+		}
+		actual.compact();
+
+		expected.makeRowStochastic();
+		expected.prune(0.001);
+		Collection<Double> expectedSums = expected.getColSums();
+
+		actual.makeRowStochastic();
+		actual.prune(0.001);
+		Collection<Double> actualSums = actual.getColSums();
+
+		assertEquals(expectedSums.size(), actualSums.size());
+		assertEqualMatrices(expected, actual);
+		assertEquals(expected.getNumberOfNonZeroElements(), actual.getNumberOfNonZeroElements());
+	}
+
+}
@@ -13,6 +13,8 @@ package de.uni_mannheim.informatik.dws.winter.model;
 
 import java.io.IOException;
 
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
 import junit.framework.TestCase;
 import org.junit.Test;
 
@@ -35,4 +37,40 @@ public class MatchingGoldStandardTest extends TestCase {
 		
 	}
 
+	public void testContains() {
+		MatchingGoldStandard gs = new MatchingGoldStandard();
+		gs.addPositiveExample(new Pair<>("a", "b"));
+		gs.addNegativeExample(new Pair<>("c", "a"));
+
+		assertTrue(gs.containsPositive("a", "b"));
+		assertTrue(gs.containsPositive("b", "a"));
+		assertTrue(gs.containsPositive(new Record("b"), new Record("a")));
+		assertFalse(gs.containsNegative("a", "b"));
+		assertTrue(gs.containsNegative("a", "c"));
+		assertTrue(gs.containsNegative(new Record("c"), new Record("a")));
+		assertFalse(gs.containsPositive("a", "c"));
+		assertFalse(gs.containsPositive("b", "c"));
+		assertFalse(gs.containsPositive("a", "x"));
+		assertFalse(gs.containsNegative("x", "y"));
+	}
+
+	public void testRemoveNonexistingExamples() {
+		MatchingGoldStandard gs = new MatchingGoldStandard();
+		gs.addPositiveExample(new Pair<>("a", "b"));
+		gs.addPositiveExample(new Pair<>("x", "y"));
+		gs.addNegativeExample(new Pair<>("a", "c"));
+		gs.addNegativeExample(new Pair<>("y", "z"));
+
+		DataSet<Record, Attribute> records = new HashedDataSet<>();
+		records.add(new Record("a"));
+		gs.removeNonexistingExamples(records);
+
+		assertEquals(1, gs.getPositiveExamples().size());
+		assertEquals(1, gs.getNegativeExamples().size());
+		assertTrue(gs.containsPositive("a", "b"));
+		assertFalse(gs.containsPositive("x", "y"));
+		assertTrue(gs.containsNegative("c", "a"));
+		assertFalse(gs.containsNegative("y", "z"));
+	}
+
 }
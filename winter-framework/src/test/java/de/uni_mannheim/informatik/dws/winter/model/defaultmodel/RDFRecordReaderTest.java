@@ -14,6 +14,8 @@ package de.uni_mannheim.informatik.dws.winter.model.defaultmodel;
 import java.io.File;
 import java.io.IOException;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 import org.slf4j.Logger;
@@ -80,4 +82,65 @@ public class RDFRecordReaderTest extends TestCase {
 		}
 	}
 
+	private static final String ONTOLOGY = "http://www.okkam.org/ontology_restaurant1.owl#";
+
+	private Set<String> formatRecords(DataSet<Record, Attribute> ds, String... attributeNames) {
+		Set<String> result = new HashSet<>();
+		for(Record rec : ds.get()) {
+			StringBuilder sb = new StringBuilder();
+			for(String name : attributeNames) {
+				for(Attribute a : ds.getSchema().get()) {
+					if(name.equals(a.getName())) {
+						sb.append(rec.getValue(a)).append("|");
+					}
+				}
+			}
+			result.add(sb.toString());
+		}
+		return result;
+	}
+
+	/**
+	 * Test method for {@link de.uni_mannheim.informatik.dws.winter.model.io.RDFMatchableReader#loadFromRDFStream(File, Map, String, boolean, DataSet)}.
+	 * @throws IOException 
+	 */
+	public void testLoadFromRDFStream() throws IOException {
+		File file = new File("testdata/rdf/restaurant1.rdf");
+
+		DataSet<Record, Attribute> sparql = new HashedDataSet<>();
+		new RDFRecordReader(0).loadFromRDF(file, 
+				"SELECT ?URI ?name ?category ?phone "
+				+ "WHERE { "
+				+ "?URI a <" + ONTOLOGY + "Restaurant>;  "
+				+ "<" + ONTOLOGY + "name> ?name;"
+				+ "<" + ONTOLOGY + "category> ?category;"
+				+ "<" + ONTOLOGY + "phone_number> ?phone."
+				+ "}", sparql);
+
+		Map<String, String> properties = new LinkedHashMap<>();
+		properties.put("name", ONTOLOGY + "name");
+		properties.put("category", ONTOLOGY + "category");
+		properties.put("phone", ONTOLOGY + "phone_number");
+
+		Set<String> expected = formatRecords(sparql, "URI", "name", "category", "phone");
+		assertTrue(expected.size() > 0);
+
+		// the RDF/XML file is grouped by subject
+		DataSet<Record, Attribute> grouped = new HashedDataSet<>();
+		new RDFRecordReader(0).loadFromRDFStream(file, properties, ONTOLOGY + "Restaurant", true, grouped);
+		assertEquals(expected, formatRecords(grouped, "URI", "name", "category", "phone"));
+
+		// buffer all triples in memory
+		DataSet<Record, Attribute> buffered = new HashedDataSet<>();
+		new RDFRecordReader(0).loadFromRDFStream(file, properties, ONTOLOGY + "Restaurant", false, buffered);
+		assertEquals(expected, formatRecords(buffered, "URI", "name", "category", "phone"));
+
+		// spill the triples to temporary files
+		DataSet<Record, Attribute> spilled = new HashedDataSet<>();
+		RDFRecordReader reader = new RDFRecordReader(0);
+		reader.setMaxBufferedTriples(10);
+		reader.loadFromRDFStream(file, properties, ONTOLOGY + "Restaurant", false, spilled);
+		assertEquals(expected, formatRecords(spilled, "URI", "name", "category", "phone"));
+	}
+
 }
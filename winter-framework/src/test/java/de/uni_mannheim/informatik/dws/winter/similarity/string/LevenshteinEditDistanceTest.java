@@ -11,6 +11,10 @@
  */
 package de.uni_mannheim.informatik.dws.winter.similarity.string;
 
+import java.util.Random;
+
+import com.wcohen.ss.Levenstein;
+
 import junit.framework.TestCase;
 
 /**
@@ -43,4 +47,18 @@ public class LevenshteinEditDistanceTest extends TestCase {
 		assertEquals(6.0, sim.calculate(s3, s1));
 	}
 
+	public void testCalculateRandomCorpus() {
+		Random r = new Random(1);
+		LevenshteinEditDistance sim = new LevenshteinEditDistance();
+		Levenstein reference = new Levenstein();
+
+		for (int i = 0; i < 20000; i++) {
+			String s1 = LevenshteinSimilarityTest.randomString(r, i % 2 == 0 ? 30 : 150);
+			String s2 = r.nextBoolean() ? LevenshteinSimilarityTest.mutate(r, s1)
+					: LevenshteinSimilarityTest.randomString(r, i % 2 == 0 ? 30 : 150);
+
+			assertEquals(s1 + " / " + s2, Math.abs(reference.score(s1, s2)), sim.calculate(s1, s2));
+		}
+	}
+
 }
@@ -11,6 +11,10 @@
  */
 package de.uni_mannheim.informatik.dws.winter.similarity.string;
 
+import java.util.Random;
+
+import com.wcohen.ss.Levenstein;
+
 import junit.framework.TestCase;
 
 /**
@@ -43,4 +47,92 @@ public class LevenshteinSimilarityTest extends TestCase {
 		assertEquals(0.14, Math.round(sim.calculate(s3, s1) * 100.0)/100.0);
 	}
 
+	/**
+	 * the reference implementation, which was used before
+	 * {@link BoundedLevenshtein} was introduced
+	 */
+	private static double referenceSimilarity(String first, String second) {
+		Levenstein l = new Levenstein();
+
+		double score = Math.abs(l.score(first, second));
+		score = score / Math.max(first.length(), second.length());
+
+		return 1 - score;
+	}
+
+	static String randomString(Random r, int maxLength) {
+		// a small alphabet with upper and lower case and some non-ascii
+		// characters produces many similar strings
+		String alphabet = "aAbBcCdeE \u00e4\u00c4\u00df\u0130i\u03a3\u03c3";
+		int length = r.nextInt(maxLength + 1);
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			sb.append(alphabet.charAt(r.nextInt(alphabet.length())));
+		}
+		return sb.toString();
+	}
+
+	static String mutate(Random r, String s) {
+		StringBuilder sb = new StringBuilder(s);
+		int edits = r.nextInt(Math.max(1, s.length() / 3) + 1);
+		for (int i = 0; i < edits; i++) {
+			int position = sb.length() == 0 ? 0 : r.nextInt(sb.length());
+			switch (r.nextInt(3)) {
+			case 0:
+				sb.insert(position, randomString(r, 1));
+				break;
+			case 1:
+				if (sb.length() > 0) {
+					sb.deleteCharAt(position);
+				}
+				break;
+			default:
+				if (sb.length() > 0) {
+					sb.setCharAt(position, Character.toUpperCase(sb.charAt(position)));
+				}
+			}
+		}
+		return sb.toString();
+	}
+
+	public void testCalculateRandomCorpus() {
+		Random r = new Random(1);
+		LevenshteinSimilarity sim = new LevenshteinSimilarity();
+		double[] thresholds = new double[] { 0.3, 0.5, 0.7, 0.8, 0.9, 1.0 };
+
+		for (int i = 0; i < 20000; i++) {
+			// short strings use the bit-parallel kernel, long ones the banded
+			// one
+			String s1 = randomString(r, i % 2 == 0 ? 30 : 150);
+			String s2 = r.nextBoolean() ? mutate(r, s1) : randomString(r, i % 2 == 0 ? 30 : 150);
+
+			double expected = referenceSimilarity(s1, s2);
+			assertEquals(s1 + " / " + s2, expected, sim.calculate(s1, s2));
+			assertEquals(s2 + " / " + s1, expected, sim.calculate(s2, s1));
+
+			for (double t : thresholds) {
+				LevenshteinSimilarity bounded = new LevenshteinSimilarity(t);
+				assertEquals(s1 + " / " + s2 + " @ " + t, expected < t ? 0.0 : expected, bounded.calculate(s1, s2));
+			}
+		}
+
+		assertEquals(Double.NaN, sim.calculate("", ""));
+		assertEquals(0.0, sim.calculate("", "abc"));
+		assertEquals(1.0, sim.calculate("ABC", "abc"));
+	}
+
+	public void testCalculateWithThresholdOnDissimilarPairs() {
+		Random r = new Random(1);
+		LevenshteinSimilarity sim = new LevenshteinSimilarity(0.8);
+
+		// most pairs are below the threshold, so the computation stops early
+		for (int i = 0; i < 20000; i++) {
+			String s1 = randomString(r, 39) + "a";
+			String s2 = r.nextInt(10) == 0 ? mutate(r, s1) : randomString(r, 40);
+
+			double expected = referenceSimilarity(s1, s2);
+			assertEquals(s1 + " / " + s2, expected < 0.8 ? 0.0 : expected, sim.calculate(s1, s2));
+		}
+	}
+
 }
@@ -11,6 +11,8 @@
  */
 package de.uni_mannheim.informatik.dws.winter.similarity.string;
 
+import de.uni_mannheim.informatik.dws.winter.matching.rules.comparators.ValueFeatureCache;
+import de.uni_mannheim.informatik.dws.winter.matching.rules.comparators.ValueFeatures;
 import junit.framework.TestCase;
 
 /**
@@ -39,4 +41,24 @@ public class MaximumOfTokenContainmentTest extends TestCase {
 		assertEquals(0.0, sim.calculate(s3, s1));
 	}
 
+	/**
+	 * Test method for {@link MaximumOfTokenContainment#calculate(int[], int[])}.
+	 */
+	public void testCalculateIntArrays() {
+		String[] values = { "a b", "a b c d", "c d e f", "A, b!", "the quick brown fox", "Quick brown dogs", "fox (the)" };
+
+		MaximumOfTokenContainment sim = new MaximumOfTokenContainment();
+		ValueFeatureCache cache = new ValueFeatureCache();
+
+		for (String s1 : values) {
+			for (String s2 : values) {
+				ValueFeatures f1 = cache.createFeatures(s1);
+				ValueFeatures f2 = cache.createFeatures(s2);
+				assertEquals(s1 + " / " + s2, sim.calculate(s1, s2), sim.calculate(f1.getTokenIds(), f2.getTokenIds()), 1e-9);
+			}
+		}
+
+		assertEquals(0.0, sim.calculate(new int[0], cache.createFeatures("a b").getTokenIds()));
+	}
+
 }
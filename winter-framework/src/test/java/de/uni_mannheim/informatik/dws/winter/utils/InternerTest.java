@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.utils;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class InternerTest extends TestCase {
+
+	public void testGetId() {
+		Interner<String> interner = new Interner<>(2);
+
+		for(int i = 0; i < 1000; i++) {
+			assertEquals(i, interner.getId("value" + i));
+		}
+		assertEquals(1000, interner.size());
+
+		// equal objects get the same id
+		for(int i = 0; i < 1000; i++) {
+			assertEquals(i, interner.getId(new String("value" + i)));
+			assertEquals(i, interner.findId("value" + i));
+			assertEquals("value" + i, interner.get(i));
+		}
+		assertEquals(1000, interner.size());
+
+		assertEquals(-1, interner.findId("value1000"));
+		assertEquals(-1, interner.findId(null));
+	}
+
+}
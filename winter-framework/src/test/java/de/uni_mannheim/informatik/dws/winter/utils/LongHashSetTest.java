@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.utils;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class LongHashSetTest extends TestCase {
+
+	public void testAddContainsRemove() {
+		LongHashSet set = new LongHashSet(2);
+		Set<Long> expected = new HashSet<>();
+		Random r = new Random(1);
+
+		for(int i = 0; i < 100000; i++) {
+			// use a small range of values, so values are added and removed multiple times
+			long value = r.nextInt(5000) - 2500;
+			if(i % 7 == 0) {
+				value = Long.MIN_VALUE;
+			}
+
+			if(r.nextInt(3) == 0) {
+				assertEquals(expected.remove(value), set.remove(value));
+			} else {
+				assertEquals(expected.add(value), set.add(value));
+			}
+			assertEquals(expected.size(), set.size());
+		}
+
+		for(long value = -2500; value < 2500; value++) {
+			assertEquals(expected.contains(value), set.contains(value));
+		}
+		assertEquals(expected.contains(Long.MIN_VALUE), set.contains(Long.MIN_VALUE));
+	}
+
+}
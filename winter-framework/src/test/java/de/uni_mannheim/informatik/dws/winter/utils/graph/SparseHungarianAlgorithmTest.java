@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.utils.graph;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class SparseHungarianAlgorithmTest extends TestCase {
+
+	public void testComputeMatching() {
+		// a-b (0.9), a-c (0.8), d-b (0.8), d-c (0.1)
+		int[] left = { 0, 0, 1, 1 };
+		int[] right = { 0, 1, 0, 1 };
+		double[] weights = { 0.9, 0.8, 0.8, 0.1 };
+		
+		int[] selected = new SparseHungarianAlgorithm(2, 2, left, right, weights).computeMatching();
+		assertEquals(2, selected.length);
+		assertEquals(1, selected[0]);
+		assertEquals(2, selected[1]);
+		
+		// edges without positive weight are not selected
+		selected = new SparseHungarianAlgorithm(2, 2, new int[] { 0, 1 }, new int[] { 0, 1 }, new double[] { 0.5, 0.0 }).computeMatching();
+		assertEquals(1, selected.length);
+		assertEquals(0, selected[0]);
+	}
+	
+	/**
+	 * @return the weight of the maximum weight matching of the left vertices from .. numLeft-1
+	 */
+	private double bruteForce(int from, int numLeft, boolean[] usedRight, double[][] weights) {
+		if(from==numLeft) {
+			return 0;
+		}
+		// the vertex is not matched
+		double best = bruteForce(from + 1, numLeft, usedRight, weights);
+		for(int r = 0; r < usedRight.length; r++) {
+			if(!usedRight[r] && weights[from][r] > 0) {
+				usedRight[r] = true;
+				best = Math.max(best, weights[from][r] + bruteForce(from + 1, numLeft, usedRight, weights));
+				usedRight[r] = false;
+			}
+		}
+		return best;
+	}
+	
+	public void testOptimality() {
+		Random r = new Random(1);
+		
+		for(int run = 0; run < 500; run++) {
+			int numLeft = 1 + r.nextInt(6);
+			int numRight = 1 + r.nextInt(6);
+			int numEdges = r.nextInt(numLeft * numRight + 1);
+			
+			int[] left = new int[numEdges];
+			int[] right = new int[numEdges];
+			double[] weights = new double[numEdges];
+			double[][] best = new double[numLeft][numRight];
+			for(int e = 0; e < numEdges; e++) {
+				left[e] = r.nextInt(numLeft);
+				right[e] = r.nextInt(numRight);
+				// few distinct weights to create ties, including negative weights
+				weights[e] = (r.nextInt(12) - 2) / 10.0;
+				best[left[e]][right[e]] = Math.max(best[left[e]][right[e]], weights[e]);
+			}
+			
+			int[] selected = new SparseHungarianAlgorithm(numLeft, numRight, left, right, weights).computeMatching();
+			
+			boolean[] usedLeft = new boolean[numLeft];
+			boolean[] usedRight = new boolean[numRight];
+			double total = 0;
+			for(int e : selected) {
+				assertFalse(usedLeft[left[e]]);
+				assertFalse(usedRight[right[e]]);
+				assertTrue(weights[e] > 0);
+				usedLeft[left[e]] = true;
+				usedRight[right[e]] = true;
+				total += weights[e];
+			}
+			
+			assertEquals(bruteForce(0, numLeft, new boolean[numRight], best), total, 1e-9);
+		}
+	}
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.utils.graph;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class UnionFindTest extends TestCase {
+
+	public void testUnion() {
+		UnionFind uf = new UnionFind(2);
+		uf.ensureElement(9);
+		assertEquals(10, uf.getNumberOfElements());
+		assertEquals(10, uf.getNumberOfSets());
+		
+		assertTrue(uf.union(0, 1));
+		assertTrue(uf.union(2, 3));
+		assertTrue(uf.union(1, 3));
+		assertFalse(uf.union(0, 2));
+		assertTrue(uf.union(7, 5));
+		
+		assertEquals(6, uf.getNumberOfSets());
+		assertTrue(uf.isConnected(0, 3));
+		assertFalse(uf.isConnected(0, 5));
+		assertEquals(4, uf.getSetSize(2));
+		assertEquals(2, uf.getSetSize(5));
+		assertEquals(1, uf.getSetSize(9));
+		
+		int[][] sets = uf.getSets();
+		assertEquals(6, sets.length);
+		assertTrue(Arrays.equals(new int[] { 0, 1, 2, 3 }, sets[0]));
+		assertTrue(Arrays.equals(new int[] { 4 }, sets[1]));
+		assertTrue(Arrays.equals(new int[] { 5, 7 }, sets[2]));
+		assertTrue(Arrays.equals(new int[] { 9 }, sets[5]));
+		
+		assertEquals(10, uf.add());
+		assertEquals(7, uf.getNumberOfSets());
+	}
+	
+	public void testLongChain() {
+		UnionFind uf = new UnionFind();
+		uf.ensureElement(99999);
+		for(int i = 1; i < 100000; i++) {
+			uf.union(i - 1, i);
+		}
+		assertEquals(1, uf.getNumberOfSets());
+		assertEquals(100000, uf.getSetSize(0));
+		assertEquals(uf.find(0), uf.find(99999));
+	}
+
+}
@@ -13,7 +13,9 @@ package de.uni_mannheim.informatik.dws.winter.webtables;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.Random;
 
 import org.slf4j.Logger;
 import org.junit.Test;
@@ -267,6 +269,61 @@ import junit.framework.TestCase;
 		assertTrue(Arrays.equals(new Object[] { "a", "b" }, (Object[])t.get(0).get(2)));
 	}
 
+	private Table getDuplicateTestTable(int numRows) {
+		Table t = new Table();
+		t.setPath("table1");
+		for(int i = 0; i < 4; i++) {
+			TableColumn c = new TableColumn(i, t);
+			c.setHeader(Integer.toString(i));
+			t.addColumn(c);
+		}
+		Random rnd = new Random(1);
+		for(int i = 0; i < numRows; i++) {
+			TableRow r = new TableRow(i, t);
+			r.set(new Object[] { 
+				Integer.toString(rnd.nextInt(numRows / 4)),
+				rnd.nextInt(10) == 0 ? null : Integer.toString(rnd.nextInt(2)),
+				rnd.nextInt(10) == 0 ? null : Integer.toString(rnd.nextInt(2)),
+				rnd.nextBoolean() ? null : Integer.toString(rnd.nextInt(3))
+			});
+			t.addRow(r);
+		}
+		return t;
+	}
+
+	@Test
+	public void testDeduplicateParallel() {
+		for(ConflictHandling conflictHandling : ConflictHandling.values()) {
+			Table sequential = getDuplicateTestTable(10000);
+			Table parallel = getDuplicateTestTable(10000);
+
+			Collection<Pair<TableRow, TableRow>> sequentialDuplicates = sequential.deduplicate(Q.toList(sequential.getSchema().get(0)), conflictHandling);
+			Collection<Pair<TableRow, TableRow>> parallelDuplicates = parallel.deduplicateParallel(Q.toList(parallel.getSchema().get(0)), conflictHandling);
+
+			assertEquals(sequentialDuplicates.size(), parallelDuplicates.size());
+			Iterator<Pair<TableRow, TableRow>> it = parallelDuplicates.iterator();
+			for(Pair<TableRow, TableRow> p : sequentialDuplicates) {
+				Pair<TableRow, TableRow> other = it.next();
+				assertEquals(p.getFirst().getIdentifier(), other.getFirst().getIdentifier());
+				assertEquals(p.getSecond().getIdentifier(), other.getSecond().getIdentifier());
+			}
+
+			assertEquals(sequential.getSize(), parallel.getSize());
+			for(int i = 0; i < sequential.getSize(); i++) {
+				TableRow r1 = sequential.get(i);
+				TableRow r2 = parallel.get(i);
+				assertEquals(r1.getProvenance(), r2.getProvenance());
+				for(int j = 0; j < 4; j++) {
+					if(ListHandler.isArray(r1.get(j))) {
+						assertTrue(Arrays.equals((Object[])r1.get(j), (Object[])r2.get(j)));
+					} else {
+						assertEquals(r1.get(j), r2.get(j));
+					}
+				}
+			}
+		}
+	}
+
 	@Test
 	public void testJoin() throws Exception {
 		Table t1 = new Table();
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.webtables;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+
+import au.com.bytecode.opencsv.CSVReader;
+import junit.framework.TestCase;
+
+/**
+ * Compares the output of {@link WebTablesStringNormalizer} to the previous, regex-based implementation.
+ * 
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class WebTablesStringNormalizerTest extends TestCase {
+
+	private static final List<String> possibleNullValues = Arrays.asList("", "__", "-", "_", "?", "unknown", "- -", "n/a", "•", "- - -", ".", "??", "(n/a)");
+
+	private static String referenceNormaliseHeader(String columnName) {
+		if(columnName==null)
+		{
+			return "";
+		} else {
+			columnName = StringEscapeUtils.unescapeJava(columnName);
+			columnName = columnName.replace("\"", "");
+			columnName = columnName.replace("|", " ");
+			columnName = columnName.replace(",", "");
+			columnName = columnName.replace("{", "");
+			columnName = columnName.replace("}", "");
+			columnName = columnName.replaceAll("\n", "");
+
+			columnName = columnName.replace("&nbsp;", " ");
+			columnName = columnName.replace("&nbsp", " ");
+			columnName = columnName.replace("nbsp", " ");
+			columnName = columnName.replaceAll("<.*>", "");
+
+			columnName = columnName.toLowerCase();
+			columnName = columnName.trim();
+
+			columnName = columnName.replaceAll("\\.", "");
+			columnName = columnName.replaceAll("\\$", "");
+			if (possibleNullValues.contains(columnName)) {
+				columnName = WebTablesStringNormalizer.nullValue;
+			}
+			
+			return columnName;
+		}
+	}
+
+	private static final Pattern bracketsPattern = Pattern.compile("\\(.*\\)");
+
+	private static String referenceNormaliseValue(String value, boolean removeContentInBrackets) {
+		try {
+			value = value.replaceAll("\n", "");
+			value = value.replace("&nbsp;", " ");
+			value = value.replace("&nbsp", " ");
+			value = value.replaceAll("[&\\?]#[0-9]{1,3};", "");
+			value = value.replace("nbsp", " ");
+			value = value.replaceAll("<.*>", "");
+			value = value.toLowerCase();
+			value = value.trim();
+			if (possibleNullValues.contains(value)) {
+				value = WebTablesStringNormalizer.nullValue;
+			}
+			if (removeContentInBrackets) {
+				value = bracketsPattern.matcher(value).replaceAll("");
+			}
+		} catch (Exception e) {
+		}
+		return value;
+	}
+
+	private void assertSameNormalisation(String s) {
+		assertEquals(referenceNormaliseValue(s, false), WebTablesStringNormalizer.normaliseValue(s, false));
+		assertEquals(referenceNormaliseValue(s, true), WebTablesStringNormalizer.normaliseValue(s, true));
+
+		String expectedHeader = null;
+		try {
+			expectedHeader = referenceNormaliseHeader(s);
+		} catch(IllegalArgumentException e) {
+			// invalid escape sequences must fail in both implementations
+			try {
+				WebTablesStringNormalizer.normaliseHeader(s);
+				fail("Expected exception for " + s);
+			} catch(IllegalArgumentException ex) { }
+			return;
+		}
+		assertEquals(expectedHeader, WebTablesStringNormalizer.normaliseHeader(s));
+	}
+
+	private List<String> loadCorpus() throws IOException {
+		List<String> corpus = new ArrayList<>();
+
+		CSVReader reader = new CSVReader(new FileReader(new File("testdata/dbpedia/Song.csv")));
+		String[] values = null;
+		while((values = reader.readNext()) != null) {
+			corpus.addAll(Arrays.asList(values));
+		}
+		reader.close();
+
+		corpus.addAll(Files.readAllLines(Paths.get("src/test/resource/testTable.csv"), StandardCharsets.UTF_8));
+		corpus.add(new String(Files.readAllBytes(Paths.get("src/test/resource/testTable.json")), StandardCharsets.UTF_8));
+
+		return corpus;
+	}
+
+	public void testNormaliseCorpus() throws IOException {
+		for(String s : loadCorpus()) {
+			assertSameNormalisation(s);
+		}
+	}
+
+	public void testNormaliseSpecialCases() {
+		String[] cases = new String[] {
+			null, "", " ", "NULL", "Unknown ", " N/A", "(n/a)", ".", " . ", "a .", "$.", "•",
+			"a&nbsp;b", "a&nbspb", "anbspb", "NBSP", "&nbsp;nbsp&nbsp", "n&#12;bsp", "&&#12;#1;", "?#1234;", "&#;", "&#1",
+			"<b>bold</b> text", "a<b\nc>d", "<<>>", ">a<", "a<b\r\nc>d\u2028<e>", "x (y) z", "(a\n(b)", "((a)",
+			"\"Quoted\", {Curly} | Piped", "\\u0041\\tB", "\\n", "İstanbul", "ΣΟΣ", "𐐀", "ÄÖÜ"
+		};
+		for(String s : cases) {
+			assertSameNormalisation(s);
+		}
+	}
+
+	public void testNormaliseRandomStrings() {
+		String[] parts = new String[] { "a", "B", " ", "\t", "\n", "\r", "&", "?", "#", "1", "23", ";", "nbsp", "&nbsp", "<", ">", "(", ")", ".", "$", ",", "\"", "|", "{", "}", "Ä", "\u2028", "n/a", "-", "\\", "\\n", "\\u00C4", "İ", "Σ" };
+		Random rnd = new Random(1);
+		for(int i = 0; i < 100000; i++) {
+			StringBuilder sb = new StringBuilder();
+			int len = rnd.nextInt(12);
+			for(int j = 0; j < len; j++) {
+				sb.append(parts[rnd.nextInt(parts.length)]);
+			}
+			assertSameNormalisation(sb.toString());
+		}
+	}
+
+}
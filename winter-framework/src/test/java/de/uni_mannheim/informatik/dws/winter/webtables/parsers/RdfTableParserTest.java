@@ -12,6 +12,12 @@
 package de.uni_mannheim.informatik.dws.winter.webtables.parsers;
 
 import java.io.File;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 
 import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
@@ -56,4 +62,44 @@ public class RdfTableParserTest extends TestCase {
 		
 	}
 
+	/**
+	 * Test method for {@link de.uni_mannheim.informatik.dws.winter.webtables.parsers.RdfTableParser#RdfTableParser(Map, String)}.
+	 */
+	public void testParseTableFromStream() {
+		String ontology = "http://www.okkam.org/ontology_restaurant1.owl#";
+
+		RdfTableParser sparql = new RdfTableParser(
+				"SELECT ?uri ?name ?category ?phone "
+				+ "WHERE { "
+				+ "?uri a <" + ontology + "Restaurant>;  "
+				+ "<" + ontology + "name> ?name;"
+				+ "<" + ontology + "category> ?category;"
+				+ "<" + ontology + "phone_number> ?phone."
+				+ "}");
+		Table expected = sparql.parseTable(new File("testdata/rdf/restaurant1.rdf"));
+
+		Map<String, String> properties = new LinkedHashMap<>();
+		properties.put("name", ontology + "name");
+		properties.put("category", ontology + "category");
+		properties.put("phone", ontology + "phone_number");
+
+		for(int maxBufferedTriples : new int[] { 1000000, 10 }) {
+			RdfTableParser p = new RdfTableParser(properties, ontology + "Restaurant");
+			p.setMaxBufferedTriples(maxBufferedTriples);
+			Table t = p.parseTable(new File("testdata/rdf/restaurant1.rdf"));
+
+			assertEquals(expected.getSize(), t.getSize());
+			assertEquals(expected.getColumns().size(), t.getColumns().size());
+			assertEquals(formatRows(expected), formatRows(t));
+		}
+	}
+
+	private Set<String> formatRows(Table t) {
+		Set<String> rows = new HashSet<>();
+		for(TableRow r : t.getRows()) {
+			rows.add(StringUtils.join(r.getValueArray(), "|"));
+		}
+		return rows;
+	}
+
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.usecase.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.slf4j.Logger;
+
+import de.uni_mannheim.informatik.dws.winter.matching.rules.comparators.CachingComparator;
+import de.uni_mannheim.informatik.dws.winter.matching.rules.comparators.Comparator;
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.similarity.string.GeneralisedStringJaccard;
+import de.uni_mannheim.informatik.dws.winter.similarity.string.LevenshteinSimilarity;
+import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+
+/**
+ * Compares the runtime of a comparator with and without a
+ * {@link CachingComparator} on values which follow a Zipf distribution.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class Benchmark_CachingComparator {
+
+	private static final Logger logger = WinterLogManager.activateLogger("default");
+
+	private static final Attribute NAME = new Attribute("name");
+
+	public static void main(String[] args) {
+		int numValues = 500;
+		int numPairs = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+
+		Random r = new Random(1);
+		String[] values = new String[numValues];
+		for (int i = 0; i < numValues; i++) {
+			values[i] = randomString(r, 4 + r.nextInt(8)) + " " + randomString(r, 4 + r.nextInt(8)) + " "
+					+ randomString(r, 4 + r.nextInt(8)) + " " + randomString(r, 4 + r.nextInt(8));
+		}
+		int[] first = zipf(r, numValues, numPairs);
+		int[] second = zipf(r, numValues, numPairs);
+		Record[][] pairs = new Record[numPairs][];
+		for (int i = 0; i < numPairs; i++) {
+			pairs[i] = new Record[] { createRecord("a" + i, values[first[i]]), createRecord("b" + i, values[second[i]]) };
+		}
+
+		// a token-based similarity, where each pair of tokens is compared by
+		// their edit distance
+		GeneralisedStringJaccard sim = new GeneralisedStringJaccard(new LevenshteinSimilarity(), 0.5, 0.0);
+		Comparator<Record, Attribute> comparator = new Comparator<Record, Attribute>() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public double compare(Record record1, Record record2,
+					Correspondence<Attribute, Matchable> schemaCorrespondence) {
+				return sim.calculate(record1.getValue(NAME), record2.getValue(NAME));
+			}
+		};
+		double checksum = 0.0;
+
+		// warm-up
+		CachingComparator<Record, Attribute> cached = CachingComparator.forAttributes(comparator, NAME, NAME, 100000,
+				true);
+		for (Record[] p : pairs) {
+			checksum += comparator.compare(p[0], p[1], null) + cached.compare(p[0], p[1], null);
+		}
+
+		long start = System.nanoTime();
+		for (Record[] p : pairs) {
+			checksum += comparator.compare(p[0], p[1], null);
+		}
+		long reference = System.nanoTime() - start;
+
+		cached = CachingComparator.forAttributes(comparator, NAME, NAME, 100000, true);
+		start = System.nanoTime();
+		for (Record[] p : pairs) {
+			checksum += cached.compare(p[0], p[1], null);
+		}
+		long caching = System.nanoTime() - start;
+
+		logger.info(String.format(
+				"Generalised Jaccard comparator for %d Zipfian value pairs: %d ms (uncached), %d ms (cached, hit ratio %.2f) [%f]",
+				numPairs, reference / 1000000, caching / 1000000, cached.getHitRatio(), checksum));
+	}
+
+	private static Record createRecord(String id, String value) {
+		Record r = new Record(id, "benchmark");
+		r.setValue(NAME, value);
+		return r;
+	}
+
+	private static String randomString(Random r, int length) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			sb.append((char) ('a' + r.nextInt(26)));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * samples from a Zipf distribution over {0, ..., n-1} with exponent 1
+	 */
+	private static int[] zipf(Random r, int n, int samples) {
+		double[] cumulative = new double[n];
+		double sum = 0.0;
+		for (int i = 0; i < n; i++) {
+			sum += 1.0 / (i + 1);
+			cumulative[i] = sum;
+		}
+		int[] result = new int[samples];
+		for (int i = 0; i < samples; i++) {
+			int idx = Arrays.binarySearch(cumulative, r.nextDouble() * sum);
+			result[i] = Math.min(n - 1, idx < 0 ? -idx - 1 : idx);
+		}
+		return result;
+	}
+
+}
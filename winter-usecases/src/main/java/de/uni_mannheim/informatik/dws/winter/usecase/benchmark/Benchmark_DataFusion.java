@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.usecase.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.slf4j.Logger;
+
+import de.uni_mannheim.informatik.dws.winter.datafusion.AttributeValueFuser;
+import de.uni_mannheim.informatik.dws.winter.datafusion.CorrespondenceSet;
+import de.uni_mannheim.informatik.dws.winter.datafusion.DataFusionDelta;
+import de.uni_mannheim.informatik.dws.winter.datafusion.DataFusionEngine;
+import de.uni_mannheim.informatik.dws.winter.datafusion.DataFusionStrategy;
+import de.uni_mannheim.informatik.dws.winter.datafusion.EvaluationRule;
+import de.uni_mannheim.informatik.dws.winter.datafusion.conflictresolution.string.ShortestString;
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.FusibleDataSet;
+import de.uni_mannheim.informatik.dws.winter.model.FusibleHashedDataSet;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.RecordGroup;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import de.uni_mannheim.informatik.dws.winter.processing.ProcessableCollection;
+import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Parallel;
+
+/**
+ * Compares the runtime of a full run of the {@link DataFusionEngine} to an
+ * incremental run after a small delta, and the runtime of the consistency
+ * reports with one thread and with at least four threads.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class Benchmark_DataFusion {
+
+	private static final Logger logger = WinterLogManager.activateLogger("default");
+
+	private static final Attribute NAME = new Attribute("name");
+
+	private static class NameFuser extends AttributeValueFuser<String, Record, Attribute> {
+
+		public NameFuser() {
+			super(new ShortestString<>());
+		}
+
+		@Override
+		public void fuse(RecordGroup<Record, Attribute> group, Record fusedRecord,
+				Processable<Correspondence<Attribute, Matchable>> schemaCorrespondences, Attribute schemaElement) {
+			fusedRecord.setValue(NAME, getFusedValue(group, schemaCorrespondences, schemaElement).getValue());
+		}
+
+		@Override
+		public boolean hasValue(Record record, Correspondence<Attribute, Matchable> correspondence) {
+			return record.hasValue(NAME);
+		}
+
+		@Override
+		public String getValue(Record record, Correspondence<Attribute, Matchable> correspondence) {
+			return record.getValue(NAME);
+		}
+	}
+
+	private static class NameRule extends EvaluationRule<Record, Attribute> {
+
+		@Override
+		public boolean isEqual(Record record1, Record record2, Attribute schemaElement) {
+			return record1.getValue(NAME).equals(record2.getValue(NAME));
+		}
+
+		@Override
+		public boolean isEqual(Record record1, Record record2,
+				Correspondence<Attribute, Matchable> schemaCorrespondence) {
+			return isEqual(record1, record2, NAME);
+		}
+	}
+
+	public static void main(String[] args) {
+		int numRecords = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+
+		Random r = new Random(1);
+		FusibleDataSet<Record, Attribute> ds1 = new FusibleHashedDataSet<>();
+		FusibleDataSet<Record, Attribute> ds2 = new FusibleHashedDataSet<>();
+		for (int i = 0; i < numRecords; i++) {
+			ds1.add(createRecord("a" + i, "ds1", r));
+			ds2.add(createRecord("b" + i, "ds2", r));
+		}
+
+		// mostly 1:1 correspondences and some records with multiple
+		// correspondences
+		List<Correspondence<Record, Matchable>> correspondences = new ArrayList<>();
+		for (int i = 0; i < numRecords; i++) {
+			correspondences.add(new Correspondence<>(ds1.getRecord("a" + i),
+					ds2.getRecord("b" + (r.nextInt(4) == 0 ? r.nextInt(numRecords) : i)), 1.0));
+		}
+
+		DataFusionStrategy<Record, Attribute> strategy = new DataFusionStrategy<>(
+				(cluster) -> new Record("fused:" + cluster.getRecordIds().iterator().next(), "fused"));
+		strategy.addAttributeFuser(NAME, new NameFuser(), new NameRule());
+		DataFusionEngine<Record, Attribute> engine = new DataFusionEngine<>(strategy);
+
+		CorrespondenceSet<Record, Attribute> incrementalSet = new CorrespondenceSet<>();
+		incrementalSet.createFromCorrespondences(new ProcessableCollection<>(correspondences), ds1, ds2);
+		FusibleDataSet<Record, Attribute> incrementalResult = engine.run(incrementalSet, null);
+
+		// changes about 1% of the records and correspondences
+		DataFusionDelta<Record, Attribute> delta = new DataFusionDelta<>();
+		for (int i = 0; i < Math.max(1, numRecords / 400); i++) {
+			Correspondence<Record, Matchable> added = new Correspondence<>(
+					ds1.getRecord("a" + r.nextInt(numRecords)), ds2.getRecord("b" + r.nextInt(numRecords)), 1.0);
+			delta.addCorrespondence(added);
+			correspondences.add(added);
+
+			delta.removeCorrespondence(correspondences.remove(r.nextInt(correspondences.size())));
+
+			Record changed = createRecord("b" + r.nextInt(numRecords), "ds2", r);
+			ds2.add(changed);
+			delta.addRecord(changed.getIdentifier());
+		}
+
+		long start = System.currentTimeMillis();
+		CorrespondenceSet<Record, Attribute> fullSet = new CorrespondenceSet<>();
+		fullSet.createFromCorrespondences(new ProcessableCollection<>(correspondences), ds1, ds2);
+		FusibleDataSet<Record, Attribute> fullResult = engine.run(fullSet, null);
+		long fullTime = System.currentTimeMillis() - start;
+
+		start = System.currentTimeMillis();
+		incrementalResult = engine.runIncremental(incrementalResult, incrementalSet, delta, ds1, ds2, null);
+		long incrementalTime = System.currentTimeMillis() - start;
+
+		logger.info(String.format(
+				"Data fusion of %,d correspondences after a delta of %,d correspondences and %,d records: %d ms (full, %,d records), %d ms (incremental, %,d records)",
+				correspondences.size(),
+				delta.getAddedCorrespondences().size() + delta.getRemovedCorrespondences().size(),
+				delta.getAddedRecordIds().size(), fullTime, fullResult.size(), incrementalTime,
+				incrementalResult.size()));
+
+		int numProcessors = Runtime.getRuntime().availableProcessors();
+		int numThreads = Math.max(4, numProcessors);
+		try {
+			Parallel.SetDefaultNumProcessors(1);
+			// warm-up
+			engine.getAttributeConsistencies(fullSet, null);
+
+			start = System.currentTimeMillis();
+			engine.getAttributeConsistencies(fullSet, null);
+			engine.getRecordGroupConsistencies(fullSet, null);
+			long sequentialTime = System.currentTimeMillis() - start;
+
+			Parallel.SetDefaultNumProcessors(numThreads);
+			start = System.currentTimeMillis();
+			engine.getAttributeConsistencies(fullSet, null);
+			engine.getRecordGroupConsistencies(fullSet, null);
+			long parallelTime = System.currentTimeMillis() - start;
+
+			logger.info(String.format(
+					"Consistencies of %,d record groups: %d ms (1 thread), %d ms (%d threads, %d processors)",
+					fullSet.getRecordGroups().size(), sequentialTime, parallelTime, numThreads, numProcessors));
+		} finally {
+			Parallel.SetDefaultNumProcessors(numProcessors);
+		}
+	}
+
+	private static Record createRecord(String id, String provenance, Random r) {
+		Record record = new Record(id, provenance);
+		record.setValue(NAME, "name" + r.nextInt(1000000));
+		return record;
+	}
+
+}
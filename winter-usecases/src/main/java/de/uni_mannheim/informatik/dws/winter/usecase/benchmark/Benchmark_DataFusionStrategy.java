@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.usecase.benchmark;
+
+import org.slf4j.Logger;
+
+import de.uni_mannheim.informatik.dws.winter.datafusion.DataFusionStrategy;
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import de.uni_mannheim.informatik.dws.winter.processing.ProcessableCollection;
+import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+
+/**
+ * Compares the runtime of looking up the attribute fusers of the
+ * {@link DataFusionStrategy} for many record groups with and without the
+ * index of fusion tasks.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class Benchmark_DataFusionStrategy {
+
+	private static final Logger logger = WinterLogManager.activateLogger("default");
+
+	public static void main(String[] args) {
+		int numSources = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+		int numTargetAttributes = 20;
+		int numGroups = 2000;
+
+		DataFusionStrategy<Record, Attribute> strategy = new DataFusionStrategy<>(null);
+		Attribute[] targetAttributes = new Attribute[numTargetAttributes];
+		for (int i = 0; i < numTargetAttributes; i++) {
+			targetAttributes[i] = new Attribute("target" + i);
+			strategy.addAttributeFuser(targetAttributes[i], null, null);
+		}
+
+		// a correspondence from every attribute of every source schema to the
+		// target schema
+		Processable<Correspondence<Attribute, Matchable>> correspondences = new ProcessableCollection<>();
+		for (int source = 0; source < numSources; source++) {
+			for (int i = 0; i < numTargetAttributes; i++) {
+				correspondences.add(new Correspondence<Attribute, Matchable>(
+						new Attribute("source" + source + "_" + i, "source" + source), targetAttributes[i], 1.0));
+			}
+		}
+
+		// re-create the fusion tasks for every group, as without the index
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < numGroups; i++) {
+			strategy.getAttributeFusers(null, correspondences);
+		}
+		long scanTime = System.currentTimeMillis() - start;
+
+		start = System.currentTimeMillis();
+		strategy.indexAttributeFusers(correspondences);
+		for (int i = 0; i < numGroups; i++) {
+			strategy.getAttributeFusers(null, correspondences);
+		}
+		long indexTime = System.currentTimeMillis() - start;
+
+		logger.info(String.format(
+				"Attribute fuser lookup for %,d record groups with %,d source schemas (%,d correspondences): %d ms (scan), %d ms (index)",
+				numGroups, numSources, correspondences.size(), scanTime, indexTime));
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.usecase.benchmark;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.slf4j.Logger;
+
+import de.uni_mannheim.informatik.dws.winter.matching.algorithms.GreedyOneToOneMatchingAlgorithm;
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.Pair;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.processing.Group;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import de.uni_mannheim.informatik.dws.winter.processing.ProcessableCollection;
+import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+
+/**
+ * Compares the runtime of the {@link GreedyOneToOneMatchingAlgorithm} to a
+ * greedy matching based on sorted {@link Processable}s.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class Benchmark_GreedyOneToOneMatching {
+
+	private static final Logger logger = WinterLogManager.activateLogger("default");
+
+	public static void main(String[] args) {
+		// ten million correspondences require a larger heap than the default
+		int numCorrespondences = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int numRecords = 100000;
+		int numDataSources = 4;
+
+		Random r = new Random(2);
+		Record[] records = new Record[numRecords];
+		for (int i = 0; i < numRecords; i++) {
+			records[i] = new SourceRecord("r" + i, i % numDataSources);
+		}
+		ProcessableCollection<Correspondence<Record, Matchable>> cors = new ProcessableCollection<>();
+		for (int i = 0; i < numCorrespondences; i++) {
+			// few distinct scores to create ties
+			cors.add(new Correspondence<Record, Matchable>(records[r.nextInt(numRecords)],
+					records[r.nextInt(numRecords)], r.nextInt(20) / 20.0));
+		}
+
+		long start = System.currentTimeMillis();
+		int referenceSize = runReference(cors);
+		long referenceTime = System.currentTimeMillis() - start;
+
+		start = System.currentTimeMillis();
+		GreedyOneToOneMatchingAlgorithm<Record, Matchable> greedy = new GreedyOneToOneMatchingAlgorithm<>(cors);
+		greedy.setGroupByLeftDataSource(true);
+		greedy.setGroupByRightDataSource(true);
+		greedy.run();
+		long time = System.currentTimeMillis() - start;
+
+		logger.info(String.format(
+				"Greedy one-to-one matching of %,d correspondences: %d ms (sorted Processables, %,d matches), %d ms (primitive arrays, %,d matches)",
+				numCorrespondences, referenceTime, referenceSize, time, greedy.getResult().size()));
+	}
+
+	/**
+	 * The greedy matching based on sorted Processables and a set of matched
+	 * records
+	 */
+	private static int runReference(Processable<Correspondence<Record, Matchable>> correspondences) {
+		Processable<Group<Pair<Integer, Integer>, Correspondence<Record, Matchable>>> grouped = correspondences
+				.group((record, resultCollector) -> resultCollector.next(new Pair<>(
+						new Pair<>(record.getFirstRecord().getDataSourceIdentifier(),
+								record.getSecondRecord().getDataSourceIdentifier()),
+						record)));
+
+		int matches = 0;
+		for (Group<Pair<Integer, Integer>, Correspondence<Record, Matchable>> group : grouped.get()) {
+			Set<Record> matchedElements = new HashSet<>();
+			for (Correspondence<Record, Matchable> cor : group.getRecords().sort((c) -> c.getSimilarityScore(), false)
+					.get()) {
+				if (!matchedElements.contains(cor.getFirstRecord())
+						&& !matchedElements.contains(cor.getSecondRecord())) {
+					matches++;
+					matchedElements.add(cor.getFirstRecord());
+					matchedElements.add(cor.getSecondRecord());
+				}
+			}
+		}
+		return matches;
+	}
+
+	private static class SourceRecord extends Record {
+
+		private static final long serialVersionUID = 1L;
+		private int dataSource;
+
+		public SourceRecord(String identifier, int dataSource) {
+			super(identifier);
+			this.dataSource = dataSource;
+		}
+
+		@Override
+		public int getDataSourceIdentifier() {
+			return dataSource;
+		}
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.usecase.benchmark;
+
+import java.util.Random;
+
+import org.slf4j.Logger;
+
+import com.wcohen.ss.Levenstein;
+
+import de.uni_mannheim.informatik.dws.winter.similarity.string.LevenshteinSimilarity;
+import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+
+/**
+ * Compares the runtime of {@link LevenshteinSimilarity} with a similarity
+ * threshold to the secondstring implementation, which was used before.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class Benchmark_LevenshteinSimilarity {
+
+	private static final Logger logger = WinterLogManager.activateLogger("default");
+
+	public static void main(String[] args) {
+		int numPairs = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		double threshold = 0.8;
+
+		// random strings over a small alphabet, only every 10th pair is similar
+		String alphabet = "aAbBcCdeE \u00e4\u00c4\u00df\u0130i\u03a3\u03c3";
+		Random r = new Random(1);
+		String[][] pairs = new String[numPairs][];
+		for (int i = 0; i < numPairs; i++) {
+			String s = randomString(r, alphabet, 39) + "a";
+			String t = r.nextInt(10) == 0 ? s.substring(0, s.length() / 2) + randomString(r, alphabet, 3)
+					: randomString(r, alphabet, 40);
+			pairs[i] = new String[] { s, t };
+		}
+
+		Levenstein reference = new Levenstein();
+		LevenshteinSimilarity bounded = new LevenshteinSimilarity(threshold);
+		double checksum = 0.0;
+
+		// warm-up
+		for (String[] p : pairs) {
+			checksum += reference.score(p[0], p[1]) + bounded.calculate(p[0], p[1]);
+		}
+
+		long start = System.nanoTime();
+		for (String[] p : pairs) {
+			checksum += 1 - Math.abs(reference.score(p[0], p[1])) / Math.max(p[0].length(), p[1].length());
+		}
+		long referenceTime = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (String[] p : pairs) {
+			checksum += bounded.calculate(p[0], p[1]);
+		}
+		long boundedTime = System.nanoTime() - start;
+
+		logger.info(String.format("Levenshtein similarity for %d pairs: %d ms (secondstring), %d ms (threshold %.1f) [%f]",
+				numPairs, referenceTime / 1000000, boundedTime / 1000000, threshold, checksum));
+	}
+
+	private static String randomString(Random r, String alphabet, int maxLength) {
+		int length = r.nextInt(maxLength + 1);
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			sb.append(alphabet.charAt(r.nextInt(alphabet.length())));
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.usecase.benchmark;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.jgrapht.WeightedGraph;
+import org.jgrapht.alg.matching.MaximumWeightBipartiteMatching;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+import org.slf4j.Logger;
+
+import de.uni_mannheim.informatik.dws.winter.matching.algorithms.MaximumBipartiteMatchingAlgorithm;
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.model.Pair;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.processing.Group;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import de.uni_mannheim.informatik.dws.winter.processing.ProcessableCollection;
+import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+
+/**
+ * Compares the runtime of the {@link MaximumBipartiteMatchingAlgorithm} to a
+ * maximum weight matching on one jgrapht graph per group of data sources.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class Benchmark_MaximumBipartiteMatching {
+
+	private static final Logger logger = WinterLogManager.activateLogger("default");
+
+	public static void main(String[] args) {
+		int numClusters = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int maxClusterSize = 40;
+		int numDataSources = 2;
+
+		// creates correspondences between the records of clusters, like the
+		// output of a matching rule with blocking
+		Random r = new Random(2);
+		ProcessableCollection<Correspondence<Record, Matchable>> cors = new ProcessableCollection<>();
+		int id = 0;
+		for (int c = 0; c < numClusters; c++) {
+			// most clusters are small
+			int size = 1 + (int) (maxClusterSize * Math.pow(r.nextDouble(), 4));
+			Record[] left = new Record[size];
+			Record[] right = new Record[1 + r.nextInt(size)];
+			for (int i = 0; i < left.length; i++) {
+				left[i] = new SourceRecord("l" + id++, r.nextInt(numDataSources));
+			}
+			for (int i = 0; i < right.length; i++) {
+				right[i] = new SourceRecord("r" + id++, r.nextInt(numDataSources));
+			}
+			for (int i = 0; i < left.length; i++) {
+				for (int j = 0; j < right.length; j++) {
+					if (r.nextInt(3) > 0) {
+						cors.add(new Correspondence<Record, Matchable>(left[i], right[j], r.nextInt(1000) / 1000.0));
+					}
+				}
+			}
+		}
+
+		long start = System.currentTimeMillis();
+		int referenceSize = runReference(cors);
+		long referenceTime = System.currentTimeMillis() - start;
+
+		start = System.currentTimeMillis();
+		MaximumBipartiteMatchingAlgorithm<Record, Matchable> matching = new MaximumBipartiteMatchingAlgorithm<>(cors);
+		matching.setGroupByLeftDataSource(true);
+		matching.setGroupByRightDataSource(true);
+		matching.run();
+		long time = System.currentTimeMillis() - start;
+
+		logger.info(String.format(
+				"Maximum bipartite matching of %,d correspondences: %d ms (jgrapht, %,d matches), %d ms (components, %,d matches)",
+				cors.size(), referenceTime, referenceSize, time, matching.getResult().size()));
+	}
+
+	/**
+	 * The maximum weight matching based on one jgrapht graph per group
+	 */
+	private static int runReference(Processable<Correspondence<Record, Matchable>> correspondences) {
+		Processable<Group<Pair<Integer, Integer>, Correspondence<Record, Matchable>>> grouped = correspondences
+				.group((record, resultCollector) -> resultCollector.next(new Pair<>(
+						new Pair<>(record.getFirstRecord().getDataSourceIdentifier(),
+								record.getSecondRecord().getDataSourceIdentifier()),
+						record)));
+
+		int matches = 0;
+		for (Group<Pair<Integer, Integer>, Correspondence<Record, Matchable>> group : grouped.get()) {
+			WeightedGraph<Matchable, DefaultWeightedEdge> graph = new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+			Set<Matchable> partition1 = new HashSet<>();
+			Set<Matchable> partition2 = new HashSet<>();
+
+			for (Correspondence<Record, Matchable> cor : group.getRecords().get()) {
+				partition1.add(cor.getFirstRecord());
+				partition2.add(cor.getSecondRecord());
+				graph.addVertex(cor.getFirstRecord());
+				graph.addVertex(cor.getSecondRecord());
+				DefaultWeightedEdge edge = graph.addEdge(cor.getFirstRecord(), cor.getSecondRecord());
+				if (edge != null) {
+					graph.setEdgeWeight(edge, (int) (cor.getSimilarityScore() * 1000000));
+				}
+			}
+
+			matches += new MaximumWeightBipartiteMatching<>(graph, partition1, partition2).computeMatching().getEdges()
+					.size();
+		}
+		return matches;
+	}
+
+	private static class SourceRecord extends Record {
+
+		private static final long serialVersionUID = 1L;
+		private int dataSource;
+
+		public SourceRecord(String identifier, int dataSource) {
+			super(identifier);
+			this.dataSource = dataSource;
+		}
+
+		@Override
+		public int getDataSourceIdentifier() {
+			return dataSource;
+		}
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.usecase.benchmark;
+
+import java.util.Random;
+
+import org.slf4j.Logger;
+
+import de.uni_mannheim.informatik.dws.winter.matching.algorithms.RuleLearner;
+import de.uni_mannheim.informatik.dws.winter.matching.rules.WekaMatchingRule;
+import de.uni_mannheim.informatik.dws.winter.model.DataSet;
+import de.uni_mannheim.informatik.dws.winter.model.HashedDataSet;
+import de.uni_mannheim.informatik.dws.winter.model.MatchingGoldStandard;
+import de.uni_mannheim.informatik.dws.winter.model.Pair;
+import de.uni_mannheim.informatik.dws.winter.model.Performance;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.comparators.RecordComparatorEqual;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.comparators.RecordComparatorJaccard;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.comparators.RecordComparatorLevenshtein;
+import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+import de.uni_mannheim.informatik.dws.winter.utils.parallel.Parallel;
+import weka.classifiers.trees.J48;
+
+/**
+ * Compares the runtime of the {@link RuleLearner} with one thread and with at
+ * least four threads.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class Benchmark_RuleLearner {
+
+	private static final Logger logger = WinterLogManager.activateLogger("default");
+
+	private static final Attribute NAME = new Attribute("name");
+	private static final Attribute CITY = new Attribute("city");
+
+	private static final String[] TOKENS = { "john", "jane", "smith", "miller", "anna", "peter", "paul", "mary",
+			"berlin", "mannheim", "hamburg", "munich" };
+
+	public static void main(String[] args) {
+		int numExamples = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+
+		Random r = new Random(1);
+		DataSet<Record, Attribute> ds1 = new HashedDataSet<>();
+		DataSet<Record, Attribute> ds2 = new HashedDataSet<>();
+		MatchingGoldStandard gs = new MatchingGoldStandard();
+
+		for (int i = 0; i < numExamples; i++) {
+			Record a = new Record("a" + i, "ds1");
+			a.setValue(NAME, randomValue(r));
+			a.setValue(CITY, randomValue(r));
+			ds1.add(a);
+
+			Record b = new Record("b" + i, "ds2");
+			if (r.nextBoolean()) {
+				// a (noisy) duplicate
+				b.setValue(NAME, modify(r, a.getValue(NAME)));
+				b.setValue(CITY, r.nextInt(4) == 0 ? randomValue(r) : a.getValue(CITY));
+				gs.addPositiveExample(new Pair<>(a.getIdentifier(), b.getIdentifier()));
+			} else {
+				b.setValue(NAME, randomValue(r));
+				b.setValue(CITY, randomValue(r));
+				gs.addNegativeExample(new Pair<>(a.getIdentifier(), b.getIdentifier()));
+			}
+			ds2.add(b);
+		}
+
+		int numProcessors = Runtime.getRuntime().availableProcessors();
+		int numThreads = Math.max(4, numProcessors);
+		try {
+			Parallel.SetDefaultNumProcessors(1);
+			// warm-up
+			new RuleLearner<Record, Attribute>().learnMatchingRule(ds1, ds2, null, createRule(), gs);
+
+			long start = System.currentTimeMillis();
+			Performance sequential = new RuleLearner<Record, Attribute>().learnMatchingRule(ds1, ds2, null,
+					createRule(), gs);
+			long sequentialTime = System.currentTimeMillis() - start;
+
+			Parallel.SetDefaultNumProcessors(numThreads);
+			start = System.currentTimeMillis();
+			Performance parallel = new RuleLearner<Record, Attribute>().learnMatchingRule(ds1, ds2, null,
+					createRule(), gs);
+			long parallelTime = System.currentTimeMillis() - start;
+
+			logger.info(String.format(
+					"Rule learning with %d examples: %d ms (1 thread, F1 %.4f), %d ms (%d threads, %d processors, F1 %.4f)",
+					numExamples, sequentialTime, sequential.getF1(), parallelTime, numThreads, numProcessors,
+					parallel.getF1()));
+		} finally {
+			Parallel.SetDefaultNumProcessors(numProcessors);
+		}
+	}
+
+	private static WekaMatchingRule<Record, Attribute> createRule() {
+		WekaMatchingRule<Record, Attribute> rule = new WekaMatchingRule<>(0.5);
+		rule.setClassifier(new J48());
+		rule.activateFeatureCache();
+		rule.addComparator(new RecordComparatorLevenshtein(NAME, NAME));
+		rule.addComparator(new RecordComparatorJaccard(NAME, NAME, 0.3, true));
+		rule.addComparator(new RecordComparatorEqual(NAME, NAME));
+		rule.addComparator(new RecordComparatorLevenshtein(CITY, CITY));
+		rule.addComparator(new RecordComparatorJaccard(CITY, CITY, 0.3, true));
+		rule.setForwardSelection(true);
+		return rule;
+	}
+
+	private static String randomValue(Random r) {
+		StringBuilder sb = new StringBuilder();
+		int length = 1 + r.nextInt(3);
+		for (int i = 0; i < length; i++) {
+			if (i > 0) {
+				sb.append(" ");
+			}
+			sb.append(TOKENS[r.nextInt(TOKENS.length)]);
+		}
+		return sb.toString();
+	}
+
+	private static String modify(Random r, String value) {
+		// drop or swap a character
+		int position = r.nextInt(value.length());
+		if (r.nextBoolean()) {
+			return value.substring(0, position) + value.substring(position + 1);
+		} else {
+			return value.substring(0, position) + TOKENS[r.nextInt(TOKENS.length)].charAt(0)
+					+ value.substring(position + 1);
+		}
+	}
+
+}
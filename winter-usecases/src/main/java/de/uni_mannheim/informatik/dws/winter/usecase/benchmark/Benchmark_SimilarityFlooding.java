@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.usecase.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.slf4j.Logger;
+
+import de.uni_mannheim.informatik.dws.winter.matching.algorithms.SimilarityFloodingAlgorithm;
+import de.uni_mannheim.informatik.dws.winter.matching.algorithms.sf.FixpointFormula;
+import de.uni_mannheim.informatik.dws.winter.matching.rules.comparators.Comparator;
+import de.uni_mannheim.informatik.dws.winter.matching.rules.comparators.ComparatorLogger;
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.Matchable;
+import de.uni_mannheim.informatik.dws.winter.preprocessing.datatypes.DataType;
+import de.uni_mannheim.informatik.dws.winter.similarity.string.LevenshteinSimilarity;
+import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+import de.uni_mannheim.informatik.dws.winter.webtables.SFMatchable;
+
+/**
+ * Measures the runtime of the {@link SimilarityFloodingAlgorithm} on two
+ * generated schemas with a fixed number of fixpoint steps.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class Benchmark_SimilarityFlooding {
+
+	private static final Logger logger = WinterLogManager.activateLogger("default");
+
+	public static void main(String[] args) {
+		// schemas with 400 columns each, the fixpoint is calculated for a fixed
+		// number of steps
+		int numColumns = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+		int steps = 10;
+
+		SimilarityFloodingAlgorithm<BenchmarkMatchable, BenchmarkMatchable> sf = new SimilarityFloodingAlgorithm<>(
+				createSchema("a", numColumns, 1), createSchema("b", numColumns, 2), new LabelComparator(),
+				FixpointFormula.C);
+		sf.setEpsilon(0);
+		sf.setMaxSteps(steps);
+
+		long start = System.currentTimeMillis();
+		sf.run();
+		long time = System.currentTimeMillis() - start;
+
+		logger.info(String.format(
+				"Similarity flooding on %d x %d columns (%d nodes and %d edges), %d steps: %d ms, %d correspondences",
+				numColumns, numColumns, sf.getIpg().vertexSet().size(), sf.getIpg().edgeSet().size(), steps, time,
+				sf.getResult().size()));
+	}
+
+	private static List<BenchmarkMatchable> createSchema(String prefix, int numColumns, long seed) {
+		Random random = new Random(seed);
+		DataType[] types = { DataType.string, DataType.numeric, DataType.date, DataType.bool };
+		List<BenchmarkMatchable> columns = new ArrayList<>();
+		for (int i = 0; i < numColumns; i++) {
+			String name = prefix + "col" + random.nextInt(numColumns * 10);
+			columns.add(new BenchmarkMatchable(types[random.nextInt(types.length)], name + "_" + i, name));
+		}
+		return columns;
+	}
+
+	private static class LabelComparator implements Comparator<BenchmarkMatchable, BenchmarkMatchable> {
+
+		private static final long serialVersionUID = 1L;
+		private final LevenshteinSimilarity similarity = new LevenshteinSimilarity();
+		private ComparatorLogger comparisonLog;
+
+		@Override
+		public double compare(BenchmarkMatchable record1, BenchmarkMatchable record2,
+				Correspondence<BenchmarkMatchable, Matchable> schemaCorrespondence) {
+			return similarity.calculate(record1.getValue(), record2.getValue());
+		}
+
+		@Override
+		public ComparatorLogger getComparisonLog() {
+			return comparisonLog;
+		}
+
+		@Override
+		public void setComparisonLog(ComparatorLogger comparatorLog) {
+			this.comparisonLog = comparatorLog;
+		}
+	}
+
+	private static class BenchmarkMatchable extends SFMatchable {
+
+		private final String id;
+		private final String value;
+
+		public BenchmarkMatchable(DataType type, String id, String value) {
+			super(type);
+			this.id = id;
+			this.value = value;
+		}
+
+		public String getValue() {
+			return value;
+		}
+
+		@Override
+		public String getIdentifier() {
+			return id;
+		}
+
+		@Override
+		public String getProvenance() {
+			return null;
+		}
+	}
+
+}
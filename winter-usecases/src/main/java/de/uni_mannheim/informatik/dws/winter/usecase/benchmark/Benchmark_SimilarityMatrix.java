@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.usecase.benchmark;
+
+import java.util.Random;
+
+import org.slf4j.Logger;
+
+import de.uni_mannheim.informatik.dws.winter.matrices.CSRSimilarityMatrixFactory;
+import de.uni_mannheim.informatik.dws.winter.matrices.SimilarityMatrix;
+import de.uni_mannheim.informatik.dws.winter.matrices.SimilarityMatrixFactory;
+import de.uni_mannheim.informatik.dws.winter.matrices.SparseSimilarityMatrixFactory;
+import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+
+/**
+ * Compares the runtime of the sparse and the CSR-backed
+ * {@link SimilarityMatrix} for filling, normalising and pruning a large
+ * matrix.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class Benchmark_SimilarityMatrix {
+
+	private static final Logger logger = WinterLogManager.activateLogger("default");
+
+	public static void main(String[] args) {
+		int numValues = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+
+		long sparseTime = run(new SparseSimilarityMatrixFactory(), numValues);
+		long csrTime = run(new CSRSimilarityMatrixFactory(), numValues);
+
+		logger.info(String.format("Similarity matrix with %d values: %d ms (sparse), %d ms (CSR)", numValues,
+				sparseTime, csrTime));
+	}
+
+	private static long run(SimilarityMatrixFactory factory, int numValues) {
+		Random r = new Random(4);
+		long start = System.currentTimeMillis();
+
+		SimilarityMatrix<String> m = factory.createSimilarityMatrix(0, 0);
+		for (int i = 0; i < numValues; i++) {
+			m.set("r" + r.nextInt(1000), "c" + r.nextInt(1000), r.nextDouble());
+		}
+		m.makeRowStochastic();
+		m.prune(0.001);
+		m.getColSums();
+
+		return System.currentTimeMillis() - start;
+	}
+
+}
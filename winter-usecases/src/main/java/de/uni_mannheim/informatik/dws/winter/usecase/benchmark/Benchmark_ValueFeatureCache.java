@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2017 Data and Web Science Group, University of Mannheim, Germany (http://dws.informatik.uni-mannheim.de/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+package de.uni_mannheim.informatik.dws.winter.usecase.benchmark;
+
+import java.util.Random;
+
+import org.slf4j.Logger;
+
+import de.uni_mannheim.informatik.dws.winter.matching.rules.LinearCombinationMatchingRule;
+import de.uni_mannheim.informatik.dws.winter.matching.rules.comparators.ValueFeatureCache;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Record;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.comparators.RecordComparatorJaccard;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.comparators.RecordComparatorMissingValueJaccard;
+import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+
+/**
+ * Compares the runtime of a matching rule with and without the
+ * {@link ValueFeatureCache}.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class Benchmark_ValueFeatureCache {
+
+	private static final Logger logger = WinterLogManager.activateLogger("default");
+
+	private static final Attribute NAME = new Attribute("name");
+	private static final Attribute CITY = new Attribute("city");
+
+	public static void main(String[] args) throws Exception {
+		int numRecords = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+
+		Random r = new Random(1);
+		Record[] records = new Record[numRecords];
+		for (int i = 0; i < records.length; i++) {
+			records[i] = new Record("r" + i, "benchmark");
+			records[i].setValue(NAME, randomName(r));
+			records[i].setValue(CITY, r.nextInt(10) == 0 ? null : randomName(r));
+		}
+
+		LinearCombinationMatchingRule<Record, Attribute> uncached = new LinearCombinationMatchingRule<>(0.5);
+		uncached.addComparator(new RecordComparatorJaccard(NAME, NAME, 0.2, false), 0.5);
+		uncached.addComparator(new RecordComparatorMissingValueJaccard(CITY, CITY, 0.0, true), 0.5);
+
+		LinearCombinationMatchingRule<Record, Attribute> cached = new LinearCombinationMatchingRule<>(0.5);
+		cached.activateFeatureCache();
+		cached.addComparator(new RecordComparatorJaccard(NAME, NAME, 0.2, false), 0.5);
+		cached.addComparator(new RecordComparatorMissingValueJaccard(CITY, CITY, 0.0, true), 0.5);
+
+		double checksum = 0.0;
+		long start = System.nanoTime();
+		for (int i = 0; i < records.length; i++) {
+			for (int j = 0; j < records.length; j++) {
+				checksum += uncached.apply(records[i], records[j], null).getSimilarityScore();
+			}
+		}
+		long uncachedTime = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i = 0; i < records.length; i++) {
+			for (int j = 0; j < records.length; j++) {
+				checksum -= cached.apply(records[i], records[j], null).getSimilarityScore();
+			}
+		}
+		long cachedTime = System.nanoTime() - start;
+
+		logger.info(String.format("Matching rule for %d pairs: %d ms (uncached), %d ms (cached) [%f]",
+				numRecords * numRecords, uncachedTime / 1000000, cachedTime / 1000000, checksum));
+		cached.getFeatureCache().logStatistics();
+	}
+
+	private static String randomName(Random r) {
+		String[] tokens = { "john", "jane", "smith", "miller", "anna", "berlin", "mannheim", "jr.", "dr.", "m\u00fcller",
+				"Paul", "Peter", "(ed.)", "co", "ltd" };
+		StringBuilder sb = new StringBuilder();
+		int length = 1 + r.nextInt(5);
+		for (int i = 0; i < length; i++) {
+			if (i > 0) {
+				sb.append(" ");
+			}
+			sb.append(tokens[r.nextInt(tokens.length)]);
+		}
+		return sb.toString();
+	}
+
+}
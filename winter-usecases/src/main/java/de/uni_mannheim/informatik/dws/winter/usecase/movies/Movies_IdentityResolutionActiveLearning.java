@@ -0,0 +1,135 @@
+/**
+ *
+ * Copyright (C) 2015 Data and Web Science Group, University of Mannheim, Germany (code@dwslab.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package de.uni_mannheim.informatik.dws.winter.usecase.movies;
+
+import java.io.File;
+
+import org.slf4j.Logger;
+
+import de.uni_mannheim.informatik.dws.winter.matching.MatchingEngine;
+import de.uni_mannheim.informatik.dws.winter.matching.MatchingEvaluator;
+import de.uni_mannheim.informatik.dws.winter.matching.algorithms.ActiveLearner;
+import de.uni_mannheim.informatik.dws.winter.matching.algorithms.GoldStandardOracle;
+import de.uni_mannheim.informatik.dws.winter.matching.algorithms.RuleLearner;
+import de.uni_mannheim.informatik.dws.winter.matching.blockers.GoldStandardBlocker;
+import de.uni_mannheim.informatik.dws.winter.matching.blockers.StandardRecordBlocker;
+import de.uni_mannheim.informatik.dws.winter.matching.rules.WekaMatchingRule;
+import de.uni_mannheim.informatik.dws.winter.model.Correspondence;
+import de.uni_mannheim.informatik.dws.winter.model.HashedDataSet;
+import de.uni_mannheim.informatik.dws.winter.model.MatchingGoldStandard;
+import de.uni_mannheim.informatik.dws.winter.model.Performance;
+import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.processing.Processable;
+import de.uni_mannheim.informatik.dws.winter.usecase.movies.identityresolution.MovieBlockingKeyByDecadeGenerator;
+import de.uni_mannheim.informatik.dws.winter.usecase.movies.identityresolution.MovieDateComparator10Years;
+import de.uni_mannheim.informatik.dws.winter.usecase.movies.identityresolution.MovieDateComparator2Years;
+import de.uni_mannheim.informatik.dws.winter.usecase.movies.identityresolution.MovieDirectorComparatorJaccard;
+import de.uni_mannheim.informatik.dws.winter.usecase.movies.identityresolution.MovieDirectorComparatorLevenshtein;
+import de.uni_mannheim.informatik.dws.winter.usecase.movies.identityresolution.MovieDirectorComparatorLowerCaseJaccard;
+import de.uni_mannheim.informatik.dws.winter.usecase.movies.identityresolution.MovieTitleComparatorEqual;
+import de.uni_mannheim.informatik.dws.winter.usecase.movies.identityresolution.MovieTitleComparatorJaccard;
+import de.uni_mannheim.informatik.dws.winter.usecase.movies.identityresolution.MovieTitleComparatorLevenshtein;
+import de.uni_mannheim.informatik.dws.winter.usecase.movies.model.Movie;
+import de.uni_mannheim.informatik.dws.winter.usecase.movies.model.MovieXMLReader;
+import de.uni_mannheim.informatik.dws.winter.utils.WinterLogManager;
+
+/**
+ * Learns a matching rule for the movie usecase with active learning and
+ * compares it to the rule that is learned from the complete training set.
+ * The examples of the training set are the candidates for active learning and
+ * the training set is used as oracle.
+ *
+ * @author Oliver Lehmberg (oli@dwslab.de)
+ *
+ */
+public class Movies_IdentityResolutionActiveLearning {
+
+	private static final Logger logger = WinterLogManager.activateLogger("default");
+
+	private static WekaMatchingRule<Movie, Attribute> createMatchingRule() {
+		String options[] = new String[] { "" };
+		WekaMatchingRule<Movie, Attribute> matchingRule = new WekaMatchingRule<>(0.5, "J48", options);
+
+		matchingRule.addComparator(new MovieTitleComparatorEqual());
+		matchingRule.addComparator(new MovieDateComparator2Years());
+		matchingRule.addComparator(new MovieDateComparator10Years());
+		matchingRule.addComparator(new MovieDirectorComparatorJaccard());
+		matchingRule.addComparator(new MovieDirectorComparatorLevenshtein());
+		matchingRule.addComparator(new MovieDirectorComparatorLowerCaseJaccard());
+		matchingRule.addComparator(new MovieTitleComparatorLevenshtein());
+		matchingRule.addComparator(new MovieTitleComparatorJaccard());
+
+		return matchingRule;
+	}
+
+	public static void main(String[] args) throws Exception {
+		// loading data
+		HashedDataSet<Movie, Attribute> dataAcademyAwards = new HashedDataSet<>();
+		new MovieXMLReader().loadFromXML(new File("usecase/movie/input/academy_awards.xml"), "/movies/movie",
+				dataAcademyAwards);
+		HashedDataSet<Movie, Attribute> dataActors = new HashedDataSet<>();
+		new MovieXMLReader().loadFromXML(new File("usecase/movie/input/actors.xml"), "/movies/movie", dataActors);
+
+		// load the gold standards
+		MatchingGoldStandard gsTraining = new MatchingGoldStandard();
+		gsTraining.loadFromCSVFile(new File("usecase/movie/goldstandard/gs_academy_awards_2_actors_training.csv"));
+		MatchingGoldStandard gsTest = new MatchingGoldStandard();
+		gsTest.loadFromCSVFile(new File("usecase/movie/goldstandard/gs_academy_awards_2_actors_test.csv"));
+
+		StandardRecordBlocker<Movie, Attribute> blocker = new StandardRecordBlocker<Movie, Attribute>(
+				new MovieBlockingKeyByDecadeGenerator());
+		MatchingEngine<Movie, Attribute> engine = new MatchingEngine<>();
+		MatchingEvaluator<Movie, Attribute> evaluator = new MatchingEvaluator<Movie, Attribute>();
+
+		// learn the matching rule from the complete training set
+		WekaMatchingRule<Movie, Attribute> fullRule = createMatchingRule();
+		new RuleLearner<Movie, Attribute>().learnMatchingRule(dataAcademyAwards, dataActors, null, fullRule,
+				gsTraining);
+		Processable<Correspondence<Movie, Attribute>> correspondences = engine
+				.runIdentityResolution(dataAcademyAwards, dataActors, null, fullRule, blocker);
+		Performance fullPerformance = evaluator.evaluateMatching(correspondences, gsTest);
+
+		// learn the matching rule with active learning
+		WekaMatchingRule<Movie, Attribute> activeRule = createMatchingRule();
+		ActiveLearner<Movie, Attribute> learner = new ActiveLearner<>(activeRule);
+		learner.setSelectionStrategy(ActiveLearner.SelectionStrategy.UNCERTAINTY);
+		learner.setInitialSize(10);
+		learner.setBatchSize(10);
+		learner.setEvaluationGoldStandard(gsTest, engine.runBlocking(dataAcademyAwards, dataActors, null, blocker));
+
+		GoldStandardOracle<Movie> oracle = new GoldStandardOracle<>(gsTraining);
+		MatchingGoldStandard labelled = learner.learnMatchingRule(dataAcademyAwards, dataActors, null,
+				new GoldStandardBlocker<Movie, Attribute, Attribute>(gsTraining), oracle, 10);
+
+		correspondences = engine.runIdentityResolution(dataAcademyAwards, dataActors, null, activeRule, blocker);
+		Performance activePerformance = evaluator.evaluateMatching(correspondences, gsTest);
+
+		// print the evaluation result
+		logger.info("Academy Awards <-> Actors");
+		for (int i = 0; i < learner.getLabelsPerIteration().size(); i++) {
+			logger.info(String.format("Iteration %d: %d labels, F1: %.4f", i, learner.getLabelsPerIteration().get(i),
+					learner.getPerformancePerIteration().get(i).getF1()));
+		}
+		logger.info(String.format("Complete training set: %d labels, F1: %.4f",
+				gsTraining.getPositiveExamples().size() + gsTraining.getNegativeExamples().size(),
+				fullPerformance.getF1()));
+		logger.info(String.format("Active learning: %d labels (%d requested), F1: %.4f",
+				labelled.getPositiveExamples().size() + labelled.getNegativeExamples().size(),
+				oracle.getNumberOfLabels(), activePerformance.getF1()));
+	}
+}
@@ -13,12 +13,20 @@
 package de.uni_mannheim.informatik.dws.winter.datafusion.conflictresolution;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 
+import de.uni_mannheim.informatik.dws.winter.clustering.CentreClusterer;
 import de.uni_mannheim.informatik.dws.winter.datafusion.conflictresolution.ClusteredVote;
 import de.uni_mannheim.informatik.dws.winter.model.FusibleValue;
 import de.uni_mannheim.informatik.dws.winter.model.FusedValue;
+import de.uni_mannheim.informatik.dws.winter.model.Triple;
 import de.uni_mannheim.informatik.dws.winter.model.defaultmodel.Attribute;
+import de.uni_mannheim.informatik.dws.winter.similarity.SimilarityMeasure;
 import de.uni_mannheim.informatik.dws.winter.similarity.string.LevenshteinSimilarity;
 import de.uni_mannheim.informatik.dws.winter.usecase.movies.model.Movie;
 import junit.framework.TestCase;
@@ -53,4 +61,79 @@ public class ClusteredVoteTest extends TestCase {
 				.resolveConflict(cluster1);
 		assertEquals(null, resolvedValue.getValue());
 	}
+
+	/**
+	 * Clusters all values without de-duplication and returns the centroids of all largest clusters
+	 */
+	private Set<String> getCentroidsOfLargestClusters(List<FusibleValue<String, Movie, Attribute>> values,
+			SimilarityMeasure<String> measure, double threshold) {
+		Collection<Triple<FusibleValue<String, Movie, Attribute>, FusibleValue<String, Movie, Attribute>, Double>> similarityGraph = new ArrayList<>();
+		for (int i = 0; i < values.size(); i++) {
+			for (int j = i + 1; j < values.size(); j++) {
+				double similarity = measure.calculate(values.get(i).getValue(), values.get(j).getValue());
+				if (similarity >= threshold) {
+					similarityGraph.add(new Triple<>(values.get(i), values.get(j), similarity));
+				}
+			}
+		}
+
+		Map<Collection<FusibleValue<String, Movie, Attribute>>, FusibleValue<String, Movie, Attribute>> clusters = new CentreClusterer<FusibleValue<String, Movie, Attribute>>()
+				.cluster(similarityGraph);
+
+		int largest = 0;
+		for (Collection<FusibleValue<String, Movie, Attribute>> clu : clusters.keySet()) {
+			largest = Math.max(largest, clu.size());
+		}
+		Set<String> centroids = new HashSet<>();
+		for (Collection<FusibleValue<String, Movie, Attribute>> clu : clusters.keySet()) {
+			if (clu.size() == largest) {
+				centroids.add(clusters.get(clu).getValue());
+			}
+		}
+		return centroids;
+	}
+
+	public void testResolveConflictWithDuplicates() {
+		Random r = new Random(1);
+		String[] words = new String[] { "hello", "hello1", "hallo", "hi", "hi1", "world" };
+		LevenshteinSimilarity measure = new LevenshteinSimilarity();
+
+		for (double threshold : new double[] { 0.0, 0.5, 0.9 }) {
+			ClusteredVote<String, Movie, Attribute> crf = new ClusteredVote<>(measure, threshold);
+
+			for (int iteration = 0; iteration < 500; iteration++) {
+				List<FusibleValue<String, Movie, Attribute>> values = new ArrayList<>();
+				int n = r.nextInt(12);
+				int numWords = 1 + r.nextInt(words.length);
+				for (int i = 0; i < n; i++) {
+					values.add(new FusibleValue<String, Movie, Attribute>(words[r.nextInt(numWords)], null, null));
+				}
+
+				Set<String> expected = getCentroidsOfLargestClusters(values, measure, threshold);
+				String resolved = crf.resolveConflict(values).getValue();
+
+				if (expected.isEmpty()) {
+					assertNull(resolved);
+				} else {
+					assertTrue(expected.contains(resolved));
+				}
+			}
+		}
+	}
+
+	public void testResolveConflictWithTies() {
+		ClusteredVote<String, Movie, Attribute> crf = new ClusteredVote<>(new LevenshteinSimilarity(), 0.9);
+
+		// two clusters of the same size, the cluster whose centre occurs first is selected
+		List<FusibleValue<String, Movie, Attribute>> values = new ArrayList<>();
+		values.add(new FusibleValue<String, Movie, Attribute>("world", null, null));
+		values.add(new FusibleValue<String, Movie, Attribute>("hello", null, null));
+		values.add(new FusibleValue<String, Movie, Attribute>("hello", null, null));
+		values.add(new FusibleValue<String, Movie, Attribute>("world", null, null));
+		assertEquals("world", crf.resolveConflict(values).getValue());
+
+		// one value has the majority
+		values.add(new FusibleValue<String, Movie, Attribute>("hello", null, null));
+		assertEquals("hello", crf.resolveConflict(values).getValue());
+	}
 }